@@ -0,0 +1,147 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.benchmarks;
+
+import org.drombler.iso9660fs.impl.ISOFileSystemProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks many concurrent readers of the files of a single image, each on its own thread. On Java 21 and later the
+ * readers run on virtual threads; on older runtimes they fall back to a pool of platform threads.
+ *
+ * @author puce
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentReadBenchmark {
+
+    private static final int NUM_FILES = 256;
+    private static final long FILE_SIZE = 64 * 1024;
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int NUM_PLATFORM_THREADS = 256;
+
+    @Param({"channel", "mmap", "blockCache"})
+    private String backend;
+
+    @Param({"10000"})
+    private int numReaders;
+
+    private Path imagePath;
+    private FileSystem fileSystem;
+    private List<Path> filePaths;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() throws IOException {
+        ISOImageGenerator imageGenerator = new ISOImageGenerator();
+        for (int i = 0; i < NUM_FILES; i++) {
+            imageGenerator.addFile("/DATA/F" + i + ".DAT", FILE_SIZE);
+        }
+        imagePath = Files.createTempFile("concurrent-read-benchmark", ".iso");
+        imageGenerator.write(imagePath);
+
+        fileSystem = new ISOFileSystemProvider().newFileSystem(URI.create("iso:" + imagePath.toUri()), getEnv());
+        filePaths = new ArrayList<>(NUM_FILES);
+        for (int i = 0; i < NUM_FILES; i++) {
+            filePaths.add(fileSystem.getPath("/DATA/F" + i + ".DAT"));
+        }
+        executor = newExecutor();
+    }
+
+    private Map<String, ?> getEnv() {
+        switch (backend) {
+            case "mmap":
+                return Map.of("mmap", true);
+            case "blockCache":
+                return Map.of("blockCacheSize", 64 * 1024 * 1024);
+            default:
+                return Map.of();
+        }
+    }
+
+    private static ExecutorService newExecutor() {
+        try {
+            // the benchmarks are compiled for Java 11
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newFixedThreadPool(NUM_PLATFORM_THREADS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        fileSystem.close();
+        Files.delete(imagePath);
+    }
+
+    @Benchmark
+    public long read() throws InterruptedException, ExecutionException {
+        List<Future<Long>> results = new ArrayList<>(numReaders);
+        for (int i = 0; i < numReaders; i++) {
+            Path filePath = filePaths.get(i % NUM_FILES);
+            results.add(executor.submit(() -> readFile(filePath)));
+        }
+        long numBytes = 0;
+        for (Future<Long> result : results) {
+            numBytes += result.get();
+        }
+        return numBytes;
+    }
+
+    private static long readFile(Path filePath) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long numBytes = 0;
+        try (SeekableByteChannel byteChannel = Files.newByteChannel(filePath)) {
+            int numReadBytes;
+            while ((numReadBytes = byteChannel.read(buffer)) >= 0) {
+                numBytes += numReadBytes;
+                buffer.clear();
+            }
+        }
+        return numBytes;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.benchmarks;
+
+import org.drombler.iso9660fs.impl.ISOFileSystemProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the read throughput of a large file with the different image backends, both with a byte channel and by
+ * copying the file to the default file system. The byte channel reads are measured with and without readahead.
+ *
+ * @author puce
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContentBenchmark {
+
+    private static final long FILE_SIZE = 256L * 1024 * 1024;
+
+    @Param({"channel", "mmap", "blockCache"})
+    private String backend;
+
+    @Param({"8192", "65536"})
+    private int bufferSize;
+
+    @Param({"0", "4194304"})
+    private int readaheadSize;
+
+    private Path imagePath;
+    private Path targetPath;
+    private FileSystem fileSystem;
+    private Path filePath;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setUp() throws IOException {
+        ISOImageGenerator imageGenerator = new ISOImageGenerator();
+        imageGenerator.addFile("/LARGE.DAT", FILE_SIZE);
+        imagePath = Files.createTempFile("content-benchmark", ".iso");
+        imageGenerator.write(imagePath);
+        targetPath = Files.createTempFile("content-benchmark", ".dat");
+
+        fileSystem = new ISOFileSystemProvider().newFileSystem(URI.create("iso:" + imagePath.toUri()), getEnv());
+        filePath = fileSystem.getPath("/LARGE.DAT");
+        buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    private Map<String, ?> getEnv() {
+        Map<String, Object> env = new HashMap<>();
+        env.put("readaheadSize", readaheadSize);
+        switch (backend) {
+            case "mmap":
+                env.put("mmap", true);
+                break;
+            case "blockCache":
+                env.put("blockCacheSize", 64 * 1024 * 1024);
+                break;
+            default:
+                break;
+        }
+        return env;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fileSystem.close();
+        Files.delete(imagePath);
+        Files.delete(targetPath);
+    }
+
+    @Benchmark
+    public long read(Blackhole blackhole) throws IOException {
+        long numBytes = 0;
+        try (SeekableByteChannel byteChannel = Files.newByteChannel(filePath)) {
+            buffer.clear();
+            int numReadBytes;
+            while ((numReadBytes = byteChannel.read(buffer)) >= 0) {
+                numBytes += numReadBytes;
+                buffer.flip();
+                blackhole.consume(buffer.get(0));
+                buffer.clear();
+            }
+        }
+        return numBytes;
+    }
+
+    @Benchmark
+    public void copy() throws IOException {
+        fileSystem.provider().copy(filePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.benchmarks;
+
+import org.drombler.iso9660fs.ISODirectoryRecord;
+import org.drombler.iso9660fs.ISOImage;
+import org.drombler.iso9660fs.ISOPathTableEntry;
+import org.drombler.iso9660fs.ISOPrimaryVolumeDescriptor;
+import org.drombler.iso9660fs.impl.ISOFileChannelImage;
+import org.drombler.iso9660fs.impl.ISOFileSystem;
+import org.drombler.iso9660fs.impl.ISOFileSystemProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the parsing of a wide directory, both eagerly with {@link ISODirectoryRecord#loadDirectory} and lazily
+ * with a {@link DirectoryStream}.
+ *
+ * @author puce
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DirectoryBenchmark {
+
+    @Param({"1000", "100000"})
+    private int directorySize;
+
+    private Path imagePath;
+    private ISOFileSystem fileSystem;
+    private ISOImage image;
+    private ISOPrimaryVolumeDescriptor primaryVolumeDescriptor;
+    private ISOPathTableEntry pathTableEntry;
+    private Path directoryPath;
+
+    @Setup
+    public void setUp() throws IOException {
+        ISOImageGenerator imageGenerator = new ISOImageGenerator();
+        for (int index = 0; index < directorySize; index++) {
+            imageGenerator.addFile(String.format("/WIDE/F%06d.TXT", index), 100);
+        }
+        imagePath = Files.createTempFile("directory-benchmark", ".iso");
+        imageGenerator.write(imagePath);
+
+        // no directory cache: measure the parsing
+        fileSystem = (ISOFileSystem) new ISOFileSystemProvider().newFileSystem(URI.create("iso:" + imagePath.toUri()),
+                Map.of("directoryCacheSize", 0));
+        image = new ISOFileChannelImage(FileChannel.open(imagePath, StandardOpenOption.READ));
+        primaryVolumeDescriptor = fileSystem.getPrimaryVolumeDescriptor();
+        directoryPath = fileSystem.getPath("/WIDE");
+        pathTableEntry = primaryVolumeDescriptor.lookupPathTable(directoryPath);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        image.close();
+        fileSystem.close();
+        Files.delete(imagePath);
+    }
+
+    @Benchmark
+    public ISODirectoryRecord loadDirectory() throws IOException {
+        ISODirectoryRecord directoryRecord = primaryVolumeDescriptor.loadDirectoryRecord(image, pathTableEntry);
+        directoryRecord.loadDirectory(image, primaryVolumeDescriptor, false);
+        return directoryRecord;
+    }
+
+    @Benchmark
+    public void newDirectoryStream(Blackhole blackhole) throws IOException {
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directoryPath)) {
+            for (Path path : directoryStream) {
+                blackhole.consume(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Generates synthetic ISO 9660 images for the benchmarks.<br>
+ * <br>
+ * The image contains a primary volume descriptor, the type L and type M path tables, the directory extents (in the
+ * order of the path table) and the file data. The file data is filled with a repeating pattern.
+ *
+ * @author puce
+ */
+public class ISOImageGenerator {
+
+    private static final int LOGICAL_BLOCK_SIZE = 2048;
+    private static final int SYSTEM_AREA_NUM_BLOCKS = 16;
+    private static final byte DIRECTORY_FLAG = 2;
+    private static final byte[] RECORDING_DATE_TIME = {120, 1, 1, 12, 0, 0, 0}; // 2020-01-01T12:00Z
+
+    private final Directory rootDirectory = new Directory(null, new byte[]{0});
+
+    /**
+     * Adds a directory and its parent directories (if not added yet).
+     *
+     * @param path the absolute path of the directory, e.g. "/D1/D2"
+     */
+    public void addDirectory(String path) {
+        getDirectory(path);
+    }
+
+    /**
+     * Adds a file and its parent directories (if not added yet).
+     *
+     * @param path the absolute path of the file without a version number, e.g. "/D1/F1.DAT"
+     * @param size the size of the file in bytes
+     */
+    public void addFile(String path, long size) {
+        int separatorIndex = path.lastIndexOf('/');
+        Directory directory = getDirectory(path.substring(0, separatorIndex));
+        directory.files.add(new File(toBytes(path.substring(separatorIndex + 1) + ";1"), size));
+    }
+
+    private Directory getDirectory(String path) {
+        Directory directory = rootDirectory;
+        for (String name : path.split("/")) {
+            if (!name.isEmpty()) {
+                directory = directory.getSubdirectory(toBytes(name));
+            }
+        }
+        return directory;
+    }
+
+    private static byte[] toBytes(String identifier) {
+        return identifier.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Writes the ISO image.
+     *
+     * @param imagePath the path of the ISO image file
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(Path imagePath) throws IOException {
+        // the path table lists the directories in level order, sorted by the parent directory number and identifier
+        List<Directory> directories = new ArrayList<>();
+        directories.add(rootDirectory);
+        for (int index = 0; index < directories.size(); index++) {
+            Directory directory = directories.get(index);
+            directory.number = index + 1;
+            directory.subdirectories.sort(Comparator.comparing(subdirectory -> subdirectory.identifier, Arrays::compare));
+            directory.files.sort(Comparator.comparing(file -> file.identifier, Arrays::compare));
+            directories.addAll(directory.subdirectories);
+        }
+
+        int pathTableSize = 0;
+        for (Directory directory : directories) {
+            pathTableSize += 8 + directory.identifier.length + (directory.identifier.length % 2);
+        }
+        long locationOfTypeLPathTable = SYSTEM_AREA_NUM_BLOCKS + 2;
+        long locationOfTypeMPathTable = locationOfTypeLPathTable + getNumBlocks(pathTableSize);
+        long location = locationOfTypeMPathTable + getNumBlocks(pathTableSize);
+        for (Directory directory : directories) {
+            directory.locationOfExtend = location;
+            directory.dataLength = getNumBlocks(directory.getRecordsLength()) * LOGICAL_BLOCK_SIZE;
+            location += directory.dataLength / LOGICAL_BLOCK_SIZE;
+        }
+        for (Directory directory : directories) {
+            for (File file : directory.files) {
+                file.locationOfExtend = location;
+                location += getNumBlocks(file.size);
+            }
+        }
+        long volumeSpaceSize = location;
+
+        try (FileChannel fileChannel = FileChannel.open(imagePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(fileChannel, SYSTEM_AREA_NUM_BLOCKS, createPrimaryVolumeDescriptor(volumeSpaceSize, pathTableSize,
+                    locationOfTypeLPathTable, locationOfTypeMPathTable));
+            write(fileChannel, SYSTEM_AREA_NUM_BLOCKS + 1, createVolumeDescriptorSetTerminator());
+            write(fileChannel, locationOfTypeLPathTable, createPathTable(directories, pathTableSize, ByteOrder.LITTLE_ENDIAN));
+            write(fileChannel, locationOfTypeMPathTable, createPathTable(directories, pathTableSize, ByteOrder.BIG_ENDIAN));
+            for (Directory directory : directories) {
+                write(fileChannel, directory.locationOfExtend, createDirectoryExtent(directory));
+            }
+            for (Directory directory : directories) {
+                for (File file : directory.files) {
+                    writeFileData(fileChannel, file);
+                }
+            }
+            // pad the image to the volume space size
+            write(fileChannel, volumeSpaceSize - 1, ByteBuffer.allocate(LOGICAL_BLOCK_SIZE));
+        }
+    }
+
+    private static long getNumBlocks(long length) {
+        return (length + LOGICAL_BLOCK_SIZE - 1) / LOGICAL_BLOCK_SIZE;
+    }
+
+    private static void write(FileChannel fileChannel, long location, ByteBuffer byteBuffer) throws IOException {
+        byteBuffer.flip();
+        long position = location * LOGICAL_BLOCK_SIZE;
+        while (byteBuffer.hasRemaining()) {
+            position += fileChannel.write(byteBuffer, position);
+        }
+    }
+
+    private ByteBuffer createPrimaryVolumeDescriptor(long volumeSpaceSize, int pathTableSize,
+            long locationOfTypeLPathTable, long locationOfTypeMPathTable) {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(LOGICAL_BLOCK_SIZE);
+        putVolumeDescriptorHeader(byteBuffer, 1);
+        byteBuffer.put((byte) 0);
+        putString(byteBuffer, "", 32); // system identifier
+        putString(byteBuffer, "BENCHMARK", 32); // volume identifier
+        byteBuffer.put(new byte[8]);
+        putInt32LSBMSB(byteBuffer, volumeSpaceSize);
+        byteBuffer.put(new byte[32]);
+        putInt16LSBMSB(byteBuffer, 1); // volume set size
+        putInt16LSBMSB(byteBuffer, 1); // volume sequence number
+        putInt16LSBMSB(byteBuffer, LOGICAL_BLOCK_SIZE);
+        putInt32LSBMSB(byteBuffer, pathTableSize);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN).putInt((int) locationOfTypeLPathTable);
+        byteBuffer.putInt(0);
+        byteBuffer.order(ByteOrder.BIG_ENDIAN).putInt((int) locationOfTypeMPathTable);
+        byteBuffer.putInt(0);
+        putDirectoryRecord(byteBuffer, rootDirectory.locationOfExtend, rootDirectory.dataLength, DIRECTORY_FLAG, new byte[]{0});
+        putString(byteBuffer, "", 128); // volume set identifier
+        putString(byteBuffer, "", 128); // publisher identifier
+        putString(byteBuffer, "", 128); // data preparer identifier
+        putString(byteBuffer, "", 128); // application identifier
+        putString(byteBuffer, "", 37); // copyright file identifier
+        putString(byteBuffer, "", 37); // abstract file identifier
+        putString(byteBuffer, "", 37); // bibliographic file identifier
+        for (int index = 0; index < 4; index++) { // creation, modification, expiration and effective date and time
+            putString(byteBuffer, "0000000000000000", 16);
+            byteBuffer.put((byte) 0);
+        }
+        byteBuffer.put((byte) 1); // file structure version
+        byteBuffer.position(LOGICAL_BLOCK_SIZE);
+        return byteBuffer;
+    }
+
+    private static ByteBuffer createVolumeDescriptorSetTerminator() {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(LOGICAL_BLOCK_SIZE);
+        putVolumeDescriptorHeader(byteBuffer, 255);
+        byteBuffer.position(LOGICAL_BLOCK_SIZE);
+        return byteBuffer;
+    }
+
+    private static void putVolumeDescriptorHeader(ByteBuffer byteBuffer, int type) {
+        byteBuffer.put((byte) type);
+        byteBuffer.put(toBytes("CD001"));
+        byteBuffer.put((byte) 1);
+    }
+
+    private static ByteBuffer createPathTable(List<Directory> directories, int pathTableSize, ByteOrder byteOrder) {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(pathTableSize).order(byteOrder);
+        for (Directory directory : directories) {
+            byteBuffer.put((byte) directory.identifier.length);
+            byteBuffer.put((byte) 0);
+            byteBuffer.putInt((int) directory.locationOfExtend);
+            byteBuffer.putShort((short) (directory.parent != null ? directory.parent.number : 1));
+            byteBuffer.put(directory.identifier);
+            if (directory.identifier.length % 2 == 1) {
+                byteBuffer.put((byte) 0);
+            }
+        }
+        return byteBuffer;
+    }
+
+    private static ByteBuffer createDirectoryExtent(Directory directory) {
+        ByteBuffer byteBuffer = ByteBuffer.allocate((int) directory.dataLength);
+        Directory parent = directory.parent != null ? directory.parent : directory;
+        putDirectoryRecordInBlock(byteBuffer, directory.locationOfExtend, directory.dataLength, DIRECTORY_FLAG, new byte[]{0});
+        putDirectoryRecordInBlock(byteBuffer, parent.locationOfExtend, parent.dataLength, DIRECTORY_FLAG, new byte[]{1});
+        for (Object child : directory.getChildren()) {
+            if (child instanceof Directory) {
+                Directory subdirectory = (Directory) child;
+                putDirectoryRecordInBlock(byteBuffer, subdirectory.locationOfExtend, subdirectory.dataLength, DIRECTORY_FLAG,
+                        subdirectory.identifier);
+            } else {
+                File file = (File) child;
+                putDirectoryRecordInBlock(byteBuffer, file.locationOfExtend, file.size, (byte) 0, file.identifier);
+            }
+        }
+        byteBuffer.position(byteBuffer.capacity());
+        return byteBuffer;
+    }
+
+    private static byte[] getIdentifier(Object child) {
+        return child instanceof Directory ? ((Directory) child).identifier : ((File) child).identifier;
+    }
+
+    private static void putDirectoryRecordInBlock(ByteBuffer byteBuffer, long locationOfExtend, long dataLength, byte fileFlags,
+            byte[] identifier) {
+        // directory records must not span logical blocks
+        int blockOffset = byteBuffer.position() % LOGICAL_BLOCK_SIZE;
+        if (blockOffset + getDirectoryRecordLength(identifier) > LOGICAL_BLOCK_SIZE) {
+            byteBuffer.position(byteBuffer.position() - blockOffset + LOGICAL_BLOCK_SIZE);
+        }
+        putDirectoryRecord(byteBuffer, locationOfExtend, dataLength, fileFlags, identifier);
+    }
+
+    private static int getDirectoryRecordLength(byte[] identifier) {
+        return 33 + identifier.length + (identifier.length % 2 == 0 ? 1 : 0);
+    }
+
+    private static void putDirectoryRecord(ByteBuffer byteBuffer, long locationOfExtend, long dataLength, byte fileFlags,
+            byte[] identifier) {
+        byteBuffer.put((byte) getDirectoryRecordLength(identifier));
+        byteBuffer.put((byte) 0);
+        putInt32LSBMSB(byteBuffer, locationOfExtend);
+        putInt32LSBMSB(byteBuffer, dataLength);
+        byteBuffer.put(RECORDING_DATE_TIME);
+        byteBuffer.put(fileFlags);
+        byteBuffer.put((byte) 0);
+        byteBuffer.put((byte) 0);
+        putInt16LSBMSB(byteBuffer, 1); // volume sequence number
+        byteBuffer.put((byte) identifier.length);
+        byteBuffer.put(identifier);
+        if (identifier.length % 2 == 0) {
+            byteBuffer.put((byte) 0);
+        }
+    }
+
+    private static void writeFileData(FileChannel fileChannel, File file) throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(64 * 1024);
+        for (int index = 0; index < byteBuffer.capacity(); index++) {
+            byteBuffer.put((byte) index);
+        }
+        long position = file.locationOfExtend * LOGICAL_BLOCK_SIZE;
+        long remaining = file.size;
+        while (remaining > 0) {
+            byteBuffer.clear();
+            byteBuffer.limit((int) Math.min(byteBuffer.capacity(), remaining));
+            while (byteBuffer.hasRemaining()) {
+                int numBytes = fileChannel.write(byteBuffer, position);
+                position += numBytes;
+                remaining -= numBytes;
+            }
+        }
+    }
+
+    private static void putString(ByteBuffer byteBuffer, String string, int length) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) ' ');
+        byte[] stringBytes = toBytes(string);
+        System.arraycopy(stringBytes, 0, bytes, 0, Math.min(length, stringBytes.length));
+        byteBuffer.put(bytes);
+    }
+
+    private static void putInt16LSBMSB(ByteBuffer byteBuffer, int value) {
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN).putShort((short) value);
+        byteBuffer.order(ByteOrder.BIG_ENDIAN).putShort((short) value);
+    }
+
+    private static void putInt32LSBMSB(ByteBuffer byteBuffer, long value) {
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN).putInt((int) value);
+        byteBuffer.order(ByteOrder.BIG_ENDIAN).putInt((int) value);
+    }
+
+    private static class Directory {
+
+        private final Directory parent;
+        private final byte[] identifier;
+        private final List<Directory> subdirectories = new ArrayList<>();
+        private final List<File> files = new ArrayList<>();
+        private int number;
+        private long locationOfExtend;
+        private long dataLength;
+
+        public Directory(Directory parent, byte[] identifier) {
+            this.parent = parent;
+            this.identifier = identifier;
+        }
+
+        public Directory getSubdirectory(byte[] identifier) {
+            for (Directory subdirectory : subdirectories) {
+                if (Arrays.equals(subdirectory.identifier, identifier)) {
+                    return subdirectory;
+                }
+            }
+            Directory subdirectory = new Directory(this, identifier);
+            subdirectories.add(subdirectory);
+            return subdirectory;
+        }
+
+        /**
+         * Gets the subdirectories and files sorted by their identifier, as they are recorded in the directory extent.
+         */
+        public List<Object> getChildren() {
+            List<Object> children = new ArrayList<>(subdirectories);
+            children.addAll(files);
+            children.sort(Comparator.comparing(ISOImageGenerator::getIdentifier, Arrays::compare));
+            return children;
+        }
+
+        public long getRecordsLength() {
+            long length = 0;
+            int blockOffset = 0;
+            List<byte[]> identifiers = new ArrayList<>();
+            identifiers.add(new byte[]{0});
+            identifiers.add(new byte[]{1});
+            getChildren().forEach(child -> identifiers.add(getIdentifier(child)));
+            for (byte[] identifier : identifiers) {
+                int recordLength = getDirectoryRecordLength(identifier);
+                if (blockOffset + recordLength > LOGICAL_BLOCK_SIZE) {
+                    length += LOGICAL_BLOCK_SIZE - blockOffset;
+                    blockOffset = 0;
+                }
+                length += recordLength;
+                blockOffset += recordLength;
+            }
+            return length;
+        }
+    }
+
+    private static class File {
+
+        private final byte[] identifier;
+        private final long size;
+        private long locationOfExtend;
+
+        public File(byte[] identifier, long size) {
+            this.identifier = identifier;
+            this.size = size;
+        }
+    }
+}
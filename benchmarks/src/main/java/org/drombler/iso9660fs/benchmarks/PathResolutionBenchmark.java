@@ -0,0 +1,120 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.benchmarks;
+
+import org.drombler.iso9660fs.ISOPathTableEntry;
+import org.drombler.iso9660fs.impl.ISOFileSystem;
+import org.drombler.iso9660fs.impl.ISOFileSystemProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the path resolution: parsing path strings, path table lookups and reading the attributes of files in a
+ * deep directory tree and in a wide directory.
+ *
+ * @author puce
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathResolutionBenchmark {
+
+    private static final int DEPTH = 32;
+
+    @Param({"1000", "100000"})
+    private int wideDirectorySize;
+
+    @Param({"0", "1024"})
+    private int directoryCacheSize;
+
+    @Param({"false", "true"})
+    private boolean metadataIndex;
+
+    private Path imagePath;
+    private ISOFileSystem fileSystem;
+    private String deepDirectoryPathString;
+    private Path deepDirectoryPath;
+    private Path deepFilePath;
+    private Path wideFilePath;
+
+    @Setup
+    public void setUp() throws IOException {
+        ISOImageGenerator imageGenerator = new ISOImageGenerator();
+        StringBuilder sb = new StringBuilder();
+        for (int level = 1; level <= DEPTH; level++) {
+            sb.append(String.format("/D%02d", level));
+        }
+        deepDirectoryPathString = sb.toString();
+        imageGenerator.addFile(deepDirectoryPathString + "/DEEP.TXT", 100);
+        for (int index = 0; index < wideDirectorySize; index++) {
+            imageGenerator.addFile(String.format("/WIDE/F%06d.TXT", index), 100);
+        }
+        imagePath = Files.createTempFile("path-resolution-benchmark", ".iso");
+        imageGenerator.write(imagePath);
+
+        fileSystem = (ISOFileSystem) new ISOFileSystemProvider().newFileSystem(URI.create("iso:" + imagePath.toUri()),
+                Map.of("directoryCacheSize", directoryCacheSize, "metadataIndex", metadataIndex));
+        deepDirectoryPath = fileSystem.getPath(deepDirectoryPathString);
+        deepFilePath = deepDirectoryPath.resolve("DEEP.TXT");
+        wideFilePath = fileSystem.getPath(String.format("/WIDE/F%06d.TXT", wideDirectorySize / 2));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fileSystem.close();
+        Files.delete(imagePath);
+    }
+
+    @Benchmark
+    public Path getPathDeep() {
+        return fileSystem.getPath(deepDirectoryPathString);
+    }
+
+    @Benchmark
+    public ISOPathTableEntry lookupPathTableDeep() {
+        return fileSystem.getPrimaryVolumeDescriptor().lookupPathTable(deepDirectoryPath);
+    }
+
+    @Benchmark
+    public BasicFileAttributes readAttributesDeepFile() throws IOException {
+        return Files.readAttributes(deepFilePath, BasicFileAttributes.class);
+    }
+
+    @Benchmark
+    public BasicFileAttributes readAttributesWideFile() throws IOException {
+        return Files.readAttributes(wideFilePath, BasicFileAttributes.class);
+    }
+}
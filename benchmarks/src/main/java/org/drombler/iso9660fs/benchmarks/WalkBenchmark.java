@@ -0,0 +1,107 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.benchmarks;
+
+import org.drombler.iso9660fs.impl.ISOFileSystemProvider;
+import org.drombler.iso9660fs.impl.ISOFiles;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks walking a whole tree of directories with {@link Files#walk} and with {@link ISOFiles#walk}, sequentially
+ * and in parallel. The directory cache is disabled, thus every walk parses all directories.
+ *
+ * @author puce
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WalkBenchmark {
+
+    private static final int NUM_FILES_PER_DIRECTORY = 50;
+
+    @Param({"1000"})
+    private int numDirectories;
+
+    private Path imagePath;
+    private FileSystem fileSystem;
+    private Path root;
+
+    @Setup
+    public void setUp() throws IOException {
+        ISOImageGenerator imageGenerator = new ISOImageGenerator();
+        for (int directoryIndex = 0; directoryIndex < numDirectories; directoryIndex++) {
+            String directory = String.format("/D%02d/D%06d", directoryIndex % 32, directoryIndex);
+            for (int fileIndex = 0; fileIndex < NUM_FILES_PER_DIRECTORY; fileIndex++) {
+                imageGenerator.addFile(String.format("%s/F%04d.TXT", directory, fileIndex), 100);
+            }
+        }
+        imagePath = Files.createTempFile("walk-benchmark", ".iso");
+        imageGenerator.write(imagePath);
+
+        fileSystem = new ISOFileSystemProvider().newFileSystem(URI.create("iso:" + imagePath.toUri()),
+                Map.of("directoryCacheSize", 0));
+        root = fileSystem.getPath("/");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fileSystem.close();
+        Files.delete(imagePath);
+    }
+
+    @Benchmark
+    public long filesWalk() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.count();
+        }
+    }
+
+    @Benchmark
+    public long walk() throws IOException {
+        try (Stream<Path> paths = ISOFiles.walk(root)) {
+            return paths.count();
+        }
+    }
+
+    @Benchmark
+    public long walkParallel() throws IOException {
+        try (Stream<Path> paths = ISOFiles.walk(root).parallel()) {
+            return paths.count();
+        }
+    }
+}
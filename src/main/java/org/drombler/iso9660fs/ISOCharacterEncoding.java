@@ -0,0 +1,117 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The encoding of the file and directory identifiers of a volume.
+ *
+ * @author puce
+ */
+public enum ISOCharacterEncoding {
+    /**
+     * One byte per character (d-characters of the primary volume descriptor).
+     */
+    D_CHARACTERS(1) {
+        @Override
+        public String getStringTrimmed(ByteBuffer byteBuffer, int index, int length) {
+            return ISOUtils.getStringDTrimmed(byteBuffer, index, length);
+        }
+
+        @Override
+        public char getChar(ByteBuffer byteBuffer, int index) {
+            return (char) Byte.toUnsignedInt(byteBuffer.get(index));
+        }
+
+        @Override
+        public boolean equalsFileName(ByteBuffer byteBuffer, int index, int length, String fileName) {
+            return ISOUtils.equalsFileName(byteBuffer, index, length, fileName);
+        }
+
+        @Override
+        public void putString(ByteBuffer byteBuffer, String string) {
+            for (int i = 0; i < string.length(); i++) {
+                byteBuffer.put((byte) string.charAt(i));
+            }
+        }
+    },
+
+    /**
+     * UCS-2 big-endian (Joliet supplementary volume descriptors).
+     */
+    UCS_2(2) {
+        @Override
+        public String getStringTrimmed(ByteBuffer byteBuffer, int index, int length) {
+            return ISOUtils.getStringUCS2Trimmed(byteBuffer, index, length);
+        }
+
+        @Override
+        public char getChar(ByteBuffer byteBuffer, int index) {
+            return ISOUtils.getCharUCS2(byteBuffer, index);
+        }
+
+        @Override
+        public boolean equalsFileName(ByteBuffer byteBuffer, int index, int length, String fileName) {
+            return ISOUtils.equalsFileNameUCS2(byteBuffer, index, length, fileName);
+        }
+
+        @Override
+        public void putString(ByteBuffer byteBuffer, String string) {
+            for (int i = 0; i < string.length(); i++) {
+                char c = string.charAt(i);
+                byteBuffer.put((byte) (c >>> 8));
+                byteBuffer.put((byte) c);
+            }
+        }
+    };
+
+    private final int bytesPerChar;
+
+    ISOCharacterEncoding(int bytesPerChar) {
+        this.bytesPerChar = bytesPerChar;
+    }
+
+    /**
+     * @return the number of bytes per character
+     */
+    public int getBytesPerChar() {
+        return bytesPerChar;
+    }
+
+    /**
+     * Decodes the string at the specified absolute index without changing the position of the buffer and removes
+     * leading and trailing whitespace.
+     */
+    public abstract String getStringTrimmed(ByteBuffer byteBuffer, int index, int length);
+
+    /**
+     * Decodes the character at the specified absolute index.
+     */
+    public abstract char getChar(ByteBuffer byteBuffer, int index);
+
+    /**
+     * Checks if the file identifier at the specified absolute index matches the specified file name (ignoring case)
+     * without decoding the file identifier.
+     *
+     * @see ISOUtils#equalsFileName(ByteBuffer, int, int, String)
+     */
+    public abstract boolean equalsFileName(ByteBuffer byteBuffer, int index, int length, String fileName);
+
+    /**
+     * Encodes the specified string at the position of the buffer.
+     */
+    public abstract void putString(ByteBuffer byteBuffer, String string);
+}
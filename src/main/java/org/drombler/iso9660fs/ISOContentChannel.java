@@ -0,0 +1,360 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A read-only channel for the content of a file with adaptive readahead.<br>
+ * <br>
+ * Reads which continue where the previous read ended are detected as sequential. From the second sequential read on,
+ * small reads are served from a readahead window, which is read from the ISO image with a single positional read. The
+ * window doubles with each refill up to the maximum readahead size, and the next window gets filled in the background
+ * while the current one is consumed. A read at any other position disables the readahead again until the reads are
+ * sequential once more.<br>
+ * <br>
+ * The windows are read from the {@link ISOImage#getBulkReadImage() bulk read image} into at most two heap buffers
+ * of the maximum readahead size, which are recycled.
+ *
+ * @author puce
+ */
+/* package-private */ class ISOContentChannel implements SeekableByteChannel {
+
+    /**
+     * The size of the first readahead window.
+     */
+    private static final int MIN_READAHEAD_SIZE = 64 * 1024;
+    private static final int NUM_SEQUENTIAL_READS_THRESHOLD = 2;
+
+    private final ISOImage image;
+    private final ISOImage readaheadImage;
+    private final ISOExtentMap extents;
+    private final int logicalBlockSize;
+    private final int maxReadaheadSize;
+    private final int initialReadaheadSize;
+    private final int bufferCapacity;
+    private final Executor executor;
+    // the lock guards the position and the readahead state during reads; it is not a monitor, thus virtual threads
+    // blocking in a read don't pin their carrier threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long position;
+    private volatile boolean open = true;
+
+    private long nextSequentialPosition = 0;
+    private int numSequentialReads = 0;
+    private int readaheadSize;
+    private Window window;
+    private Prefetch prefetch;
+    // a prefetch which has been abandoned while being filled; its buffer is reused once the prefetch is done
+    private Prefetch abandonedPrefetch;
+    private ByteBuffer spareBuffer;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param image            the ISO image
+     * @param extents          the extents of the file
+     * @param logicalBlockSize the logical block size
+     * @param maxReadaheadSize the maximum size of the readahead window; 0 disables the readahead
+     * @param executor         the executor filling the next readahead window in the background or null to fill the
+     *                         windows on demand only
+     */
+    ISOContentChannel(ISOImage image, ISOExtentMap extents, int logicalBlockSize, int maxReadaheadSize,
+            Executor executor) {
+        this.image = image.newReaderImage();
+        this.readaheadImage = image.getBulkReadImage();
+        this.extents = extents;
+        this.logicalBlockSize = logicalBlockSize;
+        this.maxReadaheadSize = maxReadaheadSize;
+        this.initialReadaheadSize = Math.min(MIN_READAHEAD_SIZE, maxReadaheadSize);
+        this.bufferCapacity = (int) Math.min(maxReadaheadSize, extents.getSize());
+        this.executor = executor;
+        this.readaheadSize = initialReadaheadSize;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        lock.lock();
+        try {
+            checkOpen();
+            int numBytes = read(dst, position);
+            if (numBytes > 0) {
+                position += numBytes;
+            }
+            return numBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int read(ByteBuffer dst, long fileOffset) throws IOException {
+        if (fileOffset >= extents.getSize()) {
+            return -1;
+        }
+        if (maxReadaheadSize <= 0 || !dst.hasRemaining()) {
+            return extents.read(image, logicalBlockSize, dst, fileOffset);
+        }
+        boolean sequential = fileOffset == nextSequentialPosition;
+        numSequentialReads = sequential ? numSequentialReads + 1 : 0;
+        int numBytes;
+        if (window != null && window.contains(fileOffset) || switchToPrefetchedWindow(fileOffset)) {
+            numBytes = window.copyTo(dst, fileOffset);
+        } else {
+            releaseWindow();
+            abandonPrefetch();
+            if (!sequential) {
+                // random access
+                readaheadSize = initialReadaheadSize;
+                numBytes = extents.read(image, logicalBlockSize, dst, fileOffset);
+            } else if (numSequentialReads < NUM_SEQUENTIAL_READS_THRESHOLD || dst.remaining() >= readaheadSize) {
+                numBytes = extents.read(image, logicalBlockSize, dst, fileOffset);
+            } else {
+                window = fillWindow(takeBuffer(), fileOffset, readaheadSize);
+                growReadaheadSize();
+                numBytes = window.copyTo(dst, fileOffset);
+            }
+        }
+        if (numBytes > 0) {
+            nextSequentialPosition = fileOffset + numBytes;
+            if (window != null && sequential) {
+                prefetchNextWindow();
+            }
+        }
+        return numBytes;
+    }
+
+    /**
+     * Makes the prefetched window the current window if it contains the specified file offset. The prefetch is only
+     * waited for if it contains the file offset.
+     */
+    private boolean switchToPrefetchedWindow(long fileOffset) {
+        if (prefetch == null || !prefetch.contains(fileOffset)) {
+            return false;
+        }
+        Prefetch prefetchedWindow = prefetch;
+        prefetch = null;
+        Window nextWindow;
+        try {
+            nextWindow = prefetchedWindow.future.join();
+        } catch (CompletionException | CancellationException ex) {
+            // the read gets retried without readahead
+            spareBuffer = prefetchedWindow.buffer;
+            return false;
+        }
+        releaseWindow();
+        window = nextWindow;
+        return true;
+    }
+
+    /**
+     * Starts to fill the window following the current window in the background once half of the current window has
+     * been consumed.
+     */
+    private void prefetchNextWindow() {
+        long windowEnd = window.fileOffset + window.buffer.limit();
+        if (prefetch != null || executor == null || windowEnd >= extents.getSize()
+                || nextSequentialPosition - window.fileOffset < window.buffer.limit() / 2) {
+            return;
+        }
+        int length = (int) Math.min(readaheadSize, extents.getSize() - windowEnd);
+        ByteBuffer buffer = takeBuffer();
+        CompletableFuture<Window> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return fillWindow(buffer, windowEnd, length);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }, executor);
+        } catch (RuntimeException ex) {
+            // e.g. the executor has been shut down; the next window gets read on demand
+            spareBuffer = buffer;
+            return;
+        }
+        prefetch = new Prefetch(windowEnd, length, buffer, future);
+        growReadaheadSize();
+    }
+
+    private void growReadaheadSize() {
+        readaheadSize = (int) Math.min((long) readaheadSize * 2, maxReadaheadSize);
+    }
+
+    private ByteBuffer takeBuffer() {
+        ByteBuffer buffer = spareBuffer;
+        spareBuffer = null;
+        if (buffer == null && abandonedPrefetch != null && abandonedPrefetch.future.isDone()) {
+            buffer = abandonedPrefetch.buffer;
+            abandonedPrefetch = null;
+        }
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(bufferCapacity);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    private Window fillWindow(ByteBuffer buffer, long fileOffset, int size) throws IOException {
+        long length = Math.min(size, extents.getSize() - fileOffset);
+        buffer.limit((int) length);
+        while (buffer.hasRemaining()) {
+            int numBytes = extents.read(readaheadImage, logicalBlockSize, buffer, fileOffset + buffer.position());
+            if (numBytes <= 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return new Window(buffer, fileOffset);
+    }
+
+    private void releaseWindow() {
+        if (window != null) {
+            spareBuffer = window.buffer;
+            window = null;
+        }
+    }
+
+    /**
+     * Abandons the prefetch without waiting for it. Its buffer gets reused once it is done.
+     */
+    private void abandonPrefetch() {
+        if (prefetch != null) {
+            abandonedPrefetch = prefetch;
+            prefetch = null;
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        checkOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("newPosition must not be negative: " + newPosition);
+        }
+        lock.lock();
+        try {
+            checkOpen();
+            this.position = newPosition;
+            return this;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long size() throws IOException {
+        checkOpen();
+        return extents.getSize();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.open = false;
+        lock.lock();
+        try {
+            // a prefetch still being filled completes in the background and its buffer gets garbage collected
+            window = null;
+            prefetch = null;
+            abandonedPrefetch = null;
+            spareBuffer = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    /**
+     * The readahead data of a range of the file.
+     */
+    private static class Window {
+
+        private final ByteBuffer buffer;
+        private final long fileOffset;
+
+        Window(ByteBuffer buffer, long fileOffset) {
+            this.buffer = buffer;
+            this.fileOffset = fileOffset;
+        }
+
+        boolean contains(long offset) {
+            return offset >= fileOffset && offset < fileOffset + buffer.limit();
+        }
+
+        int copyTo(ByteBuffer dst, long offset) {
+            int windowOffset = (int) (offset - fileOffset);
+            int length = Math.min(dst.remaining(), buffer.limit() - windowOffset);
+            ByteBuffer source = buffer.duplicate();
+            source.position(windowOffset).limit(windowOffset + length);
+            dst.put(source);
+            return length;
+        }
+    }
+
+    /**
+     * A readahead window being filled in the background. Its range is known before it has been filled.
+     */
+    private static class Prefetch {
+
+        private final long fileOffset;
+        private final int length;
+        private final ByteBuffer buffer;
+        private final CompletableFuture<Window> future;
+
+        Prefetch(long fileOffset, int length, ByteBuffer buffer, CompletableFuture<Window> future) {
+            this.fileOffset = fileOffset;
+            this.length = length;
+            this.buffer = buffer;
+            this.future = future;
+        }
+
+        boolean contains(long offset) {
+            return offset >= fileOffset && offset < fileOffset + length;
+        }
+    }
+}
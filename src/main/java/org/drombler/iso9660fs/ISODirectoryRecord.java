@@ -15,273 +15,569 @@
 package org.drombler.iso9660fs;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.ClosedChannelException;
-import java.nio.channels.NonWritableChannelException;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.Executor;
 
 /**
  * @author Florian
  */
 public class ISODirectoryRecord {
 
-    private final short length;
-    private final short extendedAttributeRecordLength;
-    private final long locationOfExtend; // logical block number of the first logical block allocated to the file
-    private final long dataLength;
-    private final ZonedDateTime recordingDateTime;
-    private final Set<ISOFileFlag> fileFlags;
-    private final short interleavedModeFileUnitSize;
-    private final short interleavedModeInterleaveGapSize;
-    private final int volumeSequenceNumber;
-    private final short fileIdentifierLength;
-    private final String fileIdentifier;
-    private final List<ISODirectoryRecord> children = new ArrayList<>();
+    private static final char FILE_VERSION_SEPARATOR = ';';
+    private static final char FILE_EXTENSION_SEPARATOR = '.';
+    /* package-private */ static final int FILE_IDENTIFIER_LENGTH_OFFSET = 32;
+    /* package-private */ static final int FILE_IDENTIFIER_OFFSET = 33;
+
+    private static final int EXTENDED_ATTRIBUTE_RECORD_LENGTH_OFFSET = 1;
+    private static final int LOCATION_OF_EXTEND_OFFSET = 2;
+    private static final int DATA_LENGTH_OFFSET = 10;
+    private static final int RECORDING_DATE_TIME_OFFSET = 18;
+    private static final int RECORDING_DATE_TIME_LENGTH = 7;
+    private static final int FILE_FLAGS_OFFSET = 25;
+    private static final int INTERLEAVED_MODE_FILE_UNIT_SIZE_OFFSET = 26;
+    private static final int INTERLEAVED_MODE_INTERLEAVE_GAP_SIZE_OFFSET = 27;
+    private static final int VOLUME_SEQUENCE_NUMBER_OFFSET = 28;
+
+    // The directory record is a flyweight view of the underlying buffer: the fields are decoded on demand with
+    // absolute indices. Objects are decoded only once and cached; races are benign since the cached objects are
+    // immutable.
+    private final ByteBuffer byteBuffer;
+    private final int index;
+    private final ISOCharacterEncoding characterEncoding;
+    private final ISORockRidge rockRidge;
+    private final ISOExtentMap extentMap;
+    private ZonedDateTime recordingDateTime;
+    private Set<ISOFileFlag> fileFlags;
+    private String fileIdentifier;
+    private String fileName;
+    private volatile List<ISODirectoryRecord> children = Collections.emptyList();
 
+    /**
+     * Creates a new directory record view of the directory record at the position of the specified buffer and moves
+     * the position to the system use area of the directory record. The content of the buffer must not be modified
+     * afterwards.
+     *
+     * @param byteBuffer the buffer containing the directory record
+     */
     public ISODirectoryRecord(ByteBuffer byteBuffer) {
-        this.length = ISOUtils.getUnsignedByte(byteBuffer);
-        this.extendedAttributeRecordLength = ISOUtils.getUnsignedByte(byteBuffer);
-        this.locationOfExtend = ISOUtils.getUnsignedInt32LSBMSB(byteBuffer);
-        this.dataLength = ISOUtils.getUnsignedInt32LSBMSB(byteBuffer);
-        this.recordingDateTime = ISOUtils.getDirectoryDateTime(byteBuffer);
-        this.fileFlags = ISOFileFlag.convertBitSet(byteBuffer.get());
-        this.interleavedModeFileUnitSize = ISOUtils.getUnsignedByte(byteBuffer);
-        this.interleavedModeInterleaveGapSize = ISOUtils.getUnsignedByte(byteBuffer);
-        this.volumeSequenceNumber = ISOUtils.getUnsignedInt16LSBMSB(byteBuffer);
-        this.fileIdentifierLength = ISOUtils.getUnsignedByte(byteBuffer);
-        this.fileIdentifier = ISOUtils.getStringDTrimmed(byteBuffer, fileIdentifierLength);
-
-        if (ISOUtils.isEven(fileIdentifierLength)) {
-            ISOUtils.readUnused(byteBuffer, 1);
-        }
+        this(byteBuffer, ISOCharacterEncoding.D_CHARACTERS);
+    }
+
+    /**
+     * Creates a new directory record view of the directory record at the position of the specified buffer and moves
+     * the position to the system use area of the directory record. The content of the buffer must not be modified
+     * afterwards.
+     *
+     * @param byteBuffer        the buffer containing the directory record
+     * @param characterEncoding the encoding of the file identifier
+     */
+    public ISODirectoryRecord(ByteBuffer byteBuffer, ISOCharacterEncoding characterEncoding) {
+        this(byteBuffer, characterEncoding, null, null);
+    }
+
+    /**
+     * Creates a new directory record view of the directory record at the position of the specified buffer and moves
+     * the position to the system use area of the directory record. The content of the buffer must not be modified
+     * afterwards.
+     *
+     * @param byteBuffer        the buffer containing the directory record
+     * @param characterEncoding the encoding of the file identifier
+     * @param rockRidge         the decoder of the Rock Ridge entries in the system use area or null, if the directory
+     *                          hierarchy has no Rock Ridge extensions
+     */
+    public ISODirectoryRecord(ByteBuffer byteBuffer, ISOCharacterEncoding characterEncoding, ISORockRidge rockRidge) {
+        this(byteBuffer, characterEncoding, rockRidge, null);
     }
 
+    /**
+     * Creates a new directory record view with an already known file name, e.g. from an index.
+     *
+     * @param byteBuffer        the buffer containing the directory record
+     * @param characterEncoding the encoding of the file identifier
+     * @param rockRidge         the decoder of the Rock Ridge entries in the system use area or null, if the directory
+     *                          hierarchy has no Rock Ridge extensions
+     * @param fileName          the file name or null, if it should be decoded on demand
+     */
+    public ISODirectoryRecord(ByteBuffer byteBuffer, ISOCharacterEncoding characterEncoding, ISORockRidge rockRidge, String fileName) {
+        this.byteBuffer = byteBuffer;
+        this.index = byteBuffer.position();
+        this.characterEncoding = characterEncoding;
+        this.rockRidge = rockRidge;
+        this.fileName = fileName;
+        this.extentMap = null;
+        int fileIdentifierLength = getFileIdentifierLength();
+        int paddingLength = ISOUtils.isEven(fileIdentifierLength) ? 1 : 0;
+        ISOUtils.checkUnused(byteBuffer, index + FILE_IDENTIFIER_OFFSET + fileIdentifierLength, paddingLength);
+        byteBuffer.position(index + FILE_IDENTIFIER_OFFSET + fileIdentifierLength + paddingLength);
+    }
+
+    /**
+     * Creates a new view of the specified directory record of the first extent of a file with several extents.
+     *
+     * @param directoryRecord the directory record of the first extent
+     * @param extentMap       the extents of the file
+     */
+    public ISODirectoryRecord(ISODirectoryRecord directoryRecord, ISOExtentMap extentMap) {
+        this.byteBuffer = directoryRecord.byteBuffer;
+        this.index = directoryRecord.index;
+        this.characterEncoding = directoryRecord.characterEncoding;
+        this.rockRidge = directoryRecord.rockRidge;
+        this.fileName = directoryRecord.fileName;
+        this.extentMap = extentMap;
+    }
 
     /**
      * @return the length
      */
     public short getLength() {
-        return length;
+        return ISOUtils.getUnsignedByte(byteBuffer, index);
     }
 
     /**
      * @return the extendedAttributeRecordLength
      */
     public short getExtendedAttributeRecordLength() {
-        return extendedAttributeRecordLength;
+        return ISOUtils.getUnsignedByte(byteBuffer, index + EXTENDED_ATTRIBUTE_RECORD_LENGTH_OFFSET);
     }
 
     /**
+     * The logical block number of the first logical block allocated to the file.
+     *
      * @return the locationOfExtend
      */
     public long getLocationOfExtend() {
-        return locationOfExtend;
+        return ISOUtils.getUnsignedInt32LSBMSB(byteBuffer, index + LOCATION_OF_EXTEND_OFFSET);
     }
 
     /**
+     * The length of the extent of this directory record. See {@link #getSize()} for the size of the file.
+     *
      * @return the dataLength
      */
     public long getDataLength() {
-        return dataLength;
+        return ISOUtils.getUnsignedInt32LSBMSB(byteBuffer, index + DATA_LENGTH_OFFSET);
+    }
+
+    /**
+     * Gets the size of the file: the sum of the lengths of all its extents.
+     *
+     * @return the size of the file
+     */
+    public long getSize() {
+        return extentMap != null ? extentMap.getSize() : getDataLength();
+    }
+
+    /**
+     * Gets the extents of the file. Usually a file has a single extent, but files larger than 4 GiB are recorded with
+     * several extents.
+     *
+     * @return the extents of the file
+     */
+    public ISOExtentMap getExtentMap() {
+        if (extentMap != null) {
+            return extentMap;
+        }
+        return new ISOExtentMap(new long[]{getLocationOfExtend() + getExtendedAttributeRecordLength()}, new long[]{getDataLength()});
+    }
+
+    /**
+     * @return true, if the file is recorded with several extents
+     */
+    public boolean isMultiExtent() {
+        return extentMap != null && extentMap.getNumExtents() > 1;
     }
 
     /**
      * @return the recordingDateTime
      */
     public ZonedDateTime getRecordingDateTime() {
-        return recordingDateTime;
+        ZonedDateTime dateTime = recordingDateTime;
+        if (dateTime == null) {
+            dateTime = ISOUtils.getDirectoryDateTime(byteBuffer, index + RECORDING_DATE_TIME_OFFSET);
+            recordingDateTime = dateTime;
+        }
+        return dateTime;
+    }
+
+    /**
+     * Copies the recorded recording date and time (7 bytes) to the specified buffer without decoding it.
+     *
+     * @param target      the target buffer
+     * @param targetIndex the absolute index in the target buffer
+     */
+    public void copyRecordingDateTime(ByteBuffer target, int targetIndex) {
+        for (int i = 0; i < RECORDING_DATE_TIME_LENGTH; i++) {
+            target.put(targetIndex + i, byteBuffer.get(index + RECORDING_DATE_TIME_OFFSET + i));
+        }
     }
 
     /**
-     * @return the fileFlags
+     * @return the fileFlags (unmodifiable)
      */
     public Set<ISOFileFlag> getFileFlags() {
-        return fileFlags;
+        Set<ISOFileFlag> flags = fileFlags;
+        if (flags == null) {
+            flags = Collections.unmodifiableSet(ISOFileFlag.convertBitSet(byteBuffer.get(index + FILE_FLAGS_OFFSET)));
+            fileFlags = flags;
+        }
+        return flags;
+    }
+
+    /**
+     * @return the file flags as recorded in the directory record
+     */
+    public byte getFileFlagsBitMask() {
+        return byteBuffer.get(index + FILE_FLAGS_OFFSET);
+    }
+
+    /**
+     * Checks if the specified file flag is set without decoding all file flags.
+     *
+     * @param fileFlag a file flag
+     * @return true, if the file flag is set
+     */
+    public boolean isFileFlagSet(ISOFileFlag fileFlag) {
+        return fileFlag.isSet(byteBuffer.get(index + FILE_FLAGS_OFFSET));
+    }
+
+    /**
+     * @return true, if this is the directory record of a directory
+     */
+    public boolean isDirectory() {
+        return isFileFlagSet(ISOFileFlag.DIRECTORY);
     }
 
     /**
      * @return the interleavedModeFileUnitSize
      */
     public short getInterleavedModeFileUnitSize() {
-        return interleavedModeFileUnitSize;
+        return ISOUtils.getUnsignedByte(byteBuffer, index + INTERLEAVED_MODE_FILE_UNIT_SIZE_OFFSET);
     }
 
     /**
      * @return the interleavedModeInterleaveGapSize
      */
     public short getInterleavedModeInterleaveGapSize() {
-        return interleavedModeInterleaveGapSize;
+        return ISOUtils.getUnsignedByte(byteBuffer, index + INTERLEAVED_MODE_INTERLEAVE_GAP_SIZE_OFFSET);
     }
 
     /**
      * @return the volumeSequenceNumber
      */
     public int getVolumeSequenceNumber() {
-        return volumeSequenceNumber;
+        return ISOUtils.getUnsignedInt16LSBMSB(byteBuffer, index + VOLUME_SEQUENCE_NUMBER_OFFSET);
     }
 
     /**
      * @return the fileIdentifierLength
      */
     public short getFileIdentifierLength() {
-        return fileIdentifierLength;
+        return ISOUtils.getUnsignedByte(byteBuffer, index + FILE_IDENTIFIER_LENGTH_OFFSET);
     }
 
     /**
      * @return the fileIdentifier
      */
     public String getFileIdentifier() {
-        return fileIdentifier;
+        String identifier = fileIdentifier;
+        if (identifier == null) {
+            identifier = characterEncoding.getStringTrimmed(byteBuffer, index + FILE_IDENTIFIER_OFFSET, getFileIdentifierLength());
+            fileIdentifier = identifier;
+        }
+        return identifier;
     }
 
-    public List<ISODirectoryRecord> getChildren() {
-        return children;
+    /**
+     * @return the encoding of the file identifier
+     */
+    public ISOCharacterEncoding getCharacterEncoding() {
+        return characterEncoding;
     }
 
-    public void loadDirectory(SeekableByteChannel byteChannel, ISOPrimaryVolumeDescriptor volumeDescriptor, boolean recursive) throws IOException {
-        if (volumeSequenceNumber != volumeDescriptor.getVolumeSequenceNumber()) {
-            throw new IllegalArgumentException(); // TODO: message
-        }
-        ByteBuffer byteBuffer = volumeDescriptor.createByteBuffer(byteChannel, locationOfExtend, dataLength);
-
-        boolean endReached = false;
-        while (byteBuffer.position() < dataLength && !endReached) {
-            int startPosition = byteBuffer.position();
-            Optional<ISODirectoryRecord> directoryDescriptorOptional = loadDirectory(byteBuffer);
-            if (directoryDescriptorOptional.isPresent()) {
-                ISODirectoryRecord directoryDescriptor = directoryDescriptorOptional.get();
-                if (recursive && directoryDescriptor.getFileFlags().contains(ISOFileFlag.DIRECTORY)) {
-                    directoryDescriptor.loadDirectory(byteChannel, volumeDescriptor, recursive);
-                }
-                byteBuffer.position(startPosition + directoryDescriptor.length);
+    /**
+     * Gets the file name: the Rock Ridge alternate name, if any, else the file identifier without the file version
+     * number (e.g. "README.TXT;1" -&gt; "README.TXT", "README.;1" -&gt; "README").
+     *
+     * @return the file name
+     */
+    public String getFileName() {
+        String name = fileName;
+        if (name == null) {
+            if (rockRidge != null && !isSelfOrParentDirectory()) {
+                name = rockRidge.getAlternateName(byteBuffer, getRockRidgeIndex(), getRockRidgeLength());
+            }
+            if (name == null) {
+                name = getFileNameFromIdentifier();
             }
-            endReached = directoryDescriptorOptional.isEmpty();
+            fileName = name;
         }
+        return name;
     }
 
-    private Optional<ISODirectoryRecord> loadDirectory(ByteBuffer byteBuffer) {
-        ISODirectoryRecord directoryDescriptor = new ISODirectoryRecord(byteBuffer);
-        if (directoryDescriptor.length > 0) {
-            children.add(directoryDescriptor);
-            return Optional.of(directoryDescriptor);
-        } else {
-            return Optional.empty();
+    private String getFileNameFromIdentifier() {
+        String fileIdentifier = getFileIdentifier();
+        int versionSeparatorIndex = fileIdentifier.lastIndexOf(FILE_VERSION_SEPARATOR);
+        String fileName = versionSeparatorIndex >= 0 ? fileIdentifier.substring(0, versionSeparatorIndex) : fileIdentifier;
+        if (fileName.length() > 1 && fileName.charAt(fileName.length() - 1) == FILE_EXTENSION_SEPARATOR) {
+            fileName = fileName.substring(0, fileName.length() - 1);
         }
+        return fileName;
     }
 
-    public SeekableByteChannel newByteChannel(SeekableByteChannel byteChannel, ISOPrimaryVolumeDescriptor volumeDescriptor) {
-        return new SeekableByteChannel() {
-            private long position;
-            private boolean open = true;
-            private final Object lock = new Object();
+    /**
+     * @return the absolute index of the system use area in the underlying buffer
+     */
+    public int getSystemUseAreaIndex() {
+        int fileIdentifierLength = getFileIdentifierLength();
+        return index + FILE_IDENTIFIER_OFFSET + fileIdentifierLength + (ISOUtils.isEven(fileIdentifierLength) ? 1 : 0);
+    }
 
-            @Override
-            public int read(ByteBuffer dst) throws IOException {
-                synchronized (lock) {
-                    checkOpen();
-                    return 0; // TODO: implement: read from extend
-                }
-            }
+    /**
+     * @return the length of the system use area
+     */
+    public int getSystemUseAreaLength() {
+        return Math.max(0, index + getLength() - getSystemUseAreaIndex());
+    }
 
-            @Override
-            public int write(ByteBuffer src) throws IOException {
-                throw new NonWritableChannelException();
-            }
+    /**
+     * Copies the system use area to the specified buffer.
+     *
+     * @param target the target buffer
+     */
+    public void copySystemUseArea(ByteBuffer target) {
+        int systemUseAreaIndex = getSystemUseAreaIndex();
+        for (int i = 0; i < getSystemUseAreaLength(); i++) {
+            target.put(byteBuffer.get(systemUseAreaIndex + i));
+        }
+    }
 
-            @Override
-            public long position() throws IOException {
-                synchronized (lock) {
-                    checkOpen();
-                    return position;
-                }
-            }
+    /* package-private */ ByteBuffer getByteBuffer() {
+        return byteBuffer;
+    }
 
-            @Override
-            public SeekableByteChannel position(long newPosition) throws IOException {
-                synchronized (lock) {
-                    checkOpen();
-                    this.position = newPosition;
-                    return this;
-                }
-            }
+    private int getRockRidgeIndex() {
+        return getSystemUseAreaIndex() + Math.min(rockRidge.getSkipLength(), getSystemUseAreaLength());
+    }
 
-            @Override
-            public long size() throws IOException {
-                synchronized (lock) {
-                    checkOpen();
-                    return dataLength;
-                }
-            }
+    private int getRockRidgeLength() {
+        return Math.max(0, getSystemUseAreaLength() - rockRidge.getSkipLength());
+    }
 
-            @Override
-            public SeekableByteChannel truncate(long size) throws IOException {
-                throw new NonWritableChannelException();
-            }
+    /**
+     * @return the decoder of the Rock Ridge entries or null, if the directory hierarchy has no Rock Ridge extensions
+     */
+    public ISORockRidge getRockRidge() {
+        return rockRidge;
+    }
 
-            @Override
-            public boolean isOpen() {
-                synchronized (lock) {
-                    return open;
-                }
-            }
+    /**
+     * Decodes the Rock Ridge POSIX file attributes on demand.
+     *
+     * @return the POSIX file attributes or null, if none are recorded
+     */
+    public ISOPosixAttributes getPosixAttributes() {
+        return rockRidge != null ? rockRidge.getPosixAttributes(byteBuffer, getRockRidgeIndex(), getRockRidgeLength()) : null;
+    }
 
-            @Override
-            public void close() throws IOException {
-                synchronized (lock) {
-                    this.open = false;
-                }
-            }
+    /**
+     * Decodes the Rock Ridge symbolic link target on demand.
+     *
+     * @return the target of the symbolic link or null, if this is not a symbolic link
+     */
+    public String getSymbolicLinkTarget() {
+        return rockRidge != null ? rockRidge.getSymbolicLinkTarget(byteBuffer, getRockRidgeIndex(), getRockRidgeLength()) : null;
+    }
+
+    /**
+     * Decodes the specified Rock Ridge timestamp on demand.
+     *
+     * @param timestampType the type of the timestamp
+     * @return the timestamp or null, if it is not recorded
+     */
+    public ZonedDateTime getRockRidgeTimestamp(ISORockRidgeTimestampType timestampType) {
+        return rockRidge != null ? rockRidge.getTimestamp(byteBuffer, getRockRidgeIndex(), getRockRidgeLength(), timestampType) : null;
+    }
 
-            private void checkOpen() throws ClosedChannelException {
-                if (!isOpen()) {
-                    throw new ClosedChannelException();
+    /**
+     * Checks if this is the directory record of the directory itself (file identifier 0x00) or of its parent directory
+     * (file identifier 0x01).
+     *
+     * @return true, if this is the directory record of the directory itself or of its parent directory
+     */
+    public boolean isSelfOrParentDirectory() {
+        // file identifier 0x00 or 0x01; no need to decode the file identifier
+        return getFileIdentifierLength() == 1 && Byte.toUnsignedInt(byteBuffer.get(index + FILE_IDENTIFIER_OFFSET)) <= 1;
+    }
+
+    public List<ISODirectoryRecord> getChildren() {
+        return children;
+    }
+
+    /**
+     * Loads the directory records of this directory. The loaded directory records replace any previously loaded
+     * children. This method can be called concurrently; the children are published only once they are completely
+     * loaded.
+     *
+     * @param image            the ISO image
+     * @param volumeDescriptor the volume descriptor
+     * @param recursive        if true, the subdirectories get loaded as well
+     * @throws IOException if an I/O error occurs
+     */
+    public void loadDirectory(ISOImage image, ISOPrimaryVolumeDescriptor volumeDescriptor, boolean recursive) throws IOException {
+        List<ISODirectoryRecord> loadedChildren = new ArrayList<>();
+        try {
+            Iterator<ISODirectoryRecord> iterator = directoryRecordIterator(image, volumeDescriptor);
+            while (iterator.hasNext()) {
+                ISODirectoryRecord directoryDescriptor = iterator.next();
+                loadedChildren.add(directoryDescriptor);
+                if (recursive && directoryDescriptor.isDirectory()
+                        && !directoryDescriptor.isSelfOrParentDirectory()) {
+                    directoryDescriptor.loadDirectory(image, volumeDescriptor, recursive);
                 }
             }
-        };
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        this.children = Collections.unmodifiableList(loadedChildren);
+    }
+
+    /**
+     * Creates a new iterator over the directory records of this directory, including the directory records of the
+     * directory itself and of its parent directory. The directory records are read lazily, one logical block at a
+     * time. An {@link IOException} during the iteration is rethrown as an {@link UncheckedIOException}.
+     *
+     * @param image            the ISO image
+     * @param volumeDescriptor the volume descriptor
+     * @return a new iterator over the directory records of this directory
+     */
+    public Iterator<ISODirectoryRecord> directoryRecordIterator(ISOImage image, ISOPrimaryVolumeDescriptor volumeDescriptor) {
+        return newDirectoryRecordIterator(image, volumeDescriptor);
+    }
+
+    private ISODirectoryRecordIterator newDirectoryRecordIterator(ISOImage image, ISOPrimaryVolumeDescriptor volumeDescriptor) {
+        if (getVolumeSequenceNumber() != volumeDescriptor.getVolumeSequenceNumber()) {
+            throw new IllegalArgumentException(); // TODO: message
+        }
+        return new ISODirectoryRecordIterator(image, getLocationOfExtend(), getDataLength(), volumeDescriptor.getLogicalBlockSize(),
+                volumeDescriptor.getCharacterEncoding(), volumeDescriptor.getRockRidge());
     }
 
+    /**
+     * Searches the directory records of this directory for the specified file name (ignoring case). Without Rock Ridge
+     * extensions the file identifiers are compared in place; only the matching directory record gets decoded.
+     *
+     * @param image            the ISO image
+     * @param volumeDescriptor the volume descriptor
+     * @param fileName         the file name without a file version number
+     * @return the matching directory record or null, if there is no such directory record
+     * @throws IOException if an I/O error occurs
+     */
+    public ISODirectoryRecord findChild(ISOImage image, ISOPrimaryVolumeDescriptor volumeDescriptor, String fileName) throws IOException {
+        return newDirectoryRecordIterator(image, volumeDescriptor).find(fileName);
+    }
+
+    /**
+     * Creates a new read-only channel for the content of this file. The content is read with positional reads from the
+     * specified ISO image, thus the ISO image can be shared by many content channels. The channel can seek across the
+     * extents of a file with several extents.
+     *
+     * @param image            the ISO image
+     * @param volumeDescriptor the volume descriptor
+     * @return a new read-only channel for the content of this file
+     */
+    public SeekableByteChannel newByteChannel(ISOImage image, ISOPrimaryVolumeDescriptor volumeDescriptor) {
+        return newByteChannel(image, volumeDescriptor, 0, null);
+    }
+
+    /**
+     * Creates a new read-only channel for the content of this file with adaptive readahead. Small sequential reads are
+     * served from a readahead window, which grows up to the specified maximum size, and the next window gets filled by
+     * the specified executor while the current one is consumed. Reads at random positions disable the readahead.
+     *
+     * @param image            the ISO image
+     * @param volumeDescriptor the volume descriptor
+     * @param maxReadaheadSize the maximum size of the readahead window in bytes; 0 disables the readahead
+     * @param executor         the executor filling the next readahead window in the background or null to fill the
+     *                         readahead windows on demand only
+     * @return a new read-only channel for the content of this file
+     */
+    public SeekableByteChannel newByteChannel(ISOImage image, ISOPrimaryVolumeDescriptor volumeDescriptor,
+            int maxReadaheadSize, Executor executor) {
+        return new ISOContentChannel(image, getExtentMap(), volumeDescriptor.getLogicalBlockSize(), maxReadaheadSize,
+                executor);
+    }
+
+    /**
+     * Transfers the content of this file to the specified channel. If supported by the ISO image, the content is
+     * transferred without copying it through a user-space buffer.
+     *
+     * @param image            the ISO image
+     * @param volumeDescriptor the volume descriptor
+     * @param target           the target channel
+     * @throws IOException if an I/O error occurs or if the ISO image contains too few data
+     * @see ISOImage#transferTo(long, long, WritableByteChannel)
+     */
+    public void transferTo(ISOImage image, ISOPrimaryVolumeDescriptor volumeDescriptor, WritableByteChannel target) throws IOException {
+        ISOExtentMap extents = getExtentMap();
+        for (int extentIndex = 0; extentIndex < extents.getNumExtents(); extentIndex++) {
+            // the data of an extent is recorded after the extended attribute record (if any)
+            long dataLength = extents.getDataLength(extentIndex);
+            long numBytes = image.transferTo(extents.getDataLocation(extentIndex) * volumeDescriptor.getLogicalBlockSize(),
+                    dataLength, target);
+            if (numBytes != dataLength) {
+                throw new IOException("Too few data to transfer: " + numBytes);
+            }
+        }
+    }
 
     @Override
     public int hashCode() {
-        return Objects.hash(length, extendedAttributeRecordLength, locationOfExtend, dataLength, recordingDateTime,
-                fileFlags, interleavedModeFileUnitSize, interleavedModeInterleaveGapSize, volumeSequenceNumber,
-                fileIdentifierLength, fileIdentifier);
+        int hashCode = 1;
+        for (int i = index; i < index + getLength(); i++) {
+            hashCode = 31 * hashCode + byteBuffer.get(i);
+        }
+        return hashCode;
     }
 
+    /**
+     * Two directory records are equal if they consist of the same bytes.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ISODirectoryRecord that = (ISODirectoryRecord) o;
-        return length == that.length &&
-                extendedAttributeRecordLength == that.extendedAttributeRecordLength &&
-                locationOfExtend == that.locationOfExtend &&
-                dataLength == that.dataLength &&
-                interleavedModeFileUnitSize == that.interleavedModeFileUnitSize &&
-                interleavedModeInterleaveGapSize == that.interleavedModeInterleaveGapSize &&
-                volumeSequenceNumber == that.volumeSequenceNumber &&
-                fileIdentifierLength == that.fileIdentifierLength &&
-                recordingDateTime.equals(that.recordingDateTime) &&
-                fileFlags.equals(that.fileFlags) &&
-                fileIdentifier.equals(that.fileIdentifier);
+        int length = getLength();
+        if (length != that.getLength()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (byteBuffer.get(index + i) != that.byteBuffer.get(that.index + i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
 
     @Override
     public String toString() {
         return "ISODirectoryDescriptor{"
-                + "length=" + length
-                + ", extendedAttributeRecordLength=" + extendedAttributeRecordLength
-                + ", locationOfExtend=" + locationOfExtend
-                + ", dataLength=" + dataLength
-                + ", recordingDateTime=" + recordingDateTime
-                + ", fileFlags=" + fileFlags
-                + ", interleavedModeFileUnitSize=" + interleavedModeFileUnitSize
-                + ", interleavedModeInterleaveGapSize=" + interleavedModeInterleaveGapSize
-                + ", volumeSequenceNumber=" + volumeSequenceNumber
-                + ", fileIdentifierLength=" + fileIdentifierLength
-                + ", fileIdentifier=" + fileIdentifier + '}';
+                + "length=" + getLength()
+                + ", extendedAttributeRecordLength=" + getExtendedAttributeRecordLength()
+                + ", locationOfExtend=" + getLocationOfExtend()
+                + ", dataLength=" + getDataLength()
+                + ", recordingDateTime=" + getRecordingDateTime()
+                + ", fileFlags=" + getFileFlags()
+                + ", interleavedModeFileUnitSize=" + getInterleavedModeFileUnitSize()
+                + ", interleavedModeInterleaveGapSize=" + getInterleavedModeInterleaveGapSize()
+                + ", volumeSequenceNumber=" + getVolumeSequenceNumber()
+                + ", fileIdentifierLength=" + getFileIdentifierLength()
+                + ", fileIdentifier=" + getFileIdentifier() + '}';
     }
 }
@@ -0,0 +1,198 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates lazily over the directory records of a directory extent. The extent is read one logical block at a time as
+ * the iterator advances. Directory records never span logical blocks; a length of 0 marks the padding at the end of
+ * a logical block. The directory records of the extents of a file with several extents are coalesced into a single
+ * directory record.
+ *
+ * @author puce
+ */
+/* package-private */ class ISODirectoryRecordIterator implements Iterator<ISODirectoryRecord> {
+
+    private static final int MIN_DIRECTORY_RECORD_LENGTH = 34;
+    private static final int MAX_NUM_EXTENTS = 65536;
+
+    private final ISOImage image;
+    private final long extentPosition;
+    private final long dataLength;
+    private final int logicalBlockSize;
+    private final ISOCharacterEncoding characterEncoding;
+    private final ISORockRidge rockRidge;
+    private long blockOffset;
+    private ByteBuffer block;
+    private ISODirectoryRecord next;
+
+    public ISODirectoryRecordIterator(ISOImage image, long locationOfExtend, long dataLength, int logicalBlockSize) {
+        this(image, locationOfExtend, dataLength, logicalBlockSize, ISOCharacterEncoding.D_CHARACTERS);
+    }
+
+    public ISODirectoryRecordIterator(ISOImage image, long locationOfExtend, long dataLength, int logicalBlockSize,
+                                      ISOCharacterEncoding characterEncoding) {
+        this(image, locationOfExtend, dataLength, logicalBlockSize, characterEncoding, null);
+    }
+
+    public ISODirectoryRecordIterator(ISOImage image, long locationOfExtend, long dataLength, int logicalBlockSize,
+                                      ISOCharacterEncoding characterEncoding, ISORockRidge rockRidge) {
+        this.image = image;
+        this.characterEncoding = characterEncoding;
+        this.rockRidge = rockRidge;
+        this.extentPosition = locationOfExtend * logicalBlockSize;
+        this.dataLength = dataLength;
+        this.logicalBlockSize = logicalBlockSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readNext();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public ISODirectoryRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ISODirectoryRecord directoryRecord = next;
+        next = null;
+        return directoryRecord;
+    }
+
+    /**
+     * Searches the remaining directory records for the specified file name. Without Rock Ridge extensions the file
+     * identifiers are matched ignoring case and only the matching directory record gets decoded; else the POSIX
+     * alternate names are decoded and matched case-sensitively.
+     *
+     * @param fileName the file name without a file version number
+     * @return the matching directory record or null, if there is no such directory record
+     * @throws IOException if an I/O error occurs
+     */
+    public ISODirectoryRecord find(String fileName) throws IOException {
+        if (next != null) {
+            ISODirectoryRecord directoryRecord = next;
+            next = null;
+            if (matchesFileName(directoryRecord, fileName)) {
+                return directoryRecord;
+            }
+        }
+        if (rockRidge != null) {
+            try {
+                while (hasNext()) {
+                    ISODirectoryRecord directoryRecord = next();
+                    if (!directoryRecord.isSelfOrParentDirectory() && matchesFileName(directoryRecord, fileName)) {
+                        return directoryRecord;
+                    }
+                }
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            return null;
+        }
+        while (nextRecord()) {
+            int startPosition = block.position();
+            int fileIdentifierLength = ISOUtils.getUnsignedByte(block, startPosition + ISODirectoryRecord.FILE_IDENTIFIER_LENGTH_OFFSET);
+            if (characterEncoding.equalsFileName(block, startPosition + ISODirectoryRecord.FILE_IDENTIFIER_OFFSET, fileIdentifierLength, fileName)) {
+                return readRecord();
+            }
+            block.position(startPosition + ISOUtils.getUnsignedByte(block, startPosition));
+        }
+        return null;
+    }
+
+    private boolean matchesFileName(ISODirectoryRecord directoryRecord, String fileName) {
+        return rockRidge != null
+                ? directoryRecord.getFileName().equals(fileName)
+                : directoryRecord.getFileName().equalsIgnoreCase(fileName);
+    }
+
+    private ISODirectoryRecord readNext() throws IOException {
+        return nextRecord() ? readRecord() : null;
+    }
+
+    /**
+     * Reads the directory record at the current position and, if the file has several extents, the directory records
+     * of the following extents.
+     */
+    private ISODirectoryRecord readRecord() throws IOException {
+        ISODirectoryRecord directoryRecord = readSingleRecord();
+        if (!directoryRecord.isFileFlagSet(ISOFileFlag.NOT_FINAL_DIRECTORY_RECORD)) {
+            return directoryRecord;
+        }
+        List<ISODirectoryRecord> extents = new ArrayList<>();
+        extents.add(directoryRecord);
+        ISODirectoryRecord extent = directoryRecord;
+        while (extent.isFileFlagSet(ISOFileFlag.NOT_FINAL_DIRECTORY_RECORD)) {
+            if (extents.size() == MAX_NUM_EXTENTS || !nextRecord()) {
+                throw new IOException("Missing final directory record of file: " + directoryRecord.getFileIdentifier());
+            }
+            extent = readSingleRecord();
+            extents.add(extent);
+        }
+        return new ISODirectoryRecord(directoryRecord, ISOExtentMap.of(extents));
+    }
+
+    private ISODirectoryRecord readSingleRecord() {
+        int startPosition = block.position();
+        ISODirectoryRecord directoryRecord = new ISODirectoryRecord(block, characterEncoding, rockRidge);
+        block.position(startPosition + directoryRecord.getLength());
+        return directoryRecord;
+    }
+
+    /**
+     * Moves to the start of the next directory record, reading the next logical block if required.
+     *
+     * @return true, if there is a next directory record
+     */
+    private boolean nextRecord() throws IOException {
+        while (true) {
+            if (block == null || !block.hasRemaining() || ISOUtils.getUnsignedByte(block, block.position()) == 0) {
+                // end of the logical block (padding) reached
+                if (block != null) {
+                    blockOffset += logicalBlockSize;
+                }
+                if (blockOffset >= dataLength) {
+                    return false;
+                }
+                block = image.read(extentPosition + blockOffset, (int) Math.min(logicalBlockSize, dataLength - blockOffset));
+            } else {
+                int startPosition = block.position();
+                int length = ISOUtils.getUnsignedByte(block, startPosition);
+                if (length < MIN_DIRECTORY_RECORD_LENGTH || length > block.remaining()
+                        || ISODirectoryRecord.FILE_IDENTIFIER_OFFSET + ISOUtils.getUnsignedByte(block,
+                        startPosition + ISODirectoryRecord.FILE_IDENTIFIER_LENGTH_OFFSET) > length) {
+                    throw new IOException("Malformed directory record at position " + (extentPosition + blockOffset + startPosition)
+                            + " with length: " + length);
+                }
+                return true;
+            }
+        }
+    }
+}
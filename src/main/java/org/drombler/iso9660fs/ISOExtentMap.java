@@ -0,0 +1,169 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * The extents of a file. Files larger than 4 GiB (ISO 9660 interchange level 3) are recorded with several directory
+ * records, one per extent; all but the last directory record have the
+ * {@link ISOFileFlag#NOT_FINAL_DIRECTORY_RECORD} flag set.<br>
+ * <br>
+ * The file offsets of the extents are precomputed, thus the extent containing a file offset is found with a binary
+ * search.
+ *
+ * @author puce
+ */
+public class ISOExtentMap {
+
+    private final long[] dataLocations;
+    private final long[] dataLengths;
+    private final long[] fileOffsets;
+    private final long size;
+
+    /**
+     * Creates a new extent map.
+     *
+     * @param dataLocations the logical block numbers of the data of the extents (after the extended attribute records,
+     *                      if any)
+     * @param dataLengths   the lengths of the extents
+     */
+    public ISOExtentMap(long[] dataLocations, long[] dataLengths) {
+        if (dataLocations.length != dataLengths.length || dataLocations.length == 0) {
+            throw new IllegalArgumentException("dataLocations and dataLengths must have the same, non-zero length!");
+        }
+        this.dataLocations = dataLocations.clone();
+        this.dataLengths = dataLengths.clone();
+        this.fileOffsets = new long[dataLengths.length];
+        long fileOffset = 0;
+        for (int i = 0; i < dataLengths.length; i++) {
+            fileOffsets[i] = fileOffset;
+            fileOffset += dataLengths[i];
+        }
+        this.size = fileOffset;
+    }
+
+    /**
+     * Creates a new extent map from the directory records of the extents of a file.
+     *
+     * @param directoryRecords the directory records of the extents in the recorded order
+     * @return the extent map
+     */
+    public static ISOExtentMap of(List<ISODirectoryRecord> directoryRecords) {
+        long[] dataLocations = new long[directoryRecords.size()];
+        long[] dataLengths = new long[directoryRecords.size()];
+        for (int i = 0; i < directoryRecords.size(); i++) {
+            ISODirectoryRecord directoryRecord = directoryRecords.get(i);
+            dataLocations[i] = directoryRecord.getLocationOfExtend() + directoryRecord.getExtendedAttributeRecordLength();
+            dataLengths[i] = directoryRecord.getDataLength();
+        }
+        return new ISOExtentMap(dataLocations, dataLengths);
+    }
+
+    /**
+     * @return the number of extents
+     */
+    public int getNumExtents() {
+        return dataLocations.length;
+    }
+
+    /**
+     * @return the size of the file (the sum of the lengths of the extents)
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @param extentIndex the index of an extent
+     * @return the logical block number of the data of the extent
+     */
+    public long getDataLocation(int extentIndex) {
+        return dataLocations[extentIndex];
+    }
+
+    /**
+     * @param extentIndex the index of an extent
+     * @return the length of the extent
+     */
+    public long getDataLength(int extentIndex) {
+        return dataLengths[extentIndex];
+    }
+
+    /**
+     * @param extentIndex the index of an extent
+     * @return the offset of the first byte of the extent in the file
+     */
+    public long getFileOffset(int extentIndex) {
+        return fileOffsets[extentIndex];
+    }
+
+    /**
+     * Finds the extent containing the specified file offset in O(log n).
+     *
+     * @param fileOffset an offset in the file
+     * @return the index of the extent or -1, if the offset is not within the file
+     */
+    public int findExtent(long fileOffset) {
+        if (fileOffset < 0 || fileOffset >= size) {
+            return -1;
+        }
+        // the last extent starting at or before the offset; skips empty extents
+        int low = 0;
+        int high = fileOffsets.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (fileOffsets[middle] <= fileOffset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Reads a sequence of bytes of the file from the specified ISO image into the specified buffer, starting at the
+     * specified file offset. Reads at most to the end of the extent containing the file offset.
+     *
+     * @param image            the ISO image
+     * @param logicalBlockSize the logical block size
+     * @param dst              the buffer into which bytes are to be transferred
+     * @param fileOffset       the offset in the file at which the transfer is to begin
+     * @return the number of bytes read, possibly zero, or -1 if the file offset is greater than or equal to the size of
+     * the file
+     * @throws IOException if an I/O error occurs
+     */
+    public int read(ISOImage image, int logicalBlockSize, ByteBuffer dst, long fileOffset) throws IOException {
+        int extentIndex = findExtent(fileOffset);
+        if (extentIndex < 0) {
+            return fileOffset >= size ? -1 : 0;
+        }
+        long extentOffset = fileOffset - fileOffsets[extentIndex];
+        int length = (int) Math.min(dst.remaining(), dataLengths[extentIndex] - extentOffset);
+        if (length == 0) {
+            return 0;
+        }
+        int limit = dst.limit();
+        dst.limit(dst.position() + length);
+        try {
+            return image.read(dst, dataLocations[extentIndex] * logicalBlockSize + extentOffset);
+        } finally {
+            dst.limit(limit);
+        }
+    }
+}
@@ -52,6 +52,16 @@ public enum ISOFileFlag {
         return TYPES.get(bit);
     }
 
+    /**
+     * Checks if this flag is set in the specified bit mask.
+     *
+     * @param bitMask the bit mask
+     * @return true, if this flag is set
+     */
+    public boolean isSet(byte bitMask) {
+        return (bitMask & bit) == bit;
+    }
+
     public static Set<ISOFileFlag> convertBitSet(byte bitMask) {
         Set<ISOFileFlag> fileFlags = EnumSet.noneOf(ISOFileFlag.class);
         for (ISOFileFlag flag : values()) {
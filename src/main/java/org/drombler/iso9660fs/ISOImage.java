@@ -0,0 +1,110 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The data of an ISO 9660 image file. All reads are positional reads, thus an ISO image can be shared by many readers.
+ *
+ * @author puce
+ */
+public interface ISOImage extends Closeable {
+
+    /**
+     * Gets the size of the ISO image in bytes.
+     *
+     * @return the size of the ISO image
+     * @throws IOException if an I/O error occurs
+     */
+    long size() throws IOException;
+
+    /**
+     * Reads the specified data of the ISO image. The returned buffer might be a read-only view of the underlying data
+     * and must not be modified.
+     *
+     * @param position the position of the data in the ISO image
+     * @param length   the length of the data
+     * @return a buffer with position 0 and limit length containing the data
+     * @throws IOException if an I/O error occurs or if the ISO image contains too few data
+     */
+    ByteBuffer read(long position, int length) throws IOException;
+
+    /**
+     * Reads a sequence of bytes from the ISO image into the specified buffer, starting at the specified position.
+     *
+     * @param dst      the buffer into which bytes are to be transferred
+     * @param position the position in the ISO image at which the transfer is to begin
+     * @return the number of bytes read, possibly zero, or -1 if the given position is greater than or equal to the
+     * size of the ISO image
+     * @throws IOException if an I/O error occurs
+     */
+    int read(ByteBuffer dst, long position) throws IOException;
+
+    /**
+     * Transfers bytes from the ISO image to the specified channel, starting at the specified position. Implementations
+     * should override this method if they can transfer the data without copying it through an intermediate buffer.
+     *
+     * @param position the position in the ISO image at which the transfer is to begin
+     * @param count    the number of bytes to transfer
+     * @param target   the target channel
+     * @return the number of bytes transferred, which is less than count only if the end of the ISO image is reached
+     * @throws IOException if an I/O error occurs
+     */
+    default long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.allocate((int) Math.min(count, 64 * 1024));
+        long numTransferredBytes = 0;
+        while (numTransferredBytes < count) {
+            byteBuffer.clear();
+            byteBuffer.limit((int) Math.min(byteBuffer.capacity(), count - numTransferredBytes));
+            int numBytes = read(byteBuffer, position + numTransferredBytes);
+            if (numBytes < 0) {
+                break;
+            }
+            byteBuffer.flip();
+            while (byteBuffer.hasRemaining()) {
+                target.write(byteBuffer);
+            }
+            numTransferredBytes += numBytes;
+        }
+        return numTransferredBytes;
+    }
+
+    /**
+     * Gets the ISO image to read bulk file content from, e.g. the readahead windows of the content channels.
+     * Implementations caching blocks should return the underlying image: the bulk reads would evict the cached blocks
+     * without being read again.
+     *
+     * @return the ISO image for bulk reads of file content
+     */
+    default ISOImage getBulkReadImage() {
+        return this;
+    }
+
+    /**
+     * Creates a view of the ISO image for a single reader, e.g. a content channel. Implementations caching blocks can
+     * track the reads of the reader: a block read again by the directly following read of the same reader, e.g. by a
+     * sequential scan with reads smaller than a block, is not reused. The view must not be used by several threads
+     * concurrently. Closing the view doesn't close the ISO image.
+     *
+     * @return a view of the ISO image for a single reader
+     */
+    default ISOImage newReaderImage() {
+        return this;
+    }
+}
@@ -1,23 +1,48 @@
 package org.drombler.iso9660fs;
 
-import org.drombler.iso9660fs.impl.PathReverseIterator;
-
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-import static org.drombler.iso9660fs.impl.ISOPath.checkISOPath;
+import static org.drombler.iso9660fs.impl.ISOPath.toISOPath;
 
 public class ISOPathTable {
 
+    private static final int ROOT_DIRECTORY_NUMBER = 1;
+
+    private static final int NO_DIRECTORY_NUMBER = 0;
+
     private final ISOEncodingType encodingType;
-    private final List<ISOPathTableEntry> pathTableEntries = new ArrayList<>();
+    private final List<ISOPathTableEntry> pathTableEntries;
+    // open addressing hash table: (parent directory number, case-folded directory identifier) -> directory number
+    private final int[] directoryNumberIndex;
+    private final int directoryNumberIndexMask;
 
     public ISOPathTable(ISOEncodingType encodingType, ByteBuffer byteBuffer) {
+        this(encodingType, ISOCharacterEncoding.D_CHARACTERS, byteBuffer);
+    }
+
+    public ISOPathTable(ISOEncodingType encodingType, ISOCharacterEncoding characterEncoding, ByteBuffer byteBuffer) {
         this.encodingType = encodingType;
+        List<ISOPathTableEntry> pathTableEntries = new ArrayList<>();
         while (byteBuffer.remaining() > 0) {
-            pathTableEntries.add(new ISOPathTableEntry(encodingType, byteBuffer));
+            pathTableEntries.add(new ISOPathTableEntry(encodingType, characterEncoding, byteBuffer));
+        }
+        this.pathTableEntries = Collections.unmodifiableList(pathTableEntries);
+
+        int indexSize = Integer.highestOneBit(Math.max(1, pathTableEntries.size()) * 2 - 1) * 2;
+        this.directoryNumberIndex = new int[indexSize];
+        this.directoryNumberIndexMask = indexSize - 1;
+        // the root directory has no name and is not indexed
+        for (int directoryNumber = ROOT_DIRECTORY_NUMBER + 1; directoryNumber <= pathTableEntries.size(); directoryNumber++) {
+            ISOPathTableEntry pathTableEntry = getPathTableEntry(directoryNumber);
+            int slot = hash(pathTableEntry.getParentDirectoryNumber(), pathTableEntry.getDirectoryIdentifier()) & directoryNumberIndexMask;
+            while (directoryNumberIndex[slot] != NO_DIRECTORY_NUMBER) {
+                slot = (slot + 1) & directoryNumberIndexMask;
+            }
+            directoryNumberIndex[slot] = directoryNumber;
         }
     }
 
@@ -36,32 +61,51 @@ public class ISOPathTable {
                 '}';
     }
 
+    /**
+     * Looks up the path table entry of the specified directory path. The path is resolved with one hash probe per
+     * name element, walking its names once.
+     *
+     * @param path an absolute path
+     * @return the path table entry or null, if there is no such directory
+     */
     /*package-private*/ ISOPathTableEntry lookup(Path path) {
-        checkISOPath(path);
-        for (PathReverseIterator iterator = new PathReverseIterator(path); iterator.hasNext(); ) {
-            Path pathPart = iterator.next();
-            return pathTableEntries.stream()
-                    .filter(isoPathTableEntry -> matchesFileName(isoPathTableEntry, pathPart))
-                    .filter(isoPathTableEntry -> matchesPath(isoPathTableEntry, iterator))
-                    .findFirst()
-                    .orElse(null);
+        String[] fileNames = toISOPath(path).getFileNames();
+        if (pathTableEntries.isEmpty()) {
+            return null;
+        }
+        int directoryNumber = ROOT_DIRECTORY_NUMBER;
+        for (int index = 0; index < fileNames.length && directoryNumber != NO_DIRECTORY_NUMBER; index++) {
+            directoryNumber = lookupDirectoryNumber(directoryNumber, fileNames[index]);
         }
-        return null;
+        return directoryNumber != NO_DIRECTORY_NUMBER ? getPathTableEntry(directoryNumber) : null;
     }
 
-    private boolean matchesPath(ISOPathTableEntry isoPathTableEntry, PathReverseIterator iterator) {
-        boolean matches = true;
-        while (isoPathTableEntry.getParentDirectoryNumber() >= 0 && iterator.hasNext()) {
-            Path parent = iterator.next();
-            matches = matches && matchesFileName(pathTableEntries.get(isoPathTableEntry.getParentDirectoryNumber()), parent);
-            if (!matches) {
-                break;
+    private int lookupDirectoryNumber(int parentDirectoryNumber, String directoryIdentifier) {
+        int slot = hash(parentDirectoryNumber, directoryIdentifier) & directoryNumberIndexMask;
+        int directoryNumber;
+        while ((directoryNumber = directoryNumberIndex[slot]) != NO_DIRECTORY_NUMBER) {
+            ISOPathTableEntry pathTableEntry = getPathTableEntry(directoryNumber);
+            if (pathTableEntry.getParentDirectoryNumber() == parentDirectoryNumber
+                    && pathTableEntry.getDirectoryIdentifier().equalsIgnoreCase(directoryIdentifier)) {
+                return directoryNumber;
             }
+            slot = (slot + 1) & directoryNumberIndexMask;
+        }
+        return NO_DIRECTORY_NUMBER;
+    }
+
+    // case-insensitive hash code consistent with String.equalsIgnoreCase; doesn't allocate
+    private static int hash(int parentDirectoryNumber, String directoryIdentifier) {
+        int hash = parentDirectoryNumber;
+        for (int index = 0; index < directoryIdentifier.length(); index++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(directoryIdentifier.charAt(index)));
         }
-        return isoPathTableEntry.getParentDirectoryNumber() < 0 && !iterator.hasNext() && matches;
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
     }
 
-    private boolean matchesFileName(ISOPathTableEntry isoPathTableEntry, Path path) {
-        return isoPathTableEntry.getDirectoryIdentifier().equals(path.getFileName().toString());
+    // directory numbers are 1-based; the root directory is the first entry and is its own parent
+    private ISOPathTableEntry getPathTableEntry(int directoryNumber) {
+        return pathTableEntries.get(directoryNumber - 1);
     }
 }
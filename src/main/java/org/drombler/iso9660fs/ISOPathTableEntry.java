@@ -16,11 +16,16 @@ public class ISOPathTableEntry {
     private final String directoryIdentifier; // name
 
     public ISOPathTableEntry(ISOEncodingType encodingType, ByteBuffer byteBuffer) {
+        this(encodingType, ISOCharacterEncoding.D_CHARACTERS, byteBuffer);
+    }
+
+    public ISOPathTableEntry(ISOEncodingType encodingType, ISOCharacterEncoding characterEncoding, ByteBuffer byteBuffer) {
         this.directoryIdentifierLength = ISOUtils.getUnsignedByte(byteBuffer);
         this.extendedAttributeRecordLength = ISOUtils.getUnsignedByte(byteBuffer);
         this.locationOfExtend = encodingType.getUnsignedInt32(byteBuffer);
         this.parentDirectoryNumber = encodingType.getUnsignedInt16(byteBuffer);
-        this.directoryIdentifier = ISOUtils.getStringDTrimmed(byteBuffer, directoryIdentifierLength);
+        this.directoryIdentifier = characterEncoding.getStringTrimmed(byteBuffer, byteBuffer.position(), directoryIdentifierLength);
+        byteBuffer.position(byteBuffer.position() + directoryIdentifierLength);
 
         if (ISOUtils.isOdd(directoryIdentifierLength)) {
             ISOUtils.readUnused(byteBuffer, 1);
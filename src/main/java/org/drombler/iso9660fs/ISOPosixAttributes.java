@@ -0,0 +1,120 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The POSIX file attributes of a Rock Ridge "PX" entry.
+ *
+ * @author puce
+ */
+public class ISOPosixAttributes {
+
+    private static final int FILE_TYPE_MASK = 0170000;
+    private static final int SYMBOLIC_LINK = 0120000;
+    private static final int REGULAR_FILE = 0100000;
+    private static final int DIRECTORY = 0040000;
+    private static final PosixFilePermission[] PERMISSIONS = {
+            PosixFilePermission.OTHERS_EXECUTE, PosixFilePermission.OTHERS_WRITE, PosixFilePermission.OTHERS_READ,
+            PosixFilePermission.GROUP_EXECUTE, PosixFilePermission.GROUP_WRITE, PosixFilePermission.GROUP_READ,
+            PosixFilePermission.OWNER_EXECUTE, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_READ};
+
+    private final int mode;
+    private final long links;
+    private final long userId;
+    private final long groupId;
+    private final long serialNumber;
+
+    public ISOPosixAttributes(int mode, long links, long userId, long groupId, long serialNumber) {
+        this.mode = mode;
+        this.links = links;
+        this.userId = userId;
+        this.groupId = groupId;
+        this.serialNumber = serialNumber;
+    }
+
+    /**
+     * @return the file mode (st_mode)
+     */
+    public int getMode() {
+        return mode;
+    }
+
+    /**
+     * @return the number of links (st_nlink)
+     */
+    public long getLinks() {
+        return links;
+    }
+
+    /**
+     * @return the user id (st_uid)
+     */
+    public long getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return the group id (st_gid)
+     */
+    public long getGroupId() {
+        return groupId;
+    }
+
+    /**
+     * @return the file serial number (st_ino) or 0, if not recorded (Rock Ridge 1.10 and earlier)
+     */
+    public long getSerialNumber() {
+        return serialNumber;
+    }
+
+    public boolean isSymbolicLink() {
+        return (mode & FILE_TYPE_MASK) == SYMBOLIC_LINK;
+    }
+
+    public boolean isRegularFile() {
+        return (mode & FILE_TYPE_MASK) == REGULAR_FILE;
+    }
+
+    public boolean isDirectory() {
+        return (mode & FILE_TYPE_MASK) == DIRECTORY;
+    }
+
+    /**
+     * @return the permissions
+     */
+    public Set<PosixFilePermission> getPermissions() {
+        Set<PosixFilePermission> permissions = EnumSet.noneOf(PosixFilePermission.class);
+        for (int bit = 0; bit < PERMISSIONS.length; bit++) {
+            if ((mode & (1 << bit)) != 0) {
+                permissions.add(PERMISSIONS[bit]);
+            }
+        }
+        return permissions;
+    }
+
+    @Override
+    public String toString() {
+        return "ISOPosixAttributes{"
+                + "mode=0" + Integer.toOctalString(mode)
+                + ", links=" + links
+                + ", userId=" + userId
+                + ", groupId=" + groupId
+                + ", serialNumber=" + serialNumber + '}';
+    }
+}
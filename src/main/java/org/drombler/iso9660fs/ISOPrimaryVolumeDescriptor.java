@@ -18,7 +18,6 @@ import org.drombler.iso9660fs.impl.ISOPath;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.SeekableByteChannel;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.time.ZonedDateTime;
@@ -34,7 +33,13 @@ public class ISOPrimaryVolumeDescriptor extends ISOVolumeDescriptor {
     private static final int SYSTEM_IDENTIFIER_LENGTH = 32;
     private static final int VOLUME_IDENTIFIER_LENGTH = 32;
     private static final byte FILE_STRUCTURE_VERSION = 0x01;
+    private static final int VOLUME_FLAGS_OFFSET = 7;
+    private static final int ESCAPE_SEQUENCES_OFFSET = 88;
+    private static final int ESCAPE_SEQUENCES_LENGTH = 32;
 
+    private final byte volumeFlags;
+    private final byte[] escapeSequences;
+    private final ISOCharacterEncoding characterEncoding;
     private final String systemIdentifier;
     private final String volumeIdentifier;
     private final long volumeSpaceSize;
@@ -61,15 +66,36 @@ public class ISOPrimaryVolumeDescriptor extends ISOVolumeDescriptor {
     private ISOPathTable optionalTypeLPathTable;
     private ISOPathTable typeRPathTable;
     private ISOPathTable optionalTypeRPathTable;
+    private ISORockRidge rockRidge;
 
     public ISOPrimaryVolumeDescriptor(ByteBuffer byteBuffer) {
-        super(ISOVolumeDescriptorType.PRIMARY_VOLUME_DESCRIPTOR, byteBuffer);
-        readUnused(byteBuffer, 1);
-        this.systemIdentifier = ISOUtils.getStringATrimmed(byteBuffer, SYSTEM_IDENTIFIER_LENGTH);
-        this.volumeIdentifier = ISOUtils.getStringDTrimmed(byteBuffer, VOLUME_IDENTIFIER_LENGTH);
+        this(ISOVolumeDescriptorType.PRIMARY_VOLUME_DESCRIPTOR, byteBuffer);
+    }
+
+    /**
+     * Creates a new primary or supplementary volume descriptor. Both share the same layout; the volume flags and
+     * the escape sequences are unused in a primary volume descriptor.
+     *
+     * @param type       the volume descriptor type
+     * @param byteBuffer the buffer containing the volume descriptor
+     */
+    protected ISOPrimaryVolumeDescriptor(ISOVolumeDescriptorType type, ByteBuffer byteBuffer) {
+        super(type, byteBuffer);
+        int index = byteBuffer.position() - VOLUME_FLAGS_OFFSET;
+        // the escape sequences determine the encoding of the identifiers, which are recorded before them
+        this.escapeSequences = new byte[ESCAPE_SEQUENCES_LENGTH];
+        byteBuffer.duplicate().position(index + ESCAPE_SEQUENCES_OFFSET).get(escapeSequences);
+        if (type == ISOVolumeDescriptorType.PRIMARY_VOLUME_DESCRIPTOR) {
+            ISOUtils.checkUnused(byteBuffer, index + VOLUME_FLAGS_OFFSET, 1);
+            ISOUtils.checkUnused(byteBuffer, index + ESCAPE_SEQUENCES_OFFSET, ESCAPE_SEQUENCES_LENGTH);
+        }
+        this.characterEncoding = getJolietLevel(escapeSequences) > 0 ? ISOCharacterEncoding.UCS_2 : ISOCharacterEncoding.D_CHARACTERS;
+        this.volumeFlags = byteBuffer.get();
+        this.systemIdentifier = getStringTrimmed(byteBuffer, SYSTEM_IDENTIFIER_LENGTH);
+        this.volumeIdentifier = getStringTrimmed(byteBuffer, VOLUME_IDENTIFIER_LENGTH);
         readUnused(byteBuffer, 8);
         this.volumeSpaceSize = ISOUtils.getUnsignedInt32LSBMSB(byteBuffer);
-        readUnused(byteBuffer, 32);
+        byteBuffer.position(byteBuffer.position() + ESCAPE_SEQUENCES_LENGTH);
         this.volumeSetSize = ISOUtils.getUnsignedInt16LSBMSB(byteBuffer);
         this.volumeSequenceNumber = ISOUtils.getUnsignedInt16LSBMSB(byteBuffer);
         this.logicalBlockSize = ISOUtils.getUnsignedInt16LSBMSB(byteBuffer);
@@ -82,16 +108,16 @@ public class ISOPrimaryVolumeDescriptor extends ISOVolumeDescriptor {
 //        if (directoryEntryForRootDirectory[0] != 0) {
 //            throw new IllegalArgumentException("0x00 expected but was: 0x" + Integer.toHexString(directoryEntryForRootDirectory[0]));
 //        }
-        this.rootDirectoryDescriptor = new ISODirectoryRecord(ByteBuffer.wrap(directoryEntryForRootDirectory));
-        this.volumeSetIdentifier = ISOUtils.getStringDTrimmed(byteBuffer, 128);
+        this.rootDirectoryDescriptor = new ISODirectoryRecord(ByteBuffer.wrap(directoryEntryForRootDirectory), characterEncoding);
+        this.volumeSetIdentifier = getStringTrimmed(byteBuffer, 128);
         ISOUtils.getBytes(byteBuffer, 128);
         ISOUtils.getBytes(byteBuffer, 128);
         ISOUtils.getBytes(byteBuffer, 128);
-        this.copyrightFileIdentifier = ISOUtils.getStringDTrimmed(byteBuffer, 38);
+        this.copyrightFileIdentifier = getStringTrimmed(byteBuffer, 38);
 
-        this.abstractFileIdentifier = ISOUtils.getStringDTrimmed(byteBuffer, 36);
+        this.abstractFileIdentifier = getStringTrimmed(byteBuffer, 36);
 
-        this.bibliographicFileIdentifier = ISOUtils.getStringDTrimmed(byteBuffer, 37);
+        this.bibliographicFileIdentifier = getStringTrimmed(byteBuffer, 37);
         this.volumeCreationDateTime = ISOUtils.getDecDateTime(byteBuffer);
         this.volumeModificationDateTime = ISOUtils.getDecDateTime(byteBuffer);
         this.volumeExpirationDateTime = ISOUtils.getDecDateTime(byteBuffer);
@@ -106,6 +132,55 @@ public class ISOPrimaryVolumeDescriptor extends ISOVolumeDescriptor {
         ISOUtils.getBytes(byteBuffer, 653);
     }
 
+    /**
+     * Gets the Joliet level (1-3) specified by the escape sequences ("%/@", "%/C" or "%/E").
+     *
+     * @param escapeSequences the escape sequences of a volume descriptor
+     * @return the Joliet level or 0, if the escape sequences don't specify a Joliet level
+     */
+    protected static int getJolietLevel(byte[] escapeSequences) {
+        if (escapeSequences[0] == '%' && escapeSequences[1] == '/') {
+            switch (escapeSequences[2]) {
+                case '@':
+                    return 1;
+                case 'C':
+                    return 2;
+                case 'E':
+                    return 3;
+                default:
+                    return 0;
+            }
+        }
+        return 0;
+    }
+
+    private String getStringTrimmed(ByteBuffer byteBuffer, int length) {
+        String string = characterEncoding.getStringTrimmed(byteBuffer, byteBuffer.position(), length);
+        byteBuffer.position(byteBuffer.position() + length);
+        return string;
+    }
+
+    /**
+     * @return the volume flags (always 0 for a primary volume descriptor)
+     */
+    public byte getVolumeFlags() {
+        return volumeFlags;
+    }
+
+    /**
+     * @return the escape sequences (all 0s for a primary volume descriptor)
+     */
+    public byte[] getEscapeSequences() {
+        return escapeSequences.clone();
+    }
+
+    /**
+     * @return the encoding of the identifiers of this volume
+     */
+    public ISOCharacterEncoding getCharacterEncoding() {
+        return characterEncoding;
+    }
+
     public byte[] getDirectoryEntryForRootDirectory() {
         return directoryEntryForRootDirectory;
     }
@@ -198,34 +273,54 @@ public class ISOPrimaryVolumeDescriptor extends ISOVolumeDescriptor {
         return rootDirectoryDescriptor;
     }
 
-    public void loadPathTables(SeekableByteChannel byteChannel) throws IOException {
-        this.typeLPathTable = createPathTable(byteChannel, ISOEncodingType.LSB, locationOfTypeLPathTable);
+    public void loadPathTables(ISOImage image) throws IOException {
+        this.typeLPathTable = createPathTable(image, ISOEncodingType.LSB, locationOfTypeLPathTable);
         if (locationOfOptionalTypeLPathTable != 0) {
-            this.optionalTypeLPathTable = createPathTable(byteChannel, ISOEncodingType.LSB, locationOfOptionalTypeLPathTable);
+            this.optionalTypeLPathTable = createPathTable(image, ISOEncodingType.LSB, locationOfOptionalTypeLPathTable);
         }
-        this.typeRPathTable = createPathTable(byteChannel, ISOEncodingType.MSB, locationOfTypeMPathTable);
+        this.typeRPathTable = createPathTable(image, ISOEncodingType.MSB, locationOfTypeMPathTable);
         if (locationOfOptionalTypeMPathTable != 0) {
-            this.optionalTypeRPathTable = createPathTable(byteChannel, ISOEncodingType.MSB, locationOfOptionalTypeMPathTable);
+            this.optionalTypeRPathTable = createPathTable(image, ISOEncodingType.MSB, locationOfOptionalTypeMPathTable);
         }
     }
 
-    public ISODirectoryRecord loadDirectoryRecord(SeekableByteChannel byteChannel, ISOPathTableEntry pathTableEntry) throws IOException {
-        ByteBuffer byteBuffer = createByteBuffer(byteChannel, pathTableEntry.getLocationOfExtend(), logicalBlockSize);
-        return new ISODirectoryRecord(byteBuffer);
+    /**
+     * Enables the decoding of the Rock Ridge entries of the directory records of this directory hierarchy, if the
+     * directory hierarchy has Rock Ridge extensions.
+     *
+     * @param image the ISO image
+     * @return true, if the directory hierarchy has Rock Ridge extensions
+     * @throws IOException if an I/O error occurs
+     */
+    public boolean enableRockRidge(ISOImage image) throws IOException {
+        this.rockRidge = ISORockRidge.detect(image, this);
+        return rockRidge != null;
+    }
+
+    /**
+     * @return the decoder of the Rock Ridge entries or null, if Rock Ridge is not enabled
+     */
+    public ISORockRidge getRockRidge() {
+        return rockRidge;
+    }
+
+    public ISODirectoryRecord loadDirectoryRecord(ISOImage image, ISOPathTableEntry pathTableEntry) throws IOException {
+        ByteBuffer byteBuffer = createByteBuffer(image, pathTableEntry.getLocationOfExtend(), logicalBlockSize);
+        return new ISODirectoryRecord(byteBuffer, characterEncoding, rockRidge);
     }
 
-    private ISOPathTable createPathTable(SeekableByteChannel byteChannel, ISOEncodingType encodingType, long locationOfPathTable) throws IOException {
-        ByteBuffer byteBuffer = createByteBuffer(byteChannel, locationOfPathTable, pathTableSize);
-        return new ISOPathTable(encodingType, byteBuffer);
+    private ISOPathTable createPathTable(ISOImage image, ISOEncodingType encodingType, long locationOfPathTable) throws IOException {
+        ByteBuffer byteBuffer = createByteBuffer(image, locationOfPathTable, pathTableSize);
+        return new ISOPathTable(encodingType, characterEncoding, byteBuffer);
     }
 
-    public ByteBuffer createByteBuffer(SeekableByteChannel byteChannel, long location, long dataLength) throws IOException {
-        return ISOUtils.createByteBuffer(byteChannel, location, dataLength, getLogicalBlockSize());
+    public ByteBuffer createByteBuffer(ISOImage image, long location, long dataLength) throws IOException {
+        return ISOUtils.createByteBuffer(image, location, dataLength, getLogicalBlockSize());
     }
 
     public ISOPathTableEntry lookupPathTable(Path path) {
         ISOPath isoPath = toISOPath(path);
-        if (isoPath.getFileSystem().getPrimaryVolumeDescriptor() != this) {
+        if (isoPath.getFileSystem().getPrimaryVolumeDescriptor() != this && isoPath.getFileSystem().getVolumeDescriptor() != this) {
             throw new InvalidPathException(path.toString(), "Not a path of this file system: " + isoPath.getFileSystem());
         }
         return typeLPathTable.lookup(path);
@@ -233,7 +328,7 @@ public class ISOPrimaryVolumeDescriptor extends ISOVolumeDescriptor {
 
     @Override
     public String toString() {
-        return "ISOPrimaryVolumeDescriptor{"
+        return getClass().getSimpleName() + "{"
                 + super.toString()
                 + "\n, systemIdentifier=" + systemIdentifier
                 + "\n, volumeIdentifier=" + volumeIdentifier
@@ -0,0 +1,345 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decodes the System Use Sharing Protocol (SUSP) and Rock Ridge Interchange Protocol (RRIP) entries recorded in the
+ * system use areas of the directory records of a volume.<br>
+ * <br>
+ * The entries are decoded lazily: the entry headers are scanned for the requested signature and only the matching
+ * entries get decoded. Continuation areas ("CE" entries) are read through a cache shared by all directory records of
+ * the volume.
+ *
+ * @author puce
+ */
+public class ISORockRidge {
+
+    private static final int ENTRY_HEADER_LENGTH = 4;
+    private static final int MAX_NUM_CONTINUATION_AREAS = 16;
+    private static final int CONTINUATION_AREA_CACHE_SIZE = 256;
+    private static final int SP_ENTRY_LENGTH = 7;
+    private static final int SP_SKIP_LENGTH_OFFSET = 6;
+    private static final int ER_IDENTIFIER_LENGTH_OFFSET = 4;
+    private static final int ER_IDENTIFIER_OFFSET = 8;
+
+    private static final int NM_CONTINUE = 1;
+    private static final int SL_CONTINUE = 1;
+    private static final int SL_COMPONENT_CONTINUE = 1;
+    private static final int SL_COMPONENT_CURRENT = 2;
+    private static final int SL_COMPONENT_PARENT = 4;
+    private static final int SL_COMPONENT_ROOT = 8;
+    private static final int TF_LONG_FORM = 0x80;
+    private static final int SHORT_TIMESTAMP_LENGTH = 7;
+    private static final int LONG_TIMESTAMP_LENGTH = 17;
+    private static final int PX_SERIAL_NUMBER_OFFSET = 36;
+
+    private static final String[] RRIP_IDENTIFIERS = {"RRIP_1991A", "IEEE_P1282", "IEEE_1282"};
+
+    private final ISOImage image;
+    private final long imageSize;
+    private final int logicalBlockSize;
+    private final int skipLength;
+    private final Map<Long, ByteBuffer> continuationAreaCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ByteBuffer> eldest) {
+            return size() > CONTINUATION_AREA_CACHE_SIZE;
+        }
+    };
+    // guards the continuation area cache; the blocks are read without holding the lock
+    private final ReentrantLock continuationAreaCacheLock = new ReentrantLock();
+
+    private ISORockRidge(ISOImage image, long imageSize, int logicalBlockSize, int skipLength) {
+        this.image = image;
+        this.imageSize = imageSize;
+        this.logicalBlockSize = logicalBlockSize;
+        this.skipLength = skipLength;
+    }
+
+    /**
+     * Detects the Rock Ridge extensions of the directory hierarchy of the specified volume descriptor: the system use
+     * area of the first directory record of the root directory has to start with a "SP" entry and has to contain
+     * either an "ER" entry identifying RRIP or a "PX" entry.
+     *
+     * @param image            the ISO image
+     * @param volumeDescriptor the volume descriptor
+     * @return the Rock Ridge decoder or null, if the directory hierarchy has no Rock Ridge extensions
+     * @throws IOException if an I/O error occurs
+     */
+    public static ISORockRidge detect(ISOImage image, ISOPrimaryVolumeDescriptor volumeDescriptor) throws IOException {
+        ISODirectoryRecord rootDirectoryRecord = volumeDescriptor.getRootDirectoryDescriptor();
+        Iterator<ISODirectoryRecord> iterator = new ISODirectoryRecordIterator(image, rootDirectoryRecord.getLocationOfExtend(),
+                rootDirectoryRecord.getDataLength(), volumeDescriptor.getLogicalBlockSize());
+        try {
+            if (!iterator.hasNext()) {
+                return null;
+            }
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        ISODirectoryRecord selfDirectoryRecord = iterator.next();
+        ByteBuffer byteBuffer = selfDirectoryRecord.getByteBuffer();
+        int index = selfDirectoryRecord.getSystemUseAreaIndex();
+        if (selfDirectoryRecord.getSystemUseAreaLength() < SP_ENTRY_LENGTH
+                || !isSignature(byteBuffer, index, 'S', 'P')
+                || Byte.toUnsignedInt(byteBuffer.get(index + 4)) != 0xBE
+                || Byte.toUnsignedInt(byteBuffer.get(index + 5)) != 0xEF) {
+            return null;
+        }
+        ISORockRidge rockRidge = new ISORockRidge(image, image.size(), volumeDescriptor.getLogicalBlockSize(),
+                ISOUtils.getUnsignedByte(byteBuffer, index + SP_SKIP_LENGTH_OFFSET));
+        boolean[] rockRidgeFound = {false};
+        // the skip length does not apply to the "." entry of the root directory
+        rockRidge.forEachEntry(byteBuffer, index, selfDirectoryRecord.getSystemUseAreaLength(), (entryBuffer, entryIndex, entryLength) -> {
+            if (isSignature(entryBuffer, entryIndex, 'E', 'R')) {
+                String identifier = ISOUtils.getStringATrimmed(entryBuffer, entryIndex + ER_IDENTIFIER_OFFSET,
+                        ISOUtils.getUnsignedByte(entryBuffer, entryIndex + ER_IDENTIFIER_LENGTH_OFFSET));
+                rockRidgeFound[0] = Arrays.asList(RRIP_IDENTIFIERS).contains(identifier);
+            } else if (isSignature(entryBuffer, entryIndex, 'P', 'X')) {
+                rockRidgeFound[0] = true;
+            }
+            return !rockRidgeFound[0];
+        });
+        return rockRidgeFound[0] ? rockRidge : null;
+    }
+
+    /* package-private */ int getSkipLength() {
+        return skipLength;
+    }
+
+    /**
+     * Decodes the alternate name ("NM" entries).
+     *
+     * @return the alternate name or null, if none is recorded
+     */
+    /* package-private */ String getAlternateName(ByteBuffer byteBuffer, int index, int length) {
+        ByteBuffer[] name = {null};
+        forEachEntry(byteBuffer, index, length, (entryBuffer, entryIndex, entryLength) -> {
+            if (isSignature(entryBuffer, entryIndex, 'N', 'M')) {
+                int flags = Byte.toUnsignedInt(entryBuffer.get(entryIndex + ENTRY_HEADER_LENGTH));
+                int nameLength = entryLength - ENTRY_HEADER_LENGTH - 1;
+                name[0] = append(name[0], entryBuffer, entryIndex + ENTRY_HEADER_LENGTH + 1, nameLength);
+                return (flags & NM_CONTINUE) != 0;
+            }
+            return true;
+        });
+        return name[0] != null ? new String(name[0].array(), 0, name[0].position(), StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Decodes the POSIX file attributes ("PX" entry).
+     *
+     * @return the POSIX file attributes or null, if none are recorded
+     */
+    /* package-private */ ISOPosixAttributes getPosixAttributes(ByteBuffer byteBuffer, int index, int length) {
+        ISOPosixAttributes[] posixAttributes = {null};
+        forEachEntry(byteBuffer, index, length, (entryBuffer, entryIndex, entryLength) -> {
+            if (isSignature(entryBuffer, entryIndex, 'P', 'X')) {
+                posixAttributes[0] = new ISOPosixAttributes(
+                        (int) ISOUtils.getUnsignedInt32LSB(entryBuffer, entryIndex + 4),
+                        ISOUtils.getUnsignedInt32LSB(entryBuffer, entryIndex + 12),
+                        ISOUtils.getUnsignedInt32LSB(entryBuffer, entryIndex + 20),
+                        ISOUtils.getUnsignedInt32LSB(entryBuffer, entryIndex + 28),
+                        entryLength >= PX_SERIAL_NUMBER_OFFSET + 8 ? ISOUtils.getUnsignedInt32LSB(entryBuffer, entryIndex + PX_SERIAL_NUMBER_OFFSET) : 0);
+                return false;
+            }
+            return true;
+        });
+        return posixAttributes[0];
+    }
+
+    /**
+     * Decodes the target of a symbolic link ("SL" entries).
+     *
+     * @return the target of the symbolic link or null, if none is recorded
+     */
+    /* package-private */ String getSymbolicLinkTarget(ByteBuffer byteBuffer, int index, int length) {
+        StringBuilder[] target = {null};
+        boolean[] componentContinues = {true}; // no separator before the first component
+        forEachEntry(byteBuffer, index, length, (entryBuffer, entryIndex, entryLength) -> {
+            if (isSignature(entryBuffer, entryIndex, 'S', 'L')) {
+                if (target[0] == null) {
+                    target[0] = new StringBuilder();
+                }
+                int flags = Byte.toUnsignedInt(entryBuffer.get(entryIndex + ENTRY_HEADER_LENGTH));
+                int componentIndex = entryIndex + ENTRY_HEADER_LENGTH + 1;
+                int endIndex = entryIndex + entryLength;
+                while (componentIndex + 2 <= endIndex) {
+                    int componentFlags = Byte.toUnsignedInt(entryBuffer.get(componentIndex));
+                    int componentLength = Math.min(ISOUtils.getUnsignedByte(entryBuffer, componentIndex + 1), endIndex - componentIndex - 2);
+                    if (!componentContinues[0] && (target[0].length() != 1 || target[0].charAt(0) != '/')) {
+                        target[0].append('/');
+                    }
+                    if ((componentFlags & SL_COMPONENT_ROOT) != 0) {
+                        target[0].append('/');
+                    } else if ((componentFlags & SL_COMPONENT_PARENT) != 0) {
+                        target[0].append("..");
+                    } else if ((componentFlags & SL_COMPONENT_CURRENT) != 0) {
+                        target[0].append('.');
+                    } else {
+                        target[0].append(decodeUTF8(entryBuffer, componentIndex + 2, componentLength));
+                    }
+                    componentContinues[0] = (componentFlags & SL_COMPONENT_CONTINUE) != 0;
+                    componentIndex += 2 + componentLength;
+                }
+                return (flags & SL_CONTINUE) != 0;
+            }
+            return true;
+        });
+        return target[0] != null ? target[0].toString() : null;
+    }
+
+    /**
+     * Decodes the specified timestamp ("TF" entry).
+     *
+     * @return the timestamp or null, if it is not recorded
+     */
+    /* package-private */ ZonedDateTime getTimestamp(ByteBuffer byteBuffer, int index, int length, ISORockRidgeTimestampType timestampType) {
+        ZonedDateTime[] timestamp = {null};
+        forEachEntry(byteBuffer, index, length, (entryBuffer, entryIndex, entryLength) -> {
+            if (isSignature(entryBuffer, entryIndex, 'T', 'F')) {
+                byte flags = entryBuffer.get(entryIndex + ENTRY_HEADER_LENGTH);
+                if (timestampType.isSet(flags)) {
+                    boolean longForm = (flags & TF_LONG_FORM) != 0;
+                    int timestampLength = longForm ? LONG_TIMESTAMP_LENGTH : SHORT_TIMESTAMP_LENGTH;
+                    int timestampIndex = entryIndex + ENTRY_HEADER_LENGTH + 1 + timestampType.getIndex(flags) * timestampLength;
+                    if (timestampIndex + timestampLength <= entryIndex + entryLength) {
+                        timestamp[0] = longForm
+                                ? ISOUtils.getDecDateTime(entryBuffer.duplicate().position(timestampIndex))
+                                : ISOUtils.getDirectoryDateTime(entryBuffer, timestampIndex);
+                    }
+                }
+                return false;
+            }
+            return true;
+        });
+        return timestamp[0];
+    }
+
+    private static String decodeUTF8(ByteBuffer byteBuffer, int index, int length) {
+        if (byteBuffer.hasArray()) {
+            return new String(byteBuffer.array(), byteBuffer.arrayOffset() + index, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        byteBuffer.duplicate().position(index).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer append(ByteBuffer target, ByteBuffer source, int index, int length) {
+        if (target == null) {
+            target = ByteBuffer.allocate(Math.max(length, 16));
+        } else if (target.remaining() < length) {
+            ByteBuffer newTarget = ByteBuffer.allocate(Math.max(2 * target.capacity(), target.position() + length));
+            target.flip();
+            target = newTarget.put(target);
+        }
+        for (int i = 0; i < length; i++) {
+            target.put(source.get(index + i));
+        }
+        return target;
+    }
+
+    private static boolean isSignature(ByteBuffer byteBuffer, int index, char c1, char c2) {
+        return byteBuffer.get(index) == c1 && byteBuffer.get(index + 1) == c2;
+    }
+
+    /**
+     * Visits the entries of the specified system use area and of its continuation areas until the visitor returns
+     * false or a "ST" entry terminates the system use area. A continuation area has to lie within a single logical
+     * block of the image, else the scan stops like at a malformed entry.
+     */
+    private void forEachEntry(ByteBuffer byteBuffer, int index, int length, EntryVisitor visitor) {
+        for (int numContinuationAreas = 0; numContinuationAreas <= MAX_NUM_CONTINUATION_AREAS; numContinuationAreas++) {
+            int endIndex = index + length;
+            long continuationAreaBlock = -1;
+            long continuationAreaOffset = 0;
+            long continuationAreaLength = 0;
+            int entryIndex = index;
+            while (entryIndex + ENTRY_HEADER_LENGTH <= endIndex) {
+                int entryLength = ISOUtils.getUnsignedByte(byteBuffer, entryIndex + 2);
+                if (entryLength < ENTRY_HEADER_LENGTH || entryIndex + entryLength > endIndex || isSignature(byteBuffer, entryIndex, 'S', 'T')) {
+                    break;
+                }
+                if (isSignature(byteBuffer, entryIndex, 'C', 'E')) {
+                    continuationAreaBlock = ISOUtils.getUnsignedInt32LSB(byteBuffer, entryIndex + 4);
+                    continuationAreaOffset = ISOUtils.getUnsignedInt32LSB(byteBuffer, entryIndex + 12);
+                    continuationAreaLength = ISOUtils.getUnsignedInt32LSB(byteBuffer, entryIndex + 20);
+                } else if (!visitor.visit(byteBuffer, entryIndex, entryLength)) {
+                    return;
+                }
+                entryIndex += entryLength;
+            }
+            if (!isValidContinuationArea(continuationAreaBlock, continuationAreaOffset, continuationAreaLength)) {
+                return;
+            }
+            byteBuffer = getContinuationAreaBlock(continuationAreaBlock);
+            index = (int) continuationAreaOffset;
+            length = (int) continuationAreaLength;
+        }
+    }
+
+    private boolean isValidContinuationArea(long block, long offset, long length) {
+        return block >= 0 && offset >= 0 && length > 0
+                && offset + length <= logicalBlockSize
+                && (block + 1) * logicalBlockSize <= imageSize;
+    }
+
+    private ByteBuffer getContinuationAreaBlock(long block) {
+        ByteBuffer byteBuffer;
+        continuationAreaCacheLock.lock();
+        try {
+            byteBuffer = continuationAreaCache.get(block);
+        } finally {
+            continuationAreaCacheLock.unlock();
+        }
+        if (byteBuffer == null) {
+            byteBuffer = read(block * logicalBlockSize, logicalBlockSize);
+            continuationAreaCacheLock.lock();
+            try {
+                continuationAreaCache.put(block, byteBuffer);
+            } finally {
+                continuationAreaCacheLock.unlock();
+            }
+        }
+        return byteBuffer;
+    }
+
+    private ByteBuffer read(long position, int length) {
+        try {
+            return image.read(position, length);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @FunctionalInterface
+    private interface EntryVisitor {
+
+        /**
+         * @return true, if the next entry should be visited
+         */
+        boolean visit(ByteBuffer byteBuffer, int entryIndex, int entryLength);
+    }
+}
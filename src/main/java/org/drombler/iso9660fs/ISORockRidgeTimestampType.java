@@ -0,0 +1,57 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+/**
+ * The timestamps of a Rock Ridge "TF" entry in the order they are recorded.
+ *
+ * @author puce
+ */
+public enum ISORockRidgeTimestampType {
+
+    CREATION((byte) 1),
+    MODIFY((byte) 2),
+    ACCESS((byte) 4),
+    ATTRIBUTES((byte) 8),
+    BACKUP((byte) 16),
+    EXPIRATION((byte) 32),
+    EFFECTIVE((byte) 64);
+
+    private final byte bit;
+
+    private ISORockRidgeTimestampType(byte bit) {
+        this.bit = bit;
+    }
+
+    /**
+     * Checks if this timestamp is recorded according to the specified bit mask.
+     *
+     * @param bitMask the bit mask
+     * @return true, if this timestamp is recorded
+     */
+    public boolean isSet(byte bitMask) {
+        return (bitMask & bit) == bit;
+    }
+
+    /**
+     * Gets the number of timestamps recorded before this timestamp according to the specified bit mask.
+     *
+     * @param bitMask the bit mask
+     * @return the number of timestamps recorded before this timestamp
+     */
+    public int getIndex(byte bitMask) {
+        return Integer.bitCount(bitMask & (bit - 1));
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A supplementary volume descriptor. A supplementary volume descriptor shares the layout of the primary volume
+ * descriptor, but may specify a different character set with escape sequences, such as the UCS-2 character set of
+ * Joliet, and records its own directory hierarchy and path tables.
+ *
+ * @author puce
+ */
+public class ISOSupplementaryVolumeDescriptor extends ISOPrimaryVolumeDescriptor {
+
+    private final int jolietLevel;
+
+    public ISOSupplementaryVolumeDescriptor(ByteBuffer byteBuffer) {
+        super(ISOVolumeDescriptorType.SUPPLEMENTARY_VOLUME_DESCRIPTOR, byteBuffer);
+        this.jolietLevel = getJolietLevel(getEscapeSequences());
+    }
+
+    /**
+     * @return the Joliet level (1-3) or 0, if this is not a Joliet volume descriptor
+     */
+    public int getJolietLevel() {
+        return jolietLevel;
+    }
+
+    /**
+     * @return true, if this is a Joliet volume descriptor
+     */
+    public boolean isJoliet() {
+        return jolietLevel > 0;
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + "\n, jolietLevel=" + jolietLevel;
+    }
+}
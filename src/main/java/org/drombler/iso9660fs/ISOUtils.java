@@ -17,7 +17,7 @@ package org.drombler.iso9660fs;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
@@ -42,8 +42,44 @@ public final class ISOUtils {
     }
 
     private static String getStringA(ByteBuffer byteBuffer, int length) {
-        byte[] dst = getBytes(byteBuffer, length);
-        return new String(dst);
+        String string = getStringA(byteBuffer, byteBuffer.position(), length, false);
+        byteBuffer.position(byteBuffer.position() + length);
+        return string;
+    }
+
+    /**
+     * Decodes a string at the specified absolute index without changing the position of the buffer. The bytes are
+     * decoded as ISO-8859-1, which maps each byte to a single char (a-characters and d-characters are a subset of
+     * ASCII).
+     */
+    private static String getStringA(ByteBuffer byteBuffer, int index, int length, boolean trim) {
+        int fromIndex = index;
+        int toIndex = index + length;
+        if (trim) {
+            while (fromIndex < toIndex && isWhitespace(byteBuffer.get(fromIndex))) {
+                fromIndex++;
+            }
+            while (toIndex > fromIndex && isWhitespace(byteBuffer.get(toIndex - 1))) {
+                toIndex--;
+            }
+        }
+        if (fromIndex == toIndex) {
+            return "";
+        }
+        if (byteBuffer.hasArray()) {
+            return new String(byteBuffer.array(), byteBuffer.arrayOffset() + fromIndex, toIndex - fromIndex, StandardCharsets.ISO_8859_1);
+        } else {
+            char[] chars = new char[toIndex - fromIndex];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = (char) Byte.toUnsignedInt(byteBuffer.get(fromIndex + i));
+            }
+            return new String(chars);
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        // same as String.trim()
+        return Byte.toUnsignedInt(b) <= ' ';
     }
 
     public static byte[] getBytes(ByteBuffer byteBuffer, int length) {
@@ -53,7 +89,13 @@ public final class ISOUtils {
     }
 
     public static String getStringATrimmed(ByteBuffer byteBuffer, int length) {
-        return getStringA(byteBuffer, length).trim();
+        String string = getStringATrimmed(byteBuffer, byteBuffer.position(), length);
+        byteBuffer.position(byteBuffer.position() + length);
+        return string;
+    }
+
+    public static String getStringATrimmed(ByteBuffer byteBuffer, int index, int length) {
+        return getStringA(byteBuffer, index, length, true);
     }
 
     private static String getStringD(ByteBuffer byteBuffer, int length) {
@@ -61,18 +103,144 @@ public final class ISOUtils {
     }
 
     public static String getStringDTrimmed(ByteBuffer byteBuffer, int length) {
-        return getStringD(byteBuffer, length).trim();
+        return getStringATrimmed(byteBuffer, length);
+    }
+
+    public static String getStringDTrimmed(ByteBuffer byteBuffer, int index, int length) {
+        return getStringATrimmed(byteBuffer, index, length);
+    }
+
+    /**
+     * Checks if the file identifier at the specified absolute index matches the specified file name (ignoring case)
+     * without decoding the file identifier. The file version number and a trailing file extension separator of the
+     * file identifier are ignored, e.g. "README.TXT;1" and "README.;1" match "readme.txt" and "readme".
+     *
+     * @param byteBuffer the buffer containing the file identifier
+     * @param index      the index of the file identifier
+     * @param length     the length of the file identifier
+     * @param fileName   the file name
+     * @return true, if the file identifier matches the file name
+     * @see ISODirectoryRecord#getFileName()
+     */
+    public static boolean equalsFileName(ByteBuffer byteBuffer, int index, int length, String fileName) {
+        int fromIndex = index;
+        int toIndex = index + length;
+        while (fromIndex < toIndex && isWhitespace(byteBuffer.get(fromIndex))) {
+            fromIndex++;
+        }
+        while (toIndex > fromIndex && isWhitespace(byteBuffer.get(toIndex - 1))) {
+            toIndex--;
+        }
+        for (int i = toIndex - 1; i >= fromIndex; i--) {
+            if (byteBuffer.get(i) == ';') {
+                toIndex = i;
+                break;
+            }
+        }
+        if (toIndex - fromIndex > 1 && byteBuffer.get(toIndex - 1) == '.') {
+            toIndex--;
+        }
+        if (toIndex - fromIndex != fileName.length()) {
+            return false;
+        }
+        for (int i = 0; i < fileName.length(); i++) {
+            char c1 = (char) Byte.toUnsignedInt(byteBuffer.get(fromIndex + i));
+            char c2 = fileName.charAt(i);
+            if (c1 != c2 && Character.toUpperCase(c1) != Character.toUpperCase(c2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static String getStringUCS2Trimmed(ByteBuffer byteBuffer, int length) {
+        String string = getStringUCS2Trimmed(byteBuffer, byteBuffer.position(), length);
+        byteBuffer.position(byteBuffer.position() + length);
+        return string;
+    }
+
+    /**
+     * Decodes a UCS-2 big-endian string (as used by Joliet) at the specified absolute index without changing the
+     * position of the buffer. Leading and trailing whitespace and NUL characters are removed. An odd trailing byte is
+     * ignored. Only the char array of the resulting string is allocated.
+     */
+    public static String getStringUCS2Trimmed(ByteBuffer byteBuffer, int index, int length) {
+        int fromIndex = index;
+        int toIndex = index + (length & ~1);
+        while (fromIndex < toIndex && getCharUCS2(byteBuffer, fromIndex) <= ' ') {
+            fromIndex += 2;
+        }
+        while (toIndex > fromIndex && getCharUCS2(byteBuffer, toIndex - 2) <= ' ') {
+            toIndex -= 2;
+        }
+        if (fromIndex == toIndex) {
+            return "";
+        }
+        char[] chars = new char[(toIndex - fromIndex) / 2];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = getCharUCS2(byteBuffer, fromIndex + 2 * i);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Gets the UCS-2 big-endian char at the specified absolute index regardless of the byte order of the buffer.
+     */
+    public static char getCharUCS2(ByteBuffer byteBuffer, int index) {
+        return (char) ((Byte.toUnsignedInt(byteBuffer.get(index)) << 8) | Byte.toUnsignedInt(byteBuffer.get(index + 1)));
+    }
+
+    /**
+     * Checks if the UCS-2 big-endian file identifier at the specified absolute index matches the specified file name
+     * (ignoring case) without decoding the file identifier.
+     *
+     * @param byteBuffer the buffer containing the file identifier
+     * @param index      the index of the file identifier
+     * @param length     the length of the file identifier in bytes
+     * @param fileName   the file name
+     * @return true, if the file identifier matches the file name
+     * @see #equalsFileName(ByteBuffer, int, int, String)
+     */
+    public static boolean equalsFileNameUCS2(ByteBuffer byteBuffer, int index, int length, String fileName) {
+        int fromIndex = index;
+        int toIndex = index + (length & ~1);
+        while (fromIndex < toIndex && getCharUCS2(byteBuffer, fromIndex) <= ' ') {
+            fromIndex += 2;
+        }
+        while (toIndex > fromIndex && getCharUCS2(byteBuffer, toIndex - 2) <= ' ') {
+            toIndex -= 2;
+        }
+        for (int i = toIndex - 2; i >= fromIndex; i -= 2) {
+            if (getCharUCS2(byteBuffer, i) == ';') {
+                toIndex = i;
+                break;
+            }
+        }
+        if (toIndex - fromIndex > 2 && getCharUCS2(byteBuffer, toIndex - 2) == '.') {
+            toIndex -= 2;
+        }
+        if ((toIndex - fromIndex) / 2 != fileName.length()) {
+            return false;
+        }
+        for (int i = 0; i < fileName.length(); i++) {
+            char c1 = getCharUCS2(byteBuffer, fromIndex + 2 * i);
+            char c2 = fileName.charAt(i);
+            if (c1 != c2 && Character.toUpperCase(c1) != Character.toUpperCase(c2)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public static int getUnsignedInt16LSBMSB(ByteBuffer byteBuffer) {
-//        byte[] bytes = getBytes(byteBuffer, 2 * NUM_SHORT_BITS);
-//        int value = 0;
-//        for (int i = 0; i < NUM_SHORT_BITS; i++) {
-//            value += getUnsignedByte(bytes[i]) << (NUM_INTEGER_BYTES * i);
-//        }
-//        return value;
-        int unsignedInt16LSB = getUnsignedInt16LSB(byteBuffer);
-        int unsignedInt16MSB = getUnsignedInt16MSB(byteBuffer);
+        int unsignedInt16LSB = getUnsignedInt16LSBMSB(byteBuffer, byteBuffer.position());
+        byteBuffer.position(byteBuffer.position() + 4);
+        return unsignedInt16LSB;
+    }
+
+    public static int getUnsignedInt16LSBMSB(ByteBuffer byteBuffer, int index) {
+        int unsignedInt16LSB = getUnsignedInt16LSB(byteBuffer, index);
+        int unsignedInt16MSB = getUnsignedInt16MSB(byteBuffer, index + 2);
         if (unsignedInt16LSB != unsignedInt16MSB) {
             throw new IllegalArgumentException("unsignedInt16LSB (was: " + unsignedInt16LSB
                     + ") must be equal to unsignedInt16MSB (but was: " + unsignedInt16MSB + ")");
@@ -81,50 +249,89 @@ public final class ISOUtils {
     }
 
     public static long getUnsignedInt32LSBMSB(ByteBuffer byteBuffer) {
-//        byte[] bytes = getBytes(byteBuffer, 2 * NUM_INTEGER_BYTES);
-//        long value = 0;
-//        for (int i = 0; i < NUM_INTEGER_BYTES; i++) {
-//            value += getUnsignedByte(bytes[i]) << (NUM_LONG_BITS * i);
-//        }
-//        return value;
-        long unsignedInt32LSB = getUnsignedInt32LSB(byteBuffer);
-        long unsignedInt32MSB = getUnsignedInt32MSB(byteBuffer);
+        long unsignedInt32LSB = getUnsignedInt32LSBMSB(byteBuffer, byteBuffer.position());
+        byteBuffer.position(byteBuffer.position() + 8);
+        return unsignedInt32LSB;
+    }
+
+    public static long getUnsignedInt32LSBMSB(ByteBuffer byteBuffer, int index) {
+        long unsignedInt32LSB = getUnsignedInt32LSB(byteBuffer, index);
+        long unsignedInt32MSB = getUnsignedInt32MSB(byteBuffer, index + 4);
         if (unsignedInt32LSB != unsignedInt32MSB) {
-            throw new IllegalArgumentException("unsignedInt16LSB (was: " + unsignedInt32LSB
-                    + ") must be equal to unsignedInt16MSB (but was: " + unsignedInt32MSB + ")");
+            throw new IllegalArgumentException("unsignedInt32LSB (was: " + unsignedInt32LSB
+                    + ") must be equal to unsignedInt32MSB (but was: " + unsignedInt32MSB + ")");
         }
         return unsignedInt32LSB;
     }
 
     public static int getUnsignedInt16LSB(ByteBuffer byteBuffer) {
-        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        short shortValue = byteBuffer.getShort();
-        byteBuffer.order(ByteOrder.BIG_ENDIAN);
+        int value = getUnsignedInt16LSB(byteBuffer, byteBuffer.position());
+        byteBuffer.position(byteBuffer.position() + 2);
+        return value;
+    }
+
+    /**
+     * Reads a little endian value at the specified absolute index. Neither the position nor the byte order of the
+     * buffer get changed, thus buffers can be shared by concurrent readers.
+     */
+    public static int getUnsignedInt16LSB(ByteBuffer byteBuffer, int index) {
+        short shortValue = byteBuffer.getShort(index);
+        if (byteBuffer.order() != ByteOrder.LITTLE_ENDIAN) {
+            shortValue = Short.reverseBytes(shortValue);
+        }
         return Short.toUnsignedInt(shortValue);
     }
 
     public static int getUnsignedInt16MSB(ByteBuffer byteBuffer) {
-        short shortValue = byteBuffer.getShort();
+        int value = getUnsignedInt16MSB(byteBuffer, byteBuffer.position());
+        byteBuffer.position(byteBuffer.position() + 2);
+        return value;
+    }
+
+    public static int getUnsignedInt16MSB(ByteBuffer byteBuffer, int index) {
+        short shortValue = byteBuffer.getShort(index);
+        if (byteBuffer.order() != ByteOrder.BIG_ENDIAN) {
+            shortValue = Short.reverseBytes(shortValue);
+        }
         return Short.toUnsignedInt(shortValue);
     }
 
     public static long getUnsignedInt32LSB(ByteBuffer byteBuffer) {
-        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        int intValue = byteBuffer.getInt();
-        byteBuffer.order(ByteOrder.BIG_ENDIAN);
+        long value = getUnsignedInt32LSB(byteBuffer, byteBuffer.position());
+        byteBuffer.position(byteBuffer.position() + 4);
+        return value;
+    }
+
+    public static long getUnsignedInt32LSB(ByteBuffer byteBuffer, int index) {
+        int intValue = byteBuffer.getInt(index);
+        if (byteBuffer.order() != ByteOrder.LITTLE_ENDIAN) {
+            intValue = Integer.reverseBytes(intValue);
+        }
         return Integer.toUnsignedLong(intValue);
     }
 
     public static long getUnsignedInt32MSB(ByteBuffer byteBuffer) {
-        int intValue = byteBuffer.getInt();
+        long value = getUnsignedInt32MSB(byteBuffer, byteBuffer.position());
+        byteBuffer.position(byteBuffer.position() + 4);
+        return value;
+    }
+
+    public static long getUnsignedInt32MSB(ByteBuffer byteBuffer, int index) {
+        int intValue = byteBuffer.getInt(index);
+        if (byteBuffer.order() != ByteOrder.BIG_ENDIAN) {
+            intValue = Integer.reverseBytes(intValue);
+        }
         return Integer.toUnsignedLong(intValue);
     }
 
     public static short getUnsignedByte(ByteBuffer byteBuffer) {
-//        return (short) (value & MAX_UNSIGNED_BYTE);
         return (short) Byte.toUnsignedInt(byteBuffer.get());
     }
 
+    public static short getUnsignedByte(ByteBuffer byteBuffer, int index) {
+        return (short) Byte.toUnsignedInt(byteBuffer.get(index));
+    }
+
     public static ZonedDateTime getDecDateTime(ByteBuffer byteBuffer) {
         int year = Integer.parseInt(getStringD(byteBuffer, 4));
         int month = Integer.parseInt(getStringD(byteBuffer, 2));
@@ -138,13 +345,19 @@ public final class ISOUtils {
     }
 
     public static ZonedDateTime getDirectoryDateTime(ByteBuffer byteBuffer) {
-        byte year = byteBuffer.get();
-        byte month = byteBuffer.get();
-        byte day = byteBuffer.get();
-        byte hour = byteBuffer.get();
-        byte minute = byteBuffer.get();
-        byte second = byteBuffer.get();
-        byte quarterHourZoneOffset = byteBuffer.get();
+        ZonedDateTime dateTime = getDirectoryDateTime(byteBuffer, byteBuffer.position());
+        byteBuffer.position(byteBuffer.position() + 7);
+        return dateTime;
+    }
+
+    public static ZonedDateTime getDirectoryDateTime(ByteBuffer byteBuffer, int index) {
+        byte year = byteBuffer.get(index);
+        byte month = byteBuffer.get(index + 1);
+        byte day = byteBuffer.get(index + 2);
+        byte hour = byteBuffer.get(index + 3);
+        byte minute = byteBuffer.get(index + 4);
+        byte second = byteBuffer.get(index + 5);
+        byte quarterHourZoneOffset = byteBuffer.get(index + 6);
         return month != 0 ? ZonedDateTime.of(1900 + year, month, day, hour, minute, second, 0, getZoneOffset(quarterHourZoneOffset)) : null;
     }
 
@@ -153,11 +366,18 @@ public final class ISOUtils {
     }
 
     public static void readUnused(ByteBuffer byteBuffer, int length) {
-        byte[] dst = new byte[length];
-        byteBuffer.get(dst);
+        checkUnused(byteBuffer, byteBuffer.position(), length);
+        byteBuffer.position(byteBuffer.position() + length);
+    }
 
-        for (byte unused : dst) {
-            if (unused != 0) {
+    /**
+     * Checks that the specified range contains only 0s, without changing the position of the buffer.
+     */
+    public static void checkUnused(ByteBuffer byteBuffer, int index, int length) {
+        for (int i = index; i < index + length; i++) {
+            if (byteBuffer.get(i) != 0) {
+                byte[] dst = new byte[length];
+                byteBuffer.duplicate().position(index).get(dst);
                 throw new IllegalArgumentException("0s expected but was: " + Arrays.toString(dst));
             }
         }
@@ -171,16 +391,8 @@ public final class ISOUtils {
         return !isEven(intValue);
     }
 
-    public static ByteBuffer createByteBuffer(SeekableByteChannel byteChannel, long location, long dataLength, int logicalBlockSize) throws IOException {
-        long newPosition = location * logicalBlockSize;
-        byteChannel.position(newPosition);
-        ByteBuffer byteBuffer = ByteBuffer.allocate((int) dataLength);
-        final int numBytes = byteChannel.read(byteBuffer);
-        if (numBytes != dataLength) {
-            throw new IOException("Too few data to read: " + numBytes);
-        }
-        byteBuffer.position(0);
-        return byteBuffer;
+    public static ByteBuffer createByteBuffer(ISOImage image, long location, long dataLength, int logicalBlockSize) throws IOException {
+        return image.read(location * logicalBlockSize, (int) dataLength);
     }
 
 }
@@ -15,7 +15,6 @@
 package org.drombler.iso9660fs;
 
 import java.nio.ByteBuffer;
-import java.util.Arrays;
 
 /**
  *
@@ -62,11 +61,7 @@ public abstract class ISOVolumeDescriptor {
             throw new IllegalArgumentException(
                     "The byteBuffer length must be " + SECTOR_LENGTH + " but was: " + byteBuffer.limit());
         }
-        System.out.println(byteBuffer.toString());
-        System.out.println(Arrays.toString(byteBuffer.array()));
-        System.out.println("Position: " + byteBuffer.position());
         ISOVolumeDescriptorType type = ISOVolumeDescriptorType.getType(ISOUtils.getUnsignedByte(byteBuffer));
-        System.out.println(type);
         return type.createISOVolumeDescriptor(byteBuffer);
     }
 
@@ -44,8 +44,8 @@ public enum ISOVolumeDescriptorType {
     SUPPLEMENTARY_VOLUME_DESCRIPTOR((short) 2) {
 
         @Override
-        public ISOVolumeDescriptor createISOVolumeDescriptor(ByteBuffer byteBuffer) {
-            throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        public ISOSupplementaryVolumeDescriptor createISOVolumeDescriptor(ByteBuffer byteBuffer) {
+            return new ISOSupplementaryVolumeDescriptor(byteBuffer);
         }
 
     },
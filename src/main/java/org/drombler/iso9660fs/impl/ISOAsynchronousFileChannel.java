@@ -0,0 +1,176 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import org.drombler.iso9660fs.ISOExtentMap;
+import org.drombler.iso9660fs.ISOImage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileLock;
+import java.nio.channels.NonWritableChannelException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A read-only {@link AsynchronousFileChannel} for the content of a file. The offsets in the file are translated to
+ * positions in the ISO image and the positional reads of the ISO image are executed on an executor, thus the caller
+ * never blocks. The completion handlers are invoked by the threads of the executor.
+ *
+ * @author puce
+ */
+/* package-private */ class ISOAsynchronousFileChannel extends AsynchronousFileChannel {
+
+    private final ISOImage image;
+    private final ISOExtentMap extents;
+    private final int logicalBlockSize;
+    private final ExecutorService executor;
+    private volatile boolean open = true;
+
+    public ISOAsynchronousFileChannel(ISOImage image, ISOExtentMap extents, int logicalBlockSize, ExecutorService executor) {
+        this.image = image;
+        this.extents = extents;
+        this.logicalBlockSize = logicalBlockSize;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates the default executor for the reads: virtual threads if available (Java 21 and later), else a cached pool
+     * of daemon threads.
+     *
+     * @return a new executor
+     */
+    public static ExecutorService newDefaultExecutor() {
+        try {
+            // a pending read doesn't tie up a platform thread with virtual threads
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "iso-async-read");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public long size() throws IOException {
+        checkOpen();
+        return extents.getSize();
+    }
+
+    @Override
+    public AsynchronousFileChannel truncate(long size) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+        checkOpen(); // nothing to write
+    }
+
+    @Override
+    public <A> void lock(long position, long size, boolean shared, A attachment, CompletionHandler<FileLock, ? super A> handler) {
+        throw new UnsupportedOperationException("File locks are not supported by a read-only file system");
+    }
+
+    @Override
+    public Future<FileLock> lock(long position, long size, boolean shared) {
+        throw new UnsupportedOperationException("File locks are not supported by a read-only file system");
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+        throw new UnsupportedOperationException("File locks are not supported by a read-only file system");
+    }
+
+    @Override
+    public <A> void read(ByteBuffer dst, long position, A attachment, CompletionHandler<Integer, ? super A> handler) {
+        if (handler == null) {
+            throw new NullPointerException("handler must not be null!");
+        }
+        if (position < 0) {
+            throw new IllegalArgumentException("position must not be negative: " + position);
+        }
+        if (dst.isReadOnly()) {
+            throw new IllegalArgumentException("Read-only buffer");
+        }
+        try {
+            executor.execute(() -> {
+                int numBytes;
+                try {
+                    checkOpen();
+                    numBytes = extents.read(image, logicalBlockSize, dst, position);
+                } catch (IOException | RuntimeException ex) {
+                    handler.failed(ex, attachment);
+                    return;
+                }
+                handler.completed(numBytes, attachment);
+            });
+        } catch (RejectedExecutionException ex) {
+            // the executor has been shut down, e.g. when the file system has been closed
+            handler.failed(new ClosedChannelException(), attachment);
+        }
+    }
+
+    @Override
+    public Future<Integer> read(ByteBuffer dst, long position) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        read(dst, position, null, new CompletionHandler<Integer, Void>() {
+            @Override
+            public void completed(Integer result, Void attachment) {
+                future.complete(result);
+            }
+
+            @Override
+            public void failed(Throwable exc, Void attachment) {
+                future.completeExceptionally(exc);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public <A> void write(ByteBuffer src, long position, A attachment, CompletionHandler<Integer, ? super A> handler) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public Future<Integer> write(ByteBuffer src, long position) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
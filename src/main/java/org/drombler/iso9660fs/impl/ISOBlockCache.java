@@ -0,0 +1,302 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import org.drombler.iso9660fs.ISOImage;
+import org.drombler.iso9660fs.ISOVolumeDescriptor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An {@link ISOImage} caching the logical blocks of another ISO image. The cache is bounded and uses a scan-resistant
+ * segmented LRU eviction policy, thus frequently read blocks (e.g. of hot directories) are not evicted by large
+ * sequential reads of file contents.
+ * <p>
+ * The cached blocks are stored in pre-allocated heap or direct (off-heap) buffers. To reduce contention, the cache is
+ * split into several partitions, each guarded by its own lock. The data is always copied out of the cache and no I/O is
+ * done while holding a lock.
+ *
+ * @author puce
+ */
+public class ISOBlockCache implements ISOImage {
+
+    private static final int BLOCK_SIZE = ISOVolumeDescriptor.SECTOR_LENGTH;
+    private static final int MAX_NUM_PARTITIONS = 16;
+    private static final int MAX_NUM_LOAD_BLOCKS = 32;
+
+    private final ISOImage image;
+    private final long size;
+    private final Partition[] partitions;
+    private final int partitionMask;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param image     the cached ISO image
+     * @param cacheSize the maximum size of the cache in bytes
+     * @param direct    if true, the blocks are stored off-heap in direct buffers
+     * @throws IOException if an I/O error occurs
+     */
+    public ISOBlockCache(ISOImage image, long cacheSize, boolean direct) throws IOException {
+        this.image = image;
+        this.size = image.size();
+        long numBlocks = cacheSize / BLOCK_SIZE;
+        if (numBlocks < 1) {
+            throw new IllegalArgumentException("The cache size must be at least " + BLOCK_SIZE + " bytes but was: " + cacheSize);
+        }
+        int numPartitions = 1;
+        while (numPartitions < MAX_NUM_PARTITIONS && numPartitions * 2 <= numBlocks) {
+            numPartitions *= 2;
+        }
+        while (numBlocks / numPartitions * BLOCK_SIZE > Integer.MAX_VALUE) {
+            numPartitions *= 2;
+        }
+        this.partitions = new Partition[numPartitions];
+        this.partitionMask = numPartitions - 1;
+        for (int index = 0; index < numPartitions; index++) {
+            partitions[index] = new Partition((int) (numBlocks / numPartitions), direct);
+        }
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public ByteBuffer read(long position, int length) throws IOException {
+        return read(position, length, null);
+    }
+
+    private ByteBuffer read(long position, int length, ReaderImage reader) throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(length);
+        if (position < 0 || position + length > size) {
+            throw new IOException("Too few data to read: " + Math.max(0, size - position));
+        }
+        read(byteBuffer, position, reader);
+        byteBuffer.position(0);
+        return byteBuffer;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        return read(dst, position, null);
+    }
+
+    private int read(ByteBuffer dst, long position, ReaderImage reader) throws IOException {
+        if (position >= size) {
+            return -1;
+        }
+        int numBytes = (int) Math.min(dst.remaining(), size - position);
+        int remaining = numBytes;
+        long currentPosition = position;
+        while (remaining > 0) {
+            long blockNumber = currentPosition / BLOCK_SIZE;
+            int offset = (int) (currentPosition % BLOCK_SIZE);
+            int length = Math.min(remaining, BLOCK_SIZE - offset);
+            // a block read again by the directly following read of the same reader, e.g. by a sequential scan with reads
+            // smaller than a block, doesn't count as a reuse
+            boolean reused = reader == null || blockNumber != reader.lastBlockNumber;
+            if (getPartition(blockNumber).copyTo(blockNumber, offset, length, dst, reused)) {
+                hitCount.increment();
+            } else {
+                missCount.increment();
+                // load the missing block and (for larger reads) the following blocks with a single read
+                int numLoadBlocks = (int) Math.min(MAX_NUM_LOAD_BLOCKS, ((long) offset + remaining + BLOCK_SIZE - 1) / BLOCK_SIZE);
+                ByteBuffer blocks = loadBlocks(blockNumber, numLoadBlocks);
+                length = Math.min(remaining, blocks.limit() - offset);
+                blocks.position(offset);
+                blocks.limit(offset + length);
+                dst.put(blocks);
+            }
+            currentPosition += length;
+            remaining -= length;
+        }
+        if (reader != null) {
+            reader.lastBlockNumber = (currentPosition - 1) / BLOCK_SIZE;
+        }
+        return numBytes;
+    }
+
+    /**
+     * Bulk transfers of file contents bypass the cache: they would evict the cached blocks without being read again
+     * and the underlying image can transfer the data without a user-space buffer.
+     */
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        return image.transferTo(position, count, target);
+    }
+
+    /**
+     * Bulk reads of file contents bypass the cache for the same reason as {@link #transferTo}.
+     */
+    @Override
+    public ISOImage getBulkReadImage() {
+        return image.getBulkReadImage();
+    }
+
+    /**
+     * The reads of the returned view don't promote a block read again by the directly following read of the view.
+     */
+    @Override
+    public ISOImage newReaderImage() {
+        return new ReaderImage();
+    }
+
+    private ByteBuffer loadBlocks(long firstBlockNumber, int numBlocks) throws IOException {
+        long blocksPosition = firstBlockNumber * BLOCK_SIZE;
+        ByteBuffer blocks = image.read(blocksPosition, (int) Math.min((long) numBlocks * BLOCK_SIZE, size - blocksPosition));
+        for (int index = 0; index * BLOCK_SIZE < blocks.limit(); index++) {
+            long blockNumber = firstBlockNumber + index;
+            getPartition(blockNumber).put(blockNumber, blocks, index * BLOCK_SIZE, Math.min(BLOCK_SIZE, blocks.limit() - index * BLOCK_SIZE));
+        }
+        return blocks;
+    }
+
+    private Partition getPartition(long blockNumber) {
+        // spread consecutive blocks over all partitions
+        long hash = blockNumber * 0x9E3779B97F4A7C15L;
+        return partitions[(int) (hash >>> 32) & partitionMask];
+    }
+
+    /* package-private */ long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /* package-private */ long getMissCount() {
+        return missCount.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Partition partition : partitions) {
+            partition.clear();
+        }
+        image.close();
+    }
+
+    private class ReaderImage implements ISOImage {
+
+        private long lastBlockNumber = -1;
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public ByteBuffer read(long position, int length) throws IOException {
+            return ISOBlockCache.this.read(position, length, this);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return ISOBlockCache.this.read(dst, position, this);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return ISOBlockCache.this.transferTo(position, count, target);
+        }
+
+        @Override
+        public ISOImage getBulkReadImage() {
+            return ISOBlockCache.this.getBulkReadImage();
+        }
+
+        @Override
+        public void close() {
+            // the cache is closed by its owner
+        }
+    }
+
+    private static class Partition {
+
+        private final ByteBuffer slots;
+        private final int[] freeSlots;
+        private int numFreeSlots;
+        private final SegmentedLRUMap<Long, Integer> blockSlots;
+        private final int[] blockLengths;
+        // not a monitor: a virtual thread waiting for a contended monitor pins its carrier thread
+        private final ReentrantLock lock = new ReentrantLock();
+
+        public Partition(int numSlots, boolean direct) {
+            this.slots = direct ? ByteBuffer.allocateDirect(numSlots * BLOCK_SIZE) : ByteBuffer.allocate(numSlots * BLOCK_SIZE);
+            this.freeSlots = new int[numSlots];
+            this.blockLengths = new int[numSlots];
+            this.blockSlots = new SegmentedLRUMap<>(numSlots, (blockNumber, slot) -> freeSlots[numFreeSlots++] = slot);
+            clear();
+        }
+
+        public boolean copyTo(long blockNumber, int offset, int length, ByteBuffer dst, boolean reused) {
+            lock.lock();
+            try {
+                Integer slot = blockSlots.get(blockNumber, reused);
+                if (slot == null || offset + length > blockLengths[slot]) {
+                    return false;
+                }
+                int slotPosition = slot * BLOCK_SIZE;
+                slots.limit(slotPosition + offset + length);
+                slots.position(slotPosition + offset);
+                dst.put(slots);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void put(long blockNumber, ByteBuffer src, int srcOffset, int length) {
+            lock.lock();
+            try {
+                if (blockSlots.containsKey(blockNumber)) {
+                    return;
+                }
+                if (numFreeSlots == 0) {
+                    blockSlots.evictEldest();
+                }
+                int slot = freeSlots[--numFreeSlots];
+                ByteBuffer block = src.duplicate();
+                block.limit(srcOffset + length);
+                block.position(srcOffset);
+                slots.limit(slots.capacity());
+                slots.position(slot * BLOCK_SIZE);
+                slots.put(block);
+                blockLengths[slot] = length;
+                blockSlots.put(blockNumber, slot);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public final void clear() {
+            lock.lock();
+            try {
+                blockSlots.clear();
+                for (int slot = 0; slot < freeSlots.length; slot++) {
+                    freeSlots[slot] = slot;
+                }
+                numFreeSlots = freeSlots.length;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
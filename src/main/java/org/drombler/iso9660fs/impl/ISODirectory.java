@@ -0,0 +1,107 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import org.drombler.iso9660fs.ISODirectoryRecord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A parsed directory: the directory record of the directory itself and the immutable list of its children (without
+ * the entries for the directory itself and its parent directory) with a hashed name index. The index is
+ * case-insensitive, or case-sensitive for Rock Ridge names.
+ *
+ * @author puce
+ */
+/* package-private */ class ISODirectory {
+
+    private final long locationOfExtend;
+    private final ISODirectoryRecord directoryRecord;
+    private final List<ISODirectoryRecord> children;
+    private final Map<String, ISODirectoryRecord> childrenByName;
+    private final boolean caseSensitive;
+    // second chance flag for the eviction of ISODirectoryCache; races are benign
+    private boolean referenced;
+
+    public ISODirectory(ISODirectoryRecord directoryRecord, List<ISODirectoryRecord> directoryRecords) {
+        this(directoryRecord, directoryRecords, false);
+    }
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param directoryRecord  the directory record of the directory
+     * @param directoryRecords the directory records of the children, including the self and parent directory records
+     * @param caseSensitive    if true, the children are looked up case-sensitively (Rock Ridge alternate names)
+     */
+    public ISODirectory(ISODirectoryRecord directoryRecord, List<ISODirectoryRecord> directoryRecords, boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+        this.locationOfExtend = directoryRecord.getLocationOfExtend();
+        this.directoryRecord = directoryRecord;
+        List<ISODirectoryRecord> children = new ArrayList<>(directoryRecords.size());
+        Map<String, ISODirectoryRecord> childrenByName = new HashMap<>();
+        for (ISODirectoryRecord childRecord : directoryRecords) {
+            if (!childRecord.isSelfOrParentDirectory()) {
+                children.add(childRecord);
+                childrenByName.putIfAbsent(toKey(childRecord.getFileName()), childRecord);
+            }
+        }
+        this.children = Collections.unmodifiableList(children);
+        this.childrenByName = childrenByName;
+    }
+
+    private String toKey(String fileName) {
+        if (caseSensitive) {
+            return fileName;
+        }
+        // returns the same instance if the file name is upper case already (usual case for ISO 9660 file names)
+        return fileName.toUpperCase(Locale.ROOT);
+    }
+
+    public long getLocationOfExtend() {
+        return locationOfExtend;
+    }
+
+    public ISODirectoryRecord getDirectoryRecord() {
+        return directoryRecord;
+    }
+
+    public List<ISODirectoryRecord> getChildren() {
+        return children;
+    }
+
+    /**
+     * Gets the child with the specified file name (case-insensitive, unless the directory is case-sensitive).
+     *
+     * @param fileName the file name without a file version number
+     * @return the directory record of the child or null, if there is no such child
+     */
+    public ISODirectoryRecord getChild(String fileName) {
+        return childrenByName.get(toKey(fileName));
+    }
+
+    /* package-private */ boolean isReferenced() {
+        return referenced;
+    }
+
+    /* package-private */ void setReferenced(boolean referenced) {
+        this.referenced = referenced;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free cache of parsed directories, keyed by the location of the extent of the directory.
+ * <p>
+ * The cache is 2-way set-associative: each directory can be stored in one of two slots. On a cache miss the directory
+ * replaces a directory of its set which has not been referenced since the last replacement (second chance), thus
+ * frequently accessed directories tend to stay in the cache. A lookup of a cached directory neither locks nor
+ * allocates.
+ *
+ * @author puce
+ */
+/* package-private */ class ISODirectoryCache {
+
+    private static final int NUM_WAYS = 2;
+
+    private final AtomicReferenceArray<ISODirectory> slots;
+    private final int setMask;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param capacity the maximum number of cached directories; gets rounded up to the next power of 2
+     */
+    public ISODirectoryCache(int capacity) {
+        int numSets = 1;
+        while (numSets * NUM_WAYS < capacity) {
+            numSets *= 2;
+        }
+        this.slots = new AtomicReferenceArray<>(numSets * NUM_WAYS);
+        this.setMask = numSets - 1;
+    }
+
+    /**
+     * Gets the cached directory.
+     *
+     * @param locationOfExtend the location of the extent of the directory
+     * @return the cached directory or null, if the directory is not cached
+     */
+    public ISODirectory get(long locationOfExtend) {
+        int firstSlot = getFirstSlot(locationOfExtend);
+        for (int way = 0; way < NUM_WAYS; way++) {
+            ISODirectory directory = slots.get(firstSlot + way);
+            if (directory != null && directory.getLocationOfExtend() == locationOfExtend) {
+                if (!directory.isReferenced()) {
+                    directory.setReferenced(true);
+                }
+                return directory;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a directory to the cache, possibly replacing another directory.
+     *
+     * @param directory the directory
+     */
+    public void put(ISODirectory directory) {
+        int firstSlot = getFirstSlot(directory.getLocationOfExtend());
+        int victimSlot = firstSlot;
+        for (int way = 0; way < NUM_WAYS; way++) {
+            ISODirectory cachedDirectory = slots.get(firstSlot + way);
+            if (cachedDirectory == null || cachedDirectory.getLocationOfExtend() == directory.getLocationOfExtend()) {
+                slots.set(firstSlot + way, directory);
+                return;
+            }
+            if (!cachedDirectory.isReferenced()) {
+                victimSlot = firstSlot + way;
+            } else {
+                cachedDirectory.setReferenced(false);
+            }
+        }
+        slots.set(victimSlot, directory);
+    }
+
+    private int getFirstSlot(long locationOfExtend) {
+        long hash = locationOfExtend * 0x9E3779B97F4A7C15L;
+        return ((int) (hash >>> 32) & setMask) * NUM_WAYS;
+    }
+
+    public void clear() {
+        for (int slot = 0; slot < slots.length(); slot++) {
+            slots.set(slot, null);
+        }
+    }
+}
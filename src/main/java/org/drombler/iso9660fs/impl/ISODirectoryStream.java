@@ -0,0 +1,102 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import org.drombler.iso9660fs.ISODirectoryRecord;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy {@link DirectoryStream}. The directory records are consumed as the iterator advances; the entries for the
+ * directory itself and its parent directory are skipped.
+ *
+ * @author puce
+ */
+/* package-private */ class ISODirectoryStream implements DirectoryStream<Path> {
+
+    private final ISOPath directory;
+    private final Iterator<ISODirectoryRecord> directoryRecordIterator;
+    private final Filter<? super Path> filter;
+    private volatile boolean open = true;
+    private boolean iteratorReturned = false;
+
+    public ISODirectoryStream(ISOPath directory, Iterator<ISODirectoryRecord> directoryRecordIterator, Filter<? super Path> filter) {
+        this.directory = directory;
+        this.directoryRecordIterator = directoryRecordIterator;
+        this.filter = filter;
+    }
+
+    @Override
+    public synchronized Iterator<Path> iterator() {
+        if (!open) {
+            throw new IllegalStateException("The directory stream is closed: " + directory);
+        }
+        if (iteratorReturned) {
+            throw new IllegalStateException("The iterator has already been returned: " + directory);
+        }
+        iteratorReturned = true;
+        return new Iterator<>() {
+            private Path next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && open) {
+                    next = readNext();
+                }
+                return next != null;
+            }
+
+            @Override
+            public Path next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Path path = next;
+                next = null;
+                return path;
+            }
+
+            private Path readNext() {
+                try {
+                    while (directoryRecordIterator.hasNext()) {
+                        ISODirectoryRecord directoryRecord = directoryRecordIterator.next();
+                        if (!directoryRecord.isSelfOrParentDirectory()) {
+                            Path path = directory.resolveRecordedFileName(directoryRecord.getFileName());
+                            if (filter == null || filter.accept(path)) {
+                                return path;
+                            }
+                        }
+                    }
+                    return null;
+                } catch (UncheckedIOException ex) {
+                    throw new DirectoryIteratorException(ex.getCause());
+                } catch (IOException ex) {
+                    throw new DirectoryIteratorException(ex);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+}
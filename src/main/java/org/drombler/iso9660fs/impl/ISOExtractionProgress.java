@@ -0,0 +1,96 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import java.time.Duration;
+
+/**
+ * An immutable snapshot of the progress of an extraction.
+ *
+ * @author puce
+ * @see ISOExtractor
+ */
+public final class ISOExtractionProgress {
+
+    private final int numFiles;
+    private final int numExtractedFiles;
+    private final long numBytes;
+    private final long numExtractedBytes;
+    private final Duration elapsedTime;
+
+    public ISOExtractionProgress(int numFiles, int numExtractedFiles, long numBytes, long numExtractedBytes, Duration elapsedTime) {
+        this.numFiles = numFiles;
+        this.numExtractedFiles = numExtractedFiles;
+        this.numBytes = numBytes;
+        this.numExtractedBytes = numExtractedBytes;
+        this.elapsedTime = elapsedTime;
+    }
+
+    /**
+     * @return the total number of files to extract
+     */
+    public int getNumFiles() {
+        return numFiles;
+    }
+
+    /**
+     * @return the number of files extracted so far
+     */
+    public int getNumExtractedFiles() {
+        return numExtractedFiles;
+    }
+
+    /**
+     * @return the total number of bytes to extract
+     */
+    public long getNumBytes() {
+        return numBytes;
+    }
+
+    /**
+     * @return the number of bytes extracted so far
+     */
+    public long getNumExtractedBytes() {
+        return numExtractedBytes;
+    }
+
+    /**
+     * @return the time elapsed since the extraction started
+     */
+    public Duration getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * Gets the average throughput since the extraction started.
+     *
+     * @return the average throughput in bytes per second
+     */
+    public double getThroughput() {
+        long elapsedNanos = elapsedTime.toNanos();
+        return elapsedNanos > 0 ? numExtractedBytes * 1e9 / elapsedNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ISOExtractionProgress{"
+                + "numFiles=" + numFiles
+                + ", numExtractedFiles=" + numExtractedFiles
+                + ", numBytes=" + numBytes
+                + ", numExtractedBytes=" + numExtractedBytes
+                + ", elapsedTime=" + elapsedTime
+                + ", throughput=" + getThroughput() + '}';
+    }
+}
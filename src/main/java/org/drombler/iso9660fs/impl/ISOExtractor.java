@@ -0,0 +1,295 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import org.drombler.iso9660fs.ISODirectoryRecord;
+import org.drombler.iso9660fs.ISOFileFlag;
+import org.drombler.iso9660fs.ISOImage;
+import org.drombler.iso9660fs.ISOPrimaryVolumeDescriptor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Extracts the whole content of an ISO file system to a local directory.<br>
+ * <br>
+ * The directory tree is walked first and the directories are created. The files are then sorted by their location on
+ * the image, so the image is read mostly sequentially, and copied in parallel on a work-stealing
+ * {@link ForkJoinPool}. Rock Ridge symbolic links are recreated as symbolic links after the files have been copied.
+ *
+ * @author puce
+ */
+public class ISOExtractor {
+
+    /**
+     * Split the files into tasks until a task copies at most this many bytes or a single file.
+     */
+    private static final long MAX_TASK_SIZE = 8 * 1024 * 1024;
+
+    private final ISOFileSystem fileSystem;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private boolean replaceExisting = false;
+    private Consumer<? super ISOExtractionProgress> progressListener;
+
+    public ISOExtractor(ISOFileSystem fileSystem) {
+        this.fileSystem = fileSystem;
+    }
+
+    /**
+     * Sets the number of threads copying files. Default: the number of available processors
+     *
+     * @param parallelism the number of threads copying files
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be greater than 0 but was: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * If true, existing files get replaced. Default: false
+     *
+     * @param replaceExisting if true, existing files get replaced
+     */
+    public void setReplaceExisting(boolean replaceExisting) {
+        this.replaceExisting = replaceExisting;
+    }
+
+    /**
+     * Sets a listener, which gets notified after each extracted file. The listener gets called concurrently from the
+     * copying threads.
+     *
+     * @param progressListener the progress listener (may be null)
+     */
+    public void setProgressListener(Consumer<? super ISOExtractionProgress> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Extracts the whole content of the ISO file system to the specified target directory.
+     *
+     * @param target the target directory; gets created if it doesn't exist yet
+     * @return the final progress of the extraction
+     * @throws IOException if an I/O error occurs
+     */
+    public ISOExtractionProgress extract(Path target) throws IOException {
+        long startTime = System.nanoTime();
+        Path targetDirectory = target.toAbsolutePath().normalize();
+        Files.createDirectories(targetDirectory);
+
+        ISODirectoryRecord rootDirectoryRecord = fileSystem.getVolumeDescriptor().getRootDirectoryDescriptor();
+        CollectedEntries entries = new CollectedEntries();
+        entries.visitedExtents.add(rootDirectoryRecord.getLocationOfExtend());
+        collectEntries(rootDirectoryRecord, targetDirectory, targetDirectory, entries);
+        List<ExtractionEntry> files = entries.files;
+        files.sort(Comparator.comparingLong(entry -> entry.directoryRecord.getLocationOfExtend()));
+
+        long numBytes = files.stream().mapToLong(entry -> entry.directoryRecord.getSize()).sum();
+        Extraction extraction = new Extraction(files, numBytes, startTime);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new CopyFilesTask(extraction, 0, files.size()));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            pool.shutdown();
+        }
+
+        // no file gets written through a symbolic link
+        for (ExtractionEntry symbolicLink : entries.symbolicLinks) {
+            createSymbolicLink(symbolicLink);
+        }
+        // set the times of the directories after their content has been written
+        for (ExtractionEntry directory : entries.directories) {
+            setLastModifiedTime(directory);
+        }
+        return extraction.getProgress();
+    }
+
+    private void collectEntries(ISODirectoryRecord directoryRecord, Path directory, Path targetDirectory,
+            CollectedEntries entries) throws IOException {
+        try {
+            Iterator<ISODirectoryRecord> iterator = directoryRecord.directoryRecordIterator(fileSystem.getImage(),
+                    fileSystem.getVolumeDescriptor());
+            while (iterator.hasNext()) {
+                ISODirectoryRecord childRecord = iterator.next();
+                if (!childRecord.isSelfOrParentDirectory()
+                        && !childRecord.isFileFlagSet(ISOFileFlag.ASSOCIATED_FILE)) {
+                    Path path = directory.resolve(childRecord.getFileName()).normalize();
+                    if (!path.getParent().equals(directory) || !path.startsWith(targetDirectory)) {
+                        throw new FileSystemException(path.toString(), null, "Invalid file identifier: "
+                                + childRecord.getFileIdentifier());
+                    }
+                    ExtractionEntry entry = new ExtractionEntry(childRecord, path);
+                    if (childRecord.isDirectory()) {
+                        // a directory pointing to the extent of a visited directory would recurse endlessly
+                        if (entries.visitedExtents.add(childRecord.getLocationOfExtend())) {
+                            Files.createDirectories(path);
+                            entries.directories.add(entry);
+                            collectEntries(childRecord, path, targetDirectory, entries);
+                        }
+                    } else if (childRecord.getSymbolicLinkTarget() != null) {
+                        entries.symbolicLinks.add(entry);
+                    } else {
+                        entries.files.add(entry);
+                    }
+                }
+            }
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private void copyFile(ExtractionEntry entry) throws IOException {
+        ISODirectoryRecord directoryRecord = entry.directoryRecord;
+        ISOImage image = fileSystem.getImage();
+        ISOPrimaryVolumeDescriptor primaryVolumeDescriptor = fileSystem.getVolumeDescriptor();
+        Set<OpenOption> openOptions = replaceExisting
+                ? Set.of(StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)
+                : Set.of(StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW);
+        try (FileChannel target = FileChannel.open(entry.path, openOptions)) {
+            directoryRecord.transferTo(image, primaryVolumeDescriptor, target);
+        }
+        setLastModifiedTime(entry);
+    }
+
+    private void createSymbolicLink(ExtractionEntry entry) throws IOException {
+        if (replaceExisting) {
+            Files.deleteIfExists(entry.path);
+        }
+        Files.createSymbolicLink(entry.path, Paths.get(entry.directoryRecord.getSymbolicLinkTarget()));
+    }
+
+    private static void setLastModifiedTime(ExtractionEntry entry) throws IOException {
+        if (entry.directoryRecord.getRecordingDateTime() != null) {
+            Files.setLastModifiedTime(entry.path, FileTime.from(entry.directoryRecord.getRecordingDateTime().toInstant()));
+        }
+    }
+
+    private static class ExtractionEntry {
+
+        private final ISODirectoryRecord directoryRecord;
+        private final Path path;
+
+        public ExtractionEntry(ISODirectoryRecord directoryRecord, Path path) {
+            this.directoryRecord = directoryRecord;
+            this.path = path;
+        }
+    }
+
+    private static class CollectedEntries {
+
+        private final List<ExtractionEntry> directories = new ArrayList<>();
+        private final List<ExtractionEntry> files = new ArrayList<>();
+        private final List<ExtractionEntry> symbolicLinks = new ArrayList<>();
+        // guards against cycles in malformed images
+        private final Set<Long> visitedExtents = new HashSet<>();
+    }
+
+    private class Extraction {
+
+        private final List<ExtractionEntry> files;
+        private final long numBytes;
+        private final long startTime;
+        private final AtomicInteger numExtractedFiles = new AtomicInteger();
+        private final AtomicLong numExtractedBytes = new AtomicLong();
+
+        public Extraction(List<ExtractionEntry> files, long numBytes, long startTime) {
+            this.files = files;
+            this.numBytes = numBytes;
+            this.startTime = startTime;
+        }
+
+        public void copyFile(int index) throws IOException {
+            ExtractionEntry entry = files.get(index);
+            ISOExtractor.this.copyFile(entry);
+            numExtractedFiles.incrementAndGet();
+            numExtractedBytes.addAndGet(entry.directoryRecord.getSize());
+            if (progressListener != null) {
+                progressListener.accept(getProgress());
+            }
+        }
+
+        public ISOExtractionProgress getProgress() {
+            return new ISOExtractionProgress(files.size(), numExtractedFiles.get(), numBytes, numExtractedBytes.get(),
+                    Duration.ofNanos(System.nanoTime() - startTime));
+        }
+    }
+
+    /**
+     * Copies a range of the sorted files. The range gets split in halves, so idle threads can steal the second half of
+     * a range while the first half is still being copied sequentially.
+     */
+    private static class CopyFilesTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Extraction extraction;
+        private final int fromIndex;
+        private final int toIndex;
+
+        public CopyFilesTask(Extraction extraction, int fromIndex, int toIndex) {
+            this.extraction = extraction;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex > 1 && getSize() > MAX_TASK_SIZE) {
+                int middleIndex = (fromIndex + toIndex) >>> 1;
+                invokeAll(new CopyFilesTask(extraction, fromIndex, middleIndex),
+                        new CopyFilesTask(extraction, middleIndex, toIndex));
+            } else {
+                try {
+                    for (int index = fromIndex; index < toIndex; index++) {
+                        extraction.copyFile(index);
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        }
+
+        private long getSize() {
+            long size = 0;
+            for (int index = fromIndex; index < toIndex && size <= MAX_TASK_SIZE; index++) {
+                size += extraction.files.get(index).directoryRecord.getSize();
+            }
+            return size;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package org.drombler.iso9660fs.impl;
 
 import org.drombler.iso9660fs.ISODirectoryRecord;
-import org.drombler.iso9660fs.ISOFileFlag;
+import org.drombler.iso9660fs.ISOPosixAttributes;
+import org.drombler.iso9660fs.ISORockRidgeTimestampType;
 
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
+import java.time.ZonedDateTime;
 
 public class ISOFileAttributes implements BasicFileAttributes {
 
@@ -16,32 +18,42 @@ public class ISOFileAttributes implements BasicFileAttributes {
 
     @Override
     public FileTime lastModifiedTime() {
-        return FileTime.from(directoryRecord.getRecordingDateTime().toInstant());
+        return getTime(ISORockRidgeTimestampType.MODIFY);
     }
 
     @Override
     public FileTime lastAccessTime() {
-        return lastModifiedTime();
+        return getTime(ISORockRidgeTimestampType.ACCESS);
     }
 
     @Override
     public FileTime creationTime() {
-        return lastModifiedTime();
+        return getTime(ISORockRidgeTimestampType.CREATION);
+    }
+
+    private FileTime getTime(ISORockRidgeTimestampType timestampType) {
+        // the Rock Ridge timestamps (if any) are more precise than the recording date and time
+        ZonedDateTime dateTime = directoryRecord.getRockRidgeTimestamp(timestampType);
+        if (dateTime == null) {
+            dateTime = directoryRecord.getRecordingDateTime();
+        }
+        return FileTime.from(dateTime.toInstant());
     }
 
     @Override
     public boolean isRegularFile() {
-        return !isDirectory();
+        return !isDirectory() && !isSymbolicLink();
     }
 
     @Override
     public boolean isDirectory() {
-        return directoryRecord.getFileFlags().contains(ISOFileFlag.DIRECTORY);
+        return directoryRecord.isDirectory();
     }
 
     @Override
     public boolean isSymbolicLink() {
-        return false;
+        ISOPosixAttributes posixAttributes = directoryRecord.getPosixAttributes();
+        return posixAttributes != null ? posixAttributes.isSymbolicLink() : directoryRecord.getSymbolicLinkTarget() != null;
     }
 
     @Override
@@ -51,7 +63,7 @@ public class ISOFileAttributes implements BasicFileAttributes {
 
     @Override
     public long size() {
-        return directoryRecord.getDataLength();
+        return directoryRecord.getSize();
     }
 
     @Override
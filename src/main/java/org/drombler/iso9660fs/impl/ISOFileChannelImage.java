@@ -0,0 +1,81 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import org.drombler.iso9660fs.ISOImage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * An {@link ISOImage} reading the data with positional reads from a {@link FileChannel}.
+ *
+ * @author puce
+ */
+public class ISOFileChannelImage implements ISOImage {
+
+    private final FileChannel fileChannel;
+
+    public ISOFileChannelImage(FileChannel fileChannel) {
+        this.fileChannel = fileChannel;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return fileChannel.size();
+    }
+
+    @Override
+    public ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(length);
+        while (byteBuffer.hasRemaining()) {
+            final int numBytes = fileChannel.read(byteBuffer, position + byteBuffer.position());
+            if (numBytes < 0) {
+                throw new IOException("Too few data to read: " + byteBuffer.position());
+            }
+        }
+        byteBuffer.position(0);
+        return byteBuffer;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        return fileChannel.read(dst, position);
+    }
+
+    /**
+     * Transfers the data with {@link FileChannel#transferTo(long, long, WritableByteChannel)}, which lets the operating
+     * system copy the data without a user-space buffer (e.g. with sendfile or copy_file_range) if possible.
+     */
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        long numTransferredBytes = 0;
+        while (numTransferredBytes < count) {
+            long numBytes = fileChannel.transferTo(position + numTransferredBytes, count - numTransferredBytes, target);
+            if (numBytes <= 0) {
+                break;
+            }
+            numTransferredBytes += numBytes;
+        }
+        return numTransferredBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileChannel.close();
+    }
+}
@@ -16,20 +16,35 @@ package org.drombler.iso9660fs.impl;
 
 import org.drombler.iso9660fs.*;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.nio.file.attribute.UserPrincipalLookupService;
 import java.nio.file.spi.FileSystemProvider;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
 
 /**
+ * An ISO 9660 file system. This file system is thread-safe: the image is only read with positional reads and the
+ * metadata loaded at mount time is immutable, thus many threads can resolve paths and read file contents concurrently
+ * without any global lock.
+ *
  * @author puce
  */
 public class ISOFileSystem extends FileSystem {
@@ -39,10 +54,64 @@ public class ISOFileSystem extends FileSystem {
     public static final String CURRENT_PATH_STRING = ".";
     public static final String PARENT_PATH_STRING = "..";
 
+    private static final System.Logger LOGGER = System.getLogger(ISOFileSystem.class.getName());
+
     private static final String BASIC_FILE_ATTRIBUTES_NAME = "basic";
 
     private static final Set<String> SUPPORTED_FILE_ATTRIBUTE_VIEWS = Set.of(BASIC_FILE_ATTRIBUTES_NAME);
 
+    /**
+     * If true, the image file gets memory-mapped. Default: false
+     */
+    private static final String MMAP_OPTION = "mmap";
+    /**
+     * The size of the block cache in bytes. Default: 0 (no block cache)
+     */
+    private static final String BLOCK_CACHE_SIZE_OPTION = "blockCacheSize";
+    /**
+     * If true, the blocks of the block cache are stored off-heap. Default: false
+     */
+    private static final String BLOCK_CACHE_DIRECT_OPTION = "blockCacheDirect";
+    /**
+     * The maximum size of the readahead window of the file content channels in bytes. Ignored if the image file is
+     * memory-mapped. Default: 4 MiB, 0 disables the readahead
+     */
+    private static final String READAHEAD_SIZE_OPTION = "readaheadSize";
+    private static final int DEFAULT_READAHEAD_SIZE = 4 * 1024 * 1024;
+    /**
+     * The maximum number of parsed directories to cache. Default: 1024
+     */
+    private static final String DIRECTORY_CACHE_SIZE_OPTION = "directoryCacheSize";
+    private static final int DEFAULT_DIRECTORY_CACHE_SIZE = 1024;
+    /**
+     * If true, a compact off-heap index of the whole directory tree is built at mount time and the directory cache is
+     * not used. Default: false
+     */
+    private static final String METADATA_INDEX_OPTION = "metadataIndex";
+    /**
+     * If true, the metadata index is stored in an index file next to the image file and reused on later mounts.
+     * Implies {@link #METADATA_INDEX_OPTION}. Default: false
+     */
+    private static final String PERSISTENT_METADATA_INDEX_OPTION = "persistentMetadataIndex";
+    /**
+     * The directory to store the index files in instead of next to the image file. Implies
+     * {@link #PERSISTENT_METADATA_INDEX_OPTION}. Default: none
+     */
+    private static final String METADATA_INDEX_DIRECTORY_OPTION = "metadataIndexDirectory";
+    private static final String METADATA_INDEX_FILE_EXTENSION = ".index";
+    /**
+     * If false, the Joliet directory hierarchy (if any) is ignored and names are resolved with the primary directory
+     * hierarchy. Default: true
+     */
+    private static final String JOLIET_OPTION = "joliet";
+    /**
+     * If false, the Rock Ridge extensions of the primary directory hierarchy (if any) are ignored. Default: true
+     */
+    private static final String ROCK_RIDGE_OPTION = "rockRidge";
+    private static final int VOLUME_DESCRIPTOR_SET_LOCATION = 32768;
+    private static final int MAX_NUM_VOLUME_DESCRIPTORS = 64;
+    private static final int VOLUME_DESCRIPTOR_VERSION_OFFSET = 6;
+
     private final ISOFileSystemProvider fileSystemProvider;
 
     private final Path fileSystemPath;
@@ -54,11 +123,20 @@ public class ISOFileSystem extends FileSystem {
     private final Path emptyPath = new ISOPath(this, EMPTY_PATH_STRING, false);
     private final ISOPath currentDirectory = new ISOPath(this, CURRENT_PATH_STRING, false);
     private final ISOPath parentDirectory = new ISOPath(this, PARENT_PATH_STRING, false);
-    private final SeekableByteChannel byteChannel;
-    private boolean open = true;
-
-    private ISOPrimaryVolumeDescriptor primaryVolumeDescriptor;
-    private ISODirectoryRecord rootDirectoryDescriptor;
+    private final ConcurrentMap<String, String> fileNames = new ConcurrentHashMap<>();
+    private final ISOImage image;
+    private final AtomicBoolean open = new AtomicBoolean(true);
+
+    private final ISOPrimaryVolumeDescriptor primaryVolumeDescriptor;
+    private final ISOPrimaryVolumeDescriptor volumeDescriptor;
+    private final int volumeDescriptorSetChecksum;
+    private final ISODirectoryRecord rootDirectoryDescriptor;
+    private final ISODirectoryCache directoryCache;
+    private final ISOMetadataIndex metadataIndex;
+    private final AtomicReference<ExecutorService> asynchronousReadExecutor = new AtomicReference<>();
+    private final int readaheadSize;
+    // the paths created by the field initializers see false, which doesn't matter since their names have no case
+    private final boolean caseSensitive;
 
     ISOFileSystem(ISOFileSystemProvider fileSystemProvider, Path fileSystemPath, Map<String, ?> env) throws IOException {
         this.fileSystemProvider = fileSystemProvider;
@@ -66,34 +144,173 @@ public class ISOFileSystem extends FileSystem {
         this.env = env;
         this.fileStore = new ISOFileStore(fileSystemPath);
         this.fileStores = Collections.singletonList(fileStore);
-        System.out.println("FileSystemPath: " + fileSystemPath);
-        this.byteChannel = Files.newByteChannel(fileSystemPath);
-        init();
+        LOGGER.log(System.Logger.Level.DEBUG, () -> "FileSystemPath: " + fileSystemPath);
+        this.image = openImage(fileSystemPath, env);
+        // reads of a memory-mapped image are served from the page cache without system calls
+        this.readaheadSize = getBooleanOption(env, MMAP_OPTION) ? 0
+                : (int) Math.min(getLongOption(env, READAHEAD_SIZE_OPTION, DEFAULT_READAHEAD_SIZE), Integer.MAX_VALUE - 8);
+        try {
+            CRC32 crc32 = new CRC32();
+            List<ISOPrimaryVolumeDescriptor> volumeDescriptors = readVolumeDescriptors(crc32);
+            this.volumeDescriptorSetChecksum = (int) crc32.getValue();
+            this.primaryVolumeDescriptor = volumeDescriptors.stream()
+                    .filter(descriptor -> descriptor.getType() == ISOVolumeDescriptorType.PRIMARY_VOLUME_DESCRIPTOR)
+                    .findFirst()
+                    .orElseThrow(() -> new IOException("No primary volume descriptor found: " + fileSystemPath));
+            // prefer the Rock Ridge extensions and else the Joliet directory hierarchy for name resolution: they record the
+            // long, mixed-case names
+            if (getBooleanOption(env, ROCK_RIDGE_OPTION, true) && primaryVolumeDescriptor.enableRockRidge(image)) {
+                this.volumeDescriptor = primaryVolumeDescriptor;
+            } else {
+                this.volumeDescriptor = !getBooleanOption(env, JOLIET_OPTION, true) ? primaryVolumeDescriptor : volumeDescriptors.stream()
+                        .filter(descriptor -> descriptor instanceof ISOSupplementaryVolumeDescriptor)
+                        .filter(descriptor -> ((ISOSupplementaryVolumeDescriptor) descriptor).isJoliet())
+                        .findFirst()
+                        .orElse(primaryVolumeDescriptor);
+            }
+            this.caseSensitive = isRockRidge();
+            primaryVolumeDescriptor.loadPathTables(image);
+            if (volumeDescriptor != primaryVolumeDescriptor) {
+                volumeDescriptor.loadPathTables(image);
+            }
+            this.rootDirectoryDescriptor = volumeDescriptor.getRootDirectoryDescriptor();
+            this.rootDirectoryDescriptor.loadDirectory(image, volumeDescriptor, false);
+            Path metadataIndexFile = getMetadataIndexFile(fileSystemPath, env);
+            if (metadataIndexFile != null) {
+                this.metadataIndex = loadMetadataIndex(metadataIndexFile);
+                this.directoryCache = null;
+            } else if (getBooleanOption(env, METADATA_INDEX_OPTION)) {
+                this.metadataIndex = ISOMetadataIndex.build(image, volumeDescriptor);
+                this.directoryCache = null;
+            } else {
+                this.metadataIndex = null;
+                long directoryCacheSize = getLongOption(env, DIRECTORY_CACHE_SIZE_OPTION, DEFAULT_DIRECTORY_CACHE_SIZE);
+                this.directoryCache = directoryCacheSize > 0 ? new ISODirectoryCache((int) directoryCacheSize) : null;
+            }
+        } catch (IOException | RuntimeException ex) {
+            image.close();
+            throw ex;
+        }
+    }
+
+    private static ISOImage openImage(Path fileSystemPath, Map<String, ?> env) throws IOException {
+        FileChannel fileChannel = FileChannel.open(fileSystemPath, StandardOpenOption.READ);
+        try {
+            if (getBooleanOption(env, MMAP_OPTION)) {
+                return new ISOMappedImage(fileChannel);
+            } else {
+                ISOImage image = new ISOFileChannelImage(fileChannel);
+                long blockCacheSize = getLongOption(env, BLOCK_CACHE_SIZE_OPTION, 0);
+                if (blockCacheSize > 0) {
+                    image = new ISOBlockCache(image, blockCacheSize, getBooleanOption(env, BLOCK_CACHE_DIRECT_OPTION));
+                }
+                return image;
+            }
+        } catch (IOException | RuntimeException ex) {
+            fileChannel.close();
+            throw ex;
+        }
+    }
+
+    private static Path getMetadataIndexFile(Path fileSystemPath, Map<String, ?> env) {
+        Path metadataIndexDirectory = getPathOption(env, METADATA_INDEX_DIRECTORY_OPTION);
+        String imageFileName = fileSystemPath.getFileName().toString();
+        if (metadataIndexDirectory != null) {
+            // the absolute path of the image disambiguates images with the same file name
+            return metadataIndexDirectory.resolve(imageFileName + "-" + Integer.toHexString(fileSystemPath.hashCode())
+                    + METADATA_INDEX_FILE_EXTENSION);
+        } else if (getBooleanOption(env, PERSISTENT_METADATA_INDEX_OPTION)) {
+            return fileSystemPath.resolveSibling(imageFileName + METADATA_INDEX_FILE_EXTENSION);
+        } else {
+            return null;
+        }
     }
 
-    private void init() throws IOException {
-        readVolumeDescriptors();
+    private ISOMetadataIndex loadMetadataIndex(Path metadataIndexFile) throws IOException {
+        BasicFileAttributes imageAttributes = Files.readAttributes(fileSystemPath, BasicFileAttributes.class);
+        ISOMetadataIndex index = ISOMetadataIndex.read(metadataIndexFile, imageAttributes, volumeDescriptor,
+                volumeDescriptorSetChecksum);
+        if (index == null) {
+            index = ISOMetadataIndex.build(image, volumeDescriptor);
+            try {
+                index.write(metadataIndexFile, imageAttributes, volumeDescriptorSetChecksum);
+            } catch (IOException ex) {
+                // the index file is only an optimization of later mounts: keep the index built in memory, e.g. if the
+                // directory is read-only or the disk is full
+                LOGGER.log(System.Logger.Level.WARNING, "Could not write the metadata index file: " + metadataIndexFile, ex);
+            }
+        }
+        return index;
     }
 
-    private void readVolumeDescriptors() throws IOException {
-        final int KiB_32 = 32768;
-        byteChannel.position(KiB_32);
+    private static boolean getBooleanOption(Map<String, ?> env, String name) {
+        return getBooleanOption(env, name, false);
+    }
 
-        ByteBuffer byteBuffer = ByteBuffer.allocate(ISOVolumeDescriptor.SECTOR_LENGTH);
-        final int numBytes = byteChannel.read(byteBuffer);
-        if (numBytes != ISOVolumeDescriptor.SECTOR_LENGTH) {
-            throw new IOException("Too few data to read: " + numBytes);
+    private static boolean getBooleanOption(Map<String, ?> env, String name, boolean defaultValue) {
+        Object value = env != null ? env.get(name) : null;
+        if (value == null) {
+            return defaultValue;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof String) {
+            return Boolean.parseBoolean((String) value);
+        } else {
+            throw new IllegalArgumentException("The value of the option '" + name + "' must be a Boolean or a String but was: " + value);
         }
-        byteBuffer.position(0);
-        ISOVolumeDescriptor volumeDescriptor = ISOVolumeDescriptor.createISOVolumeDescriptor(byteBuffer);
-        System.out.println(volumeDescriptor);
-        if (volumeDescriptor.getType() == ISOVolumeDescriptorType.PRIMARY_VOLUME_DESCRIPTOR) {
-            this.primaryVolumeDescriptor = (ISOPrimaryVolumeDescriptor) volumeDescriptor;
-            this.rootDirectoryDescriptor = primaryVolumeDescriptor.getRootDirectoryDescriptor();
-            primaryVolumeDescriptor.loadPathTables(byteChannel);
-            this.rootDirectoryDescriptor.loadDirectory(byteChannel, primaryVolumeDescriptor, false);
+    }
+
+    private static long getLongOption(Map<String, ?> env, String name, long defaultValue) {
+        Object value = env != null ? env.get(name) : null;
+        if (value == null) {
+            return defaultValue;
+        } else if (value instanceof Number) {
+            return ((Number) value).longValue();
+        } else if (value instanceof String) {
+            return Long.parseLong((String) value);
+        } else {
+            throw new IllegalArgumentException("The value of the option '" + name + "' must be a Number or a String but was: " + value);
         }
+    }
+
+    private static Path getPathOption(Map<String, ?> env, String name) {
+        Object value = env != null ? env.get(name) : null;
+        if (value == null) {
+            return null;
+        } else if (value instanceof Path) {
+            return (Path) value;
+        } else if (value instanceof String) {
+            return Paths.get((String) value);
+        } else {
+            throw new IllegalArgumentException("The value of the option '" + name + "' must be a Path or a String but was: " + value);
+        }
+    }
 
+    /**
+     * Reads the volume descriptor set up to the volume descriptor set terminator. Only the primary volume descriptor
+     * and the supplementary volume descriptors are returned.
+     */
+    private List<ISOPrimaryVolumeDescriptor> readVolumeDescriptors(CRC32 crc32) throws IOException {
+        List<ISOPrimaryVolumeDescriptor> volumeDescriptors = new ArrayList<>();
+        for (int i = 0; i < MAX_NUM_VOLUME_DESCRIPTORS; i++) {
+            ByteBuffer byteBuffer = image.read(VOLUME_DESCRIPTOR_SET_LOCATION + (long) i * ISOVolumeDescriptor.SECTOR_LENGTH,
+                    ISOVolumeDescriptor.SECTOR_LENGTH);
+            if (byteBuffer.remaining() < ISOVolumeDescriptor.SECTOR_LENGTH) {
+                break; // end of the image
+            }
+            crc32.update(byteBuffer.duplicate());
+            ISOVolumeDescriptorType type = ISOVolumeDescriptorType.getType(ISOUtils.getUnsignedByte(byteBuffer, 0));
+            if (type == ISOVolumeDescriptorType.VOLUME_DESCRIPTOR_SET_TERMINATOR) {
+                break;
+            } else if (type == ISOVolumeDescriptorType.PRIMARY_VOLUME_DESCRIPTOR
+                    || (type == ISOVolumeDescriptorType.SUPPLEMENTARY_VOLUME_DESCRIPTOR
+                    && byteBuffer.get(VOLUME_DESCRIPTOR_VERSION_OFFSET) == 1)) { // ignore enhanced volume descriptors (version 2)
+                ISOVolumeDescriptor volumeDescriptor = ISOVolumeDescriptor.createISOVolumeDescriptor(byteBuffer);
+                LOGGER.log(System.Logger.Level.DEBUG, volumeDescriptor::toString);
+                volumeDescriptors.add((ISOPrimaryVolumeDescriptor) volumeDescriptor);
+            }
+        }
+        return volumeDescriptors;
     }
 
     @Override
@@ -103,12 +320,26 @@ public class ISOFileSystem extends FileSystem {
 
     @Override
     public void close() throws IOException {
-        open = false;
+        if (!open.compareAndSet(true, false)) {
+            return;
+        }
+        fileSystemProvider.removeFileSystem(this);
+        ExecutorService executor = asynchronousReadExecutor.get();
+        if (executor != null) {
+            executor.shutdown();
+        }
+        if (directoryCache != null) {
+            directoryCache.clear();
+        }
+        fileNames.clear();
+        // the metadata index and the memory mappings get released with this file system, which is no longer
+        // referenced by the provider
+        image.close();
     }
 
     @Override
     public boolean isOpen() {
-        return open;
+        return open.get();
     }
 
     @Override
@@ -138,21 +369,12 @@ public class ISOFileSystem extends FileSystem {
 
     @Override
     public Path getPath(String first, String... more) {
-        StringBuilder sb = new StringBuilder(first);
-        for (String nameElement : more) {
-            if (!nameElement.equals(EMPTY_PATH_STRING)) {
-                if (sb.length() > 0) {
-                    sb.append(getSeparator());
-                }
-                sb.append(nameElement);
-            }
-        }
-        return ISOPath.valueOf(sb.toString(), this);
+        return ISOPath.parse(this, first, more);
     }
 
     @Override
     public PathMatcher getPathMatcher(String syntaxAndPattern) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        return ISOPathMatcher.compile(syntaxAndPattern, caseSensitive);
     }
 
     @Override
@@ -169,6 +391,23 @@ public class ISOFileSystem extends FileSystem {
         return primaryVolumeDescriptor;
     }
 
+    /**
+     * Gets the volume descriptor of the directory hierarchy used to resolve names: the primary volume descriptor, if
+     * its directory hierarchy has Rock Ridge extensions, else the Joliet supplementary volume descriptor, if any, else
+     * the primary volume descriptor.
+     *
+     * @return the volume descriptor of the directory hierarchy used to resolve names
+     */
+    public ISOPrimaryVolumeDescriptor getVolumeDescriptor() {
+        return volumeDescriptor;
+    }
+
+    private void ensureOpen() throws ClosedFileSystemException {
+        if (!open.get()) {
+            throw new ClosedFileSystemException();
+        }
+    }
+
     /* package-private */ ISOPath getRootDirectory() {
         return rootDirectory;
     }
@@ -185,6 +424,37 @@ public class ISOFileSystem extends FileSystem {
         return fileSystemPath;
     }
 
+    /* package-private */ ISOImage getImage() {
+        return image;
+    }
+
+    /**
+     * Interns the specified file name, thus paths with the same file name share a single string instance. Only file
+     * names read from the image may be interned: the interned file names are bounded by the image, but are kept until
+     * this file system gets closed.
+     *
+     * @param fileName a file name
+     * @return the interned file name
+     */
+    /* package-private */ String internFileName(String fileName) {
+        String internedFileName = fileNames.putIfAbsent(fileName, fileName);
+        return internedFileName != null ? internedFileName : fileName;
+    }
+
+    /**
+     * Names are matched case-sensitively if the directory hierarchy has Rock Ridge extensions: their POSIX alternate
+     * names may differ only in case. Else the (uppercase) file identifiers are matched ignoring case.
+     *
+     * @return true, if names are matched case-sensitively
+     */
+    /* package-private */ boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    /* package-private */ int getNumInternedFileNames() {
+        return fileNames.size();
+    }
+
     /* package-private */ ISOPath getCurrentDirectory() {
         return currentDirectory;
     }
@@ -193,11 +463,175 @@ public class ISOFileSystem extends FileSystem {
         return parentDirectory;
     }
 
-    /* package-private */ SeekableByteChannel newByteChannel(Path path) {
+    /* package-private */ SeekableByteChannel newByteChannel(ISOPath path, Set<? extends OpenOption> options) throws IOException {
+        if (!path.getFileSystem().equals(this)) {
+            throw new IllegalArgumentException("The specified path belongs to a different FileSystem! Path: " + path);
+        }
+        for (OpenOption option : options) {
+            if (option != StandardOpenOption.READ) {
+                throw new UnsupportedOperationException("Unsupported option for a read-only file system: " + option);
+            }
+        }
+        ISODirectoryRecord directoryRecord = getDirectoryRecord(path);
+        if (directoryRecord.isDirectory()) {
+            throw new FileSystemException(path.toString(), null, "Is a directory");
+        }
+        if (readaheadSize <= 0) {
+            return directoryRecord.newByteChannel(image, volumeDescriptor);
+        }
+        return directoryRecord.newByteChannel(image, volumeDescriptor, readaheadSize, getAsynchronousReadExecutor());
+    }
+
+    /* package-private */ AsynchronousFileChannel newAsynchronousFileChannel(ISOPath path, Set<? extends OpenOption> options,
+                                                                          ExecutorService executor) throws IOException {
         if (!path.getFileSystem().equals(this)) {
             throw new IllegalArgumentException("The specified path belongs to a different FileSystem! Path: " + path);
         }
-        return null;
+        for (OpenOption option : options) {
+            if (option != StandardOpenOption.READ) {
+                throw new UnsupportedOperationException("Unsupported option for a read-only file system: " + option);
+            }
+        }
+        ISODirectoryRecord directoryRecord = getDirectoryRecord(path);
+        if (directoryRecord.isDirectory()) {
+            throw new FileSystemException(path.toString(), null, "Is a directory");
+        }
+        return new ISOAsynchronousFileChannel(image, directoryRecord.getExtentMap(), volumeDescriptor.getLogicalBlockSize(),
+                executor != null ? executor : getAsynchronousReadExecutor());
+    }
+
+    /**
+     * Gets the default executor of the asynchronous file channels, which is created on first use and shut down when
+     * this file system gets closed.
+     */
+    private ExecutorService getAsynchronousReadExecutor() throws ClosedFileSystemException {
+        ExecutorService executor = asynchronousReadExecutor.get();
+        if (executor == null) {
+            ExecutorService newExecutor = ISOAsynchronousFileChannel.newDefaultExecutor();
+            if (asynchronousReadExecutor.compareAndSet(null, newExecutor)) {
+                executor = newExecutor;
+            } else {
+                newExecutor.shutdown();
+                executor = asynchronousReadExecutor.get();
+            }
+        }
+        // checked after the executor has been published, thus close either sees and shuts down the executor or this
+        // check fails
+        if (!open.get()) {
+            executor.shutdown();
+            throw new ClosedFileSystemException();
+        }
+        return executor;
+    }
+
+    /* package-private */ void copy(ISOPath source, Path target, CopyOption... options) throws IOException {
+        if (!source.getFileSystem().equals(this)) {
+            throw new IllegalArgumentException("The specified path belongs to a different FileSystem! Path: " + source);
+        }
+        if (target instanceof ISOPath) {
+            throw new ReadOnlyFileSystemException();
+        }
+        boolean replaceExisting = false;
+        boolean copyAttributes = false;
+        for (CopyOption option : options) {
+            if (option == StandardCopyOption.REPLACE_EXISTING) {
+                replaceExisting = true;
+            } else if (option == StandardCopyOption.COPY_ATTRIBUTES) {
+                copyAttributes = true;
+            } else if (option != LinkOption.NOFOLLOW_LINKS) {
+                throw new UnsupportedOperationException("Unsupported copy option: " + option);
+            }
+        }
+        ISODirectoryRecord directoryRecord = getDirectoryRecord(source);
+        if (replaceExisting) {
+            Files.deleteIfExists(target);
+        }
+        if (directoryRecord.isDirectory()) {
+            Files.createDirectory(target);
+        } else {
+            // on the default file system this is a FileChannel, which allows the image to transfer the data directly
+            try (SeekableByteChannel targetChannel = Files.newByteChannel(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                directoryRecord.transferTo(image, volumeDescriptor, targetChannel);
+            }
+        }
+        if (copyAttributes && directoryRecord.getRecordingDateTime() != null) {
+            Files.setLastModifiedTime(target, FileTime.from(directoryRecord.getRecordingDateTime().toInstant()));
+        }
+    }
+
+    /* package-private */ DirectoryStream<Path> newDirectoryStream(ISOPath dir, DirectoryStream.Filter<? super Path> filter) throws IOException {
+        if (!dir.getFileSystem().equals(this)) {
+            throw new IllegalArgumentException("The specified path belongs to a different FileSystem! Path: " + dir);
+        }
+        ensureOpen();
+        ISOPath absolutePath = (ISOPath) dir.toAbsolutePath();
+        Iterator<ISODirectoryRecord> directoryRecordIterator;
+        if (absolutePath.equals(getRootDirectory())) {
+            directoryRecordIterator = rootDirectoryDescriptor.getChildren().iterator();
+        } else if (metadataIndex != null) {
+            int entryIndex = metadataIndex.lookup(absolutePath);
+            if (entryIndex < 0) {
+                throw new NoSuchFileException(dir.toString());
+            }
+            if (!metadataIndex.isDirectory(entryIndex)) {
+                throw new NotDirectoryException(dir.toString());
+            }
+            directoryRecordIterator = metadataIndex.childIterator(entryIndex);
+        } else if (isRockRidge()) {
+            ISODirectoryRecord directoryRecord = getDirectoryRecord(dir);
+            if (!directoryRecord.isDirectory()) {
+                throw new NotDirectoryException(dir.toString());
+            }
+            ISODirectory directory = directoryCache != null ? directoryCache.get(directoryRecord.getLocationOfExtend()) : null;
+            directoryRecordIterator = directory != null
+                    ? directory.getChildren().iterator()
+                    : directoryRecord.directoryRecordIterator(image, volumeDescriptor);
+        } else {
+            ISOPathTableEntry pathTableEntry = volumeDescriptor.lookupPathTable(absolutePath);
+            if (pathTableEntry == null) {
+                getDirectoryRecord(dir); // throws a NoSuchFileException if the file does not exist
+                throw new NotDirectoryException(dir.toString());
+            }
+            ISODirectory directory = directoryCache != null ? directoryCache.get(pathTableEntry.getLocationOfExtend()) : null;
+            if (directory != null) {
+                directoryRecordIterator = directory.getChildren().iterator();
+            } else {
+                // don't materialize the children, directories can be huge
+                ISODirectoryRecord directoryRecord = volumeDescriptor.loadDirectoryRecord(image, pathTableEntry);
+                directoryRecordIterator = directoryRecord.directoryRecordIterator(image, volumeDescriptor);
+            }
+        }
+        return new ISODirectoryStream(dir, directoryRecordIterator, filter);
+    }
+
+    /**
+     * Gets an iterator over the children of a resolved directory. Uses the metadata index or the directory cache, if
+     * enabled.
+     *
+     * @param directory       the path of the directory
+     * @param directoryRecord the directory record of the directory
+     * @return an iterator over the directory records of the children, including the self and parent directory records
+     * @throws IOException if an I/O error occurs
+     */
+    /* package-private */ Iterator<ISODirectoryRecord> directoryRecordIterator(ISOPath directory,
+                                                                             ISODirectoryRecord directoryRecord) throws IOException {
+        ensureOpen();
+        if (directoryRecord == rootDirectoryDescriptor) {
+            return rootDirectoryDescriptor.getChildren().iterator();
+        } else if (metadataIndex != null) {
+            int entryIndex = metadataIndex.lookup(directory.toAbsolutePath());
+            if (entryIndex < 0) {
+                throw new NoSuchFileException(directory.toString());
+            }
+            return metadataIndex.childIterator(entryIndex);
+        } else {
+            ISODirectory cachedDirectory = directoryCache != null
+                    ? directoryCache.get(directoryRecord.getLocationOfExtend())
+                    : null;
+            return cachedDirectory != null
+                    ? cachedDirectory.getChildren().iterator()
+                    : directoryRecord.directoryRecordIterator(image, volumeDescriptor);
+        }
     }
 
     /* package-private */ BasicFileAttributes getAttributes(ISOPath path) throws IOException {
@@ -206,24 +640,102 @@ public class ISOFileSystem extends FileSystem {
     }
 
     /* package-private */ ISODirectoryRecord getDirectoryRecord(ISOPath path) throws IOException {
-        if (path.equals(getRootDirectory())) {
+        ensureOpen();
+        ISOPath absolutePath = (ISOPath) path.toAbsolutePath();
+        if (absolutePath.equals(getRootDirectory())) {
             return rootDirectoryDescriptor;
+        } else if (metadataIndex != null) {
+            int entryIndex = metadataIndex.lookup(absolutePath);
+            if (entryIndex < 0) {
+                throw new NoSuchFileException(path.toString());
+            }
+            return metadataIndex.getDirectoryRecord(entryIndex);
+        } else if (isRockRidge()) {
+            ISODirectoryRecord directoryRecord = resolve(absolutePath);
+            if (directoryRecord == null) {
+                throw new NoSuchFileException(path.toString());
+            }
+            return directoryRecord;
         } else {
-            ISOPathTableEntry pathTableEntry = primaryVolumeDescriptor.lookupPathTable(path);
+            ISOPathTableEntry pathTableEntry = volumeDescriptor.lookupPathTable(absolutePath);
 
             if (pathTableEntry != null) {
-                return primaryVolumeDescriptor.loadDirectoryRecord(byteChannel, pathTableEntry);
-            } else if (path.getParent() != null) { // path table only contains entries for directories
-                pathTableEntry = primaryVolumeDescriptor.lookupPathTable(path.getParent());
-                ISODirectoryRecord directoryRecord = primaryVolumeDescriptor.loadDirectoryRecord(byteChannel, pathTableEntry);
-                directoryRecord.loadDirectory(byteChannel, primaryVolumeDescriptor, false);
-                return directoryRecord.getChildren().stream()
-                        .filter(childRecord -> childRecord.getFileIdentifier().equals(path.getFileName().toString()))
-                        .findFirst()
-                        .orElseThrow(() -> new FileNotFoundException("No directory record for path:" + path));
+                return directoryCache != null
+                        ? getDirectory(pathTableEntry).getDirectoryRecord()
+                        : volumeDescriptor.loadDirectoryRecord(image, pathTableEntry);
+            } else if (absolutePath.getParent() != null) { // path table only contains entries for directories
+                pathTableEntry = volumeDescriptor.lookupPathTable(absolutePath.getParent());
+                if (pathTableEntry != null) {
+                    ISODirectoryRecord directoryRecord = getChild(pathTableEntry, absolutePath.getFileName().toString());
+                    if (directoryRecord != null) {
+                        return directoryRecord;
+                    }
+                }
+            }
+            throw new NoSuchFileException(path.toString());
+        }
+    }
+
+    private boolean isRockRidge() {
+        return volumeDescriptor.getRockRidge() != null;
+    }
+
+    /**
+     * Resolves the specified absolute path name by name, starting at the root directory. The path table can't be used
+     * with Rock Ridge extensions since it only records the file identifiers, not the alternate names.
+     */
+    private ISODirectoryRecord resolve(ISOPath absolutePath) throws IOException {
+        ISODirectoryRecord directoryRecord = rootDirectoryDescriptor;
+        String[] fileNames = absolutePath.getFileNames();
+        for (int i = 0; i < fileNames.length && directoryRecord != null; i++) {
+            String fileName = fileNames[i];
+            if (!directoryRecord.isDirectory()) {
+                return null;
+            } else if (directoryCache != null) {
+                directoryRecord = getDirectory(directoryRecord).getChild(fileName);
+            } else {
+                directoryRecord = directoryRecord.findChild(image, volumeDescriptor, fileName);
+            }
+        }
+        return directoryRecord;
+    }
+
+    private ISODirectory getDirectory(ISODirectoryRecord directoryRecord) throws IOException {
+        ISODirectory directory = directoryCache.get(directoryRecord.getLocationOfExtend());
+        if (directory == null) {
+            List<ISODirectoryRecord> children = new ArrayList<>();
+            try {
+                directoryRecord.directoryRecordIterator(image, volumeDescriptor).forEachRemaining(children::add);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            directory = new ISODirectory(directoryRecord, children, caseSensitive);
+            directoryCache.put(directory);
+        }
+        return directory;
+    }
+
+    private ISODirectoryRecord getChild(ISOPathTableEntry pathTableEntry, String fileName) throws IOException {
+        if (directoryCache != null) {
+            return getDirectory(pathTableEntry).getChild(fileName);
+        } else {
+            // without a directory cache, scan the directory without decoding the records which don't match
+            ISODirectoryRecord directoryRecord = volumeDescriptor.loadDirectoryRecord(image, pathTableEntry);
+            return directoryRecord.findChild(image, volumeDescriptor, fileName);
+        }
+    }
+
+    private ISODirectory getDirectory(ISOPathTableEntry pathTableEntry) throws IOException {
+        ISODirectory directory = directoryCache != null ? directoryCache.get(pathTableEntry.getLocationOfExtend()) : null;
+        if (directory == null) {
+            ISODirectoryRecord directoryRecord = volumeDescriptor.loadDirectoryRecord(image, pathTableEntry);
+            directoryRecord.loadDirectory(image, volumeDescriptor, false);
+            directory = new ISODirectory(directoryRecord, directoryRecord.getChildren());
+            if (directoryCache != null) {
+                directoryCache.put(directory);
             }
-            throw new FileNotFoundException("No directory record for path:" + path);
         }
+        return directory;
     }
 
     @Override
@@ -18,15 +18,20 @@ import org.drombler.iso9660fs.ISOFileFlag;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.FileAttributeView;
 import java.nio.file.spi.FileSystemProvider;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 
 import static org.drombler.iso9660fs.impl.ISOPath.toISOPath;
 
@@ -45,7 +50,9 @@ public class ISOFileSystemProvider extends FileSystemProvider {
     // TODO: good?
 //    private static final String RESOURCE_SEPARATOR = "!/";
 
-    private final Map<Path, ISOFileSystem> fileSystems = new HashMap<>();
+    // a file system gets registered before it is mounted, thus concurrent mounts of the same image fail fast without
+    // reading the image and lookups never block on other mounts
+    private final ConcurrentMap<Path, CompletableFuture<ISOFileSystem>> fileSystems = new ConcurrentHashMap<>();
 
     @Override
     public String getScheme() {
@@ -58,13 +65,18 @@ public class ISOFileSystemProvider extends FileSystemProvider {
         if (!Files.isRegularFile(fileSystemPath)) {
             throw new IOException("The FileSystem file is not a regular file: " + fileSystemPath);
         }
-        synchronized (this) {
-            if (fileSystems.containsKey(fileSystemPath)) {
-                throw new FileSystemAlreadyExistsException("FileSystem already exists for: " + fileSystemPath);
-            }
+        CompletableFuture<ISOFileSystem> mount = new CompletableFuture<>();
+        if (fileSystems.putIfAbsent(fileSystemPath, mount) != null) {
+            throw new FileSystemAlreadyExistsException("FileSystem already exists for: " + fileSystemPath);
+        }
+        try {
             ISOFileSystem fileSystem = new ISOFileSystem(this, fileSystemPath, env);
-            fileSystems.put(fileSystemPath, fileSystem);
+            mount.complete(fileSystem);
             return fileSystem;
+        } catch (IOException | RuntimeException | Error ex) {
+            fileSystems.remove(fileSystemPath, mount);
+            mount.completeExceptionally(ex);
+            throw ex;
         }
     }
 
@@ -86,18 +98,34 @@ public class ISOFileSystemProvider extends FileSystemProvider {
     public FileSystem getFileSystem(URI uri) {
         try {
             Path fileSystemPath = getFileSystemPath(uri);
-            synchronized (this) {
-                if (fileSystems.containsKey(fileSystemPath)) {
-                    return fileSystems.get(fileSystemPath);
-                } else {
-                    throw new FileSystemNotFoundException("No existing FileSystem found for path: " + fileSystemPath);
+            CompletableFuture<ISOFileSystem> mount = fileSystems.get(fileSystemPath);
+            if (mount != null) {
+                try {
+                    return mount.join();
+                } catch (CompletionException ex) {
+                    // the mount failed concurrently
                 }
             }
+            throw new FileSystemNotFoundException("No existing FileSystem found for path: " + fileSystemPath);
         } catch (IOException ex) {
             throw new IllegalArgumentException(ex);
         }
     }
 
+    /**
+     * Deregisters a closed file system.
+     *
+     * @param fileSystem the closed file system
+     */
+    /* package-private */ void removeFileSystem(ISOFileSystem fileSystem) {
+        Path fileSystemPath = fileSystem.getFileSystemPath();
+        CompletableFuture<ISOFileSystem> mount = fileSystems.get(fileSystemPath);
+        // a closed file system must not deregister a newer file system for the same image
+        if (mount != null && !mount.isCompletedExceptionally() && mount.getNow(null) == fileSystem) {
+            fileSystems.remove(fileSystemPath, mount);
+        }
+    }
+
     @Override
     public Path getPath(URI uri) {
         String fragment = uri.getFragment();
@@ -111,15 +139,21 @@ public class ISOFileSystemProvider extends FileSystemProvider {
     @Override
     public SeekableByteChannel newByteChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs)
             throws IOException {
-        if (fileSystems.containsKey(path)) {
-            return fileSystems.get(path).newByteChannel(path);
-        }
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        ISOPath isoPath = toISOPath(path);
+        return isoPath.getFileSystem().newByteChannel(isoPath, options);
+    }
+
+    @Override
+    public AsynchronousFileChannel newAsynchronousFileChannel(Path path, Set<? extends OpenOption> options,
+                                                              ExecutorService executor, FileAttribute<?>... attrs) throws IOException {
+        ISOPath isoPath = toISOPath(path);
+        return isoPath.getFileSystem().newAsynchronousFileChannel(isoPath, options, executor);
     }
 
     @Override
     public DirectoryStream<Path> newDirectoryStream(Path dir, DirectoryStream.Filter<? super Path> filter) throws IOException {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        ISOPath isoPath = toISOPath(dir);
+        return isoPath.getFileSystem().newDirectoryStream(isoPath, filter);
     }
 
     @Override
@@ -134,7 +168,10 @@ public class ISOFileSystemProvider extends FileSystemProvider {
 
     @Override
     public void copy(Path source, Path target, CopyOption... options) throws IOException {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        // Note: Files.copy only calls this method if the target belongs to this provider as well, thus call this method
+        // directly to copy files to the default file system without a user-space buffer
+        ISOPath isoPath = toISOPath(source);
+        isoPath.getFileSystem().copy(isoPath, target, options);
     }
 
     @Override
@@ -150,7 +187,7 @@ public class ISOFileSystemProvider extends FileSystemProvider {
     @Override
     public boolean isHidden(Path path) throws IOException {
         ISOPath isoPath = toISOPath(path);
-        return isoPath.getDirectoryRecord().getFileFlags().contains(ISOFileFlag.HIDDEN);
+        return isoPath.getDirectoryRecord().isFileFlagSet(ISOFileFlag.HIDDEN);
     }
 
     @Override
@@ -0,0 +1,524 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import org.drombler.iso9660fs.ISODirectoryRecord;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.drombler.iso9660fs.impl.ISOPath.toISOPath;
+
+/**
+ * Utility methods to walk and search ISO file systems. Unlike {@link java.nio.file.Files#walk} and
+ * {@link java.nio.file.Files#find} these methods work on the directory records directly, thus the attributes of the
+ * entries don't have to be resolved again, and the directories can be read in parallel.
+ *
+ * @author puce
+ */
+public final class ISOFiles {
+
+    private ISOFiles() {
+    }
+
+    /**
+     * Finds the files and directories below the specified start directory whose path relative to the start directory
+     * matches the specified pattern, e.g. "glob:**&#47;*.rpm" or "glob:Packages/*&#47;*.rpm".<br>
+     * <br>
+     * The leading literal directory names of a glob pattern get resolved directly, the remaining leading name patterns
+     * restrict the directories being read and patterns without "**" restrict the depth of the search. Regex patterns
+     * are matched against all paths below the start directory.<br>
+     * <br>
+     * The directories are read lazily while the stream is consumed. I/O errors during the search are thrown as
+     * {@link UncheckedIOException}.
+     *
+     * @param start            the start directory
+     * @param syntaxAndPattern the pattern in the syntax of {@link java.nio.file.FileSystem#getPathMatcher}
+     * @return a stream of the matching paths, directories before their content
+     * @throws IOException if the start directory could not be read
+     */
+    public static Stream<Path> find(Path start, String syntaxAndPattern) throws IOException {
+        ISOPath startPath = toISOPath(start);
+        ISOFileSystem fileSystem = startPath.getFileSystem();
+        ISOPathMatcher matcher = ISOPathMatcher.compile(syntaxAndPattern, fileSystem.isCaseSensitive());
+
+        ISOPath directory = startPath;
+        ISOPath relativeDirectory = null;
+        for (String fileName : matcher.getLiteralPrefix()) {
+            directory = directory.resolveFileName(fileName);
+            relativeDirectory = relativeDirectory != null
+                    ? relativeDirectory.resolveFileName(fileName)
+                    : new ISOPath(fileSystem, fileName, false);
+        }
+        ISODirectoryRecord directoryRecord;
+        try {
+            directoryRecord = fileSystem.getDirectoryRecord(directory);
+        } catch (NoSuchFileException ex) {
+            if (relativeDirectory != null) {
+                // the literal prefix does not exist: nothing can match
+                return Stream.empty();
+            }
+            throw ex;
+        }
+        if (!directoryRecord.isDirectory()) {
+            if (relativeDirectory != null) {
+                return Stream.empty();
+            }
+            throw new NotDirectoryException(start.toString());
+        }
+        FindIterator iterator = new FindIterator(fileSystem, matcher);
+        iterator.pushDirectory(directory, relativeDirectory, directoryRecord);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Walks the file tree rooted at the specified start path, like {@link java.nio.file.Files#walk(Path,
+     * FileVisitOption...)}.
+     *
+     * @param start   the start path
+     * @param options the options; symbolic links are never followed
+     * @return a stream of the paths, directories before their content
+     * @throws IOException if the start path could not be read
+     * @see #walk(Path, int, FileVisitOption...)
+     */
+    public static Stream<Path> walk(Path start, FileVisitOption... options) throws IOException {
+        return walk(start, Integer.MAX_VALUE, options);
+    }
+
+    /**
+     * Walks the file tree rooted at the specified start path, like {@link java.nio.file.Files#walk(Path, int,
+     * FileVisitOption...)}.<br>
+     * <br>
+     * The stream is backed by a {@link Spliterator}, which splits by subtrees: a parallel stream reads the directories
+     * concurrently. The encounter order is the same as of a sequential walk. I/O errors during the walk are thrown as
+     * {@link UncheckedIOException}.
+     *
+     * @param start    the start path
+     * @param maxDepth the maximum number of directory levels to visit
+     * @param options  the options; symbolic links are never followed
+     * @return a stream of the paths, directories before their content
+     * @throws IOException if the start path could not be read
+     */
+    public static Stream<Path> walk(Path start, int maxDepth, FileVisitOption... options) throws IOException {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth must not be negative but was: " + maxDepth);
+        }
+        ISOPath startPath = toISOPath(start);
+        ISOFileSystem fileSystem = startPath.getFileSystem();
+        ISODirectoryRecord directoryRecord = fileSystem.getDirectoryRecord(startPath);
+        return StreamSupport.stream(new WalkSpliterator(fileSystem, maxDepth, new WalkEntry(startPath, directoryRecord, 0)),
+                false);
+    }
+
+    /**
+     * Walks the file tree rooted at the specified start path on the common {@link ForkJoinPool}.
+     *
+     * @param start   the start path
+     * @param visitor the file visitor; gets called concurrently
+     * @throws IOException if the visitor throws an IOException
+     * @see #walkFileTree(Path, FileVisitor, ForkJoinPool)
+     */
+    public static void walkFileTree(Path start, FileVisitor<? super Path> visitor) throws IOException {
+        walkFileTree(start, visitor, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Walks the file tree rooted at the specified start path, like
+     * {@link java.nio.file.Files#walkFileTree(Path, FileVisitor)}, but visits the subdirectories in parallel on the
+     * specified {@link ForkJoinPool}.<br>
+     * <br>
+     * The entries of a directory are visited in order by a single thread and postVisitDirectory gets called after all
+     * entries of the directory and of its subdirectories have been visited. Different directories are visited
+     * concurrently, thus the visitor has to be thread-safe. SKIP_SIBLINGS skips the remaining entries of the parent
+     * directory, TERMINATE stops the whole walk as soon as possible and the first IOException thrown by the visitor
+     * stops the walk as well and gets rethrown.
+     *
+     * @param start   the start path
+     * @param visitor the file visitor; gets called concurrently
+     * @param pool    the pool visiting the directories
+     * @throws IOException if the visitor throws an IOException
+     */
+    public static void walkFileTree(Path start, FileVisitor<? super Path> visitor, ForkJoinPool pool) throws IOException {
+        ISOPath startPath = toISOPath(start);
+        ISOFileSystem fileSystem = startPath.getFileSystem();
+        ISODirectoryRecord directoryRecord;
+        try {
+            directoryRecord = fileSystem.getDirectoryRecord(startPath);
+        } catch (IOException ex) {
+            visitor.visitFileFailed(start, ex);
+            return;
+        }
+        ISOFileAttributes attributes = new ISOFileAttributes(directoryRecord);
+        if (!directoryRecord.isDirectory()) {
+            visitor.visitFile(start, attributes);
+        } else if (visitor.preVisitDirectory(start, attributes) == FileVisitResult.CONTINUE) {
+            FileTreeWalk walk = new FileTreeWalk(fileSystem, visitor);
+            pool.invoke(new VisitDirectoryTask(walk, startPath, directoryRecord));
+            IOException failure = walk.failure.get();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private static Iterator<ISODirectoryRecord> childIterator(ISOFileSystem fileSystem, ISOPath directory,
+                                                              ISODirectoryRecord directoryRecord) throws IOException {
+        Iterator<ISODirectoryRecord> children = fileSystem.directoryRecordIterator(directory, directoryRecord);
+        return new Iterator<>() {
+            private ISODirectoryRecord next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && children.hasNext()) {
+                    ISODirectoryRecord childRecord = children.next();
+                    if (!childRecord.isSelfOrParentDirectory()) {
+                        next = childRecord;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public ISODirectoryRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ISODirectoryRecord childRecord = next;
+                next = null;
+                return childRecord;
+            }
+        };
+    }
+
+    private static class FindIterator implements Iterator<Path> {
+
+        private final ISOFileSystem fileSystem;
+        private final ISOPathMatcher matcher;
+        private final Deque<DirectoryEntry> directories = new ArrayDeque<>();
+        private Path next;
+
+        FindIterator(ISOFileSystem fileSystem, ISOPathMatcher matcher) {
+            this.fileSystem = fileSystem;
+            this.matcher = matcher;
+        }
+
+        private void pushDirectory(ISOPath directory, ISOPath relativeDirectory, ISODirectoryRecord directoryRecord)
+                throws IOException {
+            directories.push(new DirectoryEntry(directory, relativeDirectory,
+                    fileSystem.directoryRecordIterator(directory, directoryRecord)));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = findNext();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Path next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Path path = next;
+            next = null;
+            return path;
+        }
+
+        private Path findNext() throws IOException {
+            while (!directories.isEmpty()) {
+                DirectoryEntry directoryEntry = directories.peek();
+                if (!directoryEntry.children.hasNext()) {
+                    directories.pop();
+                    continue;
+                }
+                ISODirectoryRecord childRecord = directoryEntry.children.next();
+                if (childRecord.isSelfOrParentDirectory()) {
+                    continue;
+                }
+                String fileName = childRecord.getFileName();
+                ISOPath path = directoryEntry.directory.resolveRecordedFileName(fileName);
+                ISOPath relativePath = directoryEntry.relativeDirectory != null
+                        ? directoryEntry.relativeDirectory.resolveRecordedFileName(fileName)
+                        : new ISOPath(fileSystem, fileSystem.internFileName(fileName), false);
+                if (childRecord.isDirectory() && matcher.mayMatchBelow(relativePath)) {
+                    pushDirectory(path, relativePath, childRecord);
+                }
+                if (matcher.matches(relativePath)) {
+                    return path;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class DirectoryEntry {
+
+        private final ISOPath directory;
+        private final ISOPath relativeDirectory;
+        private final Iterator<ISODirectoryRecord> children;
+
+        DirectoryEntry(ISOPath directory, ISOPath relativeDirectory, Iterator<ISODirectoryRecord> children) {
+            this.directory = directory;
+            this.relativeDirectory = relativeDirectory;
+            this.children = children;
+        }
+    }
+
+    private static class WalkEntry {
+
+        private final ISOPath path;
+        private final ISODirectoryRecord directoryRecord;
+        private final int depth;
+        private boolean expanded = false;
+
+        WalkEntry(ISOPath path, ISODirectoryRecord directoryRecord, int depth) {
+            this.path = path;
+            this.directoryRecord = directoryRecord;
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * Holds the pending entries in encounter order. Directories get expanded lazily: their children are inserted
+     * directly after them. Splits hand over about half of the directories which have not been read yet, together with
+     * the entries preceding them.
+     */
+    private static class WalkSpliterator implements Spliterator<Path> {
+
+        private final ISOFileSystem fileSystem;
+        private final int maxDepth;
+        private final Deque<WalkEntry> entries;
+        private int numDirectories;
+
+        WalkSpliterator(ISOFileSystem fileSystem, int maxDepth, WalkEntry startEntry) {
+            this.fileSystem = fileSystem;
+            this.maxDepth = maxDepth;
+            this.entries = new ArrayDeque<>();
+            this.entries.add(startEntry);
+            this.numDirectories = isExpandable(startEntry) ? 1 : 0;
+        }
+
+        private WalkSpliterator(ISOFileSystem fileSystem, int maxDepth, Deque<WalkEntry> entries, int numDirectories) {
+            this.fileSystem = fileSystem;
+            this.maxDepth = maxDepth;
+            this.entries = entries;
+            this.numDirectories = numDirectories;
+        }
+
+        private boolean isExpandable(WalkEntry entry) {
+            return !entry.expanded && entry.depth < maxDepth && entry.directoryRecord.isDirectory();
+        }
+
+        /**
+         * Reads the children of the specified directory and inserts them at the front of the pending entries.
+         */
+        private void expand(WalkEntry entry) {
+            entry.expanded = true;
+            numDirectories--;
+            List<WalkEntry> children = new ArrayList<>();
+            try {
+                Iterator<ISODirectoryRecord> childIterator = childIterator(fileSystem, entry.path, entry.directoryRecord);
+                while (childIterator.hasNext()) {
+                    ISODirectoryRecord childRecord = childIterator.next();
+                    children.add(new WalkEntry(entry.path.resolveRecordedFileName(childRecord.getFileName()), childRecord,
+                            entry.depth + 1));
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            for (int index = children.size() - 1; index >= 0; index--) {
+                WalkEntry child = children.get(index);
+                if (isExpandable(child)) {
+                    numDirectories++;
+                }
+                entries.addFirst(child);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Path> action) {
+            WalkEntry entry = entries.pollFirst();
+            if (entry == null) {
+                return false;
+            }
+            if (isExpandable(entry)) {
+                expand(entry);
+            }
+            action.accept(entry.path);
+            return true;
+        }
+
+        @Override
+        public Spliterator<Path> trySplit() {
+            if (numDirectories == 1 && isExpandable(entries.peekFirst())) {
+                WalkEntry first = entries.pollFirst();
+                expand(first);
+                entries.addFirst(first);
+            }
+            if (numDirectories == 0) {
+                // the remaining entries are cheap
+                return null;
+            }
+            // the prefix gets about half of the directories, which have not been read yet
+            int numPrefixDirectories = numDirectories / 2;
+            Deque<WalkEntry> prefix = new ArrayDeque<>();
+            int numSplitDirectories = 0;
+            while (!entries.isEmpty()) {
+                WalkEntry entry = entries.peekFirst();
+                if (isExpandable(entry)) {
+                    if (numSplitDirectories == numPrefixDirectories) {
+                        break;
+                    }
+                    numSplitDirectories++;
+                }
+                prefix.addLast(entries.pollFirst());
+            }
+            if (prefix.isEmpty()) {
+                return null;
+            }
+            numDirectories -= numSplitDirectories;
+            return new WalkSpliterator(fileSystem, maxDepth, prefix, numSplitDirectories);
+        }
+
+        @Override
+        public long estimateSize() {
+            return numDirectories > 0 ? Long.MAX_VALUE : entries.size();
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+    }
+
+    private static class FileTreeWalk {
+
+        private final ISOFileSystem fileSystem;
+        private final FileVisitor<? super Path> visitor;
+        private final AtomicReference<IOException> failure = new AtomicReference<>();
+        private volatile boolean terminated = false;
+
+        FileTreeWalk(ISOFileSystem fileSystem, FileVisitor<? super Path> visitor) {
+            this.fileSystem = fileSystem;
+            this.visitor = visitor;
+        }
+
+        private void fail(IOException ex) {
+            failure.compareAndSet(null, ex);
+            terminated = true;
+        }
+    }
+
+    /**
+     * Visits the entries of a directory, which has been pre-visited already, forks a task per subdirectory and
+     * post-visits the directory after all subdirectories have been visited.
+     */
+    private static class VisitDirectoryTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FileTreeWalk walk;
+        private final ISOPath directory;
+        private final ISODirectoryRecord directoryRecord;
+
+        VisitDirectoryTask(FileTreeWalk walk, ISOPath directory, ISODirectoryRecord directoryRecord) {
+            this.walk = walk;
+            this.directory = directory;
+            this.directoryRecord = directoryRecord;
+        }
+
+        @Override
+        protected void compute() {
+            List<VisitDirectoryTask> subdirectoryTasks = new ArrayList<>();
+            IOException directoryFailure = null;
+            Iterator<ISODirectoryRecord> childIterator;
+            try {
+                childIterator = childIterator(walk.fileSystem, directory, directoryRecord);
+            } catch (IOException ex) {
+                directoryFailure = ex;
+                childIterator = Collections.emptyIterator();
+            }
+            try {
+                while (!walk.terminated && childIterator.hasNext()) {
+                    ISODirectoryRecord childRecord = childIterator.next();
+                    ISOPath path = directory.resolveRecordedFileName(childRecord.getFileName());
+                    ISOFileAttributes attributes = new ISOFileAttributes(childRecord);
+                    FileVisitResult result;
+                    if (childRecord.isDirectory()) {
+                        result = walk.visitor.preVisitDirectory(path, attributes);
+                        if (result == FileVisitResult.CONTINUE) {
+                            VisitDirectoryTask subdirectoryTask = new VisitDirectoryTask(walk, path, childRecord);
+                            subdirectoryTask.fork();
+                            subdirectoryTasks.add(subdirectoryTask);
+                        }
+                    } else {
+                        result = walk.visitor.visitFile(path, attributes);
+                    }
+                    if (result == FileVisitResult.TERMINATE) {
+                        walk.terminated = true;
+                    } else if (result == FileVisitResult.SKIP_SIBLINGS) {
+                        break;
+                    }
+                }
+            } catch (UncheckedIOException ex) {
+                // reading the directory failed
+                directoryFailure = ex.getCause();
+            } catch (IOException ex) {
+                // thrown by the visitor
+                walk.fail(ex);
+            }
+            for (VisitDirectoryTask subdirectoryTask : subdirectoryTasks) {
+                subdirectoryTask.join();
+            }
+            if (!walk.terminated) {
+                try {
+                    if (walk.visitor.postVisitDirectory(directory, directoryFailure) == FileVisitResult.TERMINATE) {
+                        walk.terminated = true;
+                    }
+                } catch (IOException ex) {
+                    walk.fail(ex);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import org.drombler.iso9660fs.ISOImage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * An {@link ISOImage} serving the data from a read-only memory mapping of the image file. Since a single mapping is
+ * limited to 2 GiB, large images (DVD, BD) are mapped in several chunks.
+ *
+ * @author puce
+ */
+public class ISOMappedImage implements ISOImage {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 30; // 1 GiB
+
+    private final FileChannel fileChannel;
+    private final long size;
+    private final int chunkSize;
+    private final MappedByteBuffer[] chunks;
+
+    public ISOMappedImage(FileChannel fileChannel) throws IOException {
+        this(fileChannel, DEFAULT_CHUNK_SIZE);
+    }
+
+    /* package-private */ ISOMappedImage(FileChannel fileChannel, int chunkSize) throws IOException {
+        this.fileChannel = fileChannel;
+        this.size = fileChannel.size();
+        this.chunkSize = chunkSize;
+        this.chunks = new MappedByteBuffer[(int) ((size + chunkSize - 1) / chunkSize)];
+        for (int index = 0; index < chunks.length; index++) {
+            long chunkPosition = (long) index * chunkSize;
+            chunks[index] = fileChannel.map(FileChannel.MapMode.READ_ONLY, chunkPosition, Math.min(chunkSize, size - chunkPosition));
+        }
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public ByteBuffer read(long position, int length) throws IOException {
+        if (position < 0 || position + length > size) {
+            throw new IOException("Too few data to read: " + Math.max(0, size - position));
+        }
+        int chunkIndex = getChunkIndex(position);
+        int chunkOffset = getChunkOffset(position);
+        if (chunkOffset + length <= chunkSize) {
+            // the common case: the data is located in a single chunk; no copy required
+            ByteBuffer slice = chunks[chunkIndex].duplicate();
+            slice.position(chunkOffset);
+            slice.limit(chunkOffset + length);
+            return slice.slice();
+        } else {
+            ByteBuffer byteBuffer = ByteBuffer.allocate(length);
+            read(byteBuffer, position);
+            byteBuffer.position(0);
+            return byteBuffer;
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) {
+        if (position >= size) {
+            return -1;
+        }
+        int numBytes = (int) Math.min(dst.remaining(), size - position);
+        int remaining = numBytes;
+        while (remaining > 0) {
+            ByteBuffer chunk = chunks[getChunkIndex(position)].duplicate();
+            int chunkOffset = getChunkOffset(position);
+            int length = Math.min(remaining, chunk.limit() - chunkOffset);
+            chunk.position(chunkOffset);
+            chunk.limit(chunkOffset + length);
+            dst.put(chunk);
+            position += length;
+            remaining -= length;
+        }
+        return numBytes;
+    }
+
+    /**
+     * Writes the mapped data directly to the target channel.
+     */
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        if (position >= size) {
+            return 0;
+        }
+        long numBytes = Math.min(count, size - position);
+        long remaining = numBytes;
+        while (remaining > 0) {
+            ByteBuffer chunk = chunks[getChunkIndex(position)].duplicate();
+            int chunkOffset = getChunkOffset(position);
+            int length = (int) Math.min(remaining, chunk.limit() - chunkOffset);
+            chunk.position(chunkOffset);
+            chunk.limit(chunkOffset + length);
+            while (chunk.hasRemaining()) {
+                target.write(chunk);
+            }
+            position += length;
+            remaining -= length;
+        }
+        return numBytes;
+    }
+
+    private int getChunkIndex(long position) {
+        return (int) (position / chunkSize);
+    }
+
+    private int getChunkOffset(long position) {
+        return (int) (position % chunkSize);
+    }
+
+    @Override
+    public void close() throws IOException {
+        // the mappings stay valid until they get garbage collected
+        fileChannel.close();
+    }
+}
@@ -0,0 +1,613 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import org.drombler.iso9660fs.ISOCharacterEncoding;
+import org.drombler.iso9660fs.ISODirectoryRecord;
+import org.drombler.iso9660fs.ISOExtentMap;
+import org.drombler.iso9660fs.ISOImage;
+import org.drombler.iso9660fs.ISOPrimaryVolumeDescriptor;
+import org.drombler.iso9660fs.ISORockRidge;
+import org.drombler.iso9660fs.ISOUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * A compact, off-heap index of the whole directory tree, built once when the file system gets mounted.<br>
+ * <br>
+ * The index consists of an entry table with 32 bytes per entry and a name pool, both stored in direct buffers:
+ * <pre>
+ * offset  size  field
+ *  0      4     parent entry index
+ *  4      4     offset of the name in the name pool
+ *  8      4     location of extent
+ * 12      4     data length
+ * 16      7     recording date and time (as recorded in the directory record)
+ * 23      1     file flags
+ * 24      4     index of the first child entry (directories only)
+ * 28      4     number of child entries (directories only)
+ * </pre>
+ * The name pool stores the extended attribute record length (1 byte), the file identifier length (1 byte) and the
+ * file identifier (in the character encoding of the volume) of each entry. If the directory hierarchy has Rock Ridge
+ * extensions, these are followed by the system use area length (1 byte), the system use area and the file name
+ * (2 bytes length, UTF-16 chars), thus the Rock Ridge entries can still be decoded on demand. For files with several
+ * extents, the number of extents (4 bytes) and the data location and length (4 bytes each) of each extent follow;
+ * the entry table records the first extent. The entries are stored in level order, the children of a directory are contiguous
+ * and sorted by their file name (ignoring case; case-sensitively for the Rock Ridge alternate names), thus a name is
+ * resolved with a binary search. The root directory is
+ * the entry 0.<br>
+ * <br>
+ * The index can be stored in an index file and memory-mapped on later mounts. The index file consists of a header
+ * followed by the entry table and the name pool:
+ * <pre>
+ * offset  size  field
+ *  0      8     magic number ("ISOINDEX")
+ *  8      4     format version
+ * 12      4     entry size
+ * 16      8     size of the image file
+ * 24      8     last modified time of the image file (in milliseconds)
+ * 32      4     CRC-32 of the volume descriptor set
+ * 36      4     number of entries
+ * 40      4     length of the name pool
+ * 44      4     CRC-32 of the entry table and the name pool
+ * 48      4     character encoding of the file identifiers (ordinal)
+ * 52      4     flags (1: Rock Ridge)
+ * </pre>
+ * All numbers, including the file name lengths and UTF-16 chars and the extents in the name pool, are stored in
+ * little-endian byte order.
+ *
+ * @author puce
+ */
+/* package-private */ class ISOMetadataIndex {
+
+    /* package-private */ static final int ENTRY_SIZE = 32;
+    private static final int ROOT_INDEX = 0;
+    private static final int INITIAL_NUM_ENTRIES = 1024;
+
+    private static final int PARENT_INDEX_OFFSET = 0;
+    private static final int NAME_OFFSET_OFFSET = 4;
+    private static final int LOCATION_OF_EXTEND_OFFSET = 8;
+    private static final int DATA_LENGTH_OFFSET = 12;
+    private static final int RECORDING_DATE_TIME_OFFSET = 16;
+    private static final int RECORDING_DATE_TIME_LENGTH = 7;
+    private static final int FILE_FLAGS_OFFSET = 23;
+    private static final int FIRST_CHILD_INDEX_OFFSET = 24;
+    private static final int NUM_CHILDREN_OFFSET = 28;
+
+    private static final byte[] MAGIC_NUMBER = "ISOINDEX".getBytes(StandardCharsets.US_ASCII);
+    private static final int FORMAT_VERSION = 6;
+    private static final int ROCK_RIDGE_FLAG = 1;
+    private static final int HEADER_LENGTH = 56;
+
+    private static final byte DIRECTORY_FLAG = 2;
+    private static final byte NOT_FINAL_DIRECTORY_RECORD_FLAG = (byte) 0x80;
+    private static final int DIRECTORY_RECORD_HEADER_LENGTH = 33;
+
+    private final int volumeSequenceNumber;
+    private final ISOCharacterEncoding characterEncoding;
+    private final ISORockRidge rockRidge;
+    private ByteBuffer entries;
+    private ByteBuffer names;
+    private int numEntries;
+
+    private ISOMetadataIndex(ISOPrimaryVolumeDescriptor volumeDescriptor) {
+        this(volumeDescriptor, ByteBuffer.allocateDirect(INITIAL_NUM_ENTRIES * ENTRY_SIZE),
+                ByteBuffer.allocateDirect(INITIAL_NUM_ENTRIES * 16), 0);
+    }
+
+    private ISOMetadataIndex(ISOPrimaryVolumeDescriptor volumeDescriptor, ByteBuffer entries, ByteBuffer names, int numEntries) {
+        this.volumeSequenceNumber = volumeDescriptor.getVolumeSequenceNumber();
+        this.characterEncoding = volumeDescriptor.getCharacterEncoding();
+        this.rockRidge = volumeDescriptor.getRockRidge();
+        this.entries = entries.order(ByteOrder.LITTLE_ENDIAN);
+        this.names = names.order(ByteOrder.LITTLE_ENDIAN);
+        this.numEntries = numEntries;
+    }
+
+    /**
+     * Builds the index by walking the whole directory tree.
+     *
+     * @param image                   the ISO image
+     * @param volumeDescriptor the volume descriptor of the directory hierarchy
+     * @return the index
+     * @throws IOException if an I/O error occurs
+     */
+    public static ISOMetadataIndex build(ISOImage image, ISOPrimaryVolumeDescriptor volumeDescriptor) throws IOException {
+        ISOMetadataIndex index = new ISOMetadataIndex(volumeDescriptor);
+        ISODirectoryRecord rootDirectoryRecord = volumeDescriptor.getRootDirectoryDescriptor();
+        index.addEntry(ROOT_INDEX, rootDirectoryRecord);
+        Set<Long> visitedExtents = new HashSet<>(); // guards against cycles in malformed images
+        // the POSIX alternate names of Rock Ridge are case-sensitive
+        Comparator<ISODirectoryRecord> fileNameComparator = Comparator.comparing(ISODirectoryRecord::getFileName,
+                index.rockRidge != null ? Comparator.naturalOrder() : ISOMetadataIndex::compareFileNames);
+        // level order: process the entries in the order they have been added
+        for (int entryIndex = 0; entryIndex < index.numEntries; entryIndex++) {
+            if (index.isDirectory(entryIndex) && visitedExtents.add(index.getLocationOfExtend(entryIndex))) {
+                ISODirectoryRecord directoryRecord = entryIndex == ROOT_INDEX ? rootDirectoryRecord : index.getDirectoryRecord(entryIndex);
+                List<ISODirectoryRecord> children = new ArrayList<>();
+                try {
+                    Iterator<ISODirectoryRecord> iterator = directoryRecord.directoryRecordIterator(image, volumeDescriptor);
+                    while (iterator.hasNext()) {
+                        ISODirectoryRecord childRecord = iterator.next();
+                        if (!childRecord.isSelfOrParentDirectory()) {
+                            children.add(childRecord);
+                        }
+                    }
+                } catch (UncheckedIOException ex) {
+                    throw ex.getCause();
+                }
+                children.sort(fileNameComparator);
+                index.setChildren(entryIndex, index.numEntries, children.size());
+                for (ISODirectoryRecord childRecord : children) {
+                    index.addEntry(entryIndex, childRecord);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Reads an index from the specified index file. The index file gets memory-mapped.
+     *
+     * @param indexFile                   the index file
+     * @param image                       the image attributes the index file has to match
+     * @param volumeDescriptor            the volume descriptor of the directory hierarchy
+     * @param volumeDescriptorSetChecksum the CRC-32 of the volume descriptor set
+     * @return the index or null, if the index file does not exist, is corrupt or does not match the image
+     * @throws IOException if an I/O error occurs
+     */
+    public static ISOMetadataIndex read(Path indexFile, BasicFileAttributes image, ISOPrimaryVolumeDescriptor volumeDescriptor,
+                                        int volumeDescriptorSetChecksum) throws IOException {
+        if (!Files.isRegularFile(indexFile)) {
+            return null;
+        }
+        ByteBuffer byteBuffer;
+        try (FileChannel fileChannel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            if (fileChannel.size() < HEADER_LENGTH || fileChannel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            // the mapping stays valid after the channel has been closed
+            byteBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        byte[] magicNumber = new byte[MAGIC_NUMBER.length];
+        byteBuffer.get(magicNumber);
+        if (!Arrays.equals(magicNumber, MAGIC_NUMBER)
+                || byteBuffer.getInt() != FORMAT_VERSION
+                || byteBuffer.getInt() != ENTRY_SIZE
+                || byteBuffer.getLong() != image.size()
+                || byteBuffer.getLong() != image.lastModifiedTime().toMillis()
+                || byteBuffer.getInt() != volumeDescriptorSetChecksum) {
+            return null;
+        }
+        int numEntries = byteBuffer.getInt();
+        int namesLength = byteBuffer.getInt();
+        int checksum = byteBuffer.getInt();
+        if (byteBuffer.getInt() != volumeDescriptor.getCharacterEncoding().ordinal()
+                || byteBuffer.getInt() != getFlags(volumeDescriptor.getRockRidge())
+                || numEntries <= 0 || namesLength < 0
+                || (long) HEADER_LENGTH + (long) numEntries * ENTRY_SIZE + namesLength != byteBuffer.capacity()) {
+            return null;
+        }
+        byteBuffer.position(HEADER_LENGTH);
+        CRC32 crc32 = new CRC32();
+        crc32.update(byteBuffer.duplicate());
+        if ((int) crc32.getValue() != checksum) {
+            return null;
+        }
+        ByteBuffer entries = byteBuffer.slice();
+        entries.limit(numEntries * ENTRY_SIZE);
+        entries.position(entries.limit());
+        byteBuffer.position(HEADER_LENGTH + numEntries * ENTRY_SIZE);
+        ByteBuffer names = byteBuffer.slice();
+        names.position(names.limit());
+        return new ISOMetadataIndex(volumeDescriptor, entries, names, numEntries);
+    }
+
+    /**
+     * Writes this index to the specified index file. The index file is first written to a temporary file and then
+     * moved to its final location, thus concurrent readers never see a partially written index file.
+     *
+     * @param indexFile                   the index file
+     * @param image                       the attributes of the image file
+     * @param volumeDescriptorSetChecksum the CRC-32 of the volume descriptor set
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(Path indexFile, BasicFileAttributes image, int volumeDescriptorSetChecksum) throws IOException {
+        ByteBuffer entriesData = entries.duplicate();
+        entriesData.flip();
+        ByteBuffer namesData = names.duplicate();
+        namesData.flip();
+        CRC32 crc32 = new CRC32();
+        crc32.update(entriesData.duplicate());
+        crc32.update(namesData.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC_NUMBER);
+        header.putInt(FORMAT_VERSION);
+        header.putInt(ENTRY_SIZE);
+        header.putLong(image.size());
+        header.putLong(image.lastModifiedTime().toMillis());
+        header.putInt(volumeDescriptorSetChecksum);
+        header.putInt(numEntries);
+        header.putInt(namesData.remaining());
+        header.putInt((int) crc32.getValue());
+        header.putInt(characterEncoding.ordinal());
+        header.putInt(getFlags(rockRidge));
+        header.flip();
+
+        Path directory = indexFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, indexFile.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel fileChannel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                ByteBuffer[] data = {header, entriesData, namesData};
+                while (namesData.hasRemaining() || entriesData.hasRemaining() || header.hasRemaining()) {
+                    fileChannel.write(data);
+                }
+                fileChannel.force(false);
+            }
+            try {
+                Files.move(tempFile, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static int getFlags(ISORockRidge rockRidge) {
+        return rockRidge != null ? ROCK_RIDGE_FLAG : 0;
+    }
+
+    private void addEntry(int parentIndex, ISODirectoryRecord directoryRecord) {
+        if (numEntries == Integer.MAX_VALUE / ENTRY_SIZE) {
+            throw new IllegalStateException("Too many entries: " + numEntries);
+        }
+        entries = ensureCapacity(entries, ENTRY_SIZE);
+        String fileIdentifier = directoryRecord.getFileIdentifier();
+        int fileIdentifierLength = fileIdentifier.length() * characterEncoding.getBytesPerChar();
+        names = ensureCapacity(names, 2 + fileIdentifierLength);
+        int nameOffset = names.position();
+        names.put((byte) directoryRecord.getExtendedAttributeRecordLength());
+        names.put((byte) fileIdentifierLength);
+        characterEncoding.putString(names, fileIdentifier);
+        if (rockRidge != null) {
+            String fileName = directoryRecord.getFileName();
+            names = ensureCapacity(names, 1 + directoryRecord.getSystemUseAreaLength() + 2 + 2 * fileName.length());
+            names.put((byte) directoryRecord.getSystemUseAreaLength());
+            directoryRecord.copySystemUseArea(names);
+            names.putShort((short) fileName.length());
+            for (int i = 0; i < fileName.length(); i++) {
+                names.putChar(fileName.charAt(i));
+            }
+        }
+        if (isMultiExtent(directoryRecord.getFileFlagsBitMask())) {
+            ISOExtentMap extentMap = directoryRecord.getExtentMap();
+            names = ensureCapacity(names, 4 + 8 * extentMap.getNumExtents());
+            names.putInt(extentMap.getNumExtents());
+            for (int i = 0; i < extentMap.getNumExtents(); i++) {
+                names.putInt((int) extentMap.getDataLocation(i));
+                names.putInt((int) extentMap.getDataLength(i));
+            }
+        }
+
+        int entryOffset = numEntries * ENTRY_SIZE;
+        entries.putInt(entryOffset + PARENT_INDEX_OFFSET, parentIndex);
+        entries.putInt(entryOffset + NAME_OFFSET_OFFSET, nameOffset);
+        entries.putInt(entryOffset + LOCATION_OF_EXTEND_OFFSET, (int) directoryRecord.getLocationOfExtend());
+        entries.putInt(entryOffset + DATA_LENGTH_OFFSET, (int) directoryRecord.getDataLength());
+        directoryRecord.copyRecordingDateTime(entries, entryOffset + RECORDING_DATE_TIME_OFFSET);
+        entries.put(entryOffset + FILE_FLAGS_OFFSET, directoryRecord.getFileFlagsBitMask());
+        entries.putInt(entryOffset + FIRST_CHILD_INDEX_OFFSET, 0);
+        entries.putInt(entryOffset + NUM_CHILDREN_OFFSET, 0);
+        numEntries++;
+        entries.position(numEntries * ENTRY_SIZE);
+    }
+
+    private void setChildren(int entryIndex, int firstChildIndex, int numChildren) {
+        entries.putInt(entryIndex * ENTRY_SIZE + FIRST_CHILD_INDEX_OFFSET, firstChildIndex);
+        entries.putInt(entryIndex * ENTRY_SIZE + NUM_CHILDREN_OFFSET, numChildren);
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer byteBuffer, int length) {
+        if (byteBuffer.remaining() >= length) {
+            return byteBuffer;
+        }
+        long newCapacity = Math.max(2L * byteBuffer.capacity(), (long) byteBuffer.position() + length);
+        ByteBuffer newByteBuffer = ByteBuffer.allocateDirect((int) Math.min(newCapacity, Integer.MAX_VALUE)).order(byteBuffer.order());
+        byteBuffer.flip();
+        newByteBuffer.put(byteBuffer);
+        return newByteBuffer;
+    }
+
+    /**
+     * Compares the file names as the index orders them: char by char, ignoring case.
+     */
+    private static int compareFileNames(String fileName1, String fileName2) {
+        int length = Math.min(fileName1.length(), fileName2.length());
+        for (int i = 0; i < length; i++) {
+            int result = Character.compare(foldCase(fileName1.charAt(i)), foldCase(fileName2.charAt(i)));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(fileName1.length(), fileName2.length());
+    }
+
+    private static char foldCase(char c) {
+        return Character.toUpperCase(c);
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return numEntries;
+    }
+
+    /**
+     * @return the number of bytes used by the entry table and the name pool
+     */
+    public long getMemoryUsage() {
+        return (long) numEntries * ENTRY_SIZE + names.position();
+    }
+
+    /**
+     * Looks up the entry of the specified absolute path.
+     *
+     * @param absolutePath an absolute path
+     * @return the index of the entry or -1, if there is no such entry
+     */
+    public int lookup(Path absolutePath) {
+        int entryIndex = ROOT_INDEX;
+        String[] fileNames = ISOPath.toISOPath(absolutePath).getFileNames();
+        for (int nameIndex = 0; nameIndex < fileNames.length && entryIndex >= 0; nameIndex++) {
+            entryIndex = lookupChild(entryIndex, fileNames[nameIndex]);
+        }
+        return entryIndex;
+    }
+
+    private int lookupChild(int entryIndex, String fileName) {
+        if (!isDirectory(entryIndex)) {
+            return -1;
+        }
+        int low = getFirstChildIndex(entryIndex);
+        int high = low + getNumChildren(entryIndex) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int result = compareFileName(middle, fileName);
+            if (result < 0) {
+                low = middle + 1;
+            } else if (result > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the file name of the specified entry with the specified file name without decoding the file name of
+     * the entry.
+     */
+    private int compareFileName(int entryIndex, String fileName) {
+        int nameOffset = getNameOffset(entryIndex);
+        if (rockRidge != null) {
+            return compareRockRidgeFileName(nameOffset, fileName);
+        }
+        int fromIndex = nameOffset + 2;
+        int bytesPerChar = characterEncoding.getBytesPerChar();
+        int toIndex = fromIndex + Byte.toUnsignedInt(names.get(nameOffset + 1));
+        // strip the file version number and a trailing file extension separator (see ISODirectoryRecord.getFileName)
+        for (int i = toIndex - bytesPerChar; i >= fromIndex; i -= bytesPerChar) {
+            if (characterEncoding.getChar(names, i) == ';') {
+                toIndex = i;
+                break;
+            }
+        }
+        if (toIndex - fromIndex > bytesPerChar && characterEncoding.getChar(names, toIndex - bytesPerChar) == '.') {
+            toIndex -= bytesPerChar;
+        }
+        int fileNameLength = (toIndex - fromIndex) / bytesPerChar;
+        int length = Math.min(fileNameLength, fileName.length());
+        for (int i = 0; i < length; i++) {
+            int result = Character.compare(foldCase(characterEncoding.getChar(names, fromIndex + i * bytesPerChar)),
+                    foldCase(fileName.charAt(i)));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(fileNameLength, fileName.length());
+    }
+
+    private int compareRockRidgeFileName(int nameOffset, String fileName) {
+        int fileNameOffset = getRockRidgeFileNameOffset(nameOffset);
+        int fileNameLength = Short.toUnsignedInt(names.getShort(fileNameOffset));
+        int length = Math.min(fileNameLength, fileName.length());
+        for (int i = 0; i < length; i++) {
+            int result = Character.compare(names.getChar(fileNameOffset + 2 + 2 * i), fileName.charAt(i));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(fileNameLength, fileName.length());
+    }
+
+    private int getSystemUseAreaOffset(int nameOffset) {
+        return nameOffset + 2 + Byte.toUnsignedInt(names.get(nameOffset + 1));
+    }
+
+    private int getRockRidgeFileNameOffset(int nameOffset) {
+        int systemUseAreaOffset = getSystemUseAreaOffset(nameOffset);
+        return systemUseAreaOffset + 1 + Byte.toUnsignedInt(names.get(systemUseAreaOffset));
+    }
+
+    private static boolean isMultiExtent(byte fileFlags) {
+        return (fileFlags & NOT_FINAL_DIRECTORY_RECORD_FLAG) != 0;
+    }
+
+    private int getExtentsOffset(int nameOffset) {
+        if (rockRidge == null) {
+            return getSystemUseAreaOffset(nameOffset);
+        }
+        int fileNameOffset = getRockRidgeFileNameOffset(nameOffset);
+        return fileNameOffset + 2 + 2 * Short.toUnsignedInt(names.getShort(fileNameOffset));
+    }
+
+    private ISOExtentMap getExtentMap(int nameOffset) {
+        int extentsOffset = getExtentsOffset(nameOffset);
+        int numExtents = names.getInt(extentsOffset);
+        long[] dataLocations = new long[numExtents];
+        long[] dataLengths = new long[numExtents];
+        for (int i = 0; i < numExtents; i++) {
+            dataLocations[i] = Integer.toUnsignedLong(names.getInt(extentsOffset + 4 + 8 * i));
+            dataLengths[i] = Integer.toUnsignedLong(names.getInt(extentsOffset + 8 + 8 * i));
+        }
+        return new ISOExtentMap(dataLocations, dataLengths);
+    }
+
+    private String getRockRidgeFileName(int nameOffset) {
+        int fileNameOffset = getRockRidgeFileNameOffset(nameOffset);
+        char[] fileName = new char[Short.toUnsignedInt(names.getShort(fileNameOffset))];
+        for (int i = 0; i < fileName.length; i++) {
+            fileName[i] = names.getChar(fileNameOffset + 2 + 2 * i);
+        }
+        return new String(fileName);
+    }
+
+    public boolean isDirectory(int entryIndex) {
+        return (entries.get(entryIndex * ENTRY_SIZE + FILE_FLAGS_OFFSET) & DIRECTORY_FLAG) != 0;
+    }
+
+    private long getLocationOfExtend(int entryIndex) {
+        return Integer.toUnsignedLong(entries.getInt(entryIndex * ENTRY_SIZE + LOCATION_OF_EXTEND_OFFSET));
+    }
+
+    private int getNameOffset(int entryIndex) {
+        return entries.getInt(entryIndex * ENTRY_SIZE + NAME_OFFSET_OFFSET);
+    }
+
+    private int getFirstChildIndex(int entryIndex) {
+        return entries.getInt(entryIndex * ENTRY_SIZE + FIRST_CHILD_INDEX_OFFSET);
+    }
+
+    private int getNumChildren(int entryIndex) {
+        return entries.getInt(entryIndex * ENTRY_SIZE + NUM_CHILDREN_OFFSET);
+    }
+
+    /**
+     * Creates a new directory record for the specified entry. The directory record is encoded from the entry, thus it
+     * is not backed by the ISO image.
+     *
+     * @param entryIndex the index of an entry
+     * @return a new directory record
+     */
+    public ISODirectoryRecord getDirectoryRecord(int entryIndex) {
+        int entryOffset = entryIndex * ENTRY_SIZE;
+        int nameOffset = getNameOffset(entryIndex);
+        int fileIdentifierLength = Byte.toUnsignedInt(names.get(nameOffset + 1));
+        int paddingLength = ISOUtils.isEven(fileIdentifierLength) ? 1 : 0;
+        int systemUseAreaLength = rockRidge != null ? Byte.toUnsignedInt(names.get(getSystemUseAreaOffset(nameOffset))) : 0;
+        int length = DIRECTORY_RECORD_HEADER_LENGTH + fileIdentifierLength + paddingLength + systemUseAreaLength;
+        ByteBuffer byteBuffer = ByteBuffer.allocate(length);
+        byteBuffer.put((byte) length);
+        byteBuffer.put(names.get(nameOffset)); // extended attribute record length
+        putInt32LSBMSB(byteBuffer, entries.getInt(entryOffset + LOCATION_OF_EXTEND_OFFSET));
+        putInt32LSBMSB(byteBuffer, entries.getInt(entryOffset + DATA_LENGTH_OFFSET));
+        for (int i = 0; i < RECORDING_DATE_TIME_LENGTH; i++) {
+            byteBuffer.put(entries.get(entryOffset + RECORDING_DATE_TIME_OFFSET + i));
+        }
+        byteBuffer.put(entries.get(entryOffset + FILE_FLAGS_OFFSET));
+        byteBuffer.put((byte) 0); // interleaved mode file unit size
+        byteBuffer.put((byte) 0); // interleaved mode interleave gap size
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN).putShort((short) volumeSequenceNumber);
+        byteBuffer.order(ByteOrder.BIG_ENDIAN).putShort((short) volumeSequenceNumber);
+        byteBuffer.put((byte) fileIdentifierLength);
+        for (int i = 0; i < fileIdentifierLength; i++) {
+            byteBuffer.put(names.get(nameOffset + 2 + i));
+        }
+        ISODirectoryRecord directoryRecord;
+        if (rockRidge == null) {
+            byteBuffer.position(0);
+            directoryRecord = new ISODirectoryRecord(byteBuffer, characterEncoding);
+        } else {
+            byteBuffer.position(byteBuffer.position() + paddingLength);
+            int systemUseAreaOffset = getSystemUseAreaOffset(nameOffset) + 1;
+            for (int i = 0; i < systemUseAreaLength; i++) {
+                byteBuffer.put(names.get(systemUseAreaOffset + i));
+            }
+            byteBuffer.position(0);
+            directoryRecord = new ISODirectoryRecord(byteBuffer, characterEncoding, rockRidge, getRockRidgeFileName(nameOffset));
+        }
+        return isMultiExtent(entries.get(entryOffset + FILE_FLAGS_OFFSET))
+                ? new ISODirectoryRecord(directoryRecord, getExtentMap(nameOffset))
+                : directoryRecord;
+    }
+
+    private static void putInt32LSBMSB(ByteBuffer byteBuffer, int value) {
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN).putInt(value);
+        byteBuffer.order(ByteOrder.BIG_ENDIAN).putInt(value);
+    }
+
+    /**
+     * Creates a new iterator over the directory records of the children of the specified directory entry. The
+     * directory records are created lazily.
+     *
+     * @param entryIndex the index of a directory entry
+     * @return a new iterator over the directory records of the children
+     */
+    public Iterator<ISODirectoryRecord> childIterator(int entryIndex) {
+        int firstChildIndex = getFirstChildIndex(entryIndex);
+        int toIndex = firstChildIndex + getNumChildren(entryIndex);
+        return new Iterator<>() {
+            private int childIndex = firstChildIndex;
+
+            @Override
+            public boolean hasNext() {
+                return childIndex < toIndex;
+            }
+
+            @Override
+            public ISODirectoryRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return getDirectoryRecord(childIndex++);
+            }
+        };
+    }
+}
@@ -22,34 +22,90 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Objects;
 
 /**
+ * A path of an {@link ISOFileSystem}. A path only references its parent path and its own file name, thus paths share
+ * their ancestors. File names read from the image are interned per file system; file names passed by callers are not,
+ * thus they don't outlive their paths. The hash code (case-insensitive, unless the file system is case-sensitive)
+ * and the string representation are computed once.
  *
  * @author puce
  */
 public class ISOPath implements Path {
 
+    private static final PathComparator PATH_COMPARATOR = new PathComparator();
+    private static final PathComparator CASE_SENSITIVE_PATH_COMPARATOR = new PathComparator(true);
+    private static final char SEPARATOR_CHAR = '/';
+    private static final String[] NO_MORE_PATH_STRINGS = new String[0];
+
     private final ISOFileSystem fileSystem;
+    private final ISOPath parent;
     private final String fileName;
     private final boolean root;
-    private final ISOPath[] parentPaths;
-    private final ISOPath fileNamePath;
-    // TODO: make singleton
-    private final PathComparator pathComparator = new PathComparator();
-
-    public ISOPath(ISOFileSystem fileSystem, String fileName, boolean root, ISOPath... parentPaths) {
+    private final boolean absolute;
+    private final int nameCount;
+    private final int hash;
+    private String string;
+
+    /**
+     * Creates a path with a single element.
+     *
+     * @param fileSystem the file system
+     * @param fileName   the file name
+     * @param root       true, if this path is the root directory
+     */
+    public ISOPath(ISOFileSystem fileSystem, String fileName, boolean root) {
         this.fileSystem = fileSystem;
+        this.parent = null;
         this.fileName = Objects.requireNonNull(fileName);
         this.root = root;
-        this.parentPaths = parentPaths;
-        if (parentPaths.length == 0) {
-            this.fileNamePath = this;
-        } else {
-            this.fileNamePath = new ISOPath(fileSystem, fileName, false);
+        this.absolute = root;
+        this.nameCount = root ? 0 : 1;
+        this.hash = 31 * Boolean.hashCode(absolute) + hashFileName(fileName, fileSystem.isCaseSensitive());
+    }
+
+    private ISOPath(ISOPath parent, String fileName) {
+        this.fileSystem = parent.fileSystem;
+        this.parent = parent;
+        this.fileName = fileName;
+        this.root = false;
+        this.absolute = parent.absolute;
+        this.nameCount = parent.nameCount + 1;
+        this.hash = 31 * parent.hash + hashFileName(fileName, fileSystem.isCaseSensitive());
+    }
+
+    private static int hashFileName(String fileName, boolean caseSensitive) {
+        // consistent with String.equals or String.equalsIgnoreCase
+        int hash = 0;
+        for (int index = 0; index < fileName.length(); ) {
+            int codePoint = fileName.codePointAt(index);
+            hash = 31 * hash + (caseSensitive ? codePoint : Character.toLowerCase(Character.toUpperCase(codePoint)));
+            index += Character.charCount(codePoint);
         }
+        return hash;
+    }
+
+    /**
+     * Resolves a single file name against this path.
+     *
+     * @param fileName a file name without separators
+     * @return the child path
+     */
+    /* package-private */ ISOPath resolveFileName(String fileName) {
+        return new ISOPath(this, fileName);
+    }
+
+    /**
+     * Resolves a single file name read from the image against this path. The file name gets interned, thus the paths
+     * of a file share a single string instance.
+     *
+     * @param fileName a file name of a directory record without separators
+     * @return the child path
+     */
+    /* package-private */ ISOPath resolveRecordedFileName(String fileName) {
+        return new ISOPath(this, fileSystem.internFileName(fileName));
     }
 
     @Override
@@ -59,13 +115,13 @@ public class ISOPath implements Path {
 
     @Override
     public boolean isAbsolute() {
-        return root || (parentPaths.length > 0 && parentPaths[0].root);
+        return absolute;
     }
 
     @Override
     public Path getRoot() {
-        if (isAbsolute()) {
-            return parentPaths[0];
+        if (absolute) {
+            return fileSystem.getRootDirectory();
         } else {
             return null;
         }
@@ -73,25 +129,21 @@ public class ISOPath implements Path {
 
     @Override
     public ISOPath getFileName() {
-        return fileNamePath;
+        if (parent == null) {
+            return this;
+        } else {
+            return new ISOPath(fileSystem, fileName, false);
+        }
     }
 
     @Override
     public ISOPath getParent() {
-        if (parentPaths.length > 0) {
-            return parentPaths[parentPaths.length - 1];
-        } else {
-            return null;
-        }
+        return parent;
     }
 
     @Override
     public int getNameCount() {
-        if (isAbsolute()) {
-            return parentPaths.length;
-        } else {
-            return parentPaths.length + 1;
-        }
+        return nameCount;
     }
 
     @Override
@@ -99,19 +151,37 @@ public class ISOPath implements Path {
         if (index < 0) {
             throw new IllegalArgumentException("index must not be negative!");
         }
-        if (index >= getNameCount()) {
+        if (index >= nameCount) {
             throw new IllegalArgumentException(
-                    "index must not be greater or equal the name count! Name count: " + getNameCount());
+                    "index must not be greater or equal the name count! Name count: " + nameCount);
         }
-        if (index == getNameCount() - 1) {
-            return getFileName();
-        } else {
-            if (isAbsolute()) {
-                return parentPaths[index + 1].getFileName();
-            } else {
-                return parentPaths[index].getFileName();
-            }
+        return getAncestor(index + 1).getFileName();
+    }
+
+    /**
+     * Gets the ancestor (or this path) with the specified number of names.
+     */
+    private ISOPath getAncestor(int ancestorNameCount) {
+        ISOPath path = this;
+        while (path.nameCount > ancestorNameCount) {
+            path = path.parent;
+        }
+        return path;
+    }
+
+    /**
+     * Gets the file names of all elements of this path.
+     *
+     * @return the file names ordered from the root
+     */
+    public String[] getFileNames() {
+        String[] fileNames = new String[nameCount];
+        ISOPath path = this;
+        for (int index = nameCount - 1; index >= 0; index--) {
+            fileNames[index] = path.fileName;
+            path = path.parent;
         }
+        return fileNames;
     }
 
     @Override
@@ -119,48 +189,33 @@ public class ISOPath implements Path {
         if (beginIndex < 0) {
             throw new IllegalArgumentException("beginIndex must not be negative!");
         }
-        if (beginIndex >= getNameCount()) {
+        if (beginIndex >= nameCount) {
             throw new IllegalArgumentException("beginIndex must not be greater than or equal to the number of elements!");
         }
         if (endIndex <= beginIndex) {
             throw new IllegalArgumentException("endIndex must not be less than or equal to beginIndex!");
         }
-        if (endIndex > getNameCount()) {
+        if (endIndex > nameCount) {
             throw new IllegalArgumentException("endIndex must not be greater than the number of elements!");
         }
-        Path subpath = getName(beginIndex);
+        String[] fileNames = getFileNames();
+        ISOPath subpath = new ISOPath(fileSystem, fileNames[beginIndex], false);
         for (int index = beginIndex + 1; index < endIndex; index++) {
-            subpath.resolve(getName(index));
+            subpath = new ISOPath(subpath, fileNames[index]);
         }
         return subpath;
     }
 
     @Override
     public boolean startsWith(Path other) {
-        if (!fileSystem.equals(other.getFileSystem())) {
+        if (!(other instanceof ISOPath) || !fileSystem.equals(other.getFileSystem())) {
             return false;
         }
-
-        if (getNameCount() < other.getNameCount()) {
+        ISOPath otherPath = (ISOPath) other;
+        if (nameCount < otherPath.nameCount || absolute != otherPath.absolute) {
             return false;
         }
-
-        if (!isAbsolute() && other.isAbsolute()) {
-            return false;
-        }
-
-        if (isAbsolute() && !other.isAbsolute()) {
-            // TODO: correct?
-            return false;
-        }
-
-        for (int index = 0; index < other.getNameCount(); index++) {
-            if (!equalsFileName(getName(index).toString(), other.getName(index).toString())) {
-                return false;
-            }
-        }
-
-        return true;
+        return getAncestor(otherPath.nameCount).equals(otherPath);
     }
 
     @Override
@@ -170,28 +225,24 @@ public class ISOPath implements Path {
 
     @Override
     public boolean endsWith(Path other) {
-        if (!fileSystem.equals(other.getFileSystem())) {
+        if (!(other instanceof ISOPath) || !fileSystem.equals(other.getFileSystem())) {
             return false;
         }
-
-        if (getNameCount() < other.getNameCount()) {
-            return false;
-        }
-
-        if (!isAbsolute() && other.isAbsolute()) {
+        ISOPath otherPath = (ISOPath) other;
+        if (nameCount < otherPath.nameCount) {
             return false;
         }
-
-        if (isAbsolute() && other.isAbsolute()) {
-            return equals(other);
+        if (otherPath.absolute) {
+            return equals(otherPath);
         }
-
-        for (int index = other.getNameCount() - 1; index >= 0; index--) {
-            if (!equalsFileName(getName(index).toString(), other.getName(index).toString())) {
+        ISOPath path = this;
+        for (int index = otherPath.nameCount; index > 0; index--) {
+            if (!equalsFileName(path.fileName, otherPath.fileName)) {
                 return false;
             }
+            path = path.parent;
+            otherPath = otherPath.parent;
         }
-
         return true;
     }
 
@@ -206,31 +257,31 @@ public class ISOPath implements Path {
 
     @Override
     public Path normalize() {
-        if (!containsReduntantElementNames()) {
+        String[] fileNames = getFileNames();
+        if (!containsReduntantElementNames(fileNames)) {
             return this;
         }
         ISOPath normalizedPath = isAbsolute() ? fileSystem.getRootDirectory() : null;
-        for (int index = 0; index < getNameCount(); index++) {
-            final ISOPath pathName = getName(index);
+        for (String fileName : fileNames) {
             if (normalizedPath == null) {
-                // pathName could ne "." or ".."
-                normalizedPath = pathName;
-            } else if (!pathName.equals(fileSystem.getCurrentDirectory())) {
-                if (pathName.equals(fileSystem.getParentDirectory())) {
+                // fileName could ne "." or ".."
+                normalizedPath = resolveParsedFileName(fileSystem, null, fileName);
+            } else if (!fileName.equals(ISOFileSystem.CURRENT_PATH_STRING)) {
+                if (fileName.equals(ISOFileSystem.PARENT_PATH_STRING)) {
                     if (!normalizedPath.equals(fileSystem.getRootDirectory())
-                            && !normalizedPath.getFileName().equals(fileSystem.getParentDirectory())) {
+                            && !normalizedPath.fileName.equals(ISOFileSystem.PARENT_PATH_STRING)) {
                         // normalizedPath.getParent() could be null
                         normalizedPath = normalizedPath.getParent();
                     } else {
-                        normalizedPath = normalize(normalizedPath, pathName);
+                        normalizedPath = normalize(normalizedPath, fileName);
                     }
                 } else {
-                    normalizedPath = normalize(normalizedPath, pathName);
+                    normalizedPath = normalize(normalizedPath, fileName);
                 }
             }
         }
         if (normalizedPath != null) {
-            if (normalizedPath.isAbsolute() && containsOnlyReduntantElementNames(normalizedPath)) {
+            if (normalizedPath.isAbsolute() && containsOnlyReduntantElementNames(normalizedPath.getFileNames())) {
                 return fileSystem.getEmptyPath();
             } else {
                 return normalizedPath;
@@ -240,34 +291,36 @@ public class ISOPath implements Path {
         }
     }
 
-    private ISOPath normalize(ISOPath normalizedPath, final ISOPath pathName) {
+    private ISOPath normalize(ISOPath normalizedPath, String fileName) {
         if (normalizedPath.equals(fileSystem.getCurrentDirectory())) {
-            return pathName;
+            return resolveParsedFileName(fileSystem, null, fileName);
         } else {
-            return createResolvedPath(normalizedPath, pathName);
+            return normalizedPath.resolveFileName(fileName);
         }
     }
 
-    private boolean containsOnlyReduntantElementNames(ISOPath path) {
-        for (int index = 0; index < path.getNameCount(); index++) {
-            final Path pathName = path.getName(index);
-            if (!pathName.equals(fileSystem.getCurrentDirectory()) && !pathName.equals(fileSystem.getParentDirectory())) {
+    private static boolean containsOnlyReduntantElementNames(String[] fileNames) {
+        for (String fileName : fileNames) {
+            if (!isReduntantElementName(fileName)) {
                 return false;
             }
         }
         return true;
     }
 
-    private boolean containsReduntantElementNames() {
-        for (int index = 0; index < getNameCount(); index++) {
-            final ISOPath pathName = getName(index);
-            if (pathName.equals(fileSystem.getCurrentDirectory()) || pathName.equals(fileSystem.getParentDirectory())) {
+    private static boolean containsReduntantElementNames(String[] fileNames) {
+        for (String fileName : fileNames) {
+            if (isReduntantElementName(fileName)) {
                 return true;
             }
         }
         return false;
     }
 
+    private static boolean isReduntantElementName(String fileName) {
+        return fileName.equals(ISOFileSystem.CURRENT_PATH_STRING) || fileName.equals(ISOFileSystem.PARENT_PATH_STRING);
+    }
+
     @Override
     public Path resolve(Path other) {
         return resolve(this, other);
@@ -285,20 +338,16 @@ public class ISOPath implements Path {
 
     private ISOPath createResolvedPath(ISOPath path1, Path path2) {
         ISOPath path = path1;
-        for (int i = 0; i < path2.getNameCount(); i++) {
-            path = new ISOPath(path1.fileSystem, path2.getName(i).toString(), false, createParentPaths(path));
-        }
-        return path;
-    }
-
-    public static ISOPath[] createParentPaths(ISOPath path) {
-        if (path == null) {
-            return new ISOPath[0];
+        if (path2 instanceof ISOPath) {
+            for (String fileName : ((ISOPath) path2).getFileNames()) {
+                path = path.resolveFileName(fileName);
+            }
         } else {
-            ISOPath[] result = Arrays.copyOf(path.parentPaths, path.parentPaths.length + 1);
-            result[result.length - 1] = path;
-            return result;
+            for (Path pathName : path2) {
+                path = path.resolveFileName(pathName.toString());
+            }
         }
+        return path;
     }
 
     @Override
@@ -314,37 +363,87 @@ public class ISOPath implements Path {
         if (pathString == null) {
             throw new InvalidPathException(String.valueOf(pathString), "other must not be null!");
         }
-        if (pathString.equals(ISOFileSystem.EMPTY_PATH_STRING)) {
-            return fileSystem.getEmptyPath();
+        return parse(fileSystem, pathString, NO_MORE_PATH_STRINGS);
+    }
+
+    /**
+     * Parses the path of the specified path strings, which get joined by the separator. Empty path strings are ignored.
+     * The characters are scanned once and the path elements are created directly, without splitting or joining
+     * strings.
+     *
+     * @param fileSystem the file system
+     * @param first      the first path string
+     * @param more       additional path strings
+     * @return the path
+     * @throws InvalidPathException if the path contains empty or invalid names
+     */
+    /* package-private */ static Path parse(ISOFileSystem fileSystem, String first, String... more) {
+        ISOPath path = null;
+        // the offset of the current path string in the joined path string
+        int offset = 0;
+        for (int index = -1; index < more.length; index++) {
+            String pathString = index < 0 ? first : more[index];
+            if (pathString.isEmpty()) {
+                continue;
+            }
+            int nameStart = 0;
+            if (path == null && pathString.charAt(0) == SEPARATOR_CHAR) {
+                path = fileSystem.getRootDirectory();
+                nameStart = 1;
+            } else if (path != null) {
+                offset++;
+            }
+            for (int charIndex = nameStart; charIndex <= pathString.length(); charIndex++) {
+                char c = charIndex < pathString.length() ? pathString.charAt(charIndex) : SEPARATOR_CHAR;
+                if (c == SEPARATOR_CHAR) {
+                    if (charIndex == nameStart) {
+                        // the root directory might be specified on its own
+                        if (charIndex != 1 || path != fileSystem.getRootDirectory() || charIndex < pathString.length()) {
+                            throw new InvalidPathException(join(first, more), "Path must not contain empty names!",
+                                    offset + charIndex);
+                        }
+                    } else {
+                        path = resolveParsedFileName(fileSystem, path, pathString.substring(nameStart, charIndex));
+                    }
+                    nameStart = charIndex + 1;
+                } else if (c == '\0') {
+                    throw new InvalidPathException(join(first, more), "Path must not contain NUL characters!",
+                            offset + charIndex);
+                }
+            }
+            offset += pathString.length();
         }
-        if (pathString.equals(ISOFileSystem.CURRENT_PATH_STRING)) {
+        return path != null ? path : fileSystem.getEmptyPath();
+    }
+
+    private static ISOPath resolveParsedFileName(ISOFileSystem fileSystem, ISOPath path, String fileName) {
+        if (path != null) {
+            return path.resolveFileName(fileName);
+        } else if (fileName.equals(ISOFileSystem.CURRENT_PATH_STRING)) {
             return fileSystem.getCurrentDirectory();
-        }
-        if (pathString.equals(ISOFileSystem.PARENT_PATH_STRING)) {
+        } else if (fileName.equals(ISOFileSystem.PARENT_PATH_STRING)) {
             return fileSystem.getParentDirectory();
+        } else {
+            return new ISOPath(fileSystem, fileName, false);
         }
-        ISOPath path = null;
-        final boolean absolute = isAbsolute(pathString, fileSystem);
-        if (absolute) {
-            path = fileSystem.getRootDirectory();
-        }
-        String[] pathNames = pathString.split(fileSystem.getSeparator(), -1);
-        for (int i = absolute ? 1 : 0; i < pathNames.length; i++) {
-            if (pathNames[i].equals(ISOFileSystem.EMPTY_PATH_STRING)) {
-                throw new InvalidPathException(pathString, "other must not contain empty path names!", i);
-            }
-            path = new ISOPath(fileSystem, pathNames[i], false, createParentPaths(path));
-        }
-        return path;
     }
 
-    private static boolean isAbsolute(String pathString, ISOFileSystem fileSystem) {
-        return pathString.startsWith(fileSystem.getRootDirectory().toString());
+    private static String join(String first, String... more) {
+        StringBuilder sb = new StringBuilder(first);
+        for (String pathString : more) {
+            if (!pathString.isEmpty()) {
+                if (sb.length() > 0) {
+                    sb.append(SEPARATOR_CHAR);
+                }
+                sb.append(pathString);
+            }
+        }
+        return sb.toString();
     }
 
     @Override
     public Path resolveSibling(Path other) {
-        if (parentPaths.length == 0) {
+        if (parent == null) {
             return other;
         } else {
             return resolve(getParent(), other);
@@ -421,7 +520,8 @@ public class ISOPath implements Path {
                         throw new IOException("Path does not exist! Invalid path: " + toString());
                     }
                 } else {
-                    realPath = realPath.resolve(pathName.toString().toUpperCase());
+                    // Rock Ridge names are case-sensitive
+                    realPath = realPath.resolve(fileSystem.isCaseSensitive() ? pathName.toString() : pathName.toString().toUpperCase());
                 }
             }
         }
@@ -453,13 +553,12 @@ public class ISOPath implements Path {
 
     @Override
     public int compareTo(Path other) {
-        return pathComparator.compare(this, other);
+        return (fileSystem.isCaseSensitive() ? CASE_SENSITIVE_PATH_COMPARATOR : PATH_COMPARATOR).compare(this, other);
     }
 
     @Override
     public int hashCode() {
-        // TODO
-        return super.hashCode(); //To change body of generated methods, choose Tools | Templates.
+        return hash;
     }
 
     @Override
@@ -473,7 +572,8 @@ public class ISOPath implements Path {
 
         ISOPath other = (ISOPath) obj;
 
-        if (Objects.equals(fileSystem, other.fileSystem) && root == other.root) {
+        if (hash == other.hash && nameCount == other.nameCount && absolute == other.absolute
+                && Objects.equals(fileSystem, other.fileSystem)) {
             return equalsNames(other);
         } else {
             return false;
@@ -481,38 +581,38 @@ public class ISOPath implements Path {
     }
 
     private boolean equalsNames(ISOPath other) {
-        if (getNameCount() != other.getNameCount()) {
-            return false;
-        }
-        for (int i = 0; i < getNameCount(); i++) {
-            if (!equalsFileName(getName(i).fileName, other.getName(i).fileName)) {
+        ISOPath path = this;
+        // shared ancestors are equal
+        while (path != other) {
+            if (!equalsFileName(path.fileName, other.fileName)) {
                 return false;
             }
+            path = path.parent;
+            other = other.parent;
         }
         return true;
     }
 
     private boolean equalsFileName(String fileName, String otherFileName) {
-        return fileName.equalsIgnoreCase(otherFileName);
+        return fileName == otherFileName
+                || (fileSystem.isCaseSensitive() ? fileName.equals(otherFileName) : fileName.equalsIgnoreCase(otherFileName));
     }
 
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        if (parentPaths.length > 0) {
-            int index = 0;
-            if (parentPaths[index].equals(fileSystem.getRootDirectory())) {
-                sb.append(parentPaths[index]);
-                index++;
-            }
-            while (index < parentPaths.length) {
-                sb.append(parentPaths[index]);
-                sb.append(fileSystem.getSeparator());
-                index++;
+        // racy single-check: the string is immutable and equal for all threads
+        String result = string;
+        if (result == null) {
+            if (parent == null) {
+                result = fileName;
+            } else if (parent.root) {
+                result = parent.toString() + fileName;
+            } else {
+                result = parent.toString() + fileSystem.getSeparator() + fileName;
             }
+            string = result;
         }
-        sb.append(fileName);
-        return sb.toString();
+        return result;
     }
 
     /* package-private */ BasicFileAttributes getAttributes() throws IOException {
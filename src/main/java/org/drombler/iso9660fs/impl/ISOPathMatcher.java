@@ -0,0 +1,307 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A {@link PathMatcher} supporting the "glob" and the "regex" syntax. The pattern is compiled once and matches
+ * case-insensitively, since ISO 9660 file identifiers are uppercase, or case-sensitively for Rock Ridge names.<br>
+ * <br>
+ * For glob patterns the matcher additionally knows the leading name patterns, thus a search can resolve a literal
+ * prefix directly and skip directories which cannot contain any matches.
+ *
+ * @author puce
+ */
+/* package-private */ class ISOPathMatcher implements PathMatcher {
+
+    private static final String GLOB_SYNTAX = "glob";
+    private static final String REGEX_SYNTAX = "regex";
+    private static final int CASE_INSENSITIVE_FLAGS = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+    private static final String REGEX_META_CHARS = "\\^$.|?*+()[]{}";
+    private static final String GLOB_META_CHARS = "\\*?[{";
+    private static final char SEPARATOR_CHAR = '/';
+
+    private final Pattern pattern;
+    private final String[] literalPrefix;
+    private final Pattern[] namePatterns;
+    private final int maxNameCount;
+
+    private ISOPathMatcher(Pattern pattern, String[] literalPrefix, Pattern[] namePatterns, int maxNameCount) {
+        this.pattern = pattern;
+        this.literalPrefix = literalPrefix;
+        this.namePatterns = namePatterns;
+        this.maxNameCount = maxNameCount;
+    }
+
+    /**
+     * Compiles a pattern of the form "syntax:pattern" as specified by {@link java.nio.file.FileSystem#getPathMatcher}.
+     *
+     * The pattern matches case-insensitively, as needed for ISO 9660 and Joliet names. Rock Ridge names require
+     * {@link #compile(String, boolean) a case-sensitive matcher}.
+     *
+     * @param syntaxAndPattern the syntax and the pattern
+     * @return the path matcher
+     * @throws PatternSyntaxException        if the pattern is invalid
+     * @throws UnsupportedOperationException if the syntax is not supported
+     */
+    public static ISOPathMatcher compile(String syntaxAndPattern) {
+        return compile(syntaxAndPattern, false);
+    }
+
+    /**
+     * Compiles a pattern of the form "syntax:pattern" as specified by {@link java.nio.file.FileSystem#getPathMatcher}.
+     *
+     * @param syntaxAndPattern the syntax and the pattern
+     * @param caseSensitive    if true, the pattern matches case-sensitively
+     * @return the path matcher
+     * @throws PatternSyntaxException        if the pattern is invalid
+     * @throws UnsupportedOperationException if the syntax is not supported
+     */
+    public static ISOPathMatcher compile(String syntaxAndPattern, boolean caseSensitive) {
+        int flags = caseSensitive ? 0 : CASE_INSENSITIVE_FLAGS;
+        int colonIndex = syntaxAndPattern.indexOf(':');
+        if (colonIndex <= 0) {
+            throw new IllegalArgumentException("Expected syntax:pattern but was: " + syntaxAndPattern);
+        }
+        String syntax = syntaxAndPattern.substring(0, colonIndex);
+        String patternString = syntaxAndPattern.substring(colonIndex + 1);
+        if (syntax.equalsIgnoreCase(GLOB_SYNTAX)) {
+            return compileGlob(patternString, flags);
+        } else if (syntax.equalsIgnoreCase(REGEX_SYNTAX)) {
+            return new ISOPathMatcher(Pattern.compile(patternString, flags), new String[0], new Pattern[0],
+                    Integer.MAX_VALUE);
+        } else {
+            throw new UnsupportedOperationException("Unsupported syntax: " + syntax);
+        }
+    }
+
+    private static ISOPathMatcher compileGlob(String glob, int flags) {
+        Pattern pattern = Pattern.compile(toRegex(glob), flags);
+        List<String> names = splitNames(glob);
+        if (names == null || glob.charAt(0) == SEPARATOR_CHAR) {
+            return new ISOPathMatcher(pattern, new String[0], new Pattern[0], Integer.MAX_VALUE);
+        }
+        // "**" matches across directory boundaries, thus names after it cannot be matched name by name
+        int numBoundedNames = 0;
+        while (numBoundedNames < names.size() && !names.get(numBoundedNames).contains("**")) {
+            numBoundedNames++;
+        }
+        Pattern[] namePatterns = new Pattern[numBoundedNames];
+        for (int index = 0; index < numBoundedNames; index++) {
+            namePatterns[index] = Pattern.compile(toRegex(names.get(index)), flags);
+        }
+        // the last name is matched against the entries of the directory, not resolved
+        List<String> literalPrefix = new ArrayList<>();
+        while (literalPrefix.size() < Math.min(numBoundedNames, names.size() - 1)
+                && isLiteral(names.get(literalPrefix.size()))) {
+            literalPrefix.add(unescape(names.get(literalPrefix.size())));
+        }
+        return new ISOPathMatcher(pattern, literalPrefix.toArray(new String[0]), namePatterns,
+                numBoundedNames == names.size() ? names.size() : Integer.MAX_VALUE);
+    }
+
+    /**
+     * Splits the glob at the separators outside of character classes and groups.
+     *
+     * @return the names or null, if a group contains a separator
+     */
+    private static List<String> splitNames(String glob) {
+        List<String> names = new ArrayList<>();
+        boolean inGroup = false;
+        boolean inClass = false;
+        int nameStart = 0;
+        for (int index = 0; index < glob.length(); index++) {
+            char c = glob.charAt(index);
+            if (c == '\\') {
+                index++;
+            } else if (inClass) {
+                inClass = c != ']';
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == '{') {
+                inGroup = true;
+            } else if (c == '}') {
+                inGroup = false;
+            } else if (c == SEPARATOR_CHAR) {
+                if (inGroup) {
+                    return null;
+                }
+                names.add(glob.substring(nameStart, index));
+                nameStart = index + 1;
+            }
+        }
+        names.add(glob.substring(nameStart));
+        return names;
+    }
+
+    private static boolean isLiteral(String name) {
+        for (int index = 0; index < name.length(); index++) {
+            char c = name.charAt(index);
+            if (c == '\\') {
+                index++;
+            } else if (GLOB_META_CHARS.indexOf(c) >= 0) {
+                return false;
+            }
+        }
+        return !name.isEmpty();
+    }
+
+    private static String unescape(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int index = 0; index < name.length(); index++) {
+            char c = name.charAt(index);
+            sb.append(c == '\\' ? name.charAt(++index) : c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Translates a glob into a regular expression.
+     */
+    private static String toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        boolean inGroup = false;
+        for (int index = 0; index < glob.length(); index++) {
+            char c = glob.charAt(index);
+            switch (c) {
+                case '\\':
+                    if (index + 1 == glob.length()) {
+                        throw new PatternSyntaxException("No character to escape", glob, index);
+                    }
+                    appendLiteral(regex, glob.charAt(++index));
+                    break;
+                case '*':
+                    if (index + 1 < glob.length() && glob.charAt(index + 1) == '*') {
+                        regex.append(".*");
+                        index++;
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                    break;
+                case '?':
+                    regex.append("[^/]");
+                    break;
+                case '[':
+                    index = appendCharacterClass(regex, glob, index);
+                    break;
+                case '{':
+                    if (inGroup) {
+                        throw new PatternSyntaxException("Cannot nest groups", glob, index);
+                    }
+                    regex.append("(?:");
+                    inGroup = true;
+                    break;
+                case '}':
+                    if (inGroup) {
+                        regex.append(')');
+                        inGroup = false;
+                    } else {
+                        appendLiteral(regex, c);
+                    }
+                    break;
+                case ',':
+                    if (inGroup) {
+                        regex.append('|');
+                    } else {
+                        appendLiteral(regex, c);
+                    }
+                    break;
+                default:
+                    appendLiteral(regex, c);
+            }
+        }
+        if (inGroup) {
+            throw new PatternSyntaxException("Missing '}'", glob, glob.length() - 1);
+        }
+        return regex.toString();
+    }
+
+    private static int appendCharacterClass(StringBuilder regex, String glob, int classStart) {
+        int index = classStart + 1;
+        regex.append('[');
+        if (index < glob.length() && glob.charAt(index) == '!') {
+            regex.append("^/");
+            index++;
+        }
+        for (boolean first = true; index < glob.length(); index++, first = false) {
+            char c = glob.charAt(index);
+            if (c == ']' && !first) {
+                regex.append(']');
+                return index;
+            } else if (c == SEPARATOR_CHAR) {
+                throw new PatternSyntaxException("Explicit 'name separator' in class", glob, index);
+            } else if (c == '\\') {
+                if (index + 1 == glob.length()) {
+                    throw new PatternSyntaxException("No character to escape", glob, index);
+                }
+                regex.append('\\').append(glob.charAt(++index));
+            } else {
+                if (c == '[' || c == ']' || c == '^' || c == '&') {
+                    regex.append('\\');
+                }
+                regex.append(c);
+            }
+        }
+        throw new PatternSyntaxException("Missing ']'", glob, glob.length() - 1);
+    }
+
+    private static void appendLiteral(StringBuilder regex, char c) {
+        if (REGEX_META_CHARS.indexOf(c) >= 0) {
+            regex.append('\\');
+        }
+        regex.append(c);
+    }
+
+    @Override
+    public boolean matches(Path path) {
+        return pattern.matcher(path.toString()).matches();
+    }
+
+    /**
+     * Gets the leading names of a relative glob pattern, which contain no wildcards and are followed by further names.
+     * Matching paths are always located in this directory.
+     *
+     * @return the literal directory names
+     */
+    public String[] getLiteralPrefix() {
+        return literalPrefix.clone();
+    }
+
+    /**
+     * Checks if the specified directory might contain matching paths.
+     *
+     * @param relativeDirectory a directory relative to the directory the paths are matched relative to
+     * @return false, if no path in the specified directory can match
+     */
+    public boolean mayMatchBelow(ISOPath relativeDirectory) {
+        int nameCount = relativeDirectory.getNameCount();
+        if (nameCount >= maxNameCount) {
+            return false;
+        }
+        return nameCount > namePatterns.length
+                || namePatterns[nameCount - 1].matcher(relativeDirectory.getFileName().toString()).matches();
+    }
+
+    @Override
+    public String toString() {
+        return pattern.pattern();
+    }
+}
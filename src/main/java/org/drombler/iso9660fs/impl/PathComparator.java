@@ -25,6 +25,24 @@ import java.util.Iterator;
  */
 public class PathComparator implements Comparator<Path> {
 
+    private final boolean caseSensitive;
+
+    /**
+     * Creates a comparator which compares the names ignoring case.
+     */
+    public PathComparator() {
+        this(false);
+    }
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param caseSensitive if true, the names are compared case-sensitively
+     */
+    public PathComparator(boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+    }
+
     @Override
     public int compare(Path path1, Path path2) {
         if (!path1.getFileSystem().provider().equals(path2.getFileSystem().provider())) {
@@ -49,8 +67,10 @@ public class PathComparator implements Comparator<Path> {
         } else {
             Path path1Name = path1Iterator.next();
             Path path2Name = path2Iterator.next();
-            // ignore case since ISO only supports uppercase names
-            int compareTo = path1Name.toString().compareToIgnoreCase(path2Name.toString());
+            // ignore case since ISO only supports uppercase names (but Rock Ridge names are case-sensitive)
+            int compareTo = caseSensitive
+                    ? path1Name.toString().compareTo(path2Name.toString())
+                    : path1Name.toString().compareToIgnoreCase(path2Name.toString());
             if (compareTo != 0) {
                 return compareTo;
             } else {
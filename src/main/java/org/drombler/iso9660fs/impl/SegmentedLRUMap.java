@@ -0,0 +1,159 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * A bounded map with a scan-resistant segmented LRU (SLRU) eviction policy. New entries are added to a probationary
+ * segment. Entries which are accessed again are promoted to a protected segment. Thus a scan over many entries, which
+ * are accessed only once, evicts only entries of the probationary segment but not the frequently accessed entries of
+ * the protected segment.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @author puce
+ */
+/* package-private */ class SegmentedLRUMap<K, V> {
+
+    private static final double PROTECTED_SEGMENT_RATIO = 0.8;
+
+    private final int capacity;
+    private final int protectedCapacity;
+    private final BiConsumer<? super K, ? super V> evictionListener;
+    private final LinkedHashMap<K, V> probationarySegment = new LinkedHashMap<>();
+    private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param capacity         the maximum number of entries
+     * @param evictionListener gets notified about evicted entries
+     */
+    public SegmentedLRUMap(int capacity, BiConsumer<? super K, ? super V> evictionListener) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.protectedCapacity = (int) (capacity * PROTECTED_SEGMENT_RATIO);
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Gets the value of the specified key and marks the entry as accessed.
+     *
+     * @param key the key
+     * @return the value or null, if there is no such key
+     */
+    public V get(K key) {
+        return get(key, true);
+    }
+
+    /**
+     * Gets the value of the specified key and marks the entry as accessed. An entry of the probationary segment is only
+     * promoted to the protected segment if promote is true. Thus a scan accessing the same entry several times in a
+     * row, e.g. with reads smaller than a block, doesn't flood the protected segment.
+     *
+     * @param key     the key
+     * @param promote if true, an entry of the probationary segment gets promoted to the protected segment
+     * @return the value or null, if there is no such key
+     */
+    public V get(K key, boolean promote) {
+        V value = protectedSegment.get(key);
+        if (value == null) {
+            if (!promote) {
+                return probationarySegment.get(key);
+            }
+            value = probationarySegment.remove(key);
+            if (value != null) {
+                protectedSegment.put(key, value);
+                if (protectedSegment.size() > protectedCapacity) {
+                    // demote the least recently used protected entry; it gets another chance in the probationary segment
+                    Map.Entry<K, V> eldestEntry = removeEldest(protectedSegment);
+                    probationarySegment.put(eldestEntry.getKey(), eldestEntry.getValue());
+                }
+            }
+        }
+        return value;
+    }
+
+    public boolean containsKey(K key) {
+        return protectedSegment.containsKey(key) || probationarySegment.containsKey(key);
+    }
+
+    /**
+     * Puts the specified entry. If the capacity is exceeded, the least recently used entries of the probationary
+     * segment get evicted.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, value);
+        } else {
+            probationarySegment.put(key, value);
+            while (size() > capacity) {
+                evictEldest();
+            }
+        }
+    }
+
+    public V remove(K key) {
+        V value = protectedSegment.remove(key);
+        return value != null ? value : probationarySegment.remove(key);
+    }
+
+    /**
+     * Evicts the least recently used entry of the probationary segment or, if the probationary segment is empty, of the
+     * protected segment.
+     */
+    public void evictEldest() {
+        Map.Entry<K, V> eldestEntry = removeEldest(!probationarySegment.isEmpty() ? probationarySegment : protectedSegment);
+        if (eldestEntry != null && evictionListener != null) {
+            evictionListener.accept(eldestEntry.getKey(), eldestEntry.getValue());
+        }
+    }
+
+    private static <K, V> Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> segment) {
+        Iterator<Map.Entry<K, V>> iterator = segment.entrySet().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        Map.Entry<K, V> eldestEntry = iterator.next();
+        K key = eldestEntry.getKey();
+        V value = eldestEntry.getValue();
+        iterator.remove();
+        return Map.entry(key, value);
+    }
+
+    public int size() {
+        return probationarySegment.size() + protectedSegment.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void clear() {
+        probationarySegment.clear();
+        protectedSegment.clear();
+    }
+}
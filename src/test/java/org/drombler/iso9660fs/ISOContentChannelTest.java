@@ -0,0 +1,268 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author puce
+ */
+public class ISOContentChannelTest {
+
+    private static final int LOGICAL_BLOCK_SIZE = 2048;
+    private static final int READ_SIZE = 8 * 1024;
+    private static final int MAX_READAHEAD_SIZE = 256 * 1024;
+
+    private ByteArrayImage image;
+    private ISOExtentMap extents;
+    private byte[] content;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        byte[] data = new byte[600 * LOGICAL_BLOCK_SIZE];
+        new Random(42).nextBytes(data);
+        this.image = new ByteArrayImage(data);
+        // the second extent is recorded before the first one
+        this.extents = new ISOExtentMap(new long[]{300, 0}, new long[]{300 * LOGICAL_BLOCK_SIZE, 200 * LOGICAL_BLOCK_SIZE + 100});
+        this.content = new byte[(int) extents.getSize()];
+        System.arraycopy(data, 300 * LOGICAL_BLOCK_SIZE, content, 0, 300 * LOGICAL_BLOCK_SIZE);
+        System.arraycopy(data, 0, content, 300 * LOGICAL_BLOCK_SIZE, 200 * LOGICAL_BLOCK_SIZE + 100);
+        this.executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testReadSequential() throws IOException {
+        try (SeekableByteChannel testee = new ISOContentChannel(image, extents, LOGICAL_BLOCK_SIZE, MAX_READAHEAD_SIZE, executor)) {
+            int numReads = readFully(testee);
+
+            assertTrue(image.getNumReads() < numReads / 4, "Number of image reads: " + image.getNumReads());
+            assertEquals(content.length, testee.position());
+        }
+    }
+
+    @Test
+    public void testReadSequentialWithoutExecutor() throws IOException {
+        try (SeekableByteChannel testee = new ISOContentChannel(image, extents, LOGICAL_BLOCK_SIZE, MAX_READAHEAD_SIZE, null)) {
+            int numReads = readFully(testee);
+
+            assertTrue(image.getNumReads() < numReads / 4, "Number of image reads: " + image.getNumReads());
+        }
+    }
+
+    @Test
+    public void testReadRandom() throws IOException {
+        Random random = new Random(7);
+        try (SeekableByteChannel testee = new ISOContentChannel(image, extents, LOGICAL_BLOCK_SIZE, MAX_READAHEAD_SIZE, executor)) {
+            for (int i = 0; i < 100; i++) {
+                int position = random.nextInt(content.length);
+                ByteBuffer byteBuffer = ByteBuffer.allocate(READ_SIZE);
+                testee.position(position);
+                int numBytes = testee.read(byteBuffer);
+
+                assertTrue(numBytes > 0);
+                assertArrayEquals(Arrays.copyOfRange(content, position, position + numBytes),
+                        Arrays.copyOf(byteBuffer.array(), numBytes));
+            }
+            // random reads are not served from a readahead window
+            assertTrue(image.getNumReads() <= 200, "Number of image reads: " + image.getNumReads());
+            assertTrue(image.getNumReadBytes() <= 100L * READ_SIZE, "Number of read bytes: " + image.getNumReadBytes());
+        }
+    }
+
+    @Test
+    public void testReadAfterSeek() throws IOException {
+        try (SeekableByteChannel testee = new ISOContentChannel(image, extents, LOGICAL_BLOCK_SIZE, MAX_READAHEAD_SIZE, executor)) {
+            ByteBuffer byteBuffer = ByteBuffer.allocate(READ_SIZE);
+            for (int i = 0; i < 10; i++) {
+                byteBuffer.clear();
+                testee.read(byteBuffer);
+            }
+            // seek back into the readahead window and then beyond it
+            for (long position : new long[]{READ_SIZE + 10, 900_000, 900_000 - READ_SIZE}) {
+                testee.position(position);
+                byteBuffer.clear();
+                int numBytes = testee.read(byteBuffer);
+
+                assertArrayEquals(Arrays.copyOfRange(content, (int) position, (int) position + numBytes),
+                        Arrays.copyOf(byteBuffer.array(), numBytes));
+                assertEquals(position + numBytes, testee.position());
+            }
+        }
+    }
+
+    @Test
+    public void testReadRandomDoesNotWaitForPrefetch() throws IOException {
+        // the prefetch never completes
+        List<Runnable> pendingTasks = new ArrayList<>();
+        try (SeekableByteChannel testee = new ISOContentChannel(image, extents, LOGICAL_BLOCK_SIZE, MAX_READAHEAD_SIZE, pendingTasks::add)) {
+            ByteBuffer byteBuffer = ByteBuffer.allocate(READ_SIZE);
+            while (pendingTasks.isEmpty()) {
+                byteBuffer.clear();
+                testee.read(byteBuffer);
+            }
+            testee.position(900_000);
+            byteBuffer.clear();
+
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> testee.read(byteBuffer));
+            assertArrayEquals(Arrays.copyOfRange(content, 900_000, 900_000 + READ_SIZE), byteBuffer.array());
+        }
+    }
+
+    @Test
+    public void testReadSequentialBulkReadImage() throws IOException {
+        ByteArrayImage bulkReadImage = new ByteArrayImage(image.data);
+        ISOImage cachingImage = new ByteArrayImage(image.data) {
+            @Override
+            public ISOImage getBulkReadImage() {
+                return bulkReadImage;
+            }
+        };
+        try (SeekableByteChannel testee = new ISOContentChannel(cachingImage, extents, LOGICAL_BLOCK_SIZE, MAX_READAHEAD_SIZE, executor)) {
+            int numReads = readFully(testee);
+
+            assertTrue(bulkReadImage.getNumReadBytes() > content.length - 2L * READ_SIZE,
+                    "Number of bulk read bytes: " + bulkReadImage.getNumReadBytes());
+            assertTrue(bulkReadImage.getNumReads() < numReads / 4, "Number of bulk reads: " + bulkReadImage.getNumReads());
+        }
+    }
+
+    @Test
+    public void testReadSequentialSmallReadahead() throws IOException {
+        int maxReadaheadSize = 16 * 1024;
+        try (SeekableByteChannel testee = new ISOContentChannel(image, extents, LOGICAL_BLOCK_SIZE, maxReadaheadSize, null)) {
+            readFully(testee);
+
+            assertTrue(image.getMaxReadLength() <= maxReadaheadSize, "Maximum read length: " + image.getMaxReadLength());
+        }
+    }
+
+    @Test
+    public void testReadaheadDisabled() throws IOException {
+        try (SeekableByteChannel testee = new ISOContentChannel(image, extents, LOGICAL_BLOCK_SIZE, 0, executor)) {
+            int numReads = readFully(testee);
+
+            assertEquals(numReads, image.getNumReads());
+        }
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        SeekableByteChannel testee = new ISOContentChannel(image, extents, LOGICAL_BLOCK_SIZE, MAX_READAHEAD_SIZE, executor);
+        testee.read(ByteBuffer.allocate(READ_SIZE));
+        testee.close();
+
+        assertFalse(testee.isOpen());
+        assertThrows(ClosedChannelException.class, () -> testee.read(ByteBuffer.allocate(READ_SIZE)));
+    }
+
+    /**
+     * Reads the whole content with 8 KiB reads and compares it with the expected content.
+     *
+     * @return the number of reads which returned data
+     */
+    private int readFully(SeekableByteChannel channel) throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(READ_SIZE);
+        byte[] readContent = new byte[content.length];
+        int numReadBytes = 0;
+        int numReads = 0;
+        int numBytes;
+        while ((numBytes = channel.read(byteBuffer)) >= 0) {
+            System.arraycopy(byteBuffer.array(), 0, readContent, numReadBytes, numBytes);
+            numReadBytes += numBytes;
+            numReads++;
+            byteBuffer.clear();
+        }
+        assertEquals(content.length, numReadBytes);
+        assertArrayEquals(content, readContent);
+        return numReads;
+    }
+
+    private static class ByteArrayImage implements ISOImage {
+
+        private final byte[] data;
+        private final AtomicInteger numReads = new AtomicInteger();
+        private final AtomicInteger numReadBytes = new AtomicInteger();
+        private final AtomicInteger maxReadLength = new AtomicInteger();
+
+        ByteArrayImage(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public long size() {
+            return data.length;
+        }
+
+        @Override
+        public ByteBuffer read(long position, int length) throws IOException {
+            ByteBuffer byteBuffer = ByteBuffer.allocate(length);
+            read(byteBuffer, position);
+            byteBuffer.flip();
+            return byteBuffer;
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) {
+            if (position >= data.length) {
+                return -1;
+            }
+            int length = (int) Math.min(dst.remaining(), data.length - position);
+            dst.put(data, (int) position, length);
+            numReads.incrementAndGet();
+            numReadBytes.addAndGet(length);
+            maxReadLength.accumulateAndGet(length, Math::max);
+            return length;
+        }
+
+        int getNumReads() {
+            return numReads.get();
+        }
+
+        long getNumReadBytes() {
+            return numReadBytes.get();
+        }
+
+        int getMaxReadLength() {
+            return maxReadLength.get();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author puce
+ */
+public class ISODirectoryRecordIteratorTest {
+
+    private static final int LOGICAL_BLOCK_SIZE = 2048;
+
+    @Test
+    public void testIteratorSkipsPaddingAtEndOfLogicalBlock() {
+        ByteBuffer extent = ByteBuffer.allocate(2 * LOGICAL_BLOCK_SIZE);
+        putDirectoryRecord(extent, new byte[]{0});
+        putDirectoryRecord(extent, new byte[]{1});
+        List<String> expectedFileNames = new ArrayList<>();
+        for (int i = 0; i < 51; i++) {
+            String fileName = String.format("FILE%04d.TXT", i);
+            byte[] fileIdentifier = (fileName + ";1").getBytes(StandardCharsets.US_ASCII);
+            if (extent.position() % LOGICAL_BLOCK_SIZE + 33 + fileIdentifier.length + 1 > LOGICAL_BLOCK_SIZE) {
+                extent.position(LOGICAL_BLOCK_SIZE); // records don't span logical blocks
+            }
+            putDirectoryRecord(extent, fileIdentifier);
+            expectedFileNames.add(fileName);
+        }
+        assertTrue(extent.position() > LOGICAL_BLOCK_SIZE);
+
+        ISODirectoryRecordIterator testee = new ISODirectoryRecordIterator(createImage(extent), 0, extent.capacity(), LOGICAL_BLOCK_SIZE);
+        assertTrue(testee.next().isSelfOrParentDirectory());
+        assertTrue(testee.next().isSelfOrParentDirectory());
+        List<String> fileNames = new ArrayList<>();
+        while (testee.hasNext()) {
+            fileNames.add(testee.next().getFileName());
+        }
+        assertEquals(expectedFileNames, fileNames);
+        assertFalse(testee.hasNext());
+    }
+
+    private static void putDirectoryRecord(ByteBuffer byteBuffer, byte[] fileIdentifier) {
+        int length = 33 + fileIdentifier.length + (ISOUtils.isEven(fileIdentifier.length) ? 1 : 0);
+        byteBuffer.put((byte) length);
+        byteBuffer.put((byte) 0);
+        putInt32LSBMSB(byteBuffer, 0);
+        putInt32LSBMSB(byteBuffer, 0);
+        byteBuffer.put(new byte[7]);
+        byteBuffer.put((byte) 0);
+        byteBuffer.put((byte) 0);
+        byteBuffer.put((byte) 0);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN).putShort((short) 1);
+        byteBuffer.order(ByteOrder.BIG_ENDIAN).putShort((short) 1);
+        byteBuffer.put((byte) fileIdentifier.length);
+        byteBuffer.put(fileIdentifier);
+        if (ISOUtils.isEven(fileIdentifier.length)) {
+            byteBuffer.put((byte) 0);
+        }
+    }
+
+    private static void putInt32LSBMSB(ByteBuffer byteBuffer, long value) {
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN).putInt((int) value);
+        byteBuffer.order(ByteOrder.BIG_ENDIAN).putInt((int) value);
+    }
+
+    private static ISOImage createImage(ByteBuffer content) {
+        return new ISOImage() {
+            @Override
+            public long size() {
+                return content.capacity();
+            }
+
+            @Override
+            public ByteBuffer read(long position, int length) {
+                ByteBuffer byteBuffer = content.duplicate();
+                byteBuffer.limit((int) position + length).position((int) position);
+                return byteBuffer.slice();
+            }
+
+            @Override
+            public int read(ByteBuffer dst, long position) {
+                ByteBuffer byteBuffer = read(position, Math.min(dst.remaining(), (int) (content.capacity() - position)));
+                int numBytes = byteBuffer.remaining();
+                dst.put(byteBuffer);
+                return numBytes;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
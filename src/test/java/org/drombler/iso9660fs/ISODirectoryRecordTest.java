@@ -0,0 +1,104 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author puce
+ */
+public class ISODirectoryRecordTest {
+
+    @Test
+    public void testGetters() {
+        ByteBuffer byteBuffer = createDirectoryRecord(100, 12345, (byte) (1 | 2), "TEST1");
+        ISODirectoryRecord testee = new ISODirectoryRecord(byteBuffer);
+
+        assertEquals(38, byteBuffer.position()); // positioned after the file identifier
+        assertEquals(38, testee.getLength());
+        assertEquals(100, testee.getLocationOfExtend());
+        assertEquals(12345, testee.getDataLength());
+        assertEquals(ZonedDateTime.of(2020, 1, 2, 3, 4, 5, 0, ZoneOffset.ofHours(1)), testee.getRecordingDateTime());
+        assertEquals(EnumSet.of(ISOFileFlag.HIDDEN, ISOFileFlag.DIRECTORY), testee.getFileFlags());
+        assertTrue(testee.isDirectory());
+        assertTrue(testee.isFileFlagSet(ISOFileFlag.HIDDEN));
+        assertFalse(testee.isFileFlagSet(ISOFileFlag.ASSOCIATED_FILE));
+        assertEquals(1, testee.getVolumeSequenceNumber());
+        assertEquals("TEST1", testee.getFileIdentifier());
+        assertFalse(testee.isSelfOrParentDirectory());
+    }
+
+    @Test
+    public void testDecodedFieldsAreCached() {
+        ISODirectoryRecord testee = new ISODirectoryRecord(createDirectoryRecord(100, 0, (byte) 0, "FOO.TXT;1"));
+        assertSame(testee.getFileIdentifier(), testee.getFileIdentifier());
+        assertSame(testee.getRecordingDateTime(), testee.getRecordingDateTime());
+        assertSame(testee.getFileFlags(), testee.getFileFlags());
+        assertEquals("FOO.TXT", testee.getFileName());
+    }
+
+    @Test
+    public void testIsSelfOrParentDirectory() {
+        assertTrue(new ISODirectoryRecord(createDirectoryRecord(100, 2048, (byte) 2, "\0")).isSelfOrParentDirectory());
+        assertTrue(new ISODirectoryRecord(createDirectoryRecord(100, 2048, (byte) 2, "\1")).isSelfOrParentDirectory());
+    }
+
+    @Test
+    public void testEquals() {
+        ISODirectoryRecord directoryRecord = new ISODirectoryRecord(createDirectoryRecord(100, 0, (byte) 0, "FOO.TXT;1"));
+        ISODirectoryRecord equalDirectoryRecord = new ISODirectoryRecord(createDirectoryRecord(100, 0, (byte) 0, "FOO.TXT;1"));
+        ISODirectoryRecord otherDirectoryRecord = new ISODirectoryRecord(createDirectoryRecord(101, 0, (byte) 0, "FOO.TXT;1"));
+        assertEquals(directoryRecord, equalDirectoryRecord);
+        assertEquals(directoryRecord.hashCode(), equalDirectoryRecord.hashCode());
+        assertNotEquals(directoryRecord, otherDirectoryRecord);
+    }
+
+    private static ByteBuffer createDirectoryRecord(long locationOfExtend, long dataLength, byte fileFlags, String fileIdentifier) {
+        byte[] fileIdentifierBytes = fileIdentifier.getBytes(StandardCharsets.US_ASCII);
+        int length = 33 + fileIdentifierBytes.length + (ISOUtils.isEven(fileIdentifierBytes.length) ? 1 : 0);
+        ByteBuffer byteBuffer = ByteBuffer.allocate(length);
+        byteBuffer.put((byte) length);
+        byteBuffer.put((byte) 0);
+        putInt32LSBMSB(byteBuffer, locationOfExtend);
+        putInt32LSBMSB(byteBuffer, dataLength);
+        byteBuffer.put(new byte[]{120, 1, 2, 3, 4, 5, 4});
+        byteBuffer.put(fileFlags);
+        byteBuffer.put((byte) 0);
+        byteBuffer.put((byte) 0);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN).putShort((short) 1);
+        byteBuffer.order(ByteOrder.BIG_ENDIAN).putShort((short) 1);
+        byteBuffer.put((byte) fileIdentifierBytes.length);
+        byteBuffer.put(fileIdentifierBytes);
+        byteBuffer.flip();
+        return byteBuffer;
+    }
+
+    private static void putInt32LSBMSB(ByteBuffer byteBuffer, long value) {
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN).putInt((int) value);
+        byteBuffer.order(ByteOrder.BIG_ENDIAN).putInt((int) value);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author puce
+ */
+public class ISOExtentMapTest {
+
+    @Test
+    public void testGetSize() {
+        ISOExtentMap testee = new ISOExtentMap(new long[]{21, 23, 22}, new long[]{0xFFFFF800L, 0xFFFFF800L, 100});
+
+        assertEquals(3, testee.getNumExtents());
+        assertEquals(2 * 0xFFFFF800L + 100, testee.getSize());
+        assertEquals(0xFFFFF800L, testee.getFileOffset(1));
+        assertEquals(2 * 0xFFFFF800L, testee.getFileOffset(2));
+    }
+
+    @Test
+    public void testFindExtent() {
+        ISOExtentMap testee = new ISOExtentMap(new long[]{21, 23, 22}, new long[]{2048, 2048, 100});
+
+        assertEquals(0, testee.findExtent(0));
+        assertEquals(0, testee.findExtent(2047));
+        assertEquals(1, testee.findExtent(2048));
+        assertEquals(2, testee.findExtent(4096));
+        assertEquals(2, testee.findExtent(4195));
+        assertEquals(-1, testee.findExtent(4196));
+        assertEquals(-1, testee.findExtent(-1));
+    }
+
+    @Test
+    public void testFindExtentEmptyExtent() {
+        ISOExtentMap testee = new ISOExtentMap(new long[]{21, 0, 22}, new long[]{2048, 0, 100});
+
+        assertEquals(0, testee.findExtent(2047));
+        assertEquals(2, testee.findExtent(2048));
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new ISOExtentMap(new long[0], new long[0]));
+        assertThrows(IllegalArgumentException.class, () -> new ISOExtentMap(new long[]{1}, new long[]{1, 2}));
+    }
+}
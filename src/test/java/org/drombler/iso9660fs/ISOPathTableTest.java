@@ -0,0 +1,72 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import org.drombler.iso9660fs.impl.ISOFileSystem;
+import org.drombler.iso9660fs.impl.ISOFileSystemProvider;
+
+import java.net.URI;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author puce
+ */
+public class ISOPathTableTest {
+
+    private ISOFileSystem fileSystem;
+    private ISOPrimaryVolumeDescriptor primaryVolumeDescriptor;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        URI isoFileURI = URI.create("iso:" + ISOPathTableTest.class.getResource("/test.iso").toURI().toString());
+        this.fileSystem = (ISOFileSystem) new ISOFileSystemProvider().newFileSystem(isoFileURI, null);
+        this.primaryVolumeDescriptor = fileSystem.getPrimaryVolumeDescriptor();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        fileSystem.close();
+    }
+
+    @Test
+    public void testLookupRoot() {
+        ISOPathTableEntry pathTableEntry = primaryVolumeDescriptor.lookupPathTable(fileSystem.getPath("/"));
+        assertEquals(28, pathTableEntry.getLocationOfExtend());
+    }
+
+    @Test
+    public void testLookup() {
+        assertEquals(29, primaryVolumeDescriptor.lookupPathTable(fileSystem.getPath("/TEST1")).getLocationOfExtend());
+        assertEquals(30, primaryVolumeDescriptor.lookupPathTable(fileSystem.getPath("/TEST1/TEST2")).getLocationOfExtend());
+    }
+
+    @Test
+    public void testLookupIgnoresCase() {
+        assertEquals(30, primaryVolumeDescriptor.lookupPathTable(fileSystem.getPath("/test1/Test2")).getLocationOfExtend());
+    }
+
+    @Test
+    public void testLookupNotFound() {
+        assertNull(primaryVolumeDescriptor.lookupPathTable(fileSystem.getPath("/TEST2")));
+        assertNull(primaryVolumeDescriptor.lookupPathTable(fileSystem.getPath("/TEST1/TEST1")));
+        assertNull(primaryVolumeDescriptor.lookupPathTable(fileSystem.getPath("/TEST1/TEST2/TEST3")));
+        assertNull(primaryVolumeDescriptor.lookupPathTable(fileSystem.getPath("/FOO.TXT")));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import org.drombler.iso9660fs.impl.ISOFileSystem;
+import org.drombler.iso9660fs.impl.ISOFileSystemProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author puce
+ */
+public class ISORockRidgeTest {
+
+    // field offsets of a "CE" entry
+    private static final int CE_BLOCK_OFFSET = 4;
+    private static final int CE_OFFSET_OFFSET = 12;
+    private static final int CE_LENGTH_OFFSET = 20;
+
+    private ISOFileSystem fileSystem;
+    private ISOPrimaryVolumeDescriptor volumeDescriptor;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        URI isoFileURI = URI.create("iso:" + ISORockRidgeTest.class.getResource("/rockridge.iso").toURI().toString());
+        this.fileSystem = (ISOFileSystem) new ISOFileSystemProvider().newFileSystem(isoFileURI, null);
+        this.volumeDescriptor = fileSystem.getVolumeDescriptor();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        fileSystem.close();
+    }
+
+    @Test
+    public void testDetect() {
+        assertSame(fileSystem.getPrimaryVolumeDescriptor(), volumeDescriptor);
+        assertNotNull(volumeDescriptor.getRockRidge());
+        assertEquals(0, volumeDescriptor.getRockRidge().getSkipLength());
+    }
+
+    @Test
+    public void testAlternateName() {
+        List<ISODirectoryRecord> children = volumeDescriptor.getRootDirectoryDescriptor().getChildren();
+
+        assertEquals("link", children.get(2).getFileName());
+        assertEquals("LINK.;1", children.get(2).getFileIdentifier());
+        assertEquals("A Very Long Directory Name", children.get(3).getFileName());
+        assertEquals("Read Me.txt", children.get(4).getFileName());
+    }
+
+    @Test
+    public void testAlternateNameContinuationArea() throws Exception {
+        List<String> fileNames = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(fileSystem.getPath("/A Very Long Directory Name"))) {
+            directoryStream.forEach(path -> fileNames.add(path.getFileName().toString()));
+        }
+
+        assertEquals(List.of("This is a very long file name which continues in a continuation area.txt"), fileNames);
+    }
+
+    @Test
+    public void testMalformedContinuationArea() throws Exception {
+        assertMalformedContinuationArea(CE_OFFSET_OFFSET, 0x80000000L);
+        assertMalformedContinuationArea(CE_OFFSET_OFFSET, 2000);
+        assertMalformedContinuationArea(CE_LENGTH_OFFSET, 0xFFFFFFFFL);
+        assertMalformedContinuationArea(CE_LENGTH_OFFSET, 0);
+        assertMalformedContinuationArea(CE_BLOCK_OFFSET, 1_000_000);
+    }
+
+    private void assertMalformedContinuationArea(int fieldOffset, long value) throws Exception {
+        byte[] image = Files.readAllBytes(Path.of(ISORockRidgeTest.class.getResource("/rockridge.iso").toURI()));
+        int ceIndex = indexOf(image, new byte[]{'C', 'E', 28, 1});
+        assertTrue(ceIndex > 0);
+        for (int i = 0; i < 4; i++) {
+            image[ceIndex + fieldOffset + i] = (byte) (value >>> (8 * i));
+        }
+        Path isoFile = Files.createTempFile("rockridge-malformed", ".iso");
+        try {
+            Files.write(isoFile, image);
+            try (FileSystem malformedFileSystem = new ISOFileSystemProvider().newFileSystem(URI.create("iso:" + isoFile.toUri()), null)) {
+                List<String> fileNames = new ArrayList<>();
+                try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(
+                        malformedFileSystem.getPath("/A Very Long Directory Name"))) {
+                    directoryStream.forEach(path -> fileNames.add(path.getFileName().toString()));
+                }
+                assertEquals(1, fileNames.size());
+                assertNotEquals("This is a very long file name which continues in a continuation area.txt", fileNames.get(0));
+            }
+        } finally {
+            Files.delete(isoFile);
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern) {
+        for (int index = 0; index <= bytes.length - pattern.length; index++) {
+            int i = 0;
+            while (i < pattern.length && bytes[index + i] == pattern[i]) {
+                i++;
+            }
+            if (i == pattern.length) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void testPosixAttributes() {
+        ISODirectoryRecord directoryRecord = volumeDescriptor.getRootDirectoryDescriptor().getChildren().get(4);
+        ISOPosixAttributes posixAttributes = directoryRecord.getPosixAttributes();
+
+        assertTrue(posixAttributes.isRegularFile());
+        assertEquals(0100644, posixAttributes.getMode());
+        assertEquals(1000, posixAttributes.getUserId());
+        assertEquals(100, posixAttributes.getGroupId());
+        assertEquals(Set.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.GROUP_READ,
+                PosixFilePermission.OTHERS_READ), posixAttributes.getPermissions());
+        assertTrue(volumeDescriptor.getRootDirectoryDescriptor().getChildren().get(3).getPosixAttributes().isDirectory());
+    }
+
+    @Test
+    public void testSymbolicLinkTarget() {
+        ISODirectoryRecord directoryRecord = volumeDescriptor.getRootDirectoryDescriptor().getChildren().get(2);
+
+        assertTrue(directoryRecord.getPosixAttributes().isSymbolicLink());
+        assertEquals("/usr/lib/file.txt", directoryRecord.getSymbolicLinkTarget());
+        assertNull(volumeDescriptor.getRootDirectoryDescriptor().getChildren().get(4).getSymbolicLinkTarget());
+    }
+
+    @Test
+    public void testTimestamps() {
+        ISODirectoryRecord directoryRecord = volumeDescriptor.getRootDirectoryDescriptor().getChildren().get(4);
+
+        assertEquals(ZonedDateTime.of(2021, 6, 15, 8, 30, 0, 0, ZoneOffset.UTC),
+                directoryRecord.getRockRidgeTimestamp(ISORockRidgeTimestampType.MODIFY));
+        assertEquals(ZonedDateTime.of(2022, 2, 2, 10, 0, 0, 0, ZoneOffset.UTC),
+                directoryRecord.getRockRidgeTimestamp(ISORockRidgeTimestampType.ACCESS));
+        assertNull(directoryRecord.getRockRidgeTimestamp(ISORockRidgeTimestampType.CREATION));
+    }
+
+    @Test
+    public void testTimestampTypeIndex() {
+        byte flags = (byte) 0b0110; // MODIFY | ACCESS
+
+        assertFalse(ISORockRidgeTimestampType.CREATION.isSet(flags));
+        assertEquals(0, ISORockRidgeTimestampType.MODIFY.getIndex(flags));
+        assertEquals(1, ISORockRidgeTimestampType.ACCESS.getIndex(flags));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import org.drombler.iso9660fs.impl.ISOFileSystem;
+import org.drombler.iso9660fs.impl.ISOFileSystemProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author puce
+ */
+public class ISOSupplementaryVolumeDescriptorTest {
+
+    private ISOFileSystem fileSystem;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        URI isoFileURI = URI.create("iso:" + ISOSupplementaryVolumeDescriptorTest.class.getResource("/joliet.iso").toURI().toString());
+        this.fileSystem = (ISOFileSystem) new ISOFileSystemProvider().newFileSystem(isoFileURI, null);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        fileSystem.close();
+    }
+
+    @Test
+    public void testJoliet() {
+        ISOPrimaryVolumeDescriptor volumeDescriptor = fileSystem.getVolumeDescriptor();
+
+        assertTrue(volumeDescriptor instanceof ISOSupplementaryVolumeDescriptor);
+        ISOSupplementaryVolumeDescriptor supplementaryVolumeDescriptor = (ISOSupplementaryVolumeDescriptor) volumeDescriptor;
+        assertTrue(supplementaryVolumeDescriptor.isJoliet());
+        assertEquals(3, supplementaryVolumeDescriptor.getJolietLevel());
+        assertEquals(ISOCharacterEncoding.UCS_2, supplementaryVolumeDescriptor.getCharacterEncoding());
+        assertEquals("LINUX", supplementaryVolumeDescriptor.getSystemIdentifier());
+        assertEquals("JOLIET", supplementaryVolumeDescriptor.getVolumeIdentifier());
+        assertEquals(25, supplementaryVolumeDescriptor.getRootDirectoryDescriptor().getLocationOfExtend());
+    }
+
+    @Test
+    public void testPrimaryVolumeDescriptor() {
+        ISOPrimaryVolumeDescriptor primaryVolumeDescriptor = fileSystem.getPrimaryVolumeDescriptor();
+
+        assertFalse(primaryVolumeDescriptor instanceof ISOSupplementaryVolumeDescriptor);
+        assertEquals(ISOCharacterEncoding.D_CHARACTERS, primaryVolumeDescriptor.getCharacterEncoding());
+        assertEquals("JOLIET", primaryVolumeDescriptor.getVolumeIdentifier());
+        assertEquals(23, primaryVolumeDescriptor.getRootDirectoryDescriptor().getLocationOfExtend());
+    }
+
+    @Test
+    public void testLookupPathTable() {
+        ISOPrimaryVolumeDescriptor volumeDescriptor = fileSystem.getVolumeDescriptor();
+
+        assertEquals(26, volumeDescriptor.lookupPathTable(fileSystem.getPath("/Long Directory Name")).getLocationOfExtend());
+        assertEquals(26, volumeDescriptor.lookupPathTable(fileSystem.getPath("/long directory name")).getLocationOfExtend());
+        assertEquals("Long Directory Name",
+                volumeDescriptor.lookupPathTable(fileSystem.getPath("/Long Directory Name")).getDirectoryIdentifier());
+    }
+}
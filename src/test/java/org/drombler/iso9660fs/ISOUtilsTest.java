@@ -0,0 +1,120 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author puce
+ */
+public class ISOUtilsTest {
+
+    @Test
+    public void testGetUnsignedInt32LSBMSB() {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(new byte[]{0, 0x78, 0x56, 0x34, (byte) 0xF2, (byte) 0xF2, 0x34, 0x56, 0x78});
+        assertEquals(0xF2345678L, ISOUtils.getUnsignedInt32LSBMSB(byteBuffer, 1));
+        assertEquals(0, byteBuffer.position());
+        assertEquals(ByteOrder.BIG_ENDIAN, byteBuffer.order());
+
+        byteBuffer.position(1);
+        assertEquals(0xF2345678L, ISOUtils.getUnsignedInt32LSBMSB(byteBuffer));
+        assertEquals(9, byteBuffer.position());
+    }
+
+    @Test
+    public void testGetUnsignedInt16LSBMSBLittleEndianBuffer() {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(new byte[]{0x34, (byte) 0xF2, (byte) 0xF2, 0x34}).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0xF234, ISOUtils.getUnsignedInt16LSBMSB(byteBuffer, 0));
+        assertEquals(ByteOrder.LITTLE_ENDIAN, byteBuffer.order());
+    }
+
+    @Test
+    public void testGetUnsignedInt16LSBMSBMismatch() {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(new byte[]{0x34, 0x12, 0x12, 0x35});
+        assertThrows(IllegalArgumentException.class, () -> ISOUtils.getUnsignedInt16LSBMSB(byteBuffer, 0));
+    }
+
+    @Test
+    public void testGetStringDTrimmed() {
+        ByteBuffer byteBuffer = ByteBuffer.wrap("  FOO.TXT;1  ".getBytes(StandardCharsets.US_ASCII));
+        assertEquals("FOO.TXT;1", ISOUtils.getStringDTrimmed(byteBuffer, 0, byteBuffer.limit()));
+        assertEquals("", ISOUtils.getStringDTrimmed(ByteBuffer.wrap(new byte[]{0}), 0, 1));
+        assertEquals("FOO.TXT;1", ISOUtils.getStringDTrimmed(toDirectBuffer(byteBuffer), 0, byteBuffer.limit()));
+    }
+
+    @Test
+    public void testEqualsFileName() {
+        assertTrue(equalsFileName("README.TXT;1", "README.TXT"));
+        assertTrue(equalsFileName("README.TXT;1", "readme.txt"));
+        assertTrue(equalsFileName("README.;1", "README"));
+        assertTrue(equalsFileName("TEST1", "test1"));
+        assertFalse(equalsFileName("README.TXT;1", "README"));
+        assertFalse(equalsFileName("README.TXT;1", "README.TX"));
+        assertFalse(equalsFileName("\0", "README"));
+    }
+
+    private static boolean equalsFileName(String fileIdentifier, String fileName) {
+        byte[] bytes = ("XX" + fileIdentifier).getBytes(StandardCharsets.US_ASCII);
+        return ISOUtils.equalsFileName(ByteBuffer.wrap(bytes), 2, bytes.length - 2, fileName);
+    }
+
+    @Test
+    public void testGetStringUCS2Trimmed() {
+        ByteBuffer byteBuffer = ByteBuffer.wrap("  Read Me \u00C4.txt;1 ".getBytes(StandardCharsets.UTF_16BE));
+        assertEquals("Read Me \u00C4.txt;1", ISOUtils.getStringUCS2Trimmed(byteBuffer, 0, byteBuffer.limit()));
+        assertEquals("", ISOUtils.getStringUCS2Trimmed(ByteBuffer.wrap(new byte[]{0}), 0, 1));
+        assertEquals("", ISOUtils.getStringUCS2Trimmed(ByteBuffer.wrap(new byte[]{0, 0}), 0, 2));
+        assertEquals("Read Me \u00C4.txt;1", ISOUtils.getStringUCS2Trimmed(toDirectBuffer(byteBuffer).order(ByteOrder.LITTLE_ENDIAN), 0,
+                byteBuffer.limit()));
+    }
+
+    @Test
+    public void testEqualsFileNameUCS2() {
+        assertTrue(equalsFileNameUCS2("Read Me First.txt;1", "Read Me First.txt"));
+        assertTrue(equalsFileNameUCS2("Read Me First.txt;1", "read me first.TXT"));
+        assertTrue(equalsFileNameUCS2("Long Directory Name", "long directory name"));
+        assertTrue(equalsFileNameUCS2("README.;1", "README"));
+        assertFalse(equalsFileNameUCS2("Read Me First.txt;1", "Read Me First"));
+        assertFalse(equalsFileNameUCS2("Read Me First.txt;1", "Read Me First.tx"));
+    }
+
+    private static boolean equalsFileNameUCS2(String fileIdentifier, String fileName) {
+        byte[] bytes = ("X" + fileIdentifier).getBytes(StandardCharsets.UTF_16BE);
+        return ISOUtils.equalsFileNameUCS2(ByteBuffer.wrap(bytes), 2, bytes.length - 2, fileName);
+    }
+
+    @Test
+    public void testReadUnused() {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(new byte[]{0, 0, 1});
+        ISOUtils.readUnused(byteBuffer, 2);
+        assertEquals(2, byteBuffer.position());
+        assertThrows(IllegalArgumentException.class, () -> ISOUtils.readUnused(byteBuffer, 1));
+    }
+
+    private static ByteBuffer toDirectBuffer(ByteBuffer byteBuffer) {
+        ByteBuffer directBuffer = ByteBuffer.allocateDirect(byteBuffer.limit());
+        directBuffer.put(byteBuffer.duplicate());
+        directBuffer.flip();
+        return directBuffer;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author puce
+ */
+public class ISOAsynchronousFileChannelTest {
+
+    private FileSystem fileSystem;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        URI isoFileURI = URI.create("iso:" + ISOAsynchronousFileChannelTest.class.getResource("/multiextent.iso").toURI().toString());
+        this.fileSystem = new ISOFileSystemProvider().newFileSystem(isoFileURI, null);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        fileSystem.close();
+    }
+
+    @Test
+    public void testReadFuture() throws Exception {
+        try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(fileSystem.getPath("/SINGLE.TXT"), StandardOpenOption.READ)) {
+            ByteBuffer byteBuffer = ByteBuffer.allocate(100);
+
+            assertEquals(7, channel.size());
+            assertEquals(7, channel.read(byteBuffer, 0).get(10, TimeUnit.SECONDS).intValue());
+            assertEquals("single\n", new String(byteBuffer.array(), 0, 7, StandardCharsets.US_ASCII));
+            assertEquals(-1, channel.read(byteBuffer, 7).get(10, TimeUnit.SECONDS).intValue());
+        }
+    }
+
+    @Test
+    public void testReadCompletionHandler() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (AsynchronousFileChannel channel = fileSystem.provider().newAsynchronousFileChannel(fileSystem.getPath("/LARGE.BIN"),
+                Set.of(StandardOpenOption.READ), executor)) {
+            ByteBuffer byteBuffer = ByteBuffer.allocate(100);
+            CompletableFuture<Integer> result = new CompletableFuture<>();
+            channel.read(byteBuffer, 4096, "attachment", new CompletionHandler<Integer, String>() {
+                @Override
+                public void completed(Integer numBytes, String attachment) {
+                    result.complete(numBytes);
+                }
+
+                @Override
+                public void failed(Throwable exc, String attachment) {
+                    result.completeExceptionally(exc);
+                }
+            });
+
+            assertEquals(100, result.get(10, TimeUnit.SECONDS).intValue());
+            assertEquals('C', byteBuffer.get(99));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testReadAcrossExtents() throws Exception {
+        try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(fileSystem.getPath("/LARGE.BIN"), StandardOpenOption.READ)) {
+            ByteBuffer byteBuffer = ByteBuffer.allocate(16);
+            long position = 2040;
+            while (byteBuffer.hasRemaining()) {
+                position += channel.read(byteBuffer, position).get(10, TimeUnit.SECONDS);
+            }
+
+            assertEquals(4196, channel.size());
+            assertEquals("AAAAAAAABBBBBBBB", new String(byteBuffer.array(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void testReadClosed() throws Exception {
+        AsynchronousFileChannel channel = AsynchronousFileChannel.open(fileSystem.getPath("/SINGLE.TXT"), StandardOpenOption.READ);
+        channel.close();
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> channel.read(ByteBuffer.allocate(10), 0).get(10, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof ClosedChannelException);
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(fileSystem.getPath("/SINGLE.TXT"), StandardOpenOption.READ)) {
+            assertThrows(NonWritableChannelException.class, () -> channel.write(ByteBuffer.allocate(10), 0));
+        }
+    }
+
+    @Test
+    public void testOpenInvalid() {
+        assertThrows(NoSuchFileException.class,
+                () -> AsynchronousFileChannel.open(fileSystem.getPath("/MISSING.TXT"), StandardOpenOption.READ));
+        assertThrows(FileSystemException.class,
+                () -> AsynchronousFileChannel.open(fileSystem.getPath("/"), StandardOpenOption.READ));
+        assertThrows(UnsupportedOperationException.class,
+                () -> AsynchronousFileChannel.open(fileSystem.getPath("/SINGLE.TXT"), StandardOpenOption.WRITE));
+    }
+}
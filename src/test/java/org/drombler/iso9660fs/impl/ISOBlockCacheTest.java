@@ -0,0 +1,161 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import org.drombler.iso9660fs.ISOImage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author puce
+ */
+public class ISOBlockCacheTest {
+
+    private static final int BLOCK_SIZE = 2048;
+
+    private ISOFileChannelImage image;
+    private ISOFileChannelImage uncachedImage;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Path isoFilePath = Paths.get(ISOBlockCacheTest.class.getResource("/test.iso").toURI());
+        this.image = new ISOFileChannelImage(FileChannel.open(isoFilePath, StandardOpenOption.READ));
+        this.uncachedImage = new ISOFileChannelImage(FileChannel.open(isoFilePath, StandardOpenOption.READ));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        image.close();
+        uncachedImage.close();
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        ISOBlockCache testee = new ISOBlockCache(image, 64 * BLOCK_SIZE, false);
+        assertEquals(uncachedImage.read(16 * BLOCK_SIZE, BLOCK_SIZE), testee.read(16 * BLOCK_SIZE, BLOCK_SIZE));
+        assertEquals(1, testee.getMissCount());
+        assertEquals(uncachedImage.read(16 * BLOCK_SIZE, BLOCK_SIZE), testee.read(16 * BLOCK_SIZE, BLOCK_SIZE));
+        assertEquals(1, testee.getHitCount());
+    }
+
+    @Test
+    public void testReadAcrossBlocks() throws IOException {
+        ISOBlockCache testee = new ISOBlockCache(image, 64 * BLOCK_SIZE, true);
+        long position = 17 * BLOCK_SIZE - 100;
+        assertEquals(uncachedImage.read(position, 3 * BLOCK_SIZE), testee.read(position, 3 * BLOCK_SIZE));
+        assertEquals(uncachedImage.read(position, 3 * BLOCK_SIZE), testee.read(position, 3 * BLOCK_SIZE));
+        assertEquals(4, testee.getHitCount());
+    }
+
+    @Test
+    public void testReadIntoBuffer() throws IOException {
+        ISOBlockCache testee = new ISOBlockCache(image, 4 * BLOCK_SIZE, false);
+        for (int blockNumber = 0; blockNumber < testee.size() / BLOCK_SIZE; blockNumber++) {
+            ByteBuffer expected = ByteBuffer.allocate(BLOCK_SIZE + 10);
+            uncachedImage.read(expected, blockNumber * BLOCK_SIZE - 5L + (blockNumber == 0 ? 5 : 0));
+            ByteBuffer result = ByteBuffer.allocate(BLOCK_SIZE + 10);
+            testee.read(result, blockNumber * BLOCK_SIZE - 5L + (blockNumber == 0 ? 5 : 0));
+            assertEquals(expected.flip(), result.flip());
+        }
+    }
+
+    @Test
+    public void testScanResistanceSmallReads() throws IOException {
+        ISOBlockCache testee = new ISOBlockCache(image, 64 * BLOCK_SIZE, false);
+        // hot blocks
+        for (int i = 0; i < 2; i++) {
+            testee.read(16 * BLOCK_SIZE, BLOCK_SIZE);
+            testee.read(17 * BLOCK_SIZE, BLOCK_SIZE);
+        }
+        // sequential scan with reads smaller than a block
+        ISOImage reader = testee.newReaderImage();
+        ByteBuffer byteBuffer = ByteBuffer.allocate(512);
+        for (long position = 0; position < testee.size(); position += byteBuffer.capacity()) {
+            byteBuffer.clear();
+            reader.read(byteBuffer, position);
+        }
+        long hitCount = testee.getHitCount();
+        testee.read(16 * BLOCK_SIZE, BLOCK_SIZE);
+        testee.read(17 * BLOCK_SIZE, BLOCK_SIZE);
+        assertEquals(hitCount + 2, testee.getHitCount());
+    }
+
+    @Test
+    public void testScanResistanceInterleavedSmallReads() throws IOException {
+        ISOBlockCache testee = new ISOBlockCache(image, 64 * BLOCK_SIZE, false);
+        // hot blocks
+        for (int i = 0; i < 2; i++) {
+            testee.read(16 * BLOCK_SIZE, BLOCK_SIZE);
+            testee.read(17 * BLOCK_SIZE, BLOCK_SIZE);
+        }
+        // two interleaved sequential scans with reads smaller than a block
+        ISOImage reader1 = testee.newReaderImage();
+        ISOImage reader2 = testee.newReaderImage();
+        long halfSize = testee.size() / 2;
+        ByteBuffer byteBuffer = ByteBuffer.allocate(512);
+        for (long position = 0; position < halfSize; position += byteBuffer.capacity()) {
+            byteBuffer.clear();
+            reader1.read(byteBuffer, position);
+            byteBuffer.clear();
+            reader2.read(byteBuffer, halfSize + position);
+        }
+        long hitCount = testee.getHitCount();
+        testee.read(16 * BLOCK_SIZE, BLOCK_SIZE);
+        testee.read(17 * BLOCK_SIZE, BLOCK_SIZE);
+        assertEquals(hitCount + 2, testee.getHitCount());
+    }
+
+    @Test
+    public void testRepeatedReadsPromote() throws IOException {
+        ISOBlockCache testee = new ISOBlockCache(image, 64 * BLOCK_SIZE, false);
+        // a hot block read back-to-back
+        for (int i = 0; i < 3; i++) {
+            testee.read(16 * BLOCK_SIZE, 512);
+        }
+        // a scan not reading the hot block
+        ISOImage reader = testee.newReaderImage();
+        ByteBuffer byteBuffer = ByteBuffer.allocate(BLOCK_SIZE);
+        for (long position = 32 * BLOCK_SIZE; position < testee.size(); position += byteBuffer.capacity()) {
+            byteBuffer.clear();
+            reader.read(byteBuffer, position);
+        }
+        long hitCount = testee.getHitCount();
+        testee.read(16 * BLOCK_SIZE, 512);
+        assertEquals(hitCount + 1, testee.getHitCount());
+    }
+
+    @Test
+    public void testReadIntoBufferAtEnd() throws IOException {
+        ISOBlockCache testee = new ISOBlockCache(image, 4 * BLOCK_SIZE, false);
+        ByteBuffer byteBuffer = ByteBuffer.allocate(20);
+        assertEquals(10, testee.read(byteBuffer, testee.size() - 10));
+        assertEquals(-1, testee.read(byteBuffer, testee.size()));
+    }
+
+    @Test
+    public void testCacheSizeTooSmall() {
+        assertThrows(IllegalArgumentException.class, () -> new ISOBlockCache(image, BLOCK_SIZE - 1, false));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import org.drombler.iso9660fs.ISODirectoryRecord;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author puce
+ */
+public class ISODirectoryCacheTest {
+
+    @Test
+    public void testGet() {
+        ISODirectoryCache testee = new ISODirectoryCache(8);
+        ISODirectory directory = createDirectory(20);
+        testee.put(directory);
+        assertSame(directory, testee.get(20));
+        assertNull(testee.get(21));
+    }
+
+    @Test
+    public void testPutReplacesUnreferencedDirectory() {
+        // a single set with 2 ways
+        ISODirectoryCache testee = new ISODirectoryCache(2);
+        ISODirectory hotDirectory = createDirectory(20);
+        testee.put(hotDirectory);
+        testee.put(createDirectory(21));
+        for (long locationOfExtend = 22; locationOfExtend < 30; locationOfExtend++) {
+            assertSame(hotDirectory, testee.get(20));
+            testee.put(createDirectory(locationOfExtend));
+        }
+        assertSame(hotDirectory, testee.get(20));
+        assertNull(testee.get(21));
+    }
+
+    @Test
+    public void testClear() {
+        ISODirectoryCache testee = new ISODirectoryCache(8);
+        testee.put(createDirectory(20));
+        testee.clear();
+        assertNull(testee.get(20));
+    }
+
+    private static ISODirectory createDirectory(long locationOfExtend) {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(34);
+        byteBuffer.put((byte) 34);
+        byteBuffer.put((byte) 0);
+        putInt32LSBMSB(byteBuffer, locationOfExtend);
+        putInt32LSBMSB(byteBuffer, 2048);
+        byteBuffer.put(new byte[7]);
+        byteBuffer.put((byte) 2); // directory
+        byteBuffer.put((byte) 0);
+        byteBuffer.put((byte) 0);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN).putShort((short) 1);
+        byteBuffer.order(ByteOrder.BIG_ENDIAN).putShort((short) 1);
+        byteBuffer.put((byte) 1);
+        byteBuffer.put((byte) 0);
+        byteBuffer.flip();
+        return new ISODirectory(new ISODirectoryRecord(byteBuffer), List.of());
+    }
+
+    private static void putInt32LSBMSB(ByteBuffer byteBuffer, long value) {
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN).putInt((int) value);
+        byteBuffer.order(ByteOrder.BIG_ENDIAN).putInt((int) value);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author puce
+ */
+public class ISOExtractorTest {
+
+    // the root directory of rockridge.iso
+    private static final int ROOT_DIRECTORY_BLOCK = 20;
+    private static final int FILE_IDENTIFIER_OFFSET = 33;
+
+    private ISOFileSystem fileSystem;
+    private Path targetDirectory;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        URI isoFileURI = URI.create("iso:" + ISOExtractorTest.class.getResource("/test.iso").toURI().toString());
+        this.fileSystem = (ISOFileSystem) new ISOFileSystemProvider().newFileSystem(isoFileURI, null);
+        this.targetDirectory = Files.createTempDirectory("iso-extractor-test");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        fileSystem.close();
+        try (Stream<Path> paths = Files.walk(targetDirectory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void testExtract() throws IOException {
+        ISOExtractor testee = new ISOExtractor(fileSystem);
+        testee.setParallelism(2);
+        List<ISOExtractionProgress> progressList = new ArrayList<>();
+        testee.setProgressListener(progress -> {
+            synchronized (progressList) {
+                progressList.add(progress);
+            }
+        });
+
+        ISOExtractionProgress progress = testee.extract(targetDirectory);
+
+        assertEquals("foo \n", readString(targetDirectory.resolve("foo.txt")));
+        assertEquals("bar \n", readString(targetDirectory.resolve("test1/bar.txt")));
+        assertEquals("foobar \n", readString(targetDirectory.resolve("test1/test2/foobar.txt")));
+        assertEquals(3, progress.getNumFiles());
+        assertEquals(3, progress.getNumExtractedFiles());
+        assertEquals(18, progress.getNumBytes());
+        assertEquals(18, progress.getNumExtractedBytes());
+        assertEquals(3, progressList.size());
+        assertTrue(progress.getThroughput() >= 0);
+    }
+
+    @Test
+    public void testExtractFileAlreadyExistsException() throws IOException {
+        new ISOExtractor(fileSystem).extract(targetDirectory);
+        assertThrows(FileAlreadyExistsException.class, () -> new ISOExtractor(fileSystem).extract(targetDirectory));
+    }
+
+    @Test
+    public void testExtractReplaceExisting() throws IOException {
+        Files.write(targetDirectory.resolve("foo.txt"), "existing content".getBytes(StandardCharsets.US_ASCII));
+        ISOExtractor testee = new ISOExtractor(fileSystem);
+        testee.setReplaceExisting(true);
+        testee.extract(targetDirectory);
+        assertEquals("foo \n", readString(targetDirectory.resolve("foo.txt")));
+    }
+
+    @Test
+    public void testExtractSymbolicLink() throws Exception {
+        URI rockRidgeFileURI = URI.create("iso:" + ISOExtractorTest.class.getResource("/rockridge.iso").toURI().toString());
+        try (ISOFileSystem rockRidgeFileSystem = (ISOFileSystem) new ISOFileSystemProvider().newFileSystem(rockRidgeFileURI, null)) {
+            ISOExtractionProgress progress = new ISOExtractor(rockRidgeFileSystem).extract(targetDirectory);
+
+            Path link = targetDirectory.resolve("link");
+            assertTrue(Files.isSymbolicLink(link));
+            assertEquals(Paths.get("/usr/lib/file.txt"), Files.readSymbolicLink(link));
+            assertEquals(2, progress.getNumFiles());
+        }
+    }
+
+    @Test
+    public void testExtractDirectoryCycle() throws Exception {
+        byte[] image = Files.readAllBytes(Paths.get(ISOExtractorTest.class.getResource("/rockridge.iso").toURI()));
+        // let the directory record of "A Very Long Directory Name" point to the extent of the root directory
+        int directoryRecordIndex = new String(image, StandardCharsets.ISO_8859_1).indexOf("LONGDIRE", ROOT_DIRECTORY_BLOCK * 2048)
+                - FILE_IDENTIFIER_OFFSET;
+        for (int i = 0; i < 4; i++) {
+            image[directoryRecordIndex + 2 + i] = (byte) (ROOT_DIRECTORY_BLOCK >>> (8 * i));
+            image[directoryRecordIndex + 9 - i] = (byte) (ROOT_DIRECTORY_BLOCK >>> (8 * i));
+        }
+        Path isoFile = Files.createTempFile("rockridge-cycle", ".iso");
+        try {
+            Files.write(isoFile, image);
+            try (ISOFileSystem malformedFileSystem = (ISOFileSystem) new ISOFileSystemProvider().newFileSystem(
+                    URI.create("iso:" + isoFile.toUri()), null)) {
+                ISOExtractionProgress progress = new ISOExtractor(malformedFileSystem).extract(targetDirectory);
+
+                assertFalse(Files.exists(targetDirectory.resolve("A Very Long Directory Name")));
+                assertTrue(Files.exists(targetDirectory.resolve("Read Me.txt")));
+                assertEquals(1, progress.getNumFiles());
+            }
+        } finally {
+            Files.delete(isoFile);
+        }
+    }
+
+    private static String readString(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Stress test: many threads resolving attributes and reading file contents of a single file system at once.
+ *
+ * @author puce
+ */
+public class ISOFileSystemConcurrencyTest {
+
+    private static final int NUM_THREADS = 16;
+    private static final int NUM_ITERATIONS = 500;
+
+    private static final Map<String, String> FILE_CONTENTS = Map.of(
+            "/foo.txt", "foo \n",
+            "/test1/bar.txt", "bar \n",
+            "/test1/test2/foobar.txt", "foobar \n");
+    private static final List<String> DIRECTORIES = List.of("/", "/test1", "/test1/test2");
+
+    private final ISOFileSystemProvider testee = new ISOFileSystemProvider();
+    private URI isoFileURI;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        this.isoFileURI = URI.create("iso:" + ISOFileSystemConcurrencyTest.class.getResource("/test.iso").toURI().
+                toString());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        try (FileSystem fileSystem = testee.newFileSystem(isoFileURI, null)) {
+            runConcurrently(fileSystem);
+        }
+    }
+
+    @Test
+    public void testConcurrentAccessMemoryMapped() throws Exception {
+        try (FileSystem fileSystem = testee.newFileSystem(isoFileURI, Map.of("mmap", true))) {
+            runConcurrently(fileSystem);
+        }
+    }
+
+    @Test
+    public void testConcurrentAccessBlockCache() throws Exception {
+        try (FileSystem fileSystem = testee.newFileSystem(isoFileURI, Map.of("blockCacheSize", 16 * 2048))) {
+            runConcurrently(fileSystem);
+        }
+    }
+
+    private void runConcurrently(FileSystem fileSystem) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(NUM_THREADS);
+        try {
+            CountDownLatch startSignal = new CountDownLatch(1);
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int threadIndex = 0; threadIndex < NUM_THREADS; threadIndex++) {
+                final int offset = threadIndex;
+                futures.add(executorService.submit(() -> {
+                    startSignal.await();
+                    return checkFileSystem(fileSystem, offset);
+                }));
+            }
+            startSignal.countDown();
+            for (Future<Integer> future : futures) {
+                assertEquals(NUM_ITERATIONS, (int) future.get(1, TimeUnit.MINUTES));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private int checkFileSystem(FileSystem fileSystem, int offset) throws Exception {
+        List<String> files = new ArrayList<>(FILE_CONTENTS.keySet());
+        int numChecks = 0;
+        for (int iteration = 0; iteration < NUM_ITERATIONS; iteration++) {
+            String file = files.get((iteration + offset) % files.size());
+            String expectedContent = FILE_CONTENTS.get(file);
+            Path path = fileSystem.getPath(file);
+
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            assertTrue(attributes.isRegularFile());
+            assertEquals(expectedContent.length(), attributes.size());
+            assertEquals(expectedContent, readContent(path));
+
+            String directory = DIRECTORIES.get((iteration + offset) % DIRECTORIES.size());
+            assertTrue(Files.readAttributes(fileSystem.getPath(directory), BasicFileAttributes.class).isDirectory());
+            numChecks++;
+        }
+        return numChecks;
+    }
+
+    private String readContent(Path path) throws Exception {
+        try (SeekableByteChannel byteChannel = Files.newByteChannel(path)) {
+            ByteBuffer byteBuffer = ByteBuffer.allocate((int) byteChannel.size() + 1);
+            while (byteChannel.read(byteBuffer) >= 0) {
+                // read until the end of the file
+            }
+            return new String(byteBuffer.array(), 0, byteBuffer.position(), StandardCharsets.US_ASCII);
+        }
+    }
+
+}
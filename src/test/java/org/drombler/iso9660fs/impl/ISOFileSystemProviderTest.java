@@ -14,24 +14,48 @@
  */
 package org.drombler.iso9660fs.impl;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.AccessMode;
+import java.nio.file.ClosedFileSystemException;
 import java.nio.file.CopyOption;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileStore;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
 import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -70,6 +94,55 @@ public class ISOFileSystemProviderTest {
         assertThrows(FileSystemAlreadyExistsException.class, () ->  testee.newFileSystem(isoFileURI, env));
     }
 
+    @Test
+    public void testNewFileSystemConcurrently() throws Exception {
+        int numThreads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Callable<FileSystem>> mounts = new ArrayList<>();
+            for (int i = 0; i < numThreads; i++) {
+                mounts.add(() -> testee.newFileSystem(isoFileURI, null));
+            }
+            List<FileSystem> fileSystems = new ArrayList<>();
+            int numAlreadyExists = 0;
+            for (Future<FileSystem> mount : executor.invokeAll(mounts)) {
+                try {
+                    fileSystems.add(mount.get());
+                } catch (ExecutionException ex) {
+                    assertTrue(ex.getCause() instanceof FileSystemAlreadyExistsException);
+                    numAlreadyExists++;
+                }
+            }
+            assertEquals(1, fileSystems.size());
+            assertEquals(numThreads - 1, numAlreadyExists);
+            assertSame(fileSystems.get(0), testee.getFileSystem(isoFileURI));
+            fileSystems.get(0).close();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCloseRemovesFileSystem() throws Exception {
+        FileSystem fileSystem = testee.newFileSystem(isoFileURI, null);
+        Path path = fileSystem.getPath("/foo.txt");
+        fileSystem.close();
+        assertFalse(fileSystem.isOpen());
+        assertThrows(FileSystemNotFoundException.class, () -> testee.getFileSystem(isoFileURI));
+        assertThrows(ClosedFileSystemException.class, () -> Files.newByteChannel(path));
+        fileSystem.close(); // closing twice has no effect
+
+        try (FileSystem remountedFileSystem = testee.newFileSystem(isoFileURI, null)) {
+            assertSame(remountedFileSystem, testee.getFileSystem(isoFileURI));
+            // the stale file system must not deregister the remounted file system
+            testee.removeFileSystem((ISOFileSystem) fileSystem);
+            assertSame(remountedFileSystem, testee.getFileSystem(isoFileURI));
+
+            testee.removeFileSystem((ISOFileSystem) remountedFileSystem);
+            assertThrows(FileSystemNotFoundException.class, () -> testee.getFileSystem(isoFileURI));
+        }
+    }
+
 
     @Test
     @Disabled
@@ -96,30 +169,274 @@ public class ISOFileSystemProviderTest {
     }
 
     @Test
-    @Disabled
     public void testNewByteChannel() throws Exception {
-        System.out.println("newByteChannel");
-        Path path = null;
-        Set<? extends OpenOption> options = null;
-        FileAttribute[] attrs = null;
-        ISOFileSystemProvider instance = new ISOFileSystemProvider();
-        SeekableByteChannel expResult = null;
-        SeekableByteChannel result = instance.newByteChannel(path, options, attrs);
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        try (FileSystem fileSystem = testee.newFileSystem(isoFileURI, null)) {
+            Path path = fileSystem.getPath("/test1/test2/foobar.txt");
+            try (SeekableByteChannel byteChannel = testee.newByteChannel(path, Set.of(StandardOpenOption.READ))) {
+                assertEquals(8, byteChannel.size());
+                ByteBuffer byteBuffer = ByteBuffer.allocate(16);
+                assertEquals(8, byteChannel.read(byteBuffer));
+                assertEquals(-1, byteChannel.read(byteBuffer));
+                assertEquals("foobar \n", new String(byteBuffer.array(), 0, byteBuffer.position(), StandardCharsets.US_ASCII));
+
+                byteChannel.position(3);
+                byteBuffer.clear();
+                assertEquals(5, byteChannel.read(byteBuffer));
+                assertEquals("bar \n", new String(byteBuffer.array(), 0, byteBuffer.position(), StandardCharsets.US_ASCII));
+            }
+        }
+    }
+
+    @Test
+    public void testNewByteChannelRootFile() throws Exception {
+        try (FileSystem fileSystem = testee.newFileSystem(isoFileURI, null)) {
+            Path path = fileSystem.getPath("/foo.txt");
+            try (SeekableByteChannel byteChannel = testee.newByteChannel(path, Set.of())) {
+                ByteBuffer byteBuffer = ByteBuffer.allocate(16);
+                assertEquals(5, byteChannel.read(byteBuffer));
+                assertEquals("foo \n", new String(byteBuffer.array(), 0, byteBuffer.position(), StandardCharsets.US_ASCII));
+            }
+        }
+    }
+
+    @Test
+    public void testNewByteChannelMemoryMapped() throws Exception {
+        try (FileSystem fileSystem = testee.newFileSystem(isoFileURI, Map.of("mmap", true))) {
+            Path path = fileSystem.getPath("/test1/bar.txt");
+            try (SeekableByteChannel byteChannel = testee.newByteChannel(path, Set.of())) {
+                ByteBuffer byteBuffer = ByteBuffer.allocate(16);
+                assertEquals(5, byteChannel.read(byteBuffer));
+                assertEquals("bar \n", new String(byteBuffer.array(), 0, byteBuffer.position(), StandardCharsets.US_ASCII));
+            }
+        }
+    }
+
+    @Test
+    public void testNewByteChannelWithoutDirectoryCache() throws Exception {
+        try (FileSystem fileSystem = testee.newFileSystem(isoFileURI, Map.of("directoryCacheSize", 0))) {
+            Path path = fileSystem.getPath("/test1/test2/foobar.txt");
+            try (SeekableByteChannel byteChannel = testee.newByteChannel(path, Set.of(StandardOpenOption.READ))) {
+                ByteBuffer byteBuffer = ByteBuffer.allocate(100);
+                assertEquals(8, byteChannel.read(byteBuffer));
+                assertEquals("foobar \n", new String(byteBuffer.array(), 0, 8, StandardCharsets.US_ASCII));
+            }
+            assertThrows(NoSuchFileException.class, () -> testee.newByteChannel(fileSystem.getPath("/test1/foo.txt"), Set.of()));
+        }
+    }
+
+    @Test
+    public void testNewByteChannelJoliet() throws Exception {
+        URI jolietFileURI = URI.create("iso:" + ISOFileSystemProviderTest.class.getResource("/joliet.iso").toURI().toString());
+        try (FileSystem fileSystem = testee.newFileSystem(jolietFileURI, null)) {
+            Path path = fileSystem.getPath("/Long Directory Name/Mixed Case File Name.txt");
+            try (SeekableByteChannel byteChannel = testee.newByteChannel(path, Set.of(StandardOpenOption.READ))) {
+                ByteBuffer byteBuffer = ByteBuffer.allocate(100);
+                assertEquals(6, byteChannel.read(byteBuffer));
+                assertEquals("mixed\n", new String(byteBuffer.array(), 0, 6, StandardCharsets.US_ASCII));
+            }
+            assertEquals(List.of(fileSystem.getPath("/Long Directory Name"), fileSystem.getPath("/Read Me First.txt")),
+                    listDirectory(fileSystem.getPath("/"), null));
+            assertEquals(List.of(fileSystem.getPath("/Long Directory Name/Mixed Case File Name.txt")),
+                    listDirectory(fileSystem.getPath("/Long Directory Name"), null));
+            assertThrows(NoSuchFileException.class, () -> testee.newByteChannel(fileSystem.getPath("/README.TXT"), Set.of()));
+        }
+    }
+
+    @Test
+    public void testNewByteChannelJolietDisabled() throws Exception {
+        URI jolietFileURI = URI.create("iso:" + ISOFileSystemProviderTest.class.getResource("/joliet.iso").toURI().toString());
+        try (FileSystem fileSystem = testee.newFileSystem(jolietFileURI, Map.of("joliet", false))) {
+            Path path = fileSystem.getPath("/LONGDIRE/MIXEDCAS.TXT");
+            try (SeekableByteChannel byteChannel = testee.newByteChannel(path, Set.of(StandardOpenOption.READ))) {
+                assertEquals(6, byteChannel.size());
+            }
+            assertThrows(NoSuchFileException.class, () -> testee.newByteChannel(fileSystem.getPath("/Read Me First.txt"), Set.of()));
+        }
+    }
+
+    @Test
+    public void testNewByteChannelJolietMetadataIndex() throws Exception {
+        URI jolietFileURI = URI.create("iso:" + ISOFileSystemProviderTest.class.getResource("/joliet.iso").toURI().toString());
+        try (FileSystem fileSystem = testee.newFileSystem(jolietFileURI, Map.of("metadataIndex", true))) {
+            Path path = fileSystem.getPath("/long directory name/mixed case file name.txt");
+            try (SeekableByteChannel byteChannel = testee.newByteChannel(path, Set.of(StandardOpenOption.READ))) {
+                assertEquals(6, byteChannel.size());
+            }
+            assertEquals(List.of(fileSystem.getPath("/Long Directory Name/Mixed Case File Name.txt")),
+                    listDirectory(fileSystem.getPath("/Long Directory Name"), null));
+        }
+    }
+
+    @Test
+    public void testNewByteChannelRockRidge() throws Exception {
+        URI rockRidgeFileURI = URI.create("iso:" + ISOFileSystemProviderTest.class.getResource("/rockridge.iso").toURI().toString());
+        try (FileSystem fileSystem = testee.newFileSystem(rockRidgeFileURI, null)) {
+            Path path = fileSystem.getPath("/Read Me.txt");
+            try (SeekableByteChannel byteChannel = testee.newByteChannel(path, Set.of(StandardOpenOption.READ))) {
+                ByteBuffer byteBuffer = ByteBuffer.allocate(100);
+                assertEquals(17, byteChannel.read(byteBuffer));
+                assertEquals("Hello Rock Ridge\n", new String(byteBuffer.array(), 0, 17, StandardCharsets.US_ASCII));
+            }
+            assertEquals(List.of(fileSystem.getPath("/link"), fileSystem.getPath("/A Very Long Directory Name"),
+                    fileSystem.getPath("/Read Me.txt")),
+                    listDirectory(fileSystem.getPath("/"), null));
+            Path longNamePath = fileSystem.getPath("/A Very Long Directory Name/This is a very long file name which continues in a continuation area.txt");
+            try (SeekableByteChannel byteChannel = testee.newByteChannel(longNamePath, Set.of(StandardOpenOption.READ))) {
+                assertEquals(10, byteChannel.size());
+            }
+            assertThrows(NoSuchFileException.class, () -> testee.newByteChannel(fileSystem.getPath("/README.TXT"), Set.of()));
+            assertThrows(NoSuchFileException.class, () -> testee.newByteChannel(fileSystem.getPath("/read me.txt"), Set.of()));
+            assertThrows(NoSuchFileException.class, () -> testee.newByteChannel(
+                    fileSystem.getPath("/a very long directory name/this is a very long file name which continues in a continuation area.txt"),
+                    Set.of()));
+        }
+    }
+
+    @Test
+    public void testReadAttributesRockRidge() throws Exception {
+        URI rockRidgeFileURI = URI.create("iso:" + ISOFileSystemProviderTest.class.getResource("/rockridge.iso").toURI().toString());
+        try (FileSystem fileSystem = testee.newFileSystem(rockRidgeFileURI, null)) {
+            BasicFileAttributes attributes = testee.readAttributes(fileSystem.getPath("/Read Me.txt"), BasicFileAttributes.class);
+            assertEquals(FileTime.from(Instant.parse("2021-06-15T08:30:00Z")), attributes.lastModifiedTime());
+            assertEquals(FileTime.from(Instant.parse("2022-02-02T10:00:00Z")), attributes.lastAccessTime());
+            assertTrue(attributes.isRegularFile());
+
+            BasicFileAttributes linkAttributes = testee.readAttributes(fileSystem.getPath("/link"), BasicFileAttributes.class);
+            assertTrue(linkAttributes.isSymbolicLink());
+            assertFalse(linkAttributes.isRegularFile());
+        }
+    }
+
+    @Test
+    public void testNewByteChannelRockRidgeDisabled() throws Exception {
+        URI rockRidgeFileURI = URI.create("iso:" + ISOFileSystemProviderTest.class.getResource("/rockridge.iso").toURI().toString());
+        try (FileSystem fileSystem = testee.newFileSystem(rockRidgeFileURI, Map.of("rockRidge", false))) {
+            try (SeekableByteChannel byteChannel = testee.newByteChannel(fileSystem.getPath("/README.TXT"), Set.of(StandardOpenOption.READ))) {
+                assertEquals(17, byteChannel.size());
+            }
+            assertThrows(NoSuchFileException.class, () -> testee.newByteChannel(fileSystem.getPath("/Read Me.txt"), Set.of()));
+        }
+    }
+
+    @Test
+    public void testNewByteChannelRockRidgeMetadataIndex() throws Exception {
+        URI rockRidgeFileURI = URI.create("iso:" + ISOFileSystemProviderTest.class.getResource("/rockridge.iso").toURI().toString());
+        try (FileSystem fileSystem = testee.newFileSystem(rockRidgeFileURI, Map.of("metadataIndex", true))) {
+            Path longNamePath = fileSystem.getPath("/A Very Long Directory Name/This is a very long file name which continues in a continuation area.txt");
+            try (SeekableByteChannel byteChannel = testee.newByteChannel(longNamePath, Set.of(StandardOpenOption.READ))) {
+                assertEquals(10, byteChannel.size());
+            }
+            assertEquals(List.of(fileSystem.getPath("/A Very Long Directory Name/This is a very long file name which continues in a continuation area.txt")),
+                    listDirectory(fileSystem.getPath("/A Very Long Directory Name"), null));
+            BasicFileAttributes attributes = testee.readAttributes(fileSystem.getPath("/Read Me.txt"), BasicFileAttributes.class);
+            assertEquals(FileTime.from(Instant.parse("2021-06-15T08:30:00Z")), attributes.lastModifiedTime());
+            assertTrue(testee.readAttributes(fileSystem.getPath("/link"), BasicFileAttributes.class).isSymbolicLink());
+            assertThrows(NoSuchFileException.class, () -> testee.readAttributes(fileSystem.getPath("/read me.txt"),
+                    BasicFileAttributes.class));
+            assertThrows(NoSuchFileException.class, () -> testee.readAttributes(fileSystem.getPath("/LINK"),
+                    BasicFileAttributes.class));
+        }
+    }
+
+    @Test
+    public void testNewByteChannelMultiExtent() throws Exception {
+        URI multiExtentFileURI = URI.create("iso:" + ISOFileSystemProviderTest.class.getResource("/multiextent.iso").toURI().toString());
+        try (FileSystem fileSystem = testee.newFileSystem(multiExtentFileURI, null)) {
+            Path path = fileSystem.getPath("/LARGE.BIN");
+            try (SeekableByteChannel byteChannel = testee.newByteChannel(path, Set.of(StandardOpenOption.READ))) {
+                assertEquals(4196, byteChannel.size());
+                byteChannel.position(2040);
+                ByteBuffer byteBuffer = ByteBuffer.allocate(16);
+                while (byteBuffer.hasRemaining()) {
+                    byteChannel.read(byteBuffer);
+                }
+                assertEquals("AAAAAAAABBBBBBBB", new String(byteBuffer.array(), StandardCharsets.US_ASCII));
+                byteChannel.position(4195);
+                byteBuffer.clear();
+                assertEquals(1, byteChannel.read(byteBuffer));
+                assertEquals('C', byteBuffer.get(0));
+                assertEquals(-1, byteChannel.read(byteBuffer));
+            }
+            assertEquals(4196, testee.readAttributes(path, BasicFileAttributes.class).size());
+            assertEquals(List.of(fileSystem.getPath("/LARGE.BIN"), fileSystem.getPath("/SINGLE.TXT")),
+                    listDirectory(fileSystem.getPath("/"), null));
+        }
+    }
+
+    @Test
+    public void testCopyMultiExtent() throws Exception {
+        URI multiExtentFileURI = URI.create("iso:" + ISOFileSystemProviderTest.class.getResource("/multiextent.iso").toURI().toString());
+        Path target = Files.createTempFile("large", ".bin");
+        try (FileSystem fileSystem = testee.newFileSystem(multiExtentFileURI, null)) {
+            testee.copy(fileSystem.getPath("/LARGE.BIN"), target, StandardCopyOption.REPLACE_EXISTING);
+            byte[] content = Files.readAllBytes(target);
+            assertEquals(4196, content.length);
+            assertEquals('A', content[2047]);
+            assertEquals('B', content[2048]);
+            assertEquals('C', content[4096]);
+        } finally {
+            Files.deleteIfExists(target);
+        }
+    }
+
+    @Test
+    public void testNewByteChannelMultiExtentMetadataIndex() throws Exception {
+        URI multiExtentFileURI = URI.create("iso:" + ISOFileSystemProviderTest.class.getResource("/multiextent.iso").toURI().toString());
+        try (FileSystem fileSystem = testee.newFileSystem(multiExtentFileURI, Map.of("metadataIndex", true))) {
+            Path path = fileSystem.getPath("/large.bin");
+            try (SeekableByteChannel byteChannel = testee.newByteChannel(path, Set.of(StandardOpenOption.READ))) {
+                assertEquals(4196, byteChannel.size());
+                byteChannel.position(4096);
+                ByteBuffer byteBuffer = ByteBuffer.allocate(200);
+                assertEquals(100, byteChannel.read(byteBuffer));
+                assertEquals('C', byteBuffer.get(99));
+            }
+            assertEquals(7, testee.readAttributes(fileSystem.getPath("/SINGLE.TXT"), BasicFileAttributes.class).size());
+        }
+    }
+
+    @Test
+    public void testNewByteChannelNoSuchFileException() throws Exception {
+        try (FileSystem fileSystem = testee.newFileSystem(isoFileURI, null)) {
+            Path path = fileSystem.getPath("/test1/missing.txt");
+            assertThrows(NoSuchFileException.class, () -> testee.newByteChannel(path, Set.of()));
+        }
     }
 
     @Test
-    @Disabled
     public void testNewDirectoryStream() throws Exception {
-        System.out.println("newDirectoryStream");
-        Path dir = null;
-        DirectoryStream.Filter<? super Path> filter = null;
-        ISOFileSystemProvider instance = new ISOFileSystemProvider();
-        DirectoryStream<Path> expResult = null;
-        DirectoryStream<Path> result = instance.newDirectoryStream(dir, filter);
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        try (FileSystem fileSystem = testee.newFileSystem(isoFileURI, null)) {
+            assertEquals(List.of(fileSystem.getPath("/foo.txt"), fileSystem.getPath("/test1")),
+                    listDirectory(fileSystem.getPath("/"), null));
+            assertEquals(List.of(fileSystem.getPath("/test1/bar.txt"), fileSystem.getPath("/test1/test2")),
+                    listDirectory(fileSystem.getPath("/test1"), null));
+            assertEquals(List.of(fileSystem.getPath("/test1/test2/foobar.txt")),
+                    listDirectory(fileSystem.getPath("/test1/test2"), null));
+        }
+    }
+
+    @Test
+    public void testNewDirectoryStreamFilter() throws Exception {
+        try (FileSystem fileSystem = testee.newFileSystem(isoFileURI, null)) {
+            assertEquals(List.of(fileSystem.getPath("/test1/test2")),
+                    listDirectory(fileSystem.getPath("/test1"), path -> path.getFileName().toString().startsWith("test")));
+        }
+    }
+
+    @Test
+    public void testNewDirectoryStreamNotDirectoryException() throws Exception {
+        try (FileSystem fileSystem = testee.newFileSystem(isoFileURI, null)) {
+            assertThrows(NotDirectoryException.class, () -> testee.newDirectoryStream(fileSystem.getPath("/test1/bar.txt"), null));
+            assertThrows(NoSuchFileException.class, () -> testee.newDirectoryStream(fileSystem.getPath("/missing"), null));
+        }
+    }
+
+    private List<Path> listDirectory(Path dir, DirectoryStream.Filter<? super Path> filter) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = testee.newDirectoryStream(dir, filter)) {
+            directoryStream.forEach(paths::add);
+        }
+        return paths;
     }
 
     @Test
@@ -144,15 +461,58 @@ public class ISOFileSystemProviderTest {
     }
 
     @Test
-    @Disabled
     public void testCopy() throws Exception {
-        System.out.println("copy");
-        Path source = null;
-        Path target = null;
-        CopyOption[] options = null;
-        ISOFileSystemProvider instance = new ISOFileSystemProvider();
-        instance.copy(source, target, options);
-        fail("The test case is a prototype.");
+        testCopy(null);
+    }
+
+    @Test
+    public void testCopyMemoryMapped() throws Exception {
+        testCopy(Map.of("mmap", true));
+    }
+
+    @Test
+    public void testCopyBlockCache() throws Exception {
+        testCopy(Map.of("blockCacheSize", 1024 * 1024));
+    }
+
+    private void testCopy(Map<String, ?> env) throws Exception {
+        Path targetDirectory = Files.createTempDirectory("iso-copy-test");
+        Path target = targetDirectory.resolve("foobar.txt");
+        try (FileSystem fileSystem = testee.newFileSystem(isoFileURI, env)) {
+            Path source = fileSystem.getPath("/test1/test2/foobar.txt");
+            testee.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+            assertEquals("foobar \n", new String(Files.readAllBytes(target), StandardCharsets.US_ASCII));
+            assertEquals(Files.getLastModifiedTime(source), Files.getLastModifiedTime(target));
+        } finally {
+            Files.deleteIfExists(target);
+            Files.delete(targetDirectory);
+        }
+    }
+
+    @Test
+    public void testCopyReplaceExisting() throws Exception {
+        Path target = Files.createTempFile("iso-copy-test", ".txt");
+        try (FileSystem fileSystem = testee.newFileSystem(isoFileURI, null)) {
+            Path source = fileSystem.getPath("/foo.txt");
+            assertThrows(FileAlreadyExistsException.class, () -> testee.copy(source, target));
+            testee.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            assertEquals("foo \n", new String(Files.readAllBytes(target), StandardCharsets.US_ASCII));
+        } finally {
+            Files.delete(target);
+        }
+    }
+
+    @Test
+    public void testCopyDirectory() throws Exception {
+        Path targetDirectory = Files.createTempDirectory("iso-copy-test");
+        Path target = targetDirectory.resolve("test1");
+        try (FileSystem fileSystem = testee.newFileSystem(isoFileURI, null)) {
+            testee.copy(fileSystem.getPath("/test1"), target);
+            assertTrue(Files.isDirectory(target));
+        } finally {
+            Files.deleteIfExists(target);
+            Files.delete(targetDirectory);
+        }
     }
 
     @Test
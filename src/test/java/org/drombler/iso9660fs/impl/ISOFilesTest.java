@@ -0,0 +1,222 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileVisitResult;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author puce
+ */
+public class ISOFilesTest {
+
+    private final ISOFileSystemProvider fileSystemProvider = new ISOFileSystemProvider();
+    private URI isoFileURI;
+    private URI jolietFileURI;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        isoFileURI = URI.create("iso:" + ISOFilesTest.class.getResource("/test.iso").toURI().toString());
+        jolietFileURI = URI.create("iso:" + ISOFilesTest.class.getResource("/joliet.iso").toURI().toString());
+    }
+
+    private static List<String> find(Path start, String syntaxAndPattern) throws Exception {
+        try (Stream<Path> paths = ISOFiles.find(start, syntaxAndPattern)) {
+            return paths.map(Path::toString).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testFind() throws Exception {
+        try (FileSystem fileSystem = fileSystemProvider.newFileSystem(isoFileURI, null)) {
+            Path root = fileSystem.getPath("/");
+            assertEquals(List.of("/foo.txt", "/test1/bar.txt", "/test1/test2/foobar.txt"), find(root, "glob:**.txt"));
+            assertEquals(List.of(), find(root, "glob:**/*.TXT"));
+            assertEquals(List.of("/foo.txt"), find(root, "glob:*.txt"));
+            assertEquals(List.of("/test1"), find(root, "glob:test*"));
+            assertEquals(List.of("/test1/test2/foobar.txt"), find(fileSystem.getPath("/test1"), "glob:*/*"));
+        }
+    }
+
+    @Test
+    public void testFindLiteralPrefix() throws Exception {
+        try (FileSystem fileSystem = fileSystemProvider.newFileSystem(isoFileURI, null)) {
+            Path root = fileSystem.getPath("/");
+            assertEquals(List.of("/test1/bar.txt", "/test1/test2"), find(root, "glob:test1/*"));
+            assertEquals(List.of(), find(root, "glob:TEST1/*"));
+            assertEquals(List.of("/test1/test2/foobar.txt"), find(root, "glob:test1/test2/{foo,bar}*.txt"));
+            assertEquals(List.of(), find(root, "glob:missing/*"));
+            assertEquals(List.of(), find(root, "glob:foo.txt/*"));
+        }
+    }
+
+    @Test
+    public void testFindRegex() throws Exception {
+        try (FileSystem fileSystem = fileSystemProvider.newFileSystem(isoFileURI, null)) {
+            assertEquals(List.of("/test1/bar.txt", "/test1/test2/foobar.txt"),
+                    find(fileSystem.getPath("/test1"), "regex:.*bar\\.txt"));
+        }
+    }
+
+    @Test
+    public void testFindCaseInsensitive() throws Exception {
+        try (FileSystem fileSystem = fileSystemProvider.newFileSystem(isoFileURI, Map.of("rockRidge", false))) {
+            Path root = fileSystem.getPath("/");
+            assertEquals(List.of("/test1/bar.txt", "/test1/test2/foobar.txt"), find(root, "glob:**/*.TXT"));
+            assertEquals(List.of("/TEST1/bar.txt", "/TEST1/test2"), find(root, "glob:TEST1/*"));
+            assertEquals(List.of("/test1/bar.txt", "/test1/test2/foobar.txt"),
+                    find(fileSystem.getPath("/test1"), "regex:.*BAR\\.txt"));
+        }
+    }
+
+    @Test
+    public void testFindNoSuchFile() throws Exception {
+        try (FileSystem fileSystem = fileSystemProvider.newFileSystem(isoFileURI, null)) {
+            assertThrows(NoSuchFileException.class, () -> ISOFiles.find(fileSystem.getPath("/missing"), "glob:*"));
+        }
+    }
+
+    @Test
+    public void testFindMetadataIndex() throws Exception {
+        try (FileSystem fileSystem = fileSystemProvider.newFileSystem(jolietFileURI, Map.of("metadataIndex", true))) {
+            assertEquals(List.of("/long directory name/Mixed Case File Name.txt"),
+                    find(fileSystem.getPath("/"), "glob:long directory name/*.txt"));
+        }
+    }
+
+    @Test
+    public void testWalk() throws Exception {
+        try (FileSystem fileSystem = fileSystemProvider.newFileSystem(isoFileURI, null)) {
+            List<String> expected = List.of("/", "/foo.txt", "/test1", "/test1/bar.txt", "/test1/test2",
+                    "/test1/test2/foobar.txt");
+            try (Stream<Path> paths = ISOFiles.walk(fileSystem.getPath("/"))) {
+                assertEquals(expected, paths.map(Path::toString).collect(Collectors.toList()));
+            }
+            try (Stream<Path> paths = ISOFiles.walk(fileSystem.getPath("/")).parallel()) {
+                assertEquals(expected, paths.map(Path::toString).collect(Collectors.toList()));
+            }
+            try (Stream<Path> paths = ISOFiles.walk(fileSystem.getPath("/"), 1)) {
+                assertEquals(List.of("/", "/foo.txt", "/test1"), paths.map(Path::toString).collect(Collectors.toList()));
+            }
+            try (Stream<Path> paths = ISOFiles.walk(fileSystem.getPath("/foo.txt"))) {
+                assertEquals(List.of("/foo.txt"), paths.map(Path::toString).collect(Collectors.toList()));
+            }
+        }
+    }
+
+    @Test
+    public void testWalkSplit() throws Exception {
+        try (FileSystem fileSystem = fileSystemProvider.newFileSystem(isoFileURI, null)) {
+            Spliterator<Path> suffix = ISOFiles.walk(fileSystem.getPath("/")).spliterator();
+            Spliterator<Path> prefix = suffix.trySplit();
+            assertNotNull(prefix);
+            List<String> paths = new ArrayList<>();
+            prefix.forEachRemaining(path -> paths.add(path.toString()));
+            assertEquals(List.of("/", "/foo.txt"), paths);
+            suffix.forEachRemaining(path -> paths.add(path.toString()));
+            assertEquals(List.of("/", "/foo.txt", "/test1", "/test1/bar.txt", "/test1/test2",
+                    "/test1/test2/foobar.txt"), paths);
+        }
+    }
+
+    @Test
+    public void testWalkFileTree() throws Exception {
+        try (FileSystem fileSystem = fileSystemProvider.newFileSystem(isoFileURI, null)) {
+            List<String> events = Collections.synchronizedList(new ArrayList<>());
+            ISOFiles.walkFileTree(fileSystem.getPath("/"), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    events.add("pre:" + dir);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    events.add("file:" + file + ":" + attrs.size());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                    events.add("post:" + dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            }, new ForkJoinPool(4));
+            assertEquals(9, events.size());
+            assertTrue(events.contains("file:/test1/bar.txt:5"));
+            assertTrue(events.indexOf("pre:/test1") < events.indexOf("file:/test1/test2/foobar.txt:8"));
+            assertTrue(events.indexOf("file:/test1/test2/foobar.txt:8") < events.indexOf("post:/test1"));
+            assertEquals("post:/", events.get(events.size() - 1));
+        }
+    }
+
+    @Test
+    public void testWalkFileTreeSkipSubtree() throws Exception {
+        try (FileSystem fileSystem = fileSystemProvider.newFileSystem(isoFileURI, null)) {
+            List<String> files = Collections.synchronizedList(new ArrayList<>());
+            ISOFiles.walkFileTree(fileSystem.getPath("/"), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return dir.endsWith("test2") ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    files.add(file.toString());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            assertEquals(2, files.size());
+            assertFalse(files.contains("/test1/test2/foobar.txt"));
+        }
+    }
+
+    @Test
+    public void testWalkFileTreeVisitorFailure() throws Exception {
+        try (FileSystem fileSystem = fileSystemProvider.newFileSystem(isoFileURI, null)) {
+            IOException failure = assertThrows(IOException.class, () -> ISOFiles.walkFileTree(fileSystem.getPath("/"),
+                    new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                            throw new IOException("failed: " + file);
+                        }
+                    }));
+            assertTrue(failure.getMessage().startsWith("failed: "));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author puce
+ */
+public class ISOMappedImageTest {
+
+    private static final int CHUNK_SIZE = 4096;
+
+    private ISOMappedImage testee;
+    private ISOFileChannelImage fileChannelImage;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Path isoFilePath = Paths.get(ISOMappedImageTest.class.getResource("/test.iso").toURI());
+        this.testee = new ISOMappedImage(FileChannel.open(isoFilePath, StandardOpenOption.READ), CHUNK_SIZE);
+        this.fileChannelImage = new ISOFileChannelImage(FileChannel.open(isoFilePath, StandardOpenOption.READ));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        testee.close();
+        fileChannelImage.close();
+    }
+
+    @Test
+    public void testSize() throws IOException {
+        assertEquals(fileChannelImage.size(), testee.size());
+    }
+
+    @Test
+    public void testReadWithinChunk() throws IOException {
+        assertEquals(fileChannelImage.read(16 * 2048, 2048), testee.read(16 * 2048, 2048));
+    }
+
+    @Test
+    public void testReadAcrossChunks() throws IOException {
+        long position = 3 * CHUNK_SIZE - 100;
+        assertEquals(fileChannelImage.read(position, CHUNK_SIZE + 200), testee.read(position, CHUNK_SIZE + 200));
+    }
+
+    @Test
+    public void testReadIntoBuffer() throws IOException {
+        long position = CHUNK_SIZE - 10;
+        ByteBuffer expected = ByteBuffer.allocate(20);
+        assertEquals(20, fileChannelImage.read(expected, position));
+        ByteBuffer result = ByteBuffer.allocate(20);
+        assertEquals(20, testee.read(result, position));
+        assertEquals(expected.flip(), result.flip());
+    }
+
+    @Test
+    public void testReadIntoBufferAtEnd() throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(20);
+        assertEquals(10, testee.read(byteBuffer, testee.size() - 10));
+        assertEquals(-1, testee.read(byteBuffer, testee.size()));
+    }
+
+    @Test
+    public void testTransferToAcrossChunks() throws IOException {
+        long position = CHUNK_SIZE - 100;
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertEquals(CHUNK_SIZE + 200, testee.transferTo(position, CHUNK_SIZE + 200, Channels.newChannel(outputStream)));
+        assertEquals(fileChannelImage.read(position, CHUNK_SIZE + 200), ByteBuffer.wrap(outputStream.toByteArray()));
+    }
+
+    @Test
+    public void testTransferToAtEnd() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertEquals(10, testee.transferTo(testee.size() - 10, 20, Channels.newChannel(outputStream)));
+        assertEquals(0, testee.transferTo(testee.size(), 20, Channels.newChannel(outputStream)));
+    }
+
+    @Test
+    public void testReadTooFewData() {
+        assertThrows(IOException.class, () -> testee.read(testee.size() - 10, 20));
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import org.drombler.iso9660fs.ISODirectoryRecord;
+import org.drombler.iso9660fs.ISOExtentMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author puce
+ */
+public class ISOMetadataIndexTest {
+
+    private final ISOFileSystemProvider fileSystemProvider = new ISOFileSystemProvider();
+    private ISOFileSystem fileSystem;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        URI isoFileURI = URI.create("iso:" + ISOMetadataIndexTest.class.getResource("/test.iso").toURI().toString());
+        this.fileSystem = (ISOFileSystem) fileSystemProvider.newFileSystem(isoFileURI, Map.of("metadataIndex", true));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        fileSystem.close();
+    }
+
+    @Test
+    public void testBuild() throws Exception {
+        ISOMetadataIndex testee = ISOMetadataIndex.build(fileSystem.getImage(), fileSystem.getPrimaryVolumeDescriptor());
+
+        assertEquals(6, testee.size()); // root, foo.txt, test1, bar.txt, test2, foobar.txt
+        assertTrue(testee.getMemoryUsage() >= testee.size() * ISOMetadataIndex.ENTRY_SIZE);
+    }
+
+    @Test
+    public void testLookup() throws Exception {
+        ISOMetadataIndex testee = ISOMetadataIndex.build(fileSystem.getImage(), fileSystem.getPrimaryVolumeDescriptor());
+
+        assertEquals(0, testee.lookup(fileSystem.getPath("/")));
+        int entryIndex = testee.lookup(fileSystem.getPath("/test1/test2/foobar.txt"));
+        assertTrue(entryIndex > 0);
+        assertFalse(testee.isDirectory(entryIndex));
+        assertTrue(testee.isDirectory(testee.lookup(fileSystem.getPath("/test1/test2"))));
+        assertEquals(-1, testee.lookup(fileSystem.getPath("/test1/foo.txt")));
+        assertEquals(-1, testee.lookup(fileSystem.getPath("/foo.txt/bar.txt")));
+    }
+
+    @Test
+    public void testGetDirectoryRecord() throws Exception {
+        ISOMetadataIndex testee = ISOMetadataIndex.build(fileSystem.getImage(), fileSystem.getPrimaryVolumeDescriptor());
+        ISODirectoryRecord expected = fileSystem.getPrimaryVolumeDescriptor().getRootDirectoryDescriptor()
+                .findChild(fileSystem.getImage(), fileSystem.getPrimaryVolumeDescriptor(), "foo.txt");
+
+        ISODirectoryRecord directoryRecord = testee.getDirectoryRecord(testee.lookup(fileSystem.getPath("/foo.txt")));
+
+        assertEquals(expected.getFileIdentifier(), directoryRecord.getFileIdentifier());
+        assertEquals(expected.getLocationOfExtend(), directoryRecord.getLocationOfExtend());
+        assertEquals(expected.getDataLength(), directoryRecord.getDataLength());
+        assertEquals(expected.getRecordingDateTime(), directoryRecord.getRecordingDateTime());
+        assertEquals(expected.getFileFlags(), directoryRecord.getFileFlags());
+        assertEquals(expected.getVolumeSequenceNumber(), directoryRecord.getVolumeSequenceNumber());
+    }
+
+    @Test
+    public void testChildIterator() throws Exception {
+        ISOMetadataIndex testee = ISOMetadataIndex.build(fileSystem.getImage(), fileSystem.getPrimaryVolumeDescriptor());
+
+        List<String> fileNames = new ArrayList<>();
+        Iterator<ISODirectoryRecord> iterator = testee.childIterator(testee.lookup(fileSystem.getPath("/test1")));
+        while (iterator.hasNext()) {
+            fileNames.add(iterator.next().getFileName());
+        }
+
+        assertEquals(List.of("bar.txt", "test2"), fileNames); // Rock Ridge names
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        ISOMetadataIndex testee = ISOMetadataIndex.build(fileSystem.getImage(), fileSystem.getPrimaryVolumeDescriptor());
+        Path directory = Files.createTempDirectory("iso-metadata-index-test");
+        Path indexFile = directory.resolve("test.iso.index");
+        try {
+            BasicFileAttributes imageAttributes = Files.readAttributes(fileSystem.getFileSystemPath(), BasicFileAttributes.class);
+            testee.write(indexFile, imageAttributes, 42);
+
+            ISOMetadataIndex index = ISOMetadataIndex.read(indexFile, imageAttributes, fileSystem.getPrimaryVolumeDescriptor(), 42);
+
+            assertNotNull(index);
+            assertEquals(testee.size(), index.size());
+            assertEquals(testee.getMemoryUsage(), index.getMemoryUsage());
+            Path path = fileSystem.getPath("/test1/test2/foobar.txt");
+            assertEquals(testee.lookup(path), index.lookup(path));
+            assertEquals(testee.getDirectoryRecord(testee.lookup(path)), index.getDirectoryRecord(index.lookup(path)));
+            assertEquals(List.of(indexFile), listFiles(directory)); // no temporary files left
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    public void testWriteMultiExtentLittleEndian() throws Exception {
+        URI isoFileURI = URI.create("iso:" + ISOMetadataIndexTest.class.getResource("/multiextent.iso").toURI().toString());
+        Path directory = Files.createTempDirectory("iso-metadata-index-test");
+        Path indexFile = directory.resolve("multiextent.iso.index");
+        try (ISOFileSystem multiExtentFileSystem = (ISOFileSystem) fileSystemProvider.newFileSystem(isoFileURI, null)) {
+            ISOMetadataIndex testee = ISOMetadataIndex.build(multiExtentFileSystem.getImage(), multiExtentFileSystem.getPrimaryVolumeDescriptor());
+            BasicFileAttributes imageAttributes = Files.readAttributes(multiExtentFileSystem.getFileSystemPath(), BasicFileAttributes.class);
+            testee.write(indexFile, imageAttributes, 42);
+
+            ISOExtentMap extentMap = testee.getDirectoryRecord(testee.lookup(multiExtentFileSystem.getPath("/LARGE.BIN"))).getExtentMap();
+            ByteBuffer expectedExtents = ByteBuffer.allocate(4 + 8 * extentMap.getNumExtents()).order(ByteOrder.LITTLE_ENDIAN);
+            expectedExtents.putInt(extentMap.getNumExtents());
+            for (int i = 0; i < extentMap.getNumExtents(); i++) {
+                expectedExtents.putInt((int) extentMap.getDataLocation(i));
+                expectedExtents.putInt((int) extentMap.getDataLength(i));
+            }
+            assertEquals(3, extentMap.getNumExtents());
+            assertTrue(indexOf(Files.readAllBytes(indexFile), expectedExtents.array()) > 0);
+
+            ISOMetadataIndex index = ISOMetadataIndex.read(indexFile, imageAttributes, multiExtentFileSystem.getPrimaryVolumeDescriptor(), 42);
+            Path path = multiExtentFileSystem.getPath("/LARGE.BIN");
+            assertEquals(4196, index.getDirectoryRecord(index.lookup(path)).getExtentMap().getSize());
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern) {
+        for (int index = 0; index + pattern.length <= data.length; index++) {
+            if (Arrays.equals(data, index, index + pattern.length, pattern, 0, pattern.length)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void testReadInvalid() throws Exception {
+        ISOMetadataIndex testee = ISOMetadataIndex.build(fileSystem.getImage(), fileSystem.getPrimaryVolumeDescriptor());
+        Path directory = Files.createTempDirectory("iso-metadata-index-test");
+        Path indexFile = directory.resolve("test.iso.index");
+        try {
+            BasicFileAttributes imageAttributes = Files.readAttributes(fileSystem.getFileSystemPath(), BasicFileAttributes.class);
+            assertNull(ISOMetadataIndex.read(indexFile, imageAttributes, fileSystem.getPrimaryVolumeDescriptor(), 42));
+
+            testee.write(indexFile, imageAttributes, 42);
+            assertNull(ISOMetadataIndex.read(indexFile, imageAttributes, fileSystem.getPrimaryVolumeDescriptor(), 43));
+
+            byte[] bytes = Files.readAllBytes(indexFile);
+            bytes[bytes.length - 1] ^= 1;
+            Files.write(indexFile, bytes);
+            assertNull(ISOMetadataIndex.read(indexFile, imageAttributes, fileSystem.getPrimaryVolumeDescriptor(), 42));
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    public void testPersistentMetadataIndex() throws Exception {
+        Path directory = Files.createTempDirectory("iso-metadata-index-test");
+        try {
+            URI isoFileURI = URI.create("iso:" + ISOMetadataIndexTest.class.getResource("/test.iso").toURI().toString());
+            for (int i = 0; i < 2; i++) {
+                try (FileSystem persistentFileSystem = new ISOFileSystemProvider().newFileSystem(isoFileURI,
+                        Map.of("metadataIndexDirectory", directory))) {
+                    assertEquals(1, listFiles(directory).size());
+                    assertEquals(List.of(persistentFileSystem.getPath("/foo.txt"), persistentFileSystem.getPath("/test1")),
+                            listDirectory(persistentFileSystem.getPath("/")));
+                    assertTrue(Files.isDirectory(persistentFileSystem.getPath("/test1/test2")));
+                }
+            }
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    public void testPersistentIndexNotWritable() throws Exception {
+        // the index directory can't be created below a regular file
+        Path file = Files.createTempFile("metadata-index", ".tmp");
+        try {
+            URI isoFileURI = URI.create("iso:" + ISOMetadataIndexTest.class.getResource("/test.iso").toURI().toString());
+            try (FileSystem persistentFileSystem = new ISOFileSystemProvider().newFileSystem(isoFileURI,
+                    Map.of("metadataIndexDirectory", file.resolve("index")))) {
+                assertEquals(List.of(persistentFileSystem.getPath("/foo.txt"), persistentFileSystem.getPath("/test1")),
+                        listDirectory(persistentFileSystem.getPath("/")));
+                assertTrue(Files.isDirectory(persistentFileSystem.getPath("/test1/test2")));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<Path> listDirectory(Path dir) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(dir)) {
+            directoryStream.forEach(paths::add);
+        }
+        return paths;
+    }
+
+    private static List<Path> listFiles(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.collect(Collectors.toList());
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        for (Path path : listFiles(directory)) {
+            Files.delete(path);
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testFileSystem() throws Exception {
+        try (SeekableByteChannel byteChannel = fileSystemProvider.newByteChannel(fileSystem.getPath("/test1/test2/foobar.txt"),
+                Set.of(StandardOpenOption.READ))) {
+            ByteBuffer byteBuffer = ByteBuffer.allocate(100);
+            assertEquals(8, byteChannel.read(byteBuffer));
+            assertEquals("foobar \n", new String(byteBuffer.array(), 0, 8, StandardCharsets.US_ASCII));
+        }
+
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = fileSystemProvider.newDirectoryStream(fileSystem.getPath("/test1"), null)) {
+            directoryStream.forEach(paths::add);
+        }
+        assertEquals(List.of(fileSystem.getPath("/test1/bar.txt"), fileSystem.getPath("/test1/test2")), paths);
+
+        assertThrows(NoSuchFileException.class, () -> fileSystemProvider.newByteChannel(fileSystem.getPath("/test1/foo.txt"), Set.of()));
+        assertThrows(NotDirectoryException.class, () -> fileSystemProvider.newDirectoryStream(fileSystem.getPath("/foo.txt"), null));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author puce
+ */
+public class ISOPathMatcherTest {
+
+    private ISOFileSystem fileSystem;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        URI isoFileURI = URI.create("iso:" + ISOPathMatcherTest.class.getResource("/test.iso").toURI().toString());
+        fileSystem = (ISOFileSystem) new ISOFileSystemProvider().newFileSystem(isoFileURI,
+                Map.of("rockRidge", false));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        fileSystem.close();
+    }
+
+    private boolean matches(String syntaxAndPattern, String path) {
+        return fileSystem.getPathMatcher(syntaxAndPattern).matches(fileSystem.getPath(path));
+    }
+
+    @Test
+    public void testGlob() {
+        assertTrue(matches("glob:*.txt", "foo.txt"));
+        assertTrue(matches("glob:*.txt", "FOO.TXT"));
+        assertFalse(matches("glob:*.txt", "a/foo.txt"));
+        assertTrue(matches("glob:**/*.txt", "a/b/foo.txt"));
+        assertFalse(matches("glob:**/*.txt", "foo.txt"));
+        assertTrue(matches("glob:/A/**", "/a/b/c"));
+        assertTrue(matches("glob:?.txt", "a.txt"));
+        assertFalse(matches("glob:?.txt", "ab.txt"));
+        assertTrue(matches("glob:{foo,bar}.txt", "bar.txt"));
+        assertFalse(matches("glob:{foo,bar}.txt", "baz.txt"));
+        assertTrue(matches("glob:file[0-9].dat", "file7.dat"));
+        assertFalse(matches("glob:file[!0-9].dat", "file7.dat"));
+        assertTrue(matches("glob:file[!0-9].dat", "fileX.dat"));
+        assertTrue(matches("glob:a\\*b(1).txt", "a*b(1).txt"));
+        assertFalse(matches("glob:a\\*b(1).txt", "axb(1).txt"));
+    }
+
+    @Test
+    public void testRegex() {
+        assertTrue(matches("regex:FOO\\.TXT", "foo.txt"));
+        assertTrue(matches("regex:.*/bar\\.txt", "/test1/bar.txt"));
+        assertFalse(matches("regex:bar", "/test1/bar.txt"));
+    }
+
+    @Test
+    public void testCaseSensitive() {
+        ISOPathMatcher matcher = ISOPathMatcher.compile("glob:**/*.txt", true);
+        assertTrue(matcher.matches(fileSystem.getPath("/test1/bar.txt")));
+        assertFalse(matcher.matches(fileSystem.getPath("/TEST1/BAR.TXT")));
+        matcher = ISOPathMatcher.compile("regex:/test1/.*", true);
+        assertTrue(matcher.matches(fileSystem.getPath("/test1/bar.txt")));
+        assertFalse(matcher.matches(fileSystem.getPath("/TEST1/bar.txt")));
+    }
+
+    @Test
+    public void testInvalidPattern() {
+        assertThrows(IllegalArgumentException.class, () -> fileSystem.getPathMatcher("*.txt"));
+        assertThrows(UnsupportedOperationException.class, () -> fileSystem.getPathMatcher("foo:*.txt"));
+        assertThrows(PatternSyntaxException.class, () -> fileSystem.getPathMatcher("glob:{a,{b}}"));
+        assertThrows(PatternSyntaxException.class, () -> fileSystem.getPathMatcher("glob:[a/b]"));
+        assertThrows(PatternSyntaxException.class, () -> fileSystem.getPathMatcher("glob:[ab"));
+        assertThrows(PatternSyntaxException.class, () -> fileSystem.getPathMatcher("regex:[ab"));
+    }
+
+    @Test
+    public void testGetLiteralPrefix() {
+        assertArrayEquals(new String[]{"Packages", "x86"},
+                ISOPathMatcher.compile("glob:Packages/x86/*.rpm").getLiteralPrefix());
+        assertArrayEquals(new String[]{"a"}, ISOPathMatcher.compile("glob:a/*/c/*.txt").getLiteralPrefix());
+        assertArrayEquals(new String[]{"a b"}, ISOPathMatcher.compile("glob:a\\ b/c").getLiteralPrefix());
+        assertArrayEquals(new String[0], ISOPathMatcher.compile("glob:**/*.rpm").getLiteralPrefix());
+        assertArrayEquals(new String[]{"a"}, ISOPathMatcher.compile("glob:a/b").getLiteralPrefix());
+        assertArrayEquals(new String[0], ISOPathMatcher.compile("glob:/a/b/c").getLiteralPrefix());
+        assertArrayEquals(new String[0], ISOPathMatcher.compile("regex:a/b/c").getLiteralPrefix());
+    }
+
+    @Test
+    public void testMayMatchBelow() {
+        ISOPathMatcher matcher = ISOPathMatcher.compile("glob:a/*/c");
+        assertTrue(matcher.mayMatchBelow((ISOPath) fileSystem.getPath("A")));
+        assertFalse(matcher.mayMatchBelow((ISOPath) fileSystem.getPath("b")));
+        assertTrue(matcher.mayMatchBelow((ISOPath) fileSystem.getPath("a/b")));
+        assertFalse(matcher.mayMatchBelow((ISOPath) fileSystem.getPath("a/b/c")));
+
+        matcher = ISOPathMatcher.compile("glob:a/**/c");
+        assertFalse(matcher.mayMatchBelow((ISOPath) fileSystem.getPath("b")));
+        assertTrue(matcher.mayMatchBelow((ISOPath) fileSystem.getPath("a/b/c/d/e")));
+    }
+}
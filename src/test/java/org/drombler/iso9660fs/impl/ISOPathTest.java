@@ -16,15 +16,30 @@ package org.drombler.iso9660fs.impl;
 
 import java.io.File;
 import java.net.URI;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
@@ -32,10 +47,24 @@ import org.junit.jupiter.api.Test;
  *
  * @author puce
  */
-@Disabled
 public class ISOPathTest {
 
+    private final ISOFileSystemProvider fileSystemProvider = new ISOFileSystemProvider();
+    private ISOFileSystem fileSystem;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        URI isoFileURI = URI.create("iso:" + ISOPathTest.class.getResource("/test.iso").toURI().toString());
+        fileSystem = (ISOFileSystem) fileSystemProvider.newFileSystem(isoFileURI, Map.of("rockRidge", false));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        fileSystem.close();
+    }
+
     @Test
+    @Disabled
     public void testGetFileSystem() {
         System.out.println("getFileSystem");
         ISOPath instance = null;
@@ -47,89 +76,70 @@ public class ISOPathTest {
 
     @Test
     public void testIsAbsolute() {
-        System.out.println("isAbsolute");
-        ISOPath instance = null;
-        boolean expResult = false;
-        boolean result = instance.isAbsolute();
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        assertTrue(fileSystem.getPath("/").isAbsolute());
+        assertTrue(fileSystem.getPath("/A/B").isAbsolute());
+        assertFalse(fileSystem.getPath("A/B").isAbsolute());
     }
 
     @Test
     public void testGetRoot() {
-        System.out.println("getRoot");
-        ISOPath instance = null;
-        Path expResult = null;
-        Path result = instance.getRoot();
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        assertSame(fileSystem.getRootDirectory(), fileSystem.getPath("/").getRoot());
+        assertSame(fileSystem.getRootDirectory(), fileSystem.getPath("/A/B").getRoot());
+        assertNull(fileSystem.getPath("A/B").getRoot());
     }
 
     @Test
     public void testGetFileName() {
-        System.out.println("getFileName");
-        ISOPath instance = null;
-        ISOPath expResult = null;
-        ISOPath result = instance.getFileName();
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        Path fileName = fileSystem.getPath("/A/B").getFileName();
+        assertEquals("B", fileName.toString());
+        assertFalse(fileName.isAbsolute());
+        assertEquals(1, fileName.getNameCount());
     }
 
     @Test
     public void testGetParent() {
-        System.out.println("getParent");
-        ISOPath instance = null;
-        ISOPath expResult = null;
-        ISOPath result = instance.getParent();
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        Path parent = fileSystem.getPath("/A/B");
+        Path path = parent.resolve("C");
+        assertSame(parent, path.getParent());
+        assertSame(fileSystem.getRootDirectory(), fileSystem.getPath("/A").getParent());
+        assertNull(fileSystem.getPath("/").getParent());
+        assertNull(fileSystem.getPath("A").getParent());
     }
 
     @Test
     public void testGetNameCount() {
-        System.out.println("getNameCount");
-        ISOPath instance = null;
-        int expResult = 0;
-        int result = instance.getNameCount();
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        assertEquals(0, fileSystem.getPath("/").getNameCount());
+        assertEquals(2, fileSystem.getPath("/A/B").getNameCount());
+        assertEquals(2, fileSystem.getPath("A/B").getNameCount());
     }
 
     @Test
     public void testGetName() {
-        System.out.println("getName");
-        int index = 0;
-        ISOPath instance = null;
-        ISOPath expResult = null;
-        ISOPath result = instance.getName(index);
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        Path path = fileSystem.getPath("/A/B/C");
+        assertEquals("A", path.getName(0).toString());
+        assertEquals("B", path.getName(1).toString());
+        assertEquals("C", path.getName(2).toString());
+        assertThrows(IllegalArgumentException.class, () -> path.getName(3));
     }
 
     @Test
     public void testSubpath() {
-        System.out.println("subpath");
-        int beginIndex = 0;
-        int endIndex = 0;
-        ISOPath instance = null;
-        Path expResult = null;
-        Path result = instance.subpath(beginIndex, endIndex);
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        Path path = fileSystem.getPath("/A/B/C/D");
+        assertEquals(fileSystem.getPath("B/C"), path.subpath(1, 3));
+        assertEquals(fileSystem.getPath("A/B/C/D"), path.subpath(0, 4));
     }
 
     @Test
     public void testStartsWith_Path() {
-        System.out.println("startsWith");
-        Path other = null;
-        ISOPath instance = null;
-        boolean expResult = false;
-        boolean result = instance.startsWith(other);
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        Path path = fileSystem.getPath("/A/B/C");
+        assertTrue(path.startsWith(fileSystem.getPath("/")));
+        assertTrue(path.startsWith(fileSystem.getPath("/a/b")));
+        assertFalse(path.startsWith(fileSystem.getPath("/A/C")));
+        assertFalse(path.startsWith(fileSystem.getPath("A/B")));
     }
 
     @Test
+    @Disabled
     public void testStartsWith_String() {
         System.out.println("startsWith");
         String other = "";
@@ -142,16 +152,15 @@ public class ISOPathTest {
 
     @Test
     public void testEndsWith_Path() {
-        System.out.println("endsWith");
-        Path other = null;
-        ISOPath instance = null;
-        boolean expResult = false;
-        boolean result = instance.endsWith(other);
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        Path path = fileSystem.getPath("/A/B/C");
+        assertTrue(path.endsWith(fileSystem.getPath("b/c")));
+        assertTrue(path.endsWith(fileSystem.getPath("/A/B/C")));
+        assertFalse(path.endsWith(fileSystem.getPath("/B/C")));
+        assertFalse(path.endsWith(fileSystem.getPath("A/C")));
     }
 
     @Test
+    @Disabled
     public void testEndsWith_String() {
         System.out.println("endsWith");
         String other = "";
@@ -164,15 +173,18 @@ public class ISOPathTest {
 
     @Test
     public void testNormalize() {
-        System.out.println("normalize");
-        ISOPath instance = null;
-        Path expResult = null;
-        Path result = instance.normalize();
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        Path path = fileSystem.getPath("/A/B");
+        assertSame(path, path.normalize());
+        assertEquals(fileSystem.getPath("/A/B"), fileSystem.getPath("/A/./B").normalize());
+        assertEquals(fileSystem.getPath("/B"), fileSystem.getPath("/A/../B").normalize());
+        assertEquals(fileSystem.getPath("C"), fileSystem.getPath("A/./B/../../C").normalize());
+        assertEquals(fileSystem.getPath("../B"), fileSystem.getPath("A/../../B").normalize());
+        assertEquals(fileSystem.getPath("../../A"), fileSystem.getPath("../../A/B/..").normalize());
+        assertEquals(fileSystem.getPath("A"), fileSystem.getPath("./A").normalize());
     }
 
     @Test
+    @Disabled
     public void testResolve_Path() {
         System.out.println("resolve");
         Path other = null;
@@ -184,6 +196,7 @@ public class ISOPathTest {
     }
 
     @Test
+    @Disabled
     public void testResolve_String() {
         System.out.println("resolve");
         String other = "";
@@ -195,6 +208,7 @@ public class ISOPathTest {
     }
 
     @Test
+    @Disabled
     public void testResolveSibling_Path() {
         System.out.println("resolveSibling");
         Path other = null;
@@ -206,6 +220,7 @@ public class ISOPathTest {
     }
 
     @Test
+    @Disabled
     public void testResolveSibling_String() {
         System.out.println("resolveSibling");
         String other = "";
@@ -217,6 +232,7 @@ public class ISOPathTest {
     }
 
     @Test
+    @Disabled
     public void testRelativize() {
         System.out.println("relativize");
         Path other = null;
@@ -228,6 +244,7 @@ public class ISOPathTest {
     }
 
     @Test
+    @Disabled
     public void testToUri() {
         System.out.println("toUri");
         ISOPath instance = null;
@@ -238,6 +255,7 @@ public class ISOPathTest {
     }
 
     @Test
+    @Disabled
     public void testToAbsolutePath() {
         System.out.println("toAbsolutePath");
         ISOPath instance = null;
@@ -248,6 +266,7 @@ public class ISOPathTest {
     }
 
     @Test
+    @Disabled
     public void testToRealPath() throws Exception {
         System.out.println("toRealPath");
         LinkOption[] options = null;
@@ -259,6 +278,7 @@ public class ISOPathTest {
     }
 
     @Test
+    @Disabled
     public void testToFile() {
         System.out.println("toFile");
         ISOPath instance = null;
@@ -269,6 +289,7 @@ public class ISOPathTest {
     }
 
     @Test
+    @Disabled
     public void testRegister_3args() throws Exception {
         System.out.println("register");
         WatchService watcher = null;
@@ -282,6 +303,7 @@ public class ISOPathTest {
     }
 
     @Test
+    @Disabled
     public void testRegister_WatchService_WatchEventKindArr() throws Exception {
         System.out.println("register");
         WatchService watcher = null;
@@ -295,15 +317,15 @@ public class ISOPathTest {
 
     @Test
     public void testIterator() {
-        System.out.println("iterator");
-        ISOPath instance = null;
-        Iterator<Path> expResult = null;
-        Iterator<Path> result = instance.iterator();
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        List<String> fileNames = new ArrayList<>();
+        for (Path fileName : fileSystem.getPath("/A/B/C")) {
+            fileNames.add(fileName.toString());
+        }
+        assertEquals(List.of("A", "B", "C"), fileNames);
     }
 
     @Test
+    @Disabled
     public void testCompareTo() {
         System.out.println("compareTo");
         Path other = null;
@@ -316,33 +338,86 @@ public class ISOPathTest {
 
     @Test
     public void testHashCode() {
-        System.out.println("hashCode");
-        ISOPath instance = null;
-        int expResult = 0;
-        int result = instance.hashCode();
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        assertEquals(fileSystem.getPath("/FOO/BAR.TXT").hashCode(), fileSystem.getPath("/foo/Bar.txt").hashCode());
+        assertEquals(fileSystem.getPath("/FOO").resolve("BAR.TXT").hashCode(), fileSystem.getPath("/FOO/BAR.TXT").hashCode());
+        assertNotEquals(fileSystem.getPath("/FOO").hashCode(), fileSystem.getPath("FOO").hashCode());
     }
 
     @Test
     public void testEquals() {
-        System.out.println("equals");
-        Object obj = null;
-        ISOPath instance = null;
-        boolean expResult = false;
-        boolean result = instance.equals(obj);
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        assertEquals(fileSystem.getPath("/FOO/BAR.TXT"), fileSystem.getPath("/foo/Bar.txt"));
+        assertEquals(fileSystem.getPath("/FOO").resolve("BAR.TXT"), fileSystem.getPath("/FOO/BAR.TXT"));
+        assertNotEquals(fileSystem.getPath("/FOO"), fileSystem.getPath("FOO"));
+        assertNotEquals(fileSystem.getPath("/FOO/BAR"), fileSystem.getPath("/BAR/BAR"));
+        assertNotEquals(fileSystem.getPath("/FOO/BAR"), fileSystem.getPath("/FOO"));
+
+        Set<Path> paths = new HashSet<>();
+        paths.add(fileSystem.getPath("/FOO/BAR.TXT"));
+        assertTrue(paths.contains(fileSystem.getPath("/foo/bar.txt")));
+    }
+
+    @Test
+    public void testEqualsRockRidge() throws Exception {
+        URI rockRidgeFileURI = URI.create("iso:" + ISOPathTest.class.getResource("/rockridge.iso").toURI().toString());
+        try (FileSystem rockRidgeFileSystem = fileSystemProvider.newFileSystem(rockRidgeFileURI, null)) {
+            Path path = rockRidgeFileSystem.getPath("/Read Me.txt");
+            assertNotEquals(path, rockRidgeFileSystem.getPath("/read me.txt"));
+            assertEquals(path, rockRidgeFileSystem.getPath("/").resolve("Read Me.txt"));
+            assertEquals(path.hashCode(), rockRidgeFileSystem.getPath("/").resolve("Read Me.txt").hashCode());
+            assertNotEquals(0, path.compareTo(rockRidgeFileSystem.getPath("/read me.txt")));
+        }
     }
 
     @Test
     public void testToString() {
-        System.out.println("toString");
-        ISOPath instance = null;
-        String expResult = "";
-        String result = instance.toString();
-        assertEquals(expResult, result);
-        fail("The test case is a prototype.");
+        Path path = fileSystem.getPath("/A/B/C");
+        assertEquals("/A/B/C", path.toString());
+        assertSame(path.toString(), path.toString());
+        assertEquals("/", fileSystem.getPath("/").toString());
+        assertEquals("A/B", fileSystem.getPath("A/B").toString());
+    }
+
+    @Test
+    public void testParse() {
+        assertSame(fileSystem.getRootDirectory(), fileSystem.getPath("/"));
+        assertSame(fileSystem.getEmptyPath(), fileSystem.getPath(""));
+        assertSame(fileSystem.getCurrentDirectory(), fileSystem.getPath("."));
+        assertSame(fileSystem.getParentDirectory(), fileSystem.getPath(".."));
+        assertEquals("/A/B/C", fileSystem.getPath("/A/B/C").toString());
+        assertEquals("A/B", fileSystem.getPath("A/B").toString());
+        assertEquals("/A/B/C", fileSystem.getPath("/A", "B/C").toString());
+        assertEquals("/A/B", fileSystem.getPath("/", "A", "", "B").toString());
+        assertEquals("A/B", fileSystem.getPath("", "A", "B").toString());
+        assertEquals(3, fileSystem.getPath("/A", "B", "C").getNameCount());
+    }
+
+    @Test
+    public void testParseInvalid() {
+        assertEquals(3, assertThrows(InvalidPathException.class, () -> fileSystem.getPath("/A/")).getIndex());
+        assertEquals(2, assertThrows(InvalidPathException.class, () -> fileSystem.getPath("A//B")).getIndex());
+        assertEquals(2, assertThrows(InvalidPathException.class, () -> fileSystem.getPath("A", "/B")).getIndex());
+        assertEquals(1, assertThrows(InvalidPathException.class, () -> fileSystem.getPath("//")).getIndex());
+        assertEquals("A/\0", assertThrows(InvalidPathException.class, () -> fileSystem.getPath("A", "\0")).getInput());
+    }
+
+    @Test
+    public void testInternedFileNames() throws Exception {
+        int numInternedFileNames = fileSystem.getNumInternedFileNames();
+        for (int i = 0; i < 1000; i++) {
+            fileSystem.getPath("/TEST1", "MISSING" + i).resolve("CHILD" + i);
+        }
+        assertEquals(numInternedFileNames, fileSystem.getNumInternedFileNames());
+
+        List<Path> paths1 = new ArrayList<>();
+        List<Path> paths2 = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(fileSystem.getPath("/"))) {
+            directoryStream.forEach(paths1::add);
+        }
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(fileSystem.getPath("/"))) {
+            directoryStream.forEach(paths2::add);
+        }
+        assertTrue(fileSystem.getNumInternedFileNames() > numInternedFileNames);
+        assertSame(((ISOPath) paths1.get(0)).getFileNames()[0], ((ISOPath) paths2.get(0)).getFileNames()[0]);
     }
 
 }
@@ -0,0 +1,98 @@
+/*
+ *         COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL) Notice
+ *
+ * The contents of this file are subject to the COMMON DEVELOPMENT AND DISTRIBUTION LICENSE (CDDL)
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. A copy of the License is available at
+ * http://www.opensource.org/licenses/cddl1.txt
+ *
+ * The Original Code is Drombler.org. The Initial Developer of the
+ * Original Code is Florian Brunner (Sourceforge.net user: puce).
+ * Copyright 2020 Drombler.org. All Rights Reserved.
+ *
+ * Contributor(s): .
+ */
+package org.drombler.iso9660fs.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author puce
+ */
+public class SegmentedLRUMapTest {
+
+    private final List<Integer> evictedKeys = new ArrayList<>();
+    private final SegmentedLRUMap<Integer, String> testee = new SegmentedLRUMap<>(10, (key, value) -> evictedKeys.add(key));
+
+    @Test
+    public void testGet() {
+        testee.put(1, "a");
+        assertEquals("a", testee.get(1));
+        assertEquals("a", testee.get(1));
+        assertNull(testee.get(2));
+    }
+
+    @Test
+    public void testPutEvictsLeastRecentlyUsed() {
+        for (int key = 0; key < 15; key++) {
+            testee.put(key, "v" + key);
+        }
+        assertEquals(10, testee.size());
+        assertEquals(List.of(0, 1, 2, 3, 4), evictedKeys);
+    }
+
+    @Test
+    public void testScanResistance() {
+        // hot entries
+        for (int key = 0; key < 5; key++) {
+            testee.put(key, "hot" + key);
+            testee.get(key);
+        }
+        // scan
+        for (int key = 100; key < 200; key++) {
+            testee.put(key, "cold" + key);
+        }
+        for (int key = 0; key < 5; key++) {
+            assertTrue(testee.containsKey(key), "hot entry evicted: " + key);
+        }
+        assertFalse(evictedKeys.stream().anyMatch(key -> key < 5));
+        assertEquals(10, testee.size());
+    }
+
+    @Test
+    public void testScanResistanceRepeatedAccess() {
+        // hot entries
+        for (int key = 0; key < 5; key++) {
+            testee.put(key, "hot" + key);
+            testee.get(key);
+        }
+        // scan accessing each entry several times in a row
+        for (int key = 100; key < 200; key++) {
+            testee.put(key, "cold" + key);
+            assertEquals("cold" + key, testee.get(key, false));
+            assertEquals("cold" + key, testee.get(key, false));
+        }
+        for (int key = 0; key < 5; key++) {
+            assertTrue(testee.containsKey(key), "hot entry evicted: " + key);
+        }
+        assertEquals(10, testee.size());
+    }
+
+    @Test
+    public void testRemove() {
+        testee.put(1, "a");
+        testee.get(1);
+        testee.put(2, "b");
+        assertEquals("a", testee.remove(1));
+        assertEquals("b", testee.remove(2));
+        assertEquals(0, testee.size());
+        assertTrue(evictedKeys.isEmpty());
+    }
+}